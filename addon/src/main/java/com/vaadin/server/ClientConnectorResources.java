@@ -2,6 +2,7 @@ package com.vaadin.server;
 
 /**
  * Utility class to attach resources to any using protected method {@link AbstractClientConnector#setResource(String, Resource)}
+ * and to read them back using protected method {@link AbstractClientConnector#getResource(String)}
  */
 public final class ClientConnectorResources {
     private ClientConnectorResources() {
@@ -10,4 +11,8 @@ public final class ClientConnectorResources {
     public static void setResource(AbstractClientConnector component, String key, Resource resource) {
         component.setResource(key, resource);
     }
+
+    public static Resource getResource(AbstractClientConnector component, String key) {
+        return component.getResource(key);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.vaadin.event.dd.DropHandler;
+import com.vaadin.event.dd.acceptcriteria.AcceptCriterion;
+import com.vaadin.server.ClientConnector.DetachEvent;
+import com.vaadin.server.ClientConnector.DetachListener;
+import com.vaadin.server.PaintException;
+import com.vaadin.server.PaintTarget;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.shared.Registration;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.ConnectorTracker;
+import com.vaadin.ui.UI;
+
+/**
+ * Sends the accept criteria of the drop handlers of a UI to the client only
+ * once. Every drop handler gets an id which the layouts using it put into
+ * their shared state, the criterion itself is painted only by the first
+ * layout painted after the criterion was registered or changed. The client
+ * keeps the criteria of the ids it has received and the drop handlers look
+ * them up by id.
+ * <p>
+ * A changed criterion is detected by identity, drop handlers returning a new
+ * criterion on every call work but resend the criterion every time. The
+ * criteria are resent when the client side of the UI is reinitialized, for
+ * instance on a browser refresh.
+ * <p>
+ * The registry keeps track of the layouts using each drop handler. A drop
+ * handler is removed when no layout uses it anymore, i.e. when the layouts
+ * have been given another drop handler or have been detached. Drop handlers
+ * are only registered and removed through their layouts, so a criterion is
+ * never removed while a layout still references its id.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class AcceptCriterionRegistry implements Serializable {
+
+    private static final String ATTRIBUTE_PREFIX = AcceptCriterionRegistry.class
+            .getName() + ".";
+
+    private static final class Entry implements Serializable {
+        private final String id;
+        private AcceptCriterion criterion;
+        private boolean sent;
+        private int layouts;
+
+        private Entry(String id) {
+            this.id = id;
+        }
+    }
+
+    private static final class Usage implements Serializable {
+        private DropHandler handler;
+        private Registration detachRegistration;
+    }
+
+    private final UI ui;
+
+    private final Map<DropHandler, Entry> entries = new IdentityHashMap<>();
+
+    private final Map<Component, Usage> usages = new IdentityHashMap<>();
+
+    private int nextId = 0;
+
+    private int resetSyncId = -1;
+
+    private AcceptCriterionRegistry(UI ui) {
+        this.ui = ui;
+    }
+
+    /**
+     * Returns the registry of a UI, the registry is created the first time
+     * it is needed and removed when the UI is detached
+     *
+     * @param ui
+     *            the UI
+     * @return the registry of the UI
+     */
+    public static AcceptCriterionRegistry get(UI ui) {
+        VaadinSession session = ui.getSession();
+        String attribute = ATTRIBUTE_PREFIX + ui.getUIId();
+        AcceptCriterionRegistry registry = (AcceptCriterionRegistry) session
+                .getAttribute(attribute);
+        if (registry == null) {
+            registry = new AcceptCriterionRegistry(ui);
+            session.setAttribute(attribute, registry);
+            ui.addDetachListener(new DetachListener() {
+                @Override
+                public void detach(DetachEvent event) {
+                    session.setAttribute(attribute, null);
+                }
+            });
+        }
+        return registry;
+    }
+
+    /**
+     * Removes a layout from the registry of its UI, if the UI has a registry.
+     * Called by the layouts which have no drop handler or are disabled.
+     *
+     * @param layout
+     *            the layout
+     */
+    public static void unregisterLayout(Component layout) {
+        UI ui = layout.getUI();
+        if (ui != null && ui.getSession() != null) {
+            AcceptCriterionRegistry registry = (AcceptCriterionRegistry) ui
+                    .getSession()
+                    .getAttribute(ATTRIBUTE_PREFIX + ui.getUIId());
+            if (registry != null) {
+                registry.unregister(layout);
+            }
+        }
+    }
+
+    /**
+     * Registers the current accept criterion of the drop handler of a layout.
+     * Called by the layouts before every response they are part of. The
+     * previous drop handler of the layout is removed if no other layout uses
+     * it.
+     *
+     * @param layout
+     *            the layout using the drop handler
+     * @param handler
+     *            the drop handler
+     * @return the id of the criterion of the handler
+     */
+    public String register(final Component layout, DropHandler handler) {
+        Usage usage = usages.get(layout);
+        if (usage == null) {
+            usage = new Usage();
+            usage.detachRegistration = layout
+                    .addDetachListener(new DetachListener() {
+                        @Override
+                        public void detach(DetachEvent event) {
+                            unregister(layout);
+                        }
+                    });
+            usages.put(layout, usage);
+        }
+        String id = registerHandler(handler);
+        if (usage.handler != handler) {
+            release(usage.handler);
+            usage.handler = handler;
+            entries.get(handler).layouts++;
+        }
+        return id;
+    }
+
+    private String registerHandler(DropHandler handler) {
+        resetIfReinitialized();
+        Entry entry = entries.get(handler);
+        if (entry == null) {
+            entry = new Entry(String.valueOf(nextId++));
+            entries.put(handler, entry);
+        }
+        AcceptCriterion criterion = handler.getAcceptCriterion();
+        if (criterion != entry.criterion) {
+            entry.criterion = criterion;
+            entry.sent = false;
+        }
+        return entry.id;
+    }
+
+    /**
+     * Paints the criterion of the drop handler of a layout unless the client
+     * already has it
+     *
+     * @param layout
+     *            the layout using the drop handler
+     * @param handler
+     *            the drop handler
+     * @param target
+     *            the paint target of the layout
+     * @throws PaintException
+     *             if painting the criterion fails
+     */
+    public void paint(Component layout, DropHandler handler,
+            PaintTarget target) throws PaintException {
+        register(layout, handler);
+        Entry entry = entries.get(handler);
+        if (!entry.sent) {
+            entry.criterion.paint(target);
+            entry.sent = true;
+        }
+    }
+
+    /**
+     * Removes a layout, its drop handler is removed as well if no other
+     * layout uses it
+     *
+     * @param layout
+     *            the layout
+     */
+    public void unregister(Component layout) {
+        Usage usage = usages.remove(layout);
+        if (usage != null) {
+            usage.detachRegistration.remove();
+            release(usage.handler);
+        }
+    }
+
+    private void release(DropHandler handler) {
+        Entry entry = handler == null ? null : entries.get(handler);
+        if (entry != null && --entry.layouts <= 0) {
+            entries.remove(handler);
+        }
+    }
+
+    /**
+     * Resends all criteria with the next response
+     */
+    public void invalidate() {
+        for (Entry entry : entries.values()) {
+            entry.sent = false;
+        }
+    }
+
+    /**
+     * Returns the amount of registered drop handlers
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /*
+     * The client forgets the criteria when the UI is reinitialized, all
+     * layouts are repainted in the same response.
+     */
+    private void resetIfReinitialized() {
+        ConnectorTracker tracker = ui.getConnectorTracker();
+        if (!tracker.isClientSideInitialized(ui)
+                && tracker.getCurrentSyncId() != resetSyncId) {
+            resetSyncId = tracker.getCurrentSyncId();
+            invalidate();
+        }
+    }
+}
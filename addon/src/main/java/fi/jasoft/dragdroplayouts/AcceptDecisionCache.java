@@ -0,0 +1,415 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.vaadin.event.Transferable;
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.DropTarget;
+import com.vaadin.event.dd.TargetDetails;
+import com.vaadin.event.dd.acceptcriteria.AcceptCriterion;
+import com.vaadin.server.ClientConnector.DetachEvent;
+import com.vaadin.server.ClientConnector.DetachListener;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.UI;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+
+/**
+ * Memoizes the results of accept criteria for a UI. The decisions are keyed
+ * by the criterion, the drop target, the dragged component (or its class),
+ * the index and the drop location as translated by the
+ * {@link DropTarget#translateDropTargetDetails(Map)} of the target. The
+ * mouse position is not part of the key, so all checks over the same
+ * location share one evaluation of the criterion, both while dragging and
+ * when dropping.
+ * <p>
+ * Decisions expire after the time to live and the least recently used ones
+ * are dropped when the cache is full. If a criterion depends on something
+ * else than the key, call one of the invalidate methods when that changes.
+ * The drop handlers of the addon invalidate the source and target layouts
+ * after every drop.
+ * <p>
+ * Criteria are only cached when wrapped into a
+ * {@link fi.jasoft.dragdroplayouts.events.CachedCriterion}, since a
+ * criterion depending on the mouse position would get wrong answers from
+ * the cache.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class AcceptDecisionCache implements Serializable {
+
+    /**
+     * The default maximum amount of cached decisions
+     */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    /**
+     * The default time to live of a decision in milliseconds
+     */
+    public static final long DEFAULT_TIME_TO_LIVE = 30000;
+
+    // The drop details identifying the location of a drop
+    private static final String[] LOCATION_DETAILS = {
+            Constants.DROP_DETAIL_TO, Constants.DROP_DETAIL_ROW,
+            Constants.DROP_DETAIL_COLUMN,
+            Constants.DROP_DETAIL_VERTICAL_DROP_LOCATION,
+            Constants.DROP_DETAIL_HORIZONTAL_DROP_LOCATION,
+            Constants.DROP_DETAIL_EMPTY_CELL };
+
+    private static final String ATTRIBUTE_PREFIX = AcceptDecisionCache.class
+            .getName() + ".";
+
+    /**
+     * The key of a cached decision
+     */
+    private static final class Key implements Serializable {
+        private final AcceptCriterion criterion;
+        private final DropTarget target;
+        private final Object component;
+        private final String location;
+
+        private Key(AcceptCriterion criterion, DropTarget target,
+                Object component, String location) {
+            this.criterion = criterion;
+            this.target = target;
+            this.component = component;
+            this.location = location;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return criterion == other.criterion && target == other.target
+                    && Objects.equals(component, other.component)
+                    && location.equals(other.location);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(criterion);
+            hash = 31 * hash + System.identityHashCode(target);
+            hash = 31 * hash + Objects.hashCode(component);
+            return 31 * hash + location.hashCode();
+        }
+    }
+
+    private static final class Decision implements Serializable {
+        private final boolean accepted;
+        private final long expires;
+
+        private Decision(boolean accepted, long expires) {
+            this.accepted = accepted;
+            this.expires = expires;
+        }
+    }
+
+    private final Map<Key, Decision> decisions = new LinkedHashMap<Key, Decision>(
+            16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Decision> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    private boolean keyedByComponentClass = true;
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    /**
+     * Returns the cache of a UI, the cache is created the first time it is
+     * needed and removed when the UI is detached
+     *
+     * @param ui
+     *            the UI
+     * @return the cache of the UI
+     */
+    public static AcceptDecisionCache get(UI ui) {
+        VaadinSession session = ui.getSession();
+        String attribute = ATTRIBUTE_PREFIX + ui.getUIId();
+        AcceptDecisionCache cache = (AcceptDecisionCache) session
+                .getAttribute(attribute);
+        if (cache == null) {
+            cache = new AcceptDecisionCache();
+            session.setAttribute(attribute, cache);
+            ui.addDetachListener(new DetachListener() {
+                @Override
+                public void detach(DetachEvent event) {
+                    session.setAttribute(attribute, null);
+                }
+            });
+        }
+        return cache;
+    }
+
+    /**
+     * Invalidates the decisions of a drop target in the cache of its UI, if
+     * the UI has a cache
+     *
+     * @param target
+     *            the drop target
+     */
+    public static void invalidateTarget(DropTarget target) {
+        UI ui = target.getUI();
+        if (ui != null && ui.getSession() != null) {
+            AcceptDecisionCache cache = (AcceptDecisionCache) ui.getSession()
+                    .getAttribute(ATTRIBUTE_PREFIX + ui.getUIId());
+            if (cache != null) {
+                cache.invalidate(target);
+            }
+        }
+    }
+
+    /**
+     * Evaluates a criterion for a drag and drop event or returns the cached
+     * decision of an earlier evaluation with the same key
+     *
+     * @param criterion
+     *            the criterion to evaluate
+     * @param event
+     *            the drag and drop event
+     * @return was the drag accepted
+     */
+    public boolean accept(AcceptCriterion criterion, DragAndDropEvent event) {
+        Key key = createKey(criterion, event);
+        long now = System.currentTimeMillis();
+        Decision decision = decisions.get(key);
+        if (decision != null && decision.expires > now) {
+            hits++;
+            return decision.accepted;
+        }
+        misses++;
+        boolean accepted = criterion.accept(event);
+        decisions.put(key, new Decision(accepted, now + timeToLive));
+        return accepted;
+    }
+
+    /**
+     * Removes all decisions
+     */
+    public void invalidate() {
+        decisions.clear();
+    }
+
+    /**
+     * Removes the decisions of a criterion
+     *
+     * @param criterion
+     *            the criterion whose decisions are removed
+     */
+    public void invalidate(AcceptCriterion criterion) {
+        for (Iterator<Key> keys = decisions.keySet().iterator(); keys
+                .hasNext();) {
+            if (keys.next().criterion == criterion) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes the decisions of a drop target
+     *
+     * @param target
+     *            the drop target
+     */
+    public void invalidate(DropTarget target) {
+        for (Iterator<Key> keys = decisions.keySet().iterator(); keys
+                .hasNext();) {
+            if (keys.next().target == target) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes the decisions of a dragged component type
+     *
+     * @param componentType
+     *            the class of the dragged components
+     */
+    public void invalidate(Class<? extends Component> componentType) {
+        for (Iterator<Key> keys = decisions.keySet().iterator(); keys
+                .hasNext();) {
+            Object component = keys.next().component;
+            if (componentType.equals(component) || component != null
+                    && componentType.equals(component.getClass())) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes the decisions of a dragged component. When the decisions are
+     * keyed by the component class this removes the decisions of all
+     * components of the same class.
+     *
+     * @param component
+     *            the dragged component
+     */
+    public void invalidate(Component component) {
+        if (keyedByComponentClass) {
+            invalidate(component.getClass());
+            return;
+        }
+        for (Iterator<Key> keys = decisions.keySet().iterator(); keys
+                .hasNext();) {
+            if (keys.next().component == component) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * The maximum amount of cached decisions (defaults to
+     * {@value #DEFAULT_MAX_SIZE})
+     *
+     * @param maxSize
+     *            the maximum amount of decisions
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(
+                    "Maximum size cannot be negative");
+        }
+        this.maxSize = maxSize;
+        Iterator<Key> keys = decisions.keySet().iterator();
+        while (decisions.size() > maxSize) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Returns the maximum amount of cached decisions
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * How long a decision is valid in milliseconds (defaults to
+     * {@value #DEFAULT_TIME_TO_LIVE}). Affects decisions made after the
+     * call.
+     *
+     * @param millis
+     *            the time to live
+     */
+    public void setTimeToLive(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException(
+                    "Time to live cannot be negative");
+        }
+        this.timeToLive = millis;
+    }
+
+    /**
+     * Returns how long a decision is valid in milliseconds
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Are the decisions keyed by the class of the dragged component instead
+     * of the component itself (defaults to true). Changing this removes all
+     * decisions.
+     *
+     * @param byClass
+     *            are the decisions keyed by class
+     */
+    public void setKeyedByComponentClass(boolean byClass) {
+        if (byClass != keyedByComponentClass) {
+            keyedByComponentClass = byClass;
+            decisions.clear();
+        }
+    }
+
+    /**
+     * Are the decisions keyed by the class of the dragged component
+     */
+    public boolean isKeyedByComponentClass() {
+        return keyedByComponentClass;
+    }
+
+    /**
+     * Returns the amount of cached decisions, including expired ones not yet
+     * removed
+     */
+    public int size() {
+        return decisions.size();
+    }
+
+    /**
+     * Returns how many times a cached decision was used
+     */
+    public long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns how many times the criterion had to be evaluated
+     */
+    public long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Resets the hit and miss counters
+     */
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+    }
+
+    private Key createKey(AcceptCriterion criterion,
+            DragAndDropEvent event) {
+        TargetDetails details = event.getTargetDetails();
+        StringBuilder location = new StringBuilder();
+        for (String name : LOCATION_DETAILS) {
+            Object value = details.getData(name);
+            if (value != null) {
+                location.append(name).append('=').append(value).append(';');
+            }
+        }
+
+        Transferable transferable = event.getTransferable();
+        Object component = transferable
+                .getData(Constants.TRANSFERABLE_DETAIL_COMPONENT);
+        if (component == null) {
+            component = transferable.getSourceComponent();
+        }
+        if (keyedByComponentClass && component != null) {
+            component = component.getClass();
+        }
+        return new Key(criterion, details.getTarget(), component,
+                location.toString());
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import com.vaadin.event.Transferable;
+import com.vaadin.event.dd.DragSource;
+import com.vaadin.event.dd.DropHandler;
+import com.vaadin.event.dd.DropTarget;
+import com.vaadin.event.dd.TargetDetails;
+import com.vaadin.server.AbstractClientConnector;
+import com.vaadin.server.AbstractExtension;
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.Extension;
+import com.vaadin.shared.Connector;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.HasComponents;
+
+import fi.jasoft.dragdroplayouts.client.ui.AcceptCandidate;
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.AcceptPrefetchClientRpc;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.AcceptPrefetchServerRpc;
+import fi.jasoft.dragdroplayouts.interfaces.AcceptPrefetchSupport;
+import fi.jasoft.dragdroplayouts.interfaces.BulkAcceptHandler;
+
+/**
+ * Answers the accept decision prefetches of the client for a layout using
+ * {@link AcceptPrefetchSupport}. The extension is added and removed by the
+ * layout when prefetching is toggled. A request can contain candidates of
+ * any drop target of the UI, the candidates are grouped by drop handler so
+ * a {@link BulkAcceptHandler} evaluates all of its candidates at once.
+ * <p>
+ * Only drop handlers implementing {@link BulkAcceptHandler} are asked. An
+ * ordinary accept criterion may depend on details only known during the
+ * drag, like the mouse event, so the decisions of other drop handlers are
+ * left unknown and checked by the client when the pointer gets there.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class AcceptPrefetchExtension extends AbstractExtension {
+
+    /**
+     * Extends a layout
+     *
+     * @param layout
+     *            the layout to prefetch the decisions for
+     */
+    public <T extends AbstractClientConnector & HasComponents> AcceptPrefetchExtension(
+            T layout) {
+        registerRpc(new AcceptPrefetchServerRpc() {
+            @Override
+            public void prefetch(int requestId, Connector source,
+                    Connector component, Map<String, String> transferable,
+                    List<AcceptCandidate> candidates) {
+                getRpcProxy(AcceptPrefetchClientRpc.class).setDecisions(
+                        requestId, evaluate(source, component, transferable,
+                                candidates));
+            }
+        });
+        extend(layout);
+    }
+
+    private int[] evaluate(Connector source, Connector component,
+            Map<String, String> transferableData,
+            List<AcceptCandidate> candidates) {
+        int[] decisions = new int[candidates.size()];
+        Arrays.fill(decisions, AcceptPrefetchClientRpc.UNKNOWN);
+        if (!(source instanceof DragSource) || !isEnabled(source)
+                || !(component instanceof Component)) {
+            return decisions;
+        }
+
+        Map<String, Object> rawTransferable = new HashMap<String, Object>(
+                transferableData);
+        rawTransferable.put(Constants.TRANSFERABLE_DETAIL_COMPONENT,
+                component);
+        Transferable transferable = ((DragSource) source)
+                .getTransferable(rawTransferable);
+
+        // Group the candidates by drop handler
+        Map<DropHandler, List<Integer>> groups = new LinkedHashMap<DropHandler, List<Integer>>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Connector target = candidates.get(i).target;
+            if (!(target instanceof DropTarget) || !isEnabled(target)) {
+                continue;
+            }
+            DropHandler handler = ((DropTarget) target).getDropHandler();
+            if (!(handler instanceof BulkAcceptHandler)) {
+                continue;
+            }
+            List<Integer> group = groups.get(handler);
+            if (group == null) {
+                group = new ArrayList<Integer>();
+                groups.put(handler, group);
+            }
+            group.add(i);
+        }
+
+        for (Map.Entry<DropHandler, List<Integer>> group : groups
+                .entrySet()) {
+            evaluate((BulkAcceptHandler) group.getKey(), transferable,
+                    candidates, group.getValue(), decisions);
+        }
+        return decisions;
+    }
+
+    private static void evaluate(BulkAcceptHandler handler,
+            Transferable transferable, List<AcceptCandidate> candidates,
+            List<Integer> indexes, int[] decisions) {
+        List<TargetDetails> details = new ArrayList<TargetDetails>(
+                indexes.size());
+        for (int i : indexes) {
+            AcceptCandidate candidate = candidates.get(i);
+            details.add(((DropTarget) candidate.target)
+                    .translateDropTargetDetails(
+                            new HashMap<String, Object>(candidate.details)));
+        }
+
+        boolean[] accepted = handler.acceptAll(transferable, details);
+        if (accepted == null || accepted.length != indexes.size()) {
+            // Leave the decisions unknown, the client checks the locations
+            getLogger().warning(handler.getClass().getName()
+                    + ".acceptAll() returned "
+                    + (accepted == null ? "null"
+                            : accepted.length + " decisions")
+                    + " for " + indexes.size() + " candidates");
+            return;
+        }
+        for (int j = 0; j < indexes.size(); j++) {
+            decisions[indexes.get(j)] = toDecision(accepted[j]);
+        }
+    }
+
+    private static int toDecision(boolean accepted) {
+        return accepted ? AcceptPrefetchClientRpc.ACCEPTED
+                : AcceptPrefetchClientRpc.REJECTED;
+    }
+
+    private static Logger getLogger() {
+        return Logger.getLogger(AcceptPrefetchExtension.class.getName());
+    }
+
+    private boolean isEnabled(Connector connector) {
+        return connector instanceof ClientConnector
+                && ((ClientConnector) connector).isConnectorEnabled()
+                && ((ClientConnector) connector).getUI() == getUI();
+    }
+
+    /**
+     * Returns the extension of a layout
+     *
+     * @param layout
+     *            the layout
+     * @return the extension or null if the layout has not been extended
+     */
+    public static AcceptPrefetchExtension get(
+            AbstractClientConnector layout) {
+        for (Extension e : layout.getExtensions()) {
+            if (e instanceof AcceptPrefetchExtension) {
+                return (AcceptPrefetchExtension) e;
+            }
+        }
+        return null;
+    }
+}
@@ -19,15 +19,20 @@ import com.vaadin.event.dd.DropTarget;
 import com.vaadin.event.dd.TargetDetails;
 import com.vaadin.server.PaintException;
 import com.vaadin.server.PaintTarget;
+import com.vaadin.server.Sizeable.Unit;
 import com.vaadin.ui.AbsoluteLayout;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.LegacyComponent;
+import fi.jasoft.dragdroplayouts.client.ui.DragImageStrategy;
 import fi.jasoft.dragdroplayouts.client.ui.LayoutDragMode;
 import fi.jasoft.dragdroplayouts.client.ui.absolutelayout.DDAbsoluteLayoutState;
 import fi.jasoft.dragdroplayouts.details.AbsoluteLayoutTargetDetails;
 import fi.jasoft.dragdroplayouts.events.LayoutBoundTransferable;
 import fi.jasoft.dragdroplayouts.interfaces.*;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -38,7 +43,9 @@ import java.util.Map;
 @SuppressWarnings("serial")
 public class DDAbsoluteLayout extends AbsoluteLayout
         implements LayoutDragSource, DropTarget, ShimSupport, LegacyComponent,
-        DragImageReferenceSupport, DragFilterSupport, DragGrabFilterSupport, HasDragCaptionProvider {
+        DragImageReferenceSupport, DragFilterSupport, DragGrabFilterSupport, HasDragCaptionProvider,
+        DragStateTrackingSupport, IframeShieldSupport, LazyDragImageSupport,
+        CriterionThrottleSupport, AcceptPrefetchSupport, DragStartSupport {
 
     // Drop handler which handles dd drop events
     private DropHandler dropHandler;
@@ -52,6 +59,13 @@ public class DDAbsoluteLayout extends AbsoluteLayout
 
     private DragCaptionProvider dragCaptionProvider;
 
+    private final DragStateTracker dragStateTracker = new DragStateTracker(
+            this);
+
+    private SpatialIndex spatialIndex;
+
+    private int syncedIndexModCount = -1;
+
     /**
      * Creates an AbsoluteLayout with full size.
      */
@@ -76,13 +90,14 @@ public class DDAbsoluteLayout extends AbsoluteLayout
 
         // Paint the drop handler criterions
         if (dropHandler != null && isEnabled()) {
-            dropHandler.getAcceptCriterion().paint(target);
+            DDUtil.paintAcceptCriterion(this, dropHandler, target);
         }
     }
 
     @Override
     public void setDragCaptionProvider(DragCaptionProvider provider) {
         this.dragCaptionProvider = provider;
+        dragStateTracker.invalidate();
     }
 
     @Override
@@ -154,6 +169,80 @@ public class DDAbsoluteLayout extends AbsoluteLayout
         return getState().ddState.iframeShims;
     }
 
+    @Override
+    public void setIframeShield(boolean shield) {
+        getState().ddState.iframeShield = shield;
+    }
+
+    @Override
+    public boolean isIframeShield() {
+        return getState().ddState.iframeShield;
+    }
+
+    @Override
+    public void setLazyDragImages(boolean lazy) {
+        if (lazy != isLazyDragImages()) {
+            getState().ddState.lazyDragImages = lazy;
+            DDUtil.setLazyDragImages(this, lazy);
+        }
+    }
+
+    @Override
+    public boolean isLazyDragImages() {
+        return getState().ddState.lazyDragImages;
+    }
+
+    @Override
+    public void setCriterionCheckInterval(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException(
+                    "Criterion check interval cannot be negative");
+        }
+        getState().ddState.criterionCheckInterval = millis;
+    }
+
+    @Override
+    public int getCriterionCheckInterval() {
+        return getState().ddState.criterionCheckInterval;
+    }
+
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        if (pixels < 0) {
+            throw new IllegalArgumentException(
+                    "Drag start threshold cannot be negative");
+        }
+        getState().ddState.dragStartThreshold = pixels;
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return getState().ddState.dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        getState().ddState.pointerEventsEnabled = enabled;
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return getState().ddState.pointerEventsEnabled;
+    }
+
+    @Override
+    public void setAcceptPrefetch(boolean prefetch) {
+        if (prefetch != isAcceptPrefetch()) {
+            getState().ddState.acceptPrefetch = prefetch;
+            DDUtil.setAcceptPrefetch(this, prefetch);
+        }
+    }
+
+    @Override
+    public boolean isAcceptPrefetch() {
+        return getState().ddState.acceptPrefetch;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -166,6 +255,7 @@ public class DDAbsoluteLayout extends AbsoluteLayout
      */
     public void setDragFilter(DragFilter dragFilter) {
         this.dragFilter = dragFilter;
+        dragStateTracker.invalidate();
     }
 
     /**
@@ -194,11 +284,33 @@ public class DDAbsoluteLayout extends AbsoluteLayout
     public void beforeClientResponse(boolean initial) {
         super.beforeClientResponse(initial);
         DDUtil.onBeforeClientResponse(this, getState());
+
+        // Send the edges for the alignment guides only when they have changed
+        if (getState(false).snapThreshold > 0
+                && getSpatialIndex().getModCount() != syncedIndexModCount) {
+            syncedIndexModCount = spatialIndex.getModCount();
+            DDAbsoluteLayoutState state = getState();
+            state.horizontalEdges = spatialIndex.getHorizontalEdges()
+                    .getValues();
+            state.horizontalEdgeCounts = spatialIndex.getHorizontalEdges()
+                    .getCounts();
+            state.verticalEdges = spatialIndex.getVerticalEdges().getValues();
+            state.verticalEdgeCounts = spatialIndex.getVerticalEdges()
+                    .getCounts();
+            state.edgeBounds = new HashMap<>();
+            for (Component c : this) {
+                int[] bounds = spatialIndex.getBounds(c);
+                if (bounds != null) {
+                    state.edgeBounds.put(c, bounds);
+                }
+            }
+        }
     }
 
     @Override
     public void setDragImageProvider(DragImageProvider provider) {
         this.dragImageProvider = provider;
+        dragStateTracker.invalidate();
         markAsDirty();
     }
 
@@ -207,6 +319,16 @@ public class DDAbsoluteLayout extends AbsoluteLayout
         return this.dragImageProvider;
     }
 
+    @Override
+    public void setDragImageStrategy(DragImageStrategy strategy) {
+        getState().ddState.dragImageStrategy = strategy;
+    }
+
+    @Override
+    public DragImageStrategy getDragImageStrategy() {
+        return getState().ddState.dragImageStrategy;
+    }
+
     @Override
     public DragGrabFilter getDragGrabFilter() {
         return dragGrabFilter;
@@ -215,5 +337,311 @@ public class DDAbsoluteLayout extends AbsoluteLayout
     @Override
     public void setDragGrabFilter(DragGrabFilter dragGrabFilter) {
         this.dragGrabFilter = dragGrabFilter;
+        dragStateTracker.invalidate();
+    }
+
+    @Override
+    public DragStateTracker getDragStateTracker() {
+        return dragStateTracker;
+    }
+
+    @Override
+    public void addComponent(Component c) {
+        super.addComponent(c);
+        updateSpatialIndex(c);
+    }
+
+    @Override
+    public void addComponent(Component c, String cssPosition) {
+        super.addComponent(c, cssPosition);
+        updateSpatialIndex(c);
+    }
+
+    /**
+     * Adds a component positioned in pixels from the top left corner of the
+     * layout
+     *
+     * @param c
+     *            the component to add
+     * @param left
+     *            the left position in pixels
+     * @param top
+     *            the top position in pixels
+     */
+    public void addComponent(Component c, int left, int top) {
+        super.addComponent(c);
+        ComponentPosition position = getPosition(c);
+        position.setLeft((float) left, Unit.PIXELS);
+        position.setTop((float) top, Unit.PIXELS);
+        updateSpatialIndex(c);
+    }
+
+    /**
+     * Positions a component in pixels from the top left corner of the layout.
+     * Right and bottom positions of the component are left as they are.
+     *
+     * @param component
+     *            the component to move
+     * @param left
+     *            the left position in pixels
+     * @param top
+     *            the top position in pixels
+     */
+    public void setPosition(Component component, int left, int top) {
+        setPositions(Collections.singletonList(component), new int[] { left },
+                new int[] { top });
+    }
+
+    /**
+     * Positions several components in pixels from the top left corner of the
+     * layout. All positions are applied before the layout is marked dirty so
+     * the move is sent to the client in one state update.
+     *
+     * @param components
+     *            the components to move
+     * @param lefts
+     *            the left positions in pixels, in the order of the components
+     * @param tops
+     *            the top positions in pixels, in the order of the components
+     */
+    public void setPositions(List<? extends Component> components,
+            int[] lefts, int[] tops) {
+        if (lefts.length != components.size()
+                || tops.length != components.size()) {
+            throw new IllegalArgumentException(
+                    "Expected a position for every component");
+        }
+        for (Component c : components) {
+            if (c.getParent() != this) {
+                throw new IllegalArgumentException(
+                        "Component is not in the layout");
+            }
+        }
+
+        for (int i = 0; i < lefts.length; i++) {
+            Component c = components.get(i);
+            ComponentPosition position = getPosition(c);
+            position.setLeftValue((float) lefts[i]);
+            position.setLeftUnits(Unit.PIXELS);
+            position.setTopValue((float) tops[i]);
+            position.setTopUnits(Unit.PIXELS);
+            updateSpatialIndex(c);
+        }
+        markAsDirty();
+    }
+
+    @Override
+    public void removeComponent(Component c) {
+        super.removeComponent(c);
+        if (spatialIndex != null) {
+            spatialIndex.remove(c);
+        }
+    }
+
+    @Override
+    public void replaceComponent(Component oldComponent,
+            Component newComponent) {
+        super.replaceComponent(oldComponent, newComponent);
+        if (spatialIndex != null) {
+            spatialIndex.remove(oldComponent);
+        }
+        updateSpatialIndex(newComponent);
+    }
+
+    @Override
+    public void setPosition(Component component, ComponentPosition position) {
+        super.setPosition(component, position);
+        updateSpatialIndex(component);
+    }
+
+    /**
+     * Sets the distance in pixels within which dropped components snap to
+     * the edges of other components. The client renders alignment guides for
+     * the edges while dragging.
+     *
+     * @param threshold
+     *            the snap distance, 0 disables snapping to edges
+     */
+    public void setSnapThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException(
+                    "Snap threshold cannot be negative");
+        }
+        getState().snapThreshold = threshold;
+        syncedIndexModCount = -1;
+    }
+
+    /**
+     * Returns the distance within which dropped components snap to the edges
+     * of other components
+     */
+    public int getSnapThreshold() {
+        return getState(false).snapThreshold;
+    }
+
+    /**
+     * Sets the size of the grid dropped components snap to. Snapping to the
+     * edges of other components takes precedence over the grid.
+     *
+     * @param size
+     *            the size of a grid cell in pixels, 0 disables the grid
+     */
+    public void setSnapGridSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException(
+                    "Snap grid size cannot be negative");
+        }
+        getState().snapGridSize = size;
+    }
+
+    /**
+     * Returns the size of the grid dropped components snap to
+     */
+    public int getSnapGridSize() {
+        return getState(false).snapGridSize;
+    }
+
+    /**
+     * Snaps a left position to the edges of the other components or to the
+     * snap grid
+     *
+     * @param component
+     *            the component being positioned, can be null
+     * @param left
+     *            the left position in pixels
+     * @param width
+     *            the width of the component in pixels
+     * @return the snapped position
+     */
+    public int snapLeft(Component component, int left, int width) {
+        int threshold = getSnapThreshold();
+        if (threshold > 0) {
+            int snapped = getSpatialIndex().snapLeft(component, left, width,
+                    threshold);
+            if (snapped != left) {
+                return snapped;
+            }
+        }
+        return snapToGrid(left);
+    }
+
+    /**
+     * Snaps a top position to the edges of the other components or to the
+     * snap grid
+     *
+     * @param component
+     *            the component being positioned, can be null
+     * @param top
+     *            the top position in pixels
+     * @param height
+     *            the height of the component in pixels
+     * @return the snapped position
+     */
+    public int snapTop(Component component, int top, int height) {
+        int threshold = getSnapThreshold();
+        if (threshold > 0) {
+            int snapped = getSpatialIndex().snapTop(component, top, height,
+                    threshold);
+            if (snapped != top) {
+                return snapped;
+            }
+        }
+        return snapToGrid(top);
+    }
+
+    private int snapToGrid(int value) {
+        int size = getSnapGridSize();
+        if (size <= 0) {
+            return value;
+        }
+        return Math.round((float) value / size) * size;
+    }
+
+    /**
+     * Returns the spatial index of the components positioned with pixels from
+     * the top left corner of the layout. The index is built the first time it
+     * is requested and kept up to date by the layout after that.
+     * <p>
+     * Only components with a known size in pixels are indexed: components
+     * whose width and height are set in pixels, and components dropped into
+     * the layout, which are indexed with the size measured by the client. A
+     * component with an undefined or relative size added from code is left
+     * out of the index until it is dropped, so it is not considered when
+     * preventing overlap or snapping.
+     */
+    public SpatialIndex getSpatialIndex() {
+        if (spatialIndex == null) {
+            spatialIndex = new SpatialIndex();
+            for (Component c : this) {
+                updateSpatialIndex(c);
+            }
+        }
+        return spatialIndex;
+    }
+
+    /**
+     * Updates the position of a component in the spatial index. Needs to be
+     * called after the {@link ComponentPosition} of the component has been
+     * modified directly. The component keeps the size it was measured with
+     * when its size is not set in pixels, or is left out of the index if it
+     * has not been measured.
+     *
+     * @param component
+     *            the component
+     */
+    public void updateSpatialIndex(Component component) {
+        if (spatialIndex == null) {
+            return;
+        }
+        int[] known = spatialIndex.getBounds(component);
+        int width = toPixels(component.getWidth(), component.getWidthUnits(),
+                known == null ? -1 : known[2]);
+        int height = toPixels(component.getHeight(),
+                component.getHeightUnits(), known == null ? -1 : known[3]);
+        if (width < 0 || height < 0) {
+            // The size is unknown on the server, see getSpatialIndex()
+            spatialIndex.remove(component);
+            return;
+        }
+        updateSpatialIndex(component, width, height);
+    }
+
+    /**
+     * Updates the position and the measured size of a component in the
+     * spatial index. Used by the drop handlers which know the rendered size
+     * of the dropped component.
+     *
+     * @param component
+     *            the component
+     * @param width
+     *            the width of the component in pixels
+     * @param height
+     *            the height of the component in pixels
+     */
+    public void updateSpatialIndex(Component component, int width,
+            int height) {
+        if (spatialIndex == null) {
+            return;
+        }
+        ComponentPosition position = component.getParent() == this
+                ? getPosition(component) : null;
+        if (position == null || position.getLeftValue() == null
+                || position.getTopValue() == null
+                || position.getLeftUnits() != Unit.PIXELS
+                || position.getTopUnits() != Unit.PIXELS) {
+            // Only components positioned from the top left corner in pixels
+            // are indexed
+            spatialIndex.remove(component);
+            return;
+        }
+        spatialIndex.put(component, Math.round(position.getLeftValue()),
+                Math.round(position.getTopValue()), width, height);
+    }
+
+    private static int toPixels(float size, Unit unit, int fallback) {
+        if (size >= 0 && unit == Unit.PIXELS) {
+            return Math.round(size);
+        }
+        return fallback;
     }
-}
\ No newline at end of file
+}
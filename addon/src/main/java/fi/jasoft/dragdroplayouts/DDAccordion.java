@@ -22,13 +22,15 @@ import com.vaadin.server.PaintTarget;
 import com.vaadin.ui.Accordion;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.LegacyComponent;
+import fi.jasoft.dragdroplayouts.client.ui.DragImageStrategy;
 import fi.jasoft.dragdroplayouts.client.ui.LayoutDragMode;
 import fi.jasoft.dragdroplayouts.client.ui.accordion.DDAccordionState;
 import fi.jasoft.dragdroplayouts.details.AccordionTargetDetails;
 import fi.jasoft.dragdroplayouts.events.LayoutBoundTransferable;
 import fi.jasoft.dragdroplayouts.interfaces.*;
 
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -40,7 +42,11 @@ import java.util.Map;
 @SuppressWarnings("serial")
 public class DDAccordion extends Accordion
         implements LayoutDragSource, DropTarget, ShimSupport, LegacyComponent,
-        DragImageReferenceSupport, DragFilterSupport, DragGrabFilterSupport, HasDragCaptionProvider {
+        DragImageReferenceSupport, DragFilterSupport, DragGrabFilterSupport, HasDragCaptionProvider,
+        DragStateTrackingSupport,
+        DropIndicatorSupport, IframeShieldSupport, LazyDragImageSupport,
+        CriterionThrottleSupport, AcceptPrefetchSupport, DragStartSupport,
+        ComponentMoveSupport {
 
     /**
      * The drop handler which handles dropped components in the layout.
@@ -56,6 +62,9 @@ public class DDAccordion extends Accordion
 
     private DragCaptionProvider dragCaptionProvider;
 
+    private final DragStateTracker dragStateTracker = new DragStateTracker(
+            this);
+
     /**
      * Construct a new accordion
      */
@@ -79,16 +88,7 @@ public class DDAccordion extends Accordion
     public Transferable getTransferable(Map<String, Object> rawVariables) {
         if (rawVariables.get("index") != null) {
             int index = Integer.parseInt(rawVariables.get("index").toString());
-            Iterator<Component> iter = getComponentIterator();
-            int counter = 0;
-            Component c = null;
-            while (iter.hasNext()) {
-                c = iter.next();
-                if (counter == index) {
-                    break;
-                }
-                counter++;
-            }
+            Component c = DDUtil.getTabComponent(this, index);
 
             rawVariables.put("component", c);
         } else if (rawVariables.get("component") == null) {
@@ -102,6 +102,7 @@ public class DDAccordion extends Accordion
     @Override
     public void setDragCaptionProvider(DragCaptionProvider provider) {
         this.dragCaptionProvider = provider;
+        dragStateTracker.invalidate();
     }
 
     @Override
@@ -162,7 +163,7 @@ public class DDAccordion extends Accordion
     public void paintContent(PaintTarget target) throws PaintException {
         // Add drop handler
         if (dropHandler != null && isEnabled()) {
-            dropHandler.getAcceptCriterion().paint(target);
+            DDUtil.paintAcceptCriterion(this, dropHandler, target);
         }
     }
 
@@ -201,6 +202,100 @@ public class DDAccordion extends Accordion
         return getState().ddState.iframeShims;
     }
 
+    @Override
+    public void setIframeShield(boolean shield) {
+        getState().ddState.iframeShield = shield;
+    }
+
+    @Override
+    public boolean isIframeShield() {
+        return getState().ddState.iframeShield;
+    }
+
+    @Override
+    public void setLazyDragImages(boolean lazy) {
+        if (lazy != isLazyDragImages()) {
+            getState().ddState.lazyDragImages = lazy;
+            DDUtil.setLazyDragImages(this, lazy);
+        }
+    }
+
+    @Override
+    public boolean isLazyDragImages() {
+        return getState().ddState.lazyDragImages;
+    }
+
+    @Override
+    public void setCriterionCheckInterval(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException(
+                    "Criterion check interval cannot be negative");
+        }
+        getState().ddState.criterionCheckInterval = millis;
+    }
+
+    @Override
+    public int getCriterionCheckInterval() {
+        return getState().ddState.criterionCheckInterval;
+    }
+
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        if (pixels < 0) {
+            throw new IllegalArgumentException(
+                    "Drag start threshold cannot be negative");
+        }
+        getState().ddState.dragStartThreshold = pixels;
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return getState().ddState.dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        getState().ddState.pointerEventsEnabled = enabled;
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return getState().ddState.pointerEventsEnabled;
+    }
+
+    @Override
+    public void setAcceptPrefetch(boolean prefetch) {
+        if (prefetch != isAcceptPrefetch()) {
+            getState().ddState.acceptPrefetch = prefetch;
+            DDUtil.setAcceptPrefetch(this, prefetch);
+        }
+    }
+
+    @Override
+    public boolean isAcceptPrefetch() {
+        return getState().ddState.acceptPrefetch;
+    }
+
+    @Override
+    public void moveComponent(Component component, int index) {
+        moveComponents(Collections.singletonList(component), index);
+    }
+
+    @Override
+    public void moveComponents(List<? extends Component> moved, int index) {
+        DDUtil.moveTabs(this, moved, index);
+    }
+
+    @Override
+    public void setOverlayDropIndicator(boolean overlay) {
+        getState().ddState.overlayDropIndicator = overlay;
+    }
+
+    @Override
+    public boolean isOverlayDropIndicator() {
+        return getState().ddState.overlayDropIndicator;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -213,6 +308,7 @@ public class DDAccordion extends Accordion
      */
     public void setDragFilter(DragFilter dragFilter) {
         this.dragFilter = dragFilter;
+        dragStateTracker.invalidate();
     }
 
     @Override
@@ -234,6 +330,7 @@ public class DDAccordion extends Accordion
     @Override
     public void setDragImageProvider(DragImageProvider provider) {
         this.dragImageProvider = provider;
+        dragStateTracker.invalidate();
         markAsDirty();
     }
 
@@ -242,6 +339,16 @@ public class DDAccordion extends Accordion
         return this.dragImageProvider;
     }
 
+    @Override
+    public void setDragImageStrategy(DragImageStrategy strategy) {
+        getState().ddState.dragImageStrategy = strategy;
+    }
+
+    @Override
+    public DragImageStrategy getDragImageStrategy() {
+        return getState().ddState.dragImageStrategy;
+    }
+
     @Override
     public DragGrabFilter getDragGrabFilter() {
         return dragGrabFilter;
@@ -250,5 +357,11 @@ public class DDAccordion extends Accordion
     @Override
     public void setDragGrabFilter(DragGrabFilter dragGrabFilter) {
         this.dragGrabFilter = dragGrabFilter;
+        dragStateTracker.invalidate();
+    }
+
+    @Override
+    public DragStateTracker getDragStateTracker() {
+        return dragStateTracker;
     }
-}
\ No newline at end of file
+}
@@ -27,11 +27,14 @@ import com.vaadin.ui.Component;
 import com.vaadin.ui.CssLayout;
 import com.vaadin.ui.LegacyComponent;
 import fi.jasoft.dragdroplayouts.client.ui.Constants;
+import fi.jasoft.dragdroplayouts.client.ui.DragImageStrategy;
 import fi.jasoft.dragdroplayouts.client.ui.LayoutDragMode;
 import fi.jasoft.dragdroplayouts.client.ui.csslayout.DDCssLayoutState;
 import fi.jasoft.dragdroplayouts.events.LayoutBoundTransferable;
 import fi.jasoft.dragdroplayouts.interfaces.*;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -44,7 +47,10 @@ import java.util.Map;
 @SuppressWarnings("serial")
 public class DDCssLayout extends CssLayout
         implements LayoutDragSource, DropTarget, ShimSupport, LegacyComponent,
-        DragFilterSupport, DragImageReferenceSupport, DragGrabFilterSupport, HasDragCaptionProvider {
+        DragFilterSupport, DragImageReferenceSupport, DragGrabFilterSupport, HasDragCaptionProvider,
+        DragStateTrackingSupport, IframeShieldSupport, LazyDragImageSupport,
+        CriterionThrottleSupport, AcceptPrefetchSupport, DragStartSupport,
+        ComponentMoveSupport {
 
     // Drop handler which handles dd drop events
     private DropHandler dropHandler;
@@ -58,6 +64,9 @@ public class DDCssLayout extends CssLayout
 
     private DragCaptionProvider dragCaptionProvider;
 
+    private final DragStateTracker dragStateTracker = new DragStateTracker(
+            this);
+
     /**
      * Construct a new Css layout
      */
@@ -78,6 +87,7 @@ public class DDCssLayout extends CssLayout
     @Override
     public void setDragCaptionProvider(DragCaptionProvider provider) {
         this.dragCaptionProvider = provider;
+        dragStateTracker.invalidate();
     }
 
     @Override
@@ -93,6 +103,7 @@ public class DDCssLayout extends CssLayout
     @Override
     public void setDragGrabFilter(DragGrabFilter dragGrabFilter) {
         this.dragGrabFilter = dragGrabFilter;
+        dragStateTracker.invalidate();
     }
 
     /**
@@ -205,6 +216,92 @@ public class DDCssLayout extends CssLayout
         return getState().ddState.iframeShims;
     }
 
+    @Override
+    public void setIframeShield(boolean shield) {
+        getState().ddState.iframeShield = shield;
+    }
+
+    @Override
+    public boolean isIframeShield() {
+        return getState().ddState.iframeShield;
+    }
+
+    @Override
+    public void setLazyDragImages(boolean lazy) {
+        if (lazy != isLazyDragImages()) {
+            getState().ddState.lazyDragImages = lazy;
+            DDUtil.setLazyDragImages(this, lazy);
+        }
+    }
+
+    @Override
+    public boolean isLazyDragImages() {
+        return getState().ddState.lazyDragImages;
+    }
+
+    @Override
+    public void setCriterionCheckInterval(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException(
+                    "Criterion check interval cannot be negative");
+        }
+        getState().ddState.criterionCheckInterval = millis;
+    }
+
+    @Override
+    public int getCriterionCheckInterval() {
+        return getState().ddState.criterionCheckInterval;
+    }
+
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        if (pixels < 0) {
+            throw new IllegalArgumentException(
+                    "Drag start threshold cannot be negative");
+        }
+        getState().ddState.dragStartThreshold = pixels;
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return getState().ddState.dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        getState().ddState.pointerEventsEnabled = enabled;
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return getState().ddState.pointerEventsEnabled;
+    }
+
+    @Override
+    public void setAcceptPrefetch(boolean prefetch) {
+        if (prefetch != isAcceptPrefetch()) {
+            getState().ddState.acceptPrefetch = prefetch;
+            DDUtil.setAcceptPrefetch(this, prefetch);
+        }
+    }
+
+    @Override
+    public boolean isAcceptPrefetch() {
+        return getState().ddState.acceptPrefetch;
+    }
+
+    @Override
+    public void moveComponent(Component component, int index) {
+        moveComponents(Collections.singletonList(component), index);
+    }
+
+    @Override
+    public void moveComponents(List<? extends Component> moved, int index) {
+        if (DDUtil.moveComponents(components, moved, index)) {
+            markAsDirty();
+        }
+    }
+
     /**
      * gets the drop handler which handles component drops on the layout
      */
@@ -260,6 +357,7 @@ public class DDCssLayout extends CssLayout
      */
     public void setDragFilter(DragFilter dragFilter) {
         this.dragFilter = dragFilter;
+        dragStateTracker.invalidate();
     }
 
     /**
@@ -268,7 +366,7 @@ public class DDCssLayout extends CssLayout
      */
     public void paintContent(PaintTarget target) throws PaintException {
         if (dropHandler != null && isEnabled()) {
-            dropHandler.getAcceptCriterion().paint(target);
+            DDUtil.paintAcceptCriterion(this, dropHandler, target);
         }
     }
 
@@ -291,6 +389,7 @@ public class DDCssLayout extends CssLayout
     @Override
     public void setDragImageProvider(DragImageProvider provider) {
         this.dragImageProvider = provider;
+        dragStateTracker.invalidate();
         markAsDirty();
     }
 
@@ -298,4 +397,19 @@ public class DDCssLayout extends CssLayout
     public DragImageProvider getDragImageProvider() {
         return this.dragImageProvider;
     }
+
+    @Override
+    public void setDragImageStrategy(DragImageStrategy strategy) {
+        getState().ddState.dragImageStrategy = strategy;
+    }
+
+    @Override
+    public DragImageStrategy getDragImageStrategy() {
+        return getState().ddState.dragImageStrategy;
+    }
+
+    @Override
+    public DragStateTracker getDragStateTracker() {
+        return dragStateTracker;
+    }
 }
@@ -26,11 +26,14 @@ import com.vaadin.ui.Component;
 import com.vaadin.ui.FormLayout;
 import com.vaadin.ui.LegacyComponent;
 import fi.jasoft.dragdroplayouts.client.ui.Constants;
+import fi.jasoft.dragdroplayouts.client.ui.DragImageStrategy;
 import fi.jasoft.dragdroplayouts.client.ui.LayoutDragMode;
 import fi.jasoft.dragdroplayouts.client.ui.formlayout.DDFormLayoutState;
 import fi.jasoft.dragdroplayouts.events.LayoutBoundTransferable;
 import fi.jasoft.dragdroplayouts.interfaces.*;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -42,7 +45,11 @@ import java.util.Map;
  */
 public class DDFormLayout extends FormLayout
         implements LayoutDragSource, DropTarget, ShimSupport, LegacyComponent,
-        DragFilterSupport, DragImageReferenceSupport, DragGrabFilterSupport, HasDragCaptionProvider {
+        DragFilterSupport, DragImageReferenceSupport, DragGrabFilterSupport, HasDragCaptionProvider,
+        DragStateTrackingSupport,
+        DropIndicatorSupport, IframeShieldSupport, LazyDragImageSupport,
+        CriterionThrottleSupport, AcceptPrefetchSupport, DragStartSupport,
+        ComponentMoveSupport {
     /**
      * The drop handler which handles dropped components in the layout.
      */
@@ -57,6 +64,9 @@ public class DDFormLayout extends FormLayout
 
     private DragCaptionProvider dragCaptionProvider;
 
+    private final DragStateTracker dragStateTracker = new DragStateTracker(
+            this);
+
     @Override
     public DragGrabFilter getDragGrabFilter() {
         return dragGrabFilter;
@@ -65,11 +75,13 @@ public class DDFormLayout extends FormLayout
     @Override
     public void setDragGrabFilter(DragGrabFilter dragGrabFilter) {
         this.dragGrabFilter = dragGrabFilter;
+        dragStateTracker.invalidate();
     }
 
     @Override
     public void setDragCaptionProvider(DragCaptionProvider provider) {
         this.dragCaptionProvider = provider;
+        dragStateTracker.invalidate();
     }
 
     @Override
@@ -180,7 +192,7 @@ public class DDFormLayout extends FormLayout
      */
     public void paintContent(PaintTarget target) throws PaintException {
         if (dropHandler != null && isEnabled()) {
-            dropHandler.getAcceptCriterion().paint(target);
+            DDUtil.paintAcceptCriterion(this, dropHandler, target);
         }
     }
 
@@ -275,6 +287,102 @@ public class DDFormLayout extends FormLayout
         return getState().ddState.iframeShims;
     }
 
+    @Override
+    public void setIframeShield(boolean shield) {
+        getState().ddState.iframeShield = shield;
+    }
+
+    @Override
+    public boolean isIframeShield() {
+        return getState().ddState.iframeShield;
+    }
+
+    @Override
+    public void setLazyDragImages(boolean lazy) {
+        if (lazy != isLazyDragImages()) {
+            getState().ddState.lazyDragImages = lazy;
+            DDUtil.setLazyDragImages(this, lazy);
+        }
+    }
+
+    @Override
+    public boolean isLazyDragImages() {
+        return getState().ddState.lazyDragImages;
+    }
+
+    @Override
+    public void setCriterionCheckInterval(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException(
+                    "Criterion check interval cannot be negative");
+        }
+        getState().ddState.criterionCheckInterval = millis;
+    }
+
+    @Override
+    public int getCriterionCheckInterval() {
+        return getState().ddState.criterionCheckInterval;
+    }
+
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        if (pixels < 0) {
+            throw new IllegalArgumentException(
+                    "Drag start threshold cannot be negative");
+        }
+        getState().ddState.dragStartThreshold = pixels;
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return getState().ddState.dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        getState().ddState.pointerEventsEnabled = enabled;
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return getState().ddState.pointerEventsEnabled;
+    }
+
+    @Override
+    public void setAcceptPrefetch(boolean prefetch) {
+        if (prefetch != isAcceptPrefetch()) {
+            getState().ddState.acceptPrefetch = prefetch;
+            DDUtil.setAcceptPrefetch(this, prefetch);
+        }
+    }
+
+    @Override
+    public boolean isAcceptPrefetch() {
+        return getState().ddState.acceptPrefetch;
+    }
+
+    @Override
+    public void moveComponent(Component component, int index) {
+        moveComponents(Collections.singletonList(component), index);
+    }
+
+    @Override
+    public void moveComponents(List<? extends Component> moved, int index) {
+        if (DDUtil.moveComponents(components, moved, index)) {
+            markAsDirty();
+        }
+    }
+
+    @Override
+    public void setOverlayDropIndicator(boolean overlay) {
+        getState().ddState.overlayDropIndicator = overlay;
+    }
+
+    @Override
+    public boolean isOverlayDropIndicator() {
+        return getState().ddState.overlayDropIndicator;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -287,6 +395,7 @@ public class DDFormLayout extends FormLayout
      */
     public void setDragFilter(DragFilter dragFilter) {
         this.dragFilter = dragFilter;
+        dragStateTracker.invalidate();
     }
 
     @Override
@@ -308,6 +417,7 @@ public class DDFormLayout extends FormLayout
     @Override
     public void setDragImageProvider(DragImageProvider provider) {
         this.dragImageProvider = provider;
+        dragStateTracker.invalidate();
         markAsDirty();
     }
 
@@ -315,4 +425,19 @@ public class DDFormLayout extends FormLayout
     public DragImageProvider getDragImageProvider() {
         return this.dragImageProvider;
     }
+
+    @Override
+    public void setDragImageStrategy(DragImageStrategy strategy) {
+        getState().ddState.dragImageStrategy = strategy;
+    }
+
+    @Override
+    public DragImageStrategy getDragImageStrategy() {
+        return getState().ddState.dragImageStrategy;
+    }
+
+    @Override
+    public DragStateTracker getDragStateTracker() {
+        return dragStateTracker;
+    }
 }
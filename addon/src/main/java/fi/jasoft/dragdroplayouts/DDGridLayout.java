@@ -20,18 +20,28 @@ import com.vaadin.event.dd.TargetDetails;
 import com.vaadin.event.dd.TargetDetailsImpl;
 import com.vaadin.server.PaintException;
 import com.vaadin.server.PaintTarget;
+import com.vaadin.shared.Connector;
 import com.vaadin.shared.MouseEventDetails;
 import com.vaadin.shared.ui.dd.HorizontalDropLocation;
 import com.vaadin.shared.ui.dd.VerticalDropLocation;
+import com.vaadin.shared.ui.gridlayout.GridLayoutState.ChildComponentData;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.GridLayout;
 import com.vaadin.ui.LegacyComponent;
 import fi.jasoft.dragdroplayouts.client.ui.Constants;
+import fi.jasoft.dragdroplayouts.client.ui.DragImageStrategy;
 import fi.jasoft.dragdroplayouts.client.ui.LayoutDragMode;
 import fi.jasoft.dragdroplayouts.client.ui.gridlayout.DDGridLayoutState;
 import fi.jasoft.dragdroplayouts.events.LayoutBoundTransferable;
 import fi.jasoft.dragdroplayouts.interfaces.*;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -43,7 +53,10 @@ import java.util.Map;
 @SuppressWarnings("serial")
 public class DDGridLayout extends GridLayout
         implements LayoutDragSource, DropTarget, ShimSupport, LegacyComponent,
-        DragFilterSupport, DragImageReferenceSupport, DragGrabFilterSupport, HasDragCaptionProvider {
+        DragFilterSupport, DragImageReferenceSupport, DragGrabFilterSupport, HasDragCaptionProvider,
+        DragStateTrackingSupport,
+        DropIndicatorSupport, IframeShieldSupport, LazyDragImageSupport,
+        CriterionThrottleSupport, AcceptPrefetchSupport, DragStartSupport {
 
     private DropHandler dropHandler;
 
@@ -56,6 +69,11 @@ public class DDGridLayout extends GridLayout
 
     private DragCaptionProvider dragCaptionProvider;
 
+    private final DragStateTracker dragStateTracker = new DragStateTracker(
+            this);
+
+    private GridOccupancy occupancy;
+
     @Override
     public DragGrabFilter getDragGrabFilter() {
         return dragGrabFilter;
@@ -64,11 +82,13 @@ public class DDGridLayout extends GridLayout
     @Override
     public void setDragGrabFilter(DragGrabFilter dragGrabFilter) {
         this.dragGrabFilter = dragGrabFilter;
+        dragStateTracker.invalidate();
     }
 
     @Override
     public void setDragCaptionProvider(DragCaptionProvider provider) {
         this.dragCaptionProvider = provider;
+        dragStateTracker.invalidate();
     }
 
     @Override
@@ -105,7 +125,7 @@ public class DDGridLayout extends GridLayout
             }
 
             if (row != -1 && column != -1) {
-                over = getComponent(column, row);
+                over = getOccupancy().getComponent(column, row);
             }
 
             if (over == null) {
@@ -266,7 +286,7 @@ public class DDGridLayout extends GridLayout
     @Override
     public void paintContent(PaintTarget target) throws PaintException {
         if (dropHandler != null && isEnabled()) {
-            dropHandler.getAcceptCriterion().paint(target);
+            DDUtil.paintAcceptCriterion(this, dropHandler, target);
         }
     }
 
@@ -378,6 +398,90 @@ public class DDGridLayout extends GridLayout
         return getState().ddState.iframeShims;
     }
 
+    @Override
+    public void setIframeShield(boolean shield) {
+        getState().ddState.iframeShield = shield;
+    }
+
+    @Override
+    public boolean isIframeShield() {
+        return getState().ddState.iframeShield;
+    }
+
+    @Override
+    public void setLazyDragImages(boolean lazy) {
+        if (lazy != isLazyDragImages()) {
+            getState().ddState.lazyDragImages = lazy;
+            DDUtil.setLazyDragImages(this, lazy);
+        }
+    }
+
+    @Override
+    public boolean isLazyDragImages() {
+        return getState().ddState.lazyDragImages;
+    }
+
+    @Override
+    public void setCriterionCheckInterval(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException(
+                    "Criterion check interval cannot be negative");
+        }
+        getState().ddState.criterionCheckInterval = millis;
+    }
+
+    @Override
+    public int getCriterionCheckInterval() {
+        return getState().ddState.criterionCheckInterval;
+    }
+
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        if (pixels < 0) {
+            throw new IllegalArgumentException(
+                    "Drag start threshold cannot be negative");
+        }
+        getState().ddState.dragStartThreshold = pixels;
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return getState().ddState.dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        getState().ddState.pointerEventsEnabled = enabled;
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return getState().ddState.pointerEventsEnabled;
+    }
+
+    @Override
+    public void setAcceptPrefetch(boolean prefetch) {
+        if (prefetch != isAcceptPrefetch()) {
+            getState().ddState.acceptPrefetch = prefetch;
+            DDUtil.setAcceptPrefetch(this, prefetch);
+        }
+    }
+
+    @Override
+    public boolean isAcceptPrefetch() {
+        return getState().ddState.acceptPrefetch;
+    }
+
+    @Override
+    public void setOverlayDropIndicator(boolean overlay) {
+        getState().ddState.overlayDropIndicator = overlay;
+    }
+
+    @Override
+    public boolean isOverlayDropIndicator() {
+        return getState().ddState.overlayDropIndicator;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -390,6 +494,7 @@ public class DDGridLayout extends GridLayout
      */
     public void setDragFilter(DragFilter dragFilter) {
         this.dragFilter = dragFilter;
+        dragStateTracker.invalidate();
     }
 
     @Override
@@ -406,6 +511,7 @@ public class DDGridLayout extends GridLayout
     @Override
     public void setDragImageProvider(DragImageProvider provider) {
         this.dragImageProvider = provider;
+        dragStateTracker.invalidate();
         markAsDirty();
     }
 
@@ -414,4 +520,351 @@ public class DDGridLayout extends GridLayout
         return this.dragImageProvider;
     }
 
+    @Override
+    public void setDragImageStrategy(DragImageStrategy strategy) {
+        getState().ddState.dragImageStrategy = strategy;
+    }
+
+    @Override
+    public DragImageStrategy getDragImageStrategy() {
+        return getState().ddState.dragImageStrategy;
+    }
+
+    @Override
+    public DragStateTracker getDragStateTracker() {
+        return dragStateTracker;
+    }
+
+    @Override
+    public void addComponent(Component component, int column1, int row1,
+            int column2, int row2)
+            throws OverlapsException, OutOfBoundsException {
+        super.addComponent(component, column1, row1, column2, row2);
+        if (isOccupancyValid()) {
+            occupancy.set(component, getGridArea(component));
+        }
+    }
+
+    @Override
+    public void removeComponent(Component component) {
+        GridArea area = getGridArea(component);
+        super.removeComponent(component);
+        if (area != null && isOccupancyValid()) {
+            occupancy.clear(area);
+        }
+    }
+
+    @Override
+    public void replaceComponent(Component oldComponent,
+            Component newComponent) {
+        super.replaceComponent(oldComponent, newComponent);
+        occupancy = null;
+    }
+
+    @Override
+    public void insertRow(int row) {
+        super.insertRow(row);
+        occupancy = null;
+    }
+
+    @Override
+    public void removeRow(int row) {
+        super.removeRow(row);
+        occupancy = null;
+    }
+
+    /**
+     * Returns the area a component occupies in the grid
+     *
+     * @param component
+     *            the component
+     * @return the area or null if the component is not in the grid
+     */
+    public GridArea getGridArea(Component component) {
+        Area area = getComponentArea(component);
+        if (area == null) {
+            return null;
+        }
+        return new GridArea(area.getColumn1(), area.getRow1(),
+                area.getColumn2(), area.getRow2());
+    }
+
+    /**
+     * Returns the occupancy matrix of the grid. The matrix is kept up to date
+     * by the layout and should not be cached by the caller over changes to
+     * the grid.
+     */
+    public GridOccupancy getOccupancy() {
+        if (!isOccupancyValid()) {
+            occupancy = new GridOccupancy(getColumns(), getRows());
+            for (Component c : this) {
+                occupancy.set(c, getGridArea(c));
+            }
+        }
+        return occupancy;
+    }
+
+    private boolean isOccupancyValid() {
+        return occupancy != null && occupancy.getColumns() == getColumns()
+                && occupancy.getRows() == getRows();
+    }
+
+    /**
+     * Moves a component into a new area without removing it from the layout.
+     *
+     * @param component
+     *            the component to move
+     * @param area
+     *            the new area of the component
+     * @throws OverlapsException
+     *             if the area is occupied by another component
+     * @throws OutOfBoundsException
+     *             if the area is outside the grid
+     */
+    public void moveComponent(Component component, GridArea area)
+            throws OverlapsException, OutOfBoundsException {
+        moveComponents(Collections.singletonMap(component, area));
+    }
+
+    /**
+     * Moves several components at once without removing them from the
+     * layout. The components may move into each others old areas, e.g. to
+     * swap places, as long as the new areas do not overlap. The grid is
+     * updated to the client once.
+     *
+     * @param moves
+     *            the new areas of the components
+     * @throws OverlapsException
+     *             if a new area is occupied by a component not being moved or
+     *             by another moved component
+     * @throws OutOfBoundsException
+     *             if a new area is outside the grid
+     */
+    public void moveComponents(Map<? extends Component, GridArea> moves)
+            throws OverlapsException, OutOfBoundsException {
+        if (moves.isEmpty()) {
+            return;
+        }
+
+        GridOccupancy occupancy = getOccupancy();
+        Map<Connector, ChildComponentData> childData = getState(
+                false).childData;
+        for (Component c : moves.keySet()) {
+            if (!childData.containsKey(c)) {
+                throw new IllegalArgumentException(
+                        "Component is not in the grid");
+            }
+        }
+
+        // Lift the moved components and place them one by one, a failure
+        // restores the original areas
+        for (Component c : moves.keySet()) {
+            occupancy.clear(getGridArea(c));
+        }
+        List<Component> placed = new ArrayList<Component>(moves.size());
+        for (Map.Entry<? extends Component, GridArea> move : moves
+                .entrySet()) {
+            Component c = move.getKey();
+            GridArea area = move.getValue();
+            if (!occupancy.contains(area)) {
+                restore(placed, moves);
+                throw new OutOfBoundsException(toArea(c, area));
+            }
+            if (!occupancy.isFree(area)) {
+                Component other = findOverlapping(occupancy, area);
+                GridArea otherArea = moves.containsKey(other)
+                        ? moves.get(other) : getGridArea(other);
+                restore(placed, moves);
+                throw new OverlapsException(toArea(other, otherArea));
+            }
+            occupancy.set(c, area);
+            placed.add(c);
+        }
+
+        // The child data is changed in place so the components are not
+        // detached and attached again
+        for (Map.Entry<? extends Component, GridArea> move : moves
+                .entrySet()) {
+            ChildComponentData data = childData.get(move.getKey());
+            GridArea area = move.getValue();
+            data.column1 = area.getColumn1();
+            data.row1 = area.getRow1();
+            data.column2 = area.getColumn2();
+            data.row2 = area.getRow2();
+        }
+        markAsDirty();
+    }
+
+    /**
+     * Computes where the components end up if every component is moved up as
+     * far as it fits, topmost components first. Only the components that
+     * move are returned.
+     *
+     * @return the new areas of the moved components
+     */
+    public Map<Component, GridArea> getCompactedAreas() {
+        final Map<Component, GridArea> areas = new LinkedHashMap<Component, GridArea>();
+        for (Component c : this) {
+            areas.put(c, getGridArea(c));
+        }
+        List<Component> sorted = new ArrayList<Component>(areas.keySet());
+        Collections.sort(sorted, new Comparator<Component>() {
+            @Override
+            public int compare(Component c1, Component c2) {
+                GridArea a1 = areas.get(c1);
+                GridArea a2 = areas.get(c2);
+                if (a1.getRow1() != a2.getRow1()) {
+                    return a1.getRow1() - a2.getRow1();
+                }
+                return a1.getColumn1() - a2.getColumn1();
+            }
+        });
+
+        GridOccupancy scratch = getOccupancy().copy();
+        Map<Component, GridArea> moves = new LinkedHashMap<Component, GridArea>();
+        for (Component c : sorted) {
+            GridArea area = areas.get(c);
+            scratch.clear(area);
+
+            // Rows below the top row are already known to be free, only the
+            // row above needs checking on every step
+            int row = area.getRow1();
+            while (row > 0 && scratch.isFree(new GridArea(area.getColumn1(),
+                    row - 1, area.getColumn2(), row - 1))) {
+                row--;
+            }
+
+            GridArea compacted = area.moveTo(area.getColumn1(), row);
+            scratch.set(c, compacted);
+            if (row != area.getRow1()) {
+                moves.put(c, compacted);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Moves every component up as far as it fits. Only the moved components
+     * are updated to the client, in one batch.
+     *
+     * @return the amount of moved components
+     */
+    public int compact() {
+        Map<Component, GridArea> moves = getCompactedAreas();
+        moveComponents(moves);
+        return moves.size();
+    }
+
+    /**
+     * Moves up the components that can move after some areas of the grid
+     * changed, e.g. after a drop. The grid is expected to have been compact
+     * before the change, so only the components starting at or below the
+     * topmost changed row and overlapping the columns of the changed areas
+     * are visited. When a component moves up the columns it vacates are
+     * visited as well. Only the moved components are updated to the client,
+     * in one batch.
+     *
+     * @param changed
+     *            the areas that were vacated or occupied by the change
+     * @return the amount of moved components
+     */
+    public int compact(Collection<GridArea> changed) {
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        int topRow = Integer.MAX_VALUE;
+        BitSet columns = new BitSet(getColumns());
+        for (GridArea area : changed) {
+            topRow = Math.min(topRow, area.getRow1());
+            columns.set(area.getColumn1(), area.getColumn2() + 1);
+        }
+
+        // Components above the changed rows cannot move
+        final Map<Component, GridArea> areas = new LinkedHashMap<Component, GridArea>();
+        for (Component c : this) {
+            GridArea area = getGridArea(c);
+            if (area.getRow1() >= topRow) {
+                areas.put(c, area);
+            }
+        }
+        List<Component> sorted = new ArrayList<Component>(areas.keySet());
+        Collections.sort(sorted, new Comparator<Component>() {
+            @Override
+            public int compare(Component c1, Component c2) {
+                GridArea a1 = areas.get(c1);
+                GridArea a2 = areas.get(c2);
+                if (a1.getRow1() != a2.getRow1()) {
+                    return a1.getRow1() - a2.getRow1();
+                }
+                return a1.getColumn1() - a2.getColumn1();
+            }
+        });
+
+        // Nothing is rejected when moving up, the live occupancy is updated
+        // directly instead of validating the moves against a copy
+        GridOccupancy occupancy = getOccupancy();
+        Map<Component, GridArea> moves = new LinkedHashMap<Component, GridArea>();
+        for (Component c : sorted) {
+            GridArea area = areas.get(c);
+            if (columns.nextSetBit(area.getColumn1()) == -1 || columns
+                    .nextSetBit(area.getColumn1()) > area.getColumn2()) {
+                continue;
+            }
+
+            occupancy.clear(area);
+            int row = area.getRow1();
+            while (row > 0 && occupancy.isFree(new GridArea(area.getColumn1(),
+                    row - 1, area.getColumn2(), row - 1))) {
+                row--;
+            }
+            GridArea compacted = area.moveTo(area.getColumn1(), row);
+            occupancy.set(c, compacted);
+            if (row != area.getRow1()) {
+                moves.put(c, compacted);
+                columns.set(area.getColumn1(), area.getColumn2() + 1);
+            }
+        }
+
+        if (!moves.isEmpty()) {
+            Map<Connector, ChildComponentData> childData = getState(
+                    false).childData;
+            for (Map.Entry<Component, GridArea> move : moves.entrySet()) {
+                ChildComponentData data = childData.get(move.getKey());
+                GridArea area = move.getValue();
+                data.row1 = area.getRow1();
+                data.row2 = area.getRow2();
+            }
+            markAsDirty();
+        }
+        return moves.size();
+    }
+
+    private void restore(List<Component> placed,
+            Map<? extends Component, GridArea> moves) {
+        for (Component c : placed) {
+            occupancy.clear(moves.get(c));
+        }
+        for (Component c : moves.keySet()) {
+            occupancy.set(c, getGridArea(c));
+        }
+    }
+
+    private Area toArea(Component component, GridArea area) {
+        return new Area(component, area.getColumn1(), area.getRow1(),
+                area.getColumn2(), area.getRow2());
+    }
+
+    private static Component findOverlapping(GridOccupancy occupancy,
+            GridArea area) {
+        for (int r = area.getRow1(); r <= area.getRow2(); r++) {
+            for (int c = area.getColumn1(); c <= area.getColumn2(); c++) {
+                Component component = occupancy.getComponent(c, r);
+                if (component != null) {
+                    return component;
+                }
+            }
+        }
+        return null;
+    }
 }
@@ -14,13 +14,15 @@
 package fi.jasoft.dragdroplayouts;
 
 import com.vaadin.event.dd.DropHandler;
+import com.vaadin.event.dd.DropTarget;
 import com.vaadin.server.AbstractClientConnector;
-import com.vaadin.server.ClientConnectorResources;
-import com.vaadin.server.KeyMapper;
-import com.vaadin.server.Resource;
+import com.vaadin.server.PaintException;
+import com.vaadin.server.PaintTarget;
 import com.vaadin.shared.Connector;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.HasComponents;
+import com.vaadin.ui.TabSheet;
+import com.vaadin.ui.TabSheet.Tab;
 import fi.jasoft.dragdroplayouts.client.ui.DragCaptionInfo;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.DDLayoutState;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.DragAndDropAwareState;
@@ -29,14 +31,36 @@ import fi.jasoft.dragdroplayouts.interfaces.*;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 public class DDUtil {
 
     public static void onBeforeClientResponse(HasComponents layout,
             DragAndDropAwareState state) {
         DDLayoutState dragAndDropState = state.getDragAndDropState();
+
+        DropHandler dropHandler = layout instanceof DropTarget
+                ? ((DropTarget) layout).getDropHandler() : null;
+        if (dropHandler != null && layout.isEnabled()) {
+            dragAndDropState.acceptCriterionId = AcceptCriterionRegistry
+                    .get(layout.getUI()).register(layout, dropHandler);
+        } else {
+            dragAndDropState.acceptCriterionId = null;
+            AcceptCriterionRegistry.unregisterLayout(layout);
+        }
+
+        DragStateTracker tracker = null;
+        if (layout instanceof DragStateTrackingSupport) {
+            tracker = ((DragStateTrackingSupport) layout).getDragStateTracker();
+            if (tracker != null && tracker.isEnabled()) {
+                tracker.update(layout, dragAndDropState);
+                return;
+            }
+        }
+
         Iterator<Component> componentIterator = layout.iterator();
 
         dragAndDropState.draggable = new ArrayList<>();
@@ -44,76 +68,365 @@ public class DDUtil {
         dragAndDropState.nonGrabbable = new ArrayList<>();
         dragAndDropState.dragCaptions = new HashMap<>();
 
-        if (layout instanceof AbstractClientConnector) {
-            for (DragCaptionInfo dci : dragAndDropState.dragCaptions.values()) {
-                if (dci.iconKey != null) {
-                    ClientConnectorResources.setResource(
-                            (AbstractClientConnector) layout,
-                            dci.iconKey,
-                            null
-                    );
-                }
-            }
-        }
-
-        KeyMapper<Resource> keyMapper = new KeyMapper<>();
+        DragIconRegistry icons = getIconRegistry(layout, tracker);
+        Set<Component> captioned = new HashSet<>();
+        boolean lazyDragImages = isLazyDragImages(layout);
 
         while (componentIterator.hasNext()) {
             Component c = componentIterator.next();
 
-            if (layout instanceof DragFilterSupport
-                    && ((DragFilterSupport) layout).getDragFilter()
-                            .isDraggable(c)) {
+            if (isDraggable(layout, c)) {
                 dragAndDropState.draggable.add(c);
             }
 
-            if (layout instanceof DragGrabFilterSupport) {
-                DragGrabFilter dragGrabFilter = ((DragGrabFilterSupport) layout).getDragGrabFilter();
-                if (dragGrabFilter != null) {
-                    addNonGrabbedComponents(dragAndDropState.nonGrabbable, c, dragGrabFilter);
-                }
+            addNonGrabbedComponents(layout, dragAndDropState.nonGrabbable, c);
+
+            if (lazyDragImages) {
+                // Resolved on demand by the lazy drag image extension
+                continue;
+            }
+
+            captioned.add(c);
+            DragCaptionInfo dci = createDragCaptionInfo(layout, c, icons);
+            if (dci != null) {
+                dragAndDropState.dragCaptions.put(c, dci);
+            }
+
+            Component dragImage = getDragImage(layout, c);
+            if (dragImage != null) {
+                dragAndDropState.referenceImageComponents.put(c, dragImage);
+            }
+        }
+
+        // Release the icons of removed children
+        if (icons != null) {
+            icons.retain(captioned);
+        }
+
+        if (tracker != null && tracker.isCompactEncoding()) {
+            encodeDraggableCompact(layout, dragAndDropState);
+        } else {
+            dragAndDropState.compactDraggable = false;
+        }
+    }
+
+    /**
+     * Replaces the draggable and non grabbable lists of the state with the
+     * compact encoding. Instead of listing every child only the children
+     * which differ from the most common case are sent, keyed by connector id.
+     * Non grabbable components nested deeper than the children are still
+     * listed as they are.
+     *
+     * @param children
+     *            the children of the layout
+     * @param state
+     *            the state where the lists already have been built
+     */
+    static void encodeDraggableCompact(Iterable<Component> children,
+            DDLayoutState state) {
+        Set<Connector> draggable = new HashSet<>(state.draggable);
+        Set<Connector> nonGrabbable = new HashSet<>(state.nonGrabbable);
+        Set<String> draggableIds = new HashSet<>();
+        Set<String> nonDraggableIds = new HashSet<>();
+        Set<String> grabbableIds = new HashSet<>();
+        Set<String> nonGrabbableIds = new HashSet<>();
+        for (Component c : children) {
+            if (draggable.contains(c)) {
+                draggableIds.add(c.getConnectorId());
+            } else {
+                nonDraggableIds.add(c.getConnectorId());
+            }
+            if (nonGrabbable.remove(c)) {
+                nonGrabbableIds.add(c.getConnectorId());
+            } else {
+                grabbableIds.add(c.getConnectorId());
             }
+        }
+
+        state.compactDraggable = true;
+        state.draggableByDefault = draggableIds.size() > nonDraggableIds
+                .size();
+        state.draggableExceptions = state.draggableByDefault
+                ? nonDraggableIds : draggableIds;
+        state.draggable = new ArrayList<>();
 
-            if (layout instanceof HasDragCaptionProvider) {
-                DragCaptionProvider dragCaptionProvider = ((HasDragCaptionProvider) layout)
-                        .getDragCaptionProvider();
-
-                if (dragCaptionProvider != null) {
-                    DragCaption dragCaption = dragCaptionProvider.getDragCaption(c);
-
-                    if (dragCaption != null) {
-                        String dragIconKey = null;
-                        if (dragCaption.getIcon() != null
-                                && layout instanceof AbstractClientConnector) {
-                            dragIconKey = keyMapper.key(dragCaption.getIcon());
-                            ClientConnectorResources.setResource(
-                                    (AbstractClientConnector) layout,
-                                    dragIconKey,
-                                    dragCaption.getIcon()
-                            );
-                        }
-
-                        DragCaptionInfo dci = new DragCaptionInfo();
-                        dci.caption = dragCaption.getCaption();
-                        dci.contentMode = dragCaption.getContentMode();
-                        dci.iconKey = dragIconKey;
-
-                        dragAndDropState.dragCaptions.put(c, dci);
-                    }
-                }
+        state.nonGrabbableByDefault = nonGrabbableIds.size() > grabbableIds
+                .size();
+        state.nonGrabbableExceptions = state.nonGrabbableByDefault
+                ? grabbableIds : nonGrabbableIds;
+        // Only the nested components are left
+        state.nonGrabbable = new ArrayList<>(nonGrabbable);
+    }
+
+    /**
+     * Is the child draggable according to the drag filter of the layout
+     */
+    static boolean isDraggable(HasComponents layout, Component c) {
+        return layout instanceof DragFilterSupport
+                && ((DragFilterSupport) layout).getDragFilter().isDraggable(c);
+    }
+
+    /**
+     * Collects the child and its descendants which cannot be grabbed according
+     * to the grab filter of the layout
+     */
+    static void addNonGrabbedComponents(HasComponents layout,
+            List<Connector> nonGrabbable, Component c) {
+        if (layout instanceof DragGrabFilterSupport) {
+            DragGrabFilter dragGrabFilter = ((DragGrabFilterSupport) layout)
+                    .getDragGrabFilter();
+            if (dragGrabFilter != null) {
+                addNonGrabbedComponents(nonGrabbable, c, dragGrabFilter);
             }
+        }
+    }
 
-            if (layout instanceof DragImageReferenceSupport) {
-                DragImageProvider provider = ((DragImageReferenceSupport) layout)
-                        .getDragImageProvider();
-                if (provider != null) {
-                    Component dragImage = provider.getDragImage(c);
-                    if (dragImage != null) {
-                        dragAndDropState.referenceImageComponents.put(c,
-                                dragImage);
-                    }
-                }
+    /**
+     * Resolves the drag caption of the child using the caption provider of the
+     * layout. Any icon of the caption is registered in the given icon
+     * registry with the child as the holder.
+     *
+     * @return the caption info or null if the child has no custom caption
+     */
+    static DragCaptionInfo createDragCaptionInfo(HasComponents layout,
+            Component c, DragIconRegistry icons) {
+        DragCaption dragCaption = getDragCaption(layout, c);
+        if (dragCaption == null) {
+            if (icons != null) {
+                icons.release(c);
             }
+            return null;
+        }
+
+        DragCaptionInfo dci = new DragCaptionInfo();
+        dci.caption = dragCaption.getCaption();
+        dci.contentMode = dragCaption.getContentMode();
+        dci.iconKey = icons == null ? null
+                : icons.register(c, dragCaption.getIcon());
+        return dci;
+    }
+
+    private static DragCaption getDragCaption(HasComponents layout,
+            Component c) {
+        if (!(layout instanceof HasDragCaptionProvider)) {
+            return null;
+        }
+
+        DragCaptionProvider dragCaptionProvider = ((HasDragCaptionProvider) layout)
+                .getDragCaptionProvider();
+        if (dragCaptionProvider == null) {
+            return null;
+        }
+
+        return dragCaptionProvider.getDragCaption(c);
+    }
+
+    /*
+     * The registry of the tracker lives as long as the layout. Layouts
+     * without a tracker get a new registry on every response.
+     */
+    private static DragIconRegistry getIconRegistry(HasComponents layout,
+            DragStateTracker tracker) {
+        if (tracker != null) {
+            return tracker.getIconRegistry();
+        } else if (layout instanceof AbstractClientConnector) {
+            return new DragIconRegistry((AbstractClientConnector) layout);
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the reference drag image of the child using the drag image
+     * provider of the layout
+     *
+     * @return the drag image component or null if none is provided
+     */
+    static Component getDragImage(HasComponents layout, Component c) {
+        if (layout instanceof DragImageReferenceSupport) {
+            DragImageProvider provider = ((DragImageReferenceSupport) layout)
+                    .getDragImageProvider();
+            if (provider != null) {
+                return provider.getDragImage(c);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Moves children within the child list of an ordered layout. The moved
+     * components are removed from their current positions and inserted as a
+     * group starting from the given index.
+     *
+     * @param children
+     *            the child list of the layout
+     * @param moved
+     *            the children to move, in the order they should end up in
+     * @param index
+     *            the index of the first moved child after the move, clamped
+     *            to the size of the list
+     * @return true if the order of the children changed
+     * @throws IllegalArgumentException
+     *             if a moved component is not in the child list
+     */
+    public static boolean moveComponents(List<Component> children,
+            List<? extends Component> moved, int index) {
+        Set<Component> movedSet = new HashSet<>(moved);
+        if (movedSet.size() != moved.size()) {
+            throw new IllegalArgumentException(
+                    "The same component cannot be moved twice");
+        }
+
+        List<Component> before = new ArrayList<>(children);
+        int removed = 0;
+        Iterator<Component> iterator = children.iterator();
+        while (iterator.hasNext()) {
+            if (movedSet.contains(iterator.next())) {
+                iterator.remove();
+                removed++;
+            }
+        }
+
+        if (removed != moved.size()) {
+            children.clear();
+            children.addAll(before);
+            throw new IllegalArgumentException(
+                    "Only children of the layout can be moved");
+        }
+
+        index = Math.max(0, Math.min(index, children.size()));
+        children.addAll(index, moved);
+        return !children.equals(before);
+    }
+
+    /**
+     * Moves tabs of a tab sheet or an accordion. Only the positions of the
+     * tabs change, the tab contents stay attached.
+     *
+     * @param tabSheet
+     *            the tab sheet
+     * @param moved
+     *            the contents of the tabs to move, in the order they should
+     *            end up in
+     * @param index
+     *            the position of the first moved tab after the move, clamped
+     *            to the amount of tabs
+     * @throws IllegalArgumentException
+     *             if a moved component is not a tab of the tab sheet
+     */
+    public static void moveTabs(TabSheet tabSheet,
+            List<? extends Component> moved, int index) {
+        List<Component> order = new ArrayList<>(tabSheet.getComponentCount());
+        for (Component c : tabSheet) {
+            order.add(c);
+        }
+
+        if (!moveComponents(order, moved, index)) {
+            return;
+        }
+
+        // Tabs before pos are in place, pull the next one into place
+        for (int pos = 0; pos < order.size(); pos++) {
+            Tab tab = tabSheet.getTab(order.get(pos));
+            if (tabSheet.getTab(pos) != tab) {
+                tabSheet.setTabPosition(tab, pos);
+            }
+        }
+    }
+
+    /**
+     * Returns the content of the tab at a position. Positions outside of the
+     * tabs resolve to the last tab like iterating the tabs would.
+     *
+     * @param tabSheet
+     *            the tab sheet
+     * @param index
+     *            the position of the tab
+     * @return the content of the tab or null if there are no tabs
+     */
+    public static Component getTabComponent(TabSheet tabSheet, int index) {
+        int count = tabSheet.getComponentCount();
+        if (count == 0) {
+            return null;
+        }
+        if (index < 0 || index >= count) {
+            index = count - 1;
+        }
+        return tabSheet.getTab(index).getComponent();
+    }
+
+    /**
+     * Are the drag captions and drag images of the layout resolved on demand
+     */
+    static boolean isLazyDragImages(HasComponents layout) {
+        return layout instanceof LazyDragImageSupport
+                && ((LazyDragImageSupport) layout).isLazyDragImages();
+    }
+
+    /**
+     * Adds or removes the extension resolving the drag captions and drag
+     * images of the layout on demand. Called by the layouts when the lazy
+     * mode is toggled.
+     *
+     * @param layout
+     *            the layout
+     * @param lazy
+     *            are the drag captions and images resolved on demand
+     */
+    public static <T extends AbstractClientConnector & HasComponents> void setLazyDragImages(
+            T layout, boolean lazy) {
+        LazyDragImageExtension extension = LazyDragImageExtension.get(layout);
+        if (lazy && extension == null) {
+            new LazyDragImageExtension(layout);
+        } else if (!lazy && extension != null) {
+            layout.removeExtension(extension);
+        }
+
+        if (layout instanceof DragStateTrackingSupport) {
+            DragStateTracker tracker = ((DragStateTrackingSupport) layout)
+                    .getDragStateTracker();
+            if (tracker != null) {
+                tracker.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Paints the accept criterion of a layout unless the client already has
+     * it. The layouts reference the criterion through the id in their state.
+     *
+     * @param layout
+     *            the layout
+     * @param dropHandler
+     *            the drop handler of the layout
+     * @param target
+     *            the paint target of the layout
+     * @throws PaintException
+     *             if painting the criterion fails
+     */
+    public static void paintAcceptCriterion(Component layout,
+            DropHandler dropHandler, PaintTarget target)
+            throws PaintException {
+        AcceptCriterionRegistry.get(layout.getUI()).paint(layout,
+                dropHandler, target);
+    }
+
+    /**
+     * Adds or removes the extension answering the accept decision prefetches
+     * of a layout
+     *
+     * @param layout
+     *            the layout
+     * @param prefetch
+     *            are the decisions prefetched
+     */
+    public static <T extends AbstractClientConnector & HasComponents> void setAcceptPrefetch(
+            T layout, boolean prefetch) {
+        AcceptPrefetchExtension extension = AcceptPrefetchExtension
+                .get(layout);
+        if (prefetch && extension == null) {
+            new AcceptPrefetchExtension(layout);
+        } else if (!prefetch && extension != null) {
+            layout.removeExtension(extension);
         }
     }
 
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.vaadin.server.AbstractClientConnector;
+import com.vaadin.server.ClientConnectorResources;
+import com.vaadin.server.Resource;
+
+/**
+ * Registers the icons of drag captions as resources of a connector. Every
+ * distinct icon is registered once under a key which stays the same as long
+ * as the icon is in use, no matter how many children use it. Icons are
+ * reference counted by the children using them and removed from the
+ * resources of the connector once the last child stops using them.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class DragIconRegistry implements Serializable {
+
+    /**
+     * Prefix of the resource keys, keeps the keys apart from the other
+     * resources of the connector
+     */
+    public static final String KEY_PREFIX = "dd-icon-";
+
+    private static class Entry implements Serializable {
+        private final String key;
+        private int references;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+    }
+
+    private final AbstractClientConnector owner;
+
+    private final Map<Resource, Entry> icons = new HashMap<>();
+
+    private final Map<Object, Resource> holders = new HashMap<>();
+
+    private long nextKey = 0;
+
+    /**
+     * Creates a registry for a connector
+     *
+     * @param owner
+     *            the connector the icons are registered to
+     */
+    public DragIconRegistry(AbstractClientConnector owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Sets the icon used by a holder. The previous icon of the holder is
+     * released.
+     *
+     * @param holder
+     *            the user of the icon, typically the child the drag caption
+     *            belongs to
+     * @param icon
+     *            the icon or null to only release the previous icon
+     * @return the resource key of the icon or null if the icon was null
+     */
+    public String register(Object holder, Resource icon) {
+        Resource previous = icon == null ? holders.remove(holder)
+                : holders.put(holder, icon);
+        if (icon != null && icon.equals(previous)) {
+            return icons.get(icon).key;
+        }
+
+        String key = null;
+        if (icon != null) {
+            Entry entry = icons.get(icon);
+            if (entry == null) {
+                entry = new Entry(KEY_PREFIX + nextKey++);
+                icons.put(icon, entry);
+                ClientConnectorResources.setResource(owner, entry.key, icon);
+            }
+            entry.references++;
+            key = entry.key;
+        }
+
+        if (previous != null) {
+            unreference(previous);
+        }
+        return key;
+    }
+
+    /**
+     * Releases the icon used by a holder
+     *
+     * @param holder
+     *            the user of the icon
+     */
+    public void release(Object holder) {
+        register(holder, null);
+    }
+
+    /**
+     * Releases the icons of all holders except the given ones
+     *
+     * @param retained
+     *            the holders still in use, e.g. the current children of the
+     *            layout
+     */
+    public void retain(Collection<?> retained) {
+        Collection<?> lookup = retained instanceof Set ? retained
+                : new HashSet<Object>(retained);
+        Iterator<Map.Entry<Object, Resource>> iterator = holders.entrySet()
+                .iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Object, Resource> holder = iterator.next();
+            if (!lookup.contains(holder.getKey())) {
+                iterator.remove();
+                unreference(holder.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the resource key of an icon
+     *
+     * @param icon
+     *            the icon
+     * @return the key or null if the icon is not in use
+     */
+    public String getKey(Resource icon) {
+        Entry entry = icons.get(icon);
+        return entry == null ? null : entry.key;
+    }
+
+    /**
+     * Returns the amount of distinct icons registered
+     */
+    public int size() {
+        return icons.size();
+    }
+
+    private void unreference(Resource icon) {
+        Entry entry = icons.get(icon);
+        if (--entry.references == 0) {
+            icons.remove(icon);
+            ClientConnectorResources.setResource(owner, entry.key, null);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import com.vaadin.server.AbstractClientConnector;
+import com.vaadin.shared.Connector;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.HasComponents;
+import fi.jasoft.dragdroplayouts.client.ui.DragCaptionInfo;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.DDLayoutState;
+import fi.jasoft.dragdroplayouts.interfaces.DragFilter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the drag and drop state of the children of a layout so the
+ * {@link fi.jasoft.dragdroplayouts.client.ui.interfaces.DDLayoutState} only is
+ * rebuilt for children that were added, removed or explicitly invalidated.
+ * <p>
+ * When tracking is enabled the drag filter, grab filter, drag caption provider
+ * and drag image provider are only consulted once per child. If the result of
+ * any of them depends on something else than the child itself, call
+ * {@link #invalidate(Component)} or {@link #invalidate()} when that changes.
+ * Grab filter results for nested components are cached as well, so changes
+ * deep inside a child also require invalidating the child.
+ * <p>
+ * Tracking is disabled by default.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class DragStateTracker implements Serializable {
+
+    /**
+     * Cached drag and drop details of a single child
+     */
+    private static class Entry implements Serializable {
+        private boolean draggable;
+        private List<Connector> nonGrabbable;
+        private DragCaptionInfo dragCaption;
+        private Component dragImage;
+    }
+
+    private final AbstractClientConnector layout;
+
+    private final Map<Component, Entry> entries = new LinkedHashMap<>();
+
+    private final Set<Component> invalidated = new HashSet<>();
+
+    private final DragIconRegistry iconRegistry;
+
+    private boolean enabled = false;
+
+    private boolean invalidateAll = true;
+
+    private boolean compactEncoding = false;
+
+    /**
+     * Creates a tracker for a layout
+     *
+     * @param layout
+     *            the layout whose children are tracked
+     */
+    public DragStateTracker(AbstractClientConnector layout) {
+        this.layout = layout;
+        this.iconRegistry = new DragIconRegistry(layout);
+    }
+
+    /**
+     * Returns the registry of the drag caption icons of the layout
+     */
+    public DragIconRegistry getIconRegistry() {
+        return iconRegistry;
+    }
+
+    /**
+     * Is dirty tracking enabled
+     *
+     * @return true if only changed children are re-evaluated
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables dirty tracking. When disabled the whole drag and
+     * drop state is rebuilt on every response.
+     *
+     * @param enabled
+     *            should only changed children be re-evaluated
+     */
+    public void setEnabled(boolean enabled) {
+        if (this.enabled != enabled) {
+            this.enabled = enabled;
+            invalidate();
+        }
+    }
+
+    /**
+     * Is the compact encoding used for sending the draggable children
+     *
+     * @return true if only the exceptions from the most common case are sent
+     */
+    public boolean isCompactEncoding() {
+        return compactEncoding;
+    }
+
+    /**
+     * Enables or disables the compact encoding of the draggable children. In
+     * compact form the state does not list every draggable child, instead
+     * only the connector ids of the children which differ from the most
+     * common case are sent. With the default {@link DragFilter#ALL} filter
+     * this means nothing is sent regardless of the amount of children.
+     *
+     * @param compactEncoding
+     *            should the compact encoding be used
+     */
+    public void setCompactEncoding(boolean compactEncoding) {
+        if (this.compactEncoding != compactEncoding) {
+            this.compactEncoding = compactEncoding;
+            invalidate();
+        }
+    }
+
+    /**
+     * Marks a child as changed so its drag and drop details are re-evaluated
+     * before the next response.
+     *
+     * @param component
+     *            the child component
+     */
+    public void invalidate(Component component) {
+        if (component != null && invalidated.add(component)) {
+            layout.markAsDirty();
+        }
+    }
+
+    /**
+     * Marks all children as changed so the drag and drop details are
+     * re-evaluated before the next response. Should be called when a filter
+     * or provider of the layout changes.
+     */
+    public void invalidate() {
+        invalidateAll = true;
+        invalidated.clear();
+        layout.markAsDirty();
+    }
+
+    /**
+     * Updates the drag and drop state with the changed children. The state is
+     * left untouched if no children has changed.
+     *
+     * @param container
+     *            the layout
+     * @param state
+     *            the drag and drop state of the layout
+     * @return true if the state was updated
+     */
+    boolean update(HasComponents container, DDLayoutState state) {
+        boolean changed = false;
+
+        if (invalidateAll) {
+            entries.clear();
+            invalidated.clear();
+            invalidateAll = false;
+            changed = true;
+        }
+
+        Set<Component> current = new HashSet<>();
+        for (Component c : container) {
+            current.add(c);
+            Entry entry = entries.get(c);
+            if (entry == null || invalidated.remove(c)) {
+                Entry evaluated = evaluate(container, c);
+                changed |= entry == null || !isSame(entry, evaluated);
+                entries.put(c, evaluated);
+            }
+        }
+
+        Iterator<Component> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (!current.contains(iterator.next())) {
+                iterator.remove();
+                changed = true;
+            }
+        }
+        invalidated.clear();
+        iconRegistry.retain(current);
+
+        if (changed) {
+            apply(state);
+            if (compactEncoding) {
+                DDUtil.encodeDraggableCompact(entries.keySet(), state);
+            } else {
+                state.compactDraggable = false;
+            }
+        }
+        return changed;
+    }
+
+    private Entry evaluate(HasComponents container, Component c) {
+        Entry entry = new Entry();
+        entry.draggable = DDUtil.isDraggable(container, c);
+
+        List<Connector> nonGrabbable = new ArrayList<>();
+        DDUtil.addNonGrabbedComponents(container, nonGrabbable, c);
+        entry.nonGrabbable = nonGrabbable.isEmpty()
+                ? Collections.<Connector> emptyList() : nonGrabbable;
+
+        if (DDUtil.isLazyDragImages(container)) {
+            iconRegistry.release(c);
+        } else {
+            entry.dragCaption = DDUtil.createDragCaptionInfo(container, c,
+                    iconRegistry);
+            entry.dragImage = DDUtil.getDragImage(container, c);
+        }
+        return entry;
+    }
+
+    private static boolean isSame(Entry e1, Entry e2) {
+        return e1.draggable == e2.draggable
+                && e1.nonGrabbable.equals(e2.nonGrabbable)
+                && e1.dragImage == e2.dragImage
+                && isSame(e1.dragCaption, e2.dragCaption);
+    }
+
+    private static boolean isSame(DragCaptionInfo c1, DragCaptionInfo c2) {
+        if (c1 == null || c2 == null) {
+            return c1 == c2;
+        }
+        return equals(c1.caption, c2.caption)
+                && equals(c1.iconKey, c2.iconKey)
+                && c1.contentMode == c2.contentMode;
+    }
+
+    private static boolean equals(Object o1, Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+
+    private void apply(DDLayoutState state) {
+        List<Connector> draggable = new ArrayList<>();
+        List<Connector> nonGrabbable = new ArrayList<>();
+        Map<Connector, DragCaptionInfo> dragCaptions = new HashMap<>();
+        Map<Connector, Connector> referenceImageComponents = new HashMap<>();
+
+        for (Map.Entry<Component, Entry> e : entries.entrySet()) {
+            Component c = e.getKey();
+            Entry entry = e.getValue();
+            if (entry.draggable) {
+                draggable.add(c);
+            }
+            nonGrabbable.addAll(entry.nonGrabbable);
+            if (entry.dragCaption != null) {
+                dragCaptions.put(c, entry.dragCaption);
+            }
+            if (entry.dragImage != null) {
+                referenceImageComponents.put(c, entry.dragImage);
+            }
+        }
+
+        state.draggable = draggable;
+        state.nonGrabbable = nonGrabbable;
+        state.dragCaptions = dragCaptions;
+        state.referenceImageComponents = referenceImageComponents;
+    }
+}
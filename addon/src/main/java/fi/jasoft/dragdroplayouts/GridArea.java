@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.io.Serializable;
+
+/**
+ * An immutable rectangular area of grid cells, the columns and rows are
+ * inclusive like in {@link com.vaadin.ui.GridLayout.Area}
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public final class GridArea implements Serializable {
+
+    private final int column1;
+    private final int row1;
+    private final int column2;
+    private final int row2;
+
+    /**
+     * Creates an area
+     *
+     * @param column1
+     *            the first column of the area
+     * @param row1
+     *            the first row of the area
+     * @param column2
+     *            the last column of the area
+     * @param row2
+     *            the last row of the area
+     */
+    public GridArea(int column1, int row1, int column2, int row2) {
+        if (column2 < column1 || row2 < row1) {
+            throw new IllegalArgumentException("Illegal area " + column1 + ","
+                    + row1 + " - " + column2 + "," + row2);
+        }
+        this.column1 = column1;
+        this.row1 = row1;
+        this.column2 = column2;
+        this.row2 = row2;
+    }
+
+    public int getColumn1() {
+        return column1;
+    }
+
+    public int getRow1() {
+        return row1;
+    }
+
+    public int getColumn2() {
+        return column2;
+    }
+
+    public int getRow2() {
+        return row2;
+    }
+
+    /**
+     * Returns the amount of columns the area spans
+     */
+    public int getWidth() {
+        return column2 - column1 + 1;
+    }
+
+    /**
+     * Returns the amount of rows the area spans
+     */
+    public int getHeight() {
+        return row2 - row1 + 1;
+    }
+
+    /**
+     * Returns an area of the same size with the top left corner in a new cell
+     *
+     * @param column
+     *            the new first column
+     * @param row
+     *            the new first row
+     * @return the moved area
+     */
+    public GridArea moveTo(int column, int row) {
+        return new GridArea(column, row, column + getWidth() - 1,
+                row + getHeight() - 1);
+    }
+
+    /**
+     * Does the area share any cells with another area
+     */
+    public boolean overlaps(GridArea other) {
+        return column1 <= other.column2 && other.column1 <= column2
+                && row1 <= other.row2 && other.row1 <= row2;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof GridArea)) {
+            return false;
+        }
+        GridArea other = (GridArea) obj;
+        return column1 == other.column1 && row1 == other.row1
+                && column2 == other.column2 && row2 == other.row2;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((column1 * 31 + row1) * 31 + column2) * 31 + row2;
+    }
+
+    @Override
+    public String toString() {
+        return column1 + "," + row1 + " - " + column2 + "," + row2;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.io.Serializable;
+import java.util.BitSet;
+
+import com.vaadin.ui.Component;
+
+/**
+ * Occupancy matrix of the cells of a {@link DDGridLayout}. Every row is a bit
+ * set of the occupied columns so checking whether an area is free only
+ * touches the rows of the area, the owner of every cell is kept in a flat
+ * array.
+ * <p>
+ * The matrix is maintained by the layout, see
+ * {@link DDGridLayout#getOccupancy()}.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class GridOccupancy implements Serializable {
+
+    private final int columns;
+
+    private final int rows;
+
+    private final BitSet[] occupied;
+
+    private final Component[] owners;
+
+    GridOccupancy(int columns, int rows) {
+        this.columns = columns;
+        this.rows = rows;
+        occupied = new BitSet[rows];
+        for (int r = 0; r < rows; r++) {
+            occupied[r] = new BitSet(columns);
+        }
+        owners = new Component[columns * rows];
+    }
+
+    private GridOccupancy(GridOccupancy other) {
+        columns = other.columns;
+        rows = other.rows;
+        occupied = new BitSet[rows];
+        for (int r = 0; r < rows; r++) {
+            occupied[r] = (BitSet) other.occupied[r].clone();
+        }
+        owners = other.owners.clone();
+    }
+
+    /**
+     * Returns the amount of columns of the grid
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the amount of rows of the grid
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Is the area inside the grid
+     */
+    public boolean contains(GridArea area) {
+        return area.getColumn1() >= 0 && area.getRow1() >= 0
+                && area.getColumn2() < columns && area.getRow2() < rows;
+    }
+
+    /**
+     * Returns the component occupying a cell
+     *
+     * @param column
+     *            the column of the cell
+     * @param row
+     *            the row of the cell
+     * @return the component or null if the cell is free or outside the grid
+     */
+    public Component getComponent(int column, int row) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            return null;
+        }
+        return owners[row * columns + column];
+    }
+
+    /**
+     * Is the area inside the grid and free
+     *
+     * @param area
+     *            the area
+     * @param ignored
+     *            components whose cells are considered free, e.g. the
+     *            component being moved
+     * @return true if the area can be occupied
+     */
+    public boolean isFree(GridArea area, Component... ignored) {
+        if (!contains(area)) {
+            return false;
+        }
+        for (int r = area.getRow1(); r <= area.getRow2(); r++) {
+            int c = occupied[r].nextSetBit(area.getColumn1());
+            while (c != -1 && c <= area.getColumn2()) {
+                if (!isIgnored(owners[r * columns + c], ignored)) {
+                    return false;
+                }
+                c = occupied[r].nextSetBit(c + 1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the free area closest to a cell. Candidates are searched in
+     * growing squares around the cell, rows above columns.
+     *
+     * @param column
+     *            the preferred first column
+     * @param row
+     *            the preferred first row
+     * @param width
+     *            the amount of columns needed
+     * @param height
+     *            the amount of rows needed
+     * @param ignored
+     *            components whose cells are considered free
+     * @return the closest free area or null if there is none
+     */
+    public GridArea findNearestFree(int column, int row, int width,
+            int height, Component... ignored) {
+        int maxColumn = columns - width;
+        int maxRow = rows - height;
+        if (maxColumn < 0 || maxRow < 0) {
+            return null;
+        }
+
+        column = Math.max(0, Math.min(column, maxColumn));
+        row = Math.max(0, Math.min(row, maxRow));
+        int maxDistance = Math.max(Math.max(column, maxColumn - column),
+                Math.max(row, maxRow - row));
+
+        for (int d = 0; d <= maxDistance; d++) {
+            for (int r = Math.max(0, row - d); r <= Math.min(maxRow,
+                    row + d); r++) {
+                boolean edgeRow = Math.abs(r - row) == d;
+                for (int c = Math.max(0, column - d); c <= Math.min(maxColumn,
+                        column + d); c++) {
+                    if (!edgeRow && Math.abs(c - column) != d) {
+                        continue;
+                    }
+                    GridArea area = new GridArea(c, r, c + width - 1,
+                            r + height - 1);
+                    if (isFree(area, ignored)) {
+                        return area;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    GridOccupancy copy() {
+        return new GridOccupancy(this);
+    }
+
+    void set(Component component, GridArea area) {
+        for (int r = area.getRow1(); r <= area.getRow2(); r++) {
+            occupied[r].set(area.getColumn1(), area.getColumn2() + 1);
+            for (int c = area.getColumn1(); c <= area.getColumn2(); c++) {
+                owners[r * columns + c] = component;
+            }
+        }
+    }
+
+    void clear(GridArea area) {
+        for (int r = area.getRow1(); r <= area.getRow2(); r++) {
+            occupied[r].clear(area.getColumn1(), area.getColumn2() + 1);
+            for (int c = area.getColumn1(); c <= area.getColumn2(); c++) {
+                owners[r * columns + c] = null;
+            }
+        }
+    }
+
+    private static boolean isIgnored(Component c, Component[] ignored) {
+        for (Component i : ignored) {
+            if (i == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
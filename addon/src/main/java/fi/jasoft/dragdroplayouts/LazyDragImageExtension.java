@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.vaadin.server.AbstractClientConnector;
+import com.vaadin.server.AbstractExtension;
+import com.vaadin.server.Extension;
+import com.vaadin.shared.Connector;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.HasComponents;
+
+import fi.jasoft.dragdroplayouts.client.ui.DragCaptionInfo;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.LazyDragImageClientRpc;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.LazyDragImageServerRpc;
+import fi.jasoft.dragdroplayouts.interfaces.LazyDragImageSupport;
+
+/**
+ * Answers the drag caption and drag image requests of a layout using
+ * {@link LazyDragImageSupport}. The extension is added and removed by the
+ * layout when the lazy mode is toggled, icons of the drag captions are
+ * registered as resources of the extension through a
+ * {@link DragIconRegistry}.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class LazyDragImageExtension extends AbstractExtension {
+
+    private final HasComponents layout;
+
+    private final DragIconRegistry icons = new DragIconRegistry(this);
+
+    /**
+     * Extends a layout
+     *
+     * @param layout
+     *            the layout to resolve the drag images for
+     */
+    public <T extends AbstractClientConnector & HasComponents> LazyDragImageExtension(
+            T layout) {
+        this.layout = layout;
+        registerRpc(new LazyDragImageServerRpc() {
+            @Override
+            public void requestDragImage(Connector component) {
+                resolve(component);
+            }
+        });
+        extend(layout);
+    }
+
+    private void resolve(Connector connector) {
+        // Only children of the layout can be dragged
+        if (!(connector instanceof Component)
+                || ((Component) connector).getParent() != layout) {
+            return;
+        }
+
+        // Release the icons of children removed since the last request
+        Set<Component> children = new HashSet<>();
+        for (Component child : layout) {
+            children.add(child);
+        }
+        icons.retain(children);
+
+        Component c = (Component) connector;
+        DragCaptionInfo caption = DDUtil.createDragCaptionInfo(layout, c,
+                icons);
+        Component image = DDUtil.getDragImage(layout, c);
+        getRpcProxy(LazyDragImageClientRpc.class).setDragImage(c, caption,
+                image);
+    }
+
+    /**
+     * Returns the extension of a layout
+     *
+     * @param layout
+     *            the layout
+     * @return the extension or null if the layout has not been extended
+     */
+    public static LazyDragImageExtension get(
+            AbstractClientConnector layout) {
+        for (Extension e : layout.getExtensions()) {
+            if (e instanceof LazyDragImageExtension) {
+                return (LazyDragImageExtension) e;
+            }
+        }
+        return null;
+    }
+}
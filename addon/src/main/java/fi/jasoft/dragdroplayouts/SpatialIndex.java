@@ -0,0 +1,266 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.vaadin.ui.Component;
+
+import fi.jasoft.dragdroplayouts.client.ui.absolutelayout.SnapEdges;
+
+/**
+ * Spatial index of the pixel positioned components of a
+ * {@link DDAbsoluteLayout}. The components are kept in fixed size buckets for
+ * overlap queries and their edges in sorted arrays for snapping.
+ * <p>
+ * The index is maintained by the layout, see
+ * {@link DDAbsoluteLayout#getSpatialIndex()}.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class SpatialIndex implements Serializable {
+
+    /**
+     * The width and height of a bucket in pixels
+     */
+    public static final int BUCKET_SIZE = 128;
+
+    private final Map<Component, int[]> bounds = new HashMap<Component, int[]>();
+
+    private final Map<Long, Set<Component>> buckets = new HashMap<Long, Set<Component>>();
+
+    private final SnapEdges horizontalEdges = new SnapEdges();
+
+    private final SnapEdges verticalEdges = new SnapEdges();
+
+    private int modCount = 0;
+
+    /**
+     * Returns the edges along the horizontal axis, i.e. the left and right
+     * edges of the components
+     */
+    public SnapEdges getHorizontalEdges() {
+        return horizontalEdges;
+    }
+
+    /**
+     * Returns the edges along the vertical axis, i.e. the top and bottom
+     * edges of the components
+     */
+    public SnapEdges getVerticalEdges() {
+        return verticalEdges;
+    }
+
+    /**
+     * Is the component in the index
+     */
+    public boolean contains(Component component) {
+        return bounds.containsKey(component);
+    }
+
+    /**
+     * Returns the amount of components in the index
+     */
+    public int size() {
+        return bounds.size();
+    }
+
+    /**
+     * Returns the bounds of a component as left, top, width and height
+     *
+     * @return the bounds or null if the component is not in the index
+     */
+    public int[] getBounds(Component component) {
+        int[] b = bounds.get(component);
+        return b == null ? null : b.clone();
+    }
+
+    /**
+     * Finds the components overlapping a rectangle
+     *
+     * @param left
+     *            the left edge of the rectangle
+     * @param top
+     *            the top edge of the rectangle
+     * @param width
+     *            the width of the rectangle
+     * @param height
+     *            the height of the rectangle
+     * @param ignored
+     *            a component left out of the result, can be null
+     * @return the overlapping components
+     */
+    public List<Component> findOverlapping(int left, int top, int width,
+            int height, Component ignored) {
+        Set<Component> found = new LinkedHashSet<Component>();
+        for (int bx = bucket(left); bx <= bucket(left + width - 1); bx++) {
+            for (int by = bucket(top); by <= bucket(top + height - 1); by++) {
+                Set<Component> candidates = buckets.get(key(bx, by));
+                if (candidates == null) {
+                    continue;
+                }
+                for (Component c : candidates) {
+                    if (c != ignored && !found.contains(c)
+                            && overlaps(bounds.get(c), left, top, width,
+                                    height)) {
+                        found.add(c);
+                    }
+                }
+            }
+        }
+        return new ArrayList<Component>(found);
+    }
+
+    /**
+     * Returns the left position where the left or the right edge of a
+     * component lines up with the closest edge of another component
+     *
+     * @param component
+     *            the component being moved, its own edges are not snapped
+     *            to. Can be null.
+     * @param left
+     *            the left position of the component
+     * @param width
+     *            the width of the component
+     * @param threshold
+     *            the maximum snapping distance in pixels
+     * @return the snapped left position
+     */
+    public int snapLeft(Component component, int left, int width,
+            int threshold) {
+        int[] b = bounds.get(component);
+        if (b == null) {
+            return left + horizontalEdges.snap(left, width, threshold);
+        }
+        horizontalEdges.remove(b[0]);
+        horizontalEdges.remove(b[0] + b[2]);
+        try {
+            return left + horizontalEdges.snap(left, width, threshold);
+        } finally {
+            horizontalEdges.add(b[0]);
+            horizontalEdges.add(b[0] + b[2]);
+        }
+    }
+
+    /**
+     * Returns the top position where the top or the bottom edge of a
+     * component lines up with the closest edge of another component
+     *
+     * @param component
+     *            the component being moved, its own edges are not snapped
+     *            to. Can be null.
+     * @param top
+     *            the top position of the component
+     * @param height
+     *            the height of the component
+     * @param threshold
+     *            the maximum snapping distance in pixels
+     * @return the snapped top position
+     */
+    public int snapTop(Component component, int top, int height,
+            int threshold) {
+        int[] b = bounds.get(component);
+        if (b == null) {
+            return top + verticalEdges.snap(top, height, threshold);
+        }
+        verticalEdges.remove(b[1]);
+        verticalEdges.remove(b[1] + b[3]);
+        try {
+            return top + verticalEdges.snap(top, height, threshold);
+        } finally {
+            verticalEdges.add(b[1]);
+            verticalEdges.add(b[1] + b[3]);
+        }
+    }
+
+    /**
+     * Returns a counter which changes every time the index changes
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    void put(Component component, int left, int top, int width, int height) {
+        int[] old = bounds.get(component);
+        if (old != null && old[0] == left && old[1] == top && old[2] == width
+                && old[3] == height) {
+            return;
+        }
+        remove(component);
+
+        int[] b = new int[] { left, top, Math.max(0, width),
+                Math.max(0, height) };
+        bounds.put(component, b);
+        for (int bx = bucket(b[0]); bx <= bucket(b[0] + b[2]); bx++) {
+            for (int by = bucket(b[1]); by <= bucket(b[1] + b[3]); by++) {
+                Long key = key(bx, by);
+                Set<Component> bucket = buckets.get(key);
+                if (bucket == null) {
+                    bucket = new LinkedHashSet<Component>();
+                    buckets.put(key, bucket);
+                }
+                bucket.add(component);
+            }
+        }
+        horizontalEdges.add(b[0]);
+        horizontalEdges.add(b[0] + b[2]);
+        verticalEdges.add(b[1]);
+        verticalEdges.add(b[1] + b[3]);
+        modCount++;
+    }
+
+    void remove(Component component) {
+        int[] b = bounds.remove(component);
+        if (b == null) {
+            return;
+        }
+        for (int bx = bucket(b[0]); bx <= bucket(b[0] + b[2]); bx++) {
+            for (int by = bucket(b[1]); by <= bucket(b[1] + b[3]); by++) {
+                Long key = key(bx, by);
+                Set<Component> bucket = buckets.get(key);
+                if (bucket != null && bucket.remove(component)
+                        && bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+        horizontalEdges.remove(b[0]);
+        horizontalEdges.remove(b[0] + b[2]);
+        verticalEdges.remove(b[1]);
+        verticalEdges.remove(b[1] + b[3]);
+        modCount++;
+    }
+
+    private static boolean overlaps(int[] b, int left, int top, int width,
+            int height) {
+        return b[0] < left + width && left < b[0] + b[2]
+                && b[1] < top + height && top < b[1] + b[3];
+    }
+
+    private static int bucket(int coordinate) {
+        return Math.floorDiv(coordinate, BUCKET_SIZE);
+    }
+
+    private static Long key(int bx, int by) {
+        return ((long) bx << 32) | (by & 0xffffffffL);
+    }
+}
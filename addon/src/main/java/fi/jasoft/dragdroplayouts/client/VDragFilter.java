@@ -22,18 +22,18 @@ import fi.jasoft.dragdroplayouts.client.ui.interfaces.DDLayoutState;
 
 public class VDragFilter {
 
-    private final DDLayoutState state;
+    private final VDragStateIndex index;
 
     public VDragFilter(DDLayoutState state) {
-        this.state = state;
+        this(new VDragStateIndex(state));
+    }
+
+    public VDragFilter(VDragStateIndex index) {
+        this.index = index;
     }
 
     public boolean isDraggable(Widget widget) {
-        ComponentConnector component = findConnectorFor(widget);
-        if (state.draggable != null) {
-            return state.draggable.contains(component);
-        }
-        return false;
+        return index.isDraggable(findConnectorFor(widget));
     }
 
     private ComponentConnector findConnectorFor(Widget widget) {
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gwt.user.client.ui.Widget;
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.ServerConnector;
+import com.vaadin.shared.Connector;
+
+import fi.jasoft.dragdroplayouts.client.ui.DragCaptionInfo;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.DDLayoutState;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.DragAndDropAwareState;
+
+/**
+ * Lookup index of the drag and drop state of a layout. The index is rebuilt
+ * once per state change and shared by the drag filter, grab filter, drag
+ * caption provider and drag image provider of the layout so drag start does
+ * not need to scan the state.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class VDragStateIndex {
+
+    private DDLayoutState state;
+
+    private final Set<Connector> draggable = new HashSet<Connector>();
+
+    private final Set<Connector> nonGrabbable = new HashSet<Connector>();
+
+    // Memoized grab decisions of the widgets between a grabbed widget and the
+    // layout
+    private final Map<Widget, Boolean> grabDecisions = new HashMap<Widget, Boolean>();
+
+    /**
+     * Creates an empty index
+     */
+    public VDragStateIndex() {
+        // Populated by update()
+    }
+
+    /**
+     * Creates an index from a state
+     *
+     * @param state
+     *            the drag and drop state of the layout
+     */
+    public VDragStateIndex(DDLayoutState state) {
+        update(state);
+    }
+
+    /**
+     * Rebuilds the index from the state. Should be called once when the state
+     * changes.
+     *
+     * @param state
+     *            the drag and drop state of the layout
+     */
+    public void update(DDLayoutState state) {
+        this.state = state;
+
+        draggable.clear();
+        if (!state.compactDraggable && state.draggable != null) {
+            draggable.addAll(state.draggable);
+        }
+
+        nonGrabbable.clear();
+        if (state.nonGrabbable != null) {
+            nonGrabbable.addAll(state.nonGrabbable);
+        }
+
+        grabDecisions.clear();
+    }
+
+    /**
+     * Forgets all memoized grab decisions. Should be called when the widget
+     * hierarchy of the layout changes.
+     */
+    public void clearGrabDecisions() {
+        grabDecisions.clear();
+    }
+
+    /**
+     * Returns the state the index was built from
+     */
+    public DDLayoutState getState() {
+        return state;
+    }
+
+    /**
+     * Is the child component draggable
+     *
+     * @param component
+     *            the child component
+     * @return true if the component can be dragged
+     */
+    public boolean isDraggable(ComponentConnector component) {
+        if (component == null || state == null) {
+            return false;
+        }
+        if (!state.compactDraggable) {
+            return draggable.contains(component);
+        }
+        if (!isChildOfLayout(component)) {
+            return false;
+        }
+        boolean exception = state.draggableExceptions != null
+                && state.draggableExceptions
+                        .contains(component.getConnectorId());
+        return state.draggableByDefault != exception;
+    }
+
+    private boolean isChildOfLayout(ComponentConnector component) {
+        ServerConnector parent = component.getParent();
+        if (parent == null
+                || !(parent.getState() instanceof DragAndDropAwareState)) {
+            return false;
+        }
+        return ((DragAndDropAwareState) parent.getState())
+                .getDragAndDropState() == state;
+    }
+
+    /**
+     * Does the layout have any components which cannot be grabbed
+     */
+    public boolean hasNonGrabbable() {
+        if (!nonGrabbable.isEmpty()) {
+            return true;
+        }
+        return state != null && state.compactDraggable
+                && (state.nonGrabbableByDefault
+                        || state.nonGrabbableExceptions != null
+                                && !state.nonGrabbableExceptions.isEmpty());
+    }
+
+    /**
+     * Is the component marked as not grabbable
+     *
+     * @param component
+     *            the component, can be nested deep inside the layout
+     * @return true if the component cannot be used for grabbing
+     */
+    public boolean isNonGrabbable(ComponentConnector component) {
+        if (component == null) {
+            return false;
+        }
+        if (nonGrabbable.contains(component)) {
+            return true;
+        }
+        if (state == null || !state.compactDraggable
+                || !isChildOfLayout(component)) {
+            return false;
+        }
+        boolean exception = state.nonGrabbableExceptions != null
+                && state.nonGrabbableExceptions
+                        .contains(component.getConnectorId());
+        return state.nonGrabbableByDefault != exception;
+    }
+
+    /**
+     * Returns the memoized grab decision for a widget
+     *
+     * @param widget
+     *            the widget
+     * @return the decision or null if not yet resolved
+     */
+    public Boolean getGrabDecision(Widget widget) {
+        return grabDecisions.get(widget);
+    }
+
+    /**
+     * Memoizes the grab decision of a widget
+     *
+     * @param widget
+     *            the widget
+     * @param grabbable
+     *            can the widget be used for grabbing
+     */
+    public void setGrabDecision(Widget widget, boolean grabbable) {
+        grabDecisions.put(widget, grabbable);
+    }
+
+    /**
+     * Returns the custom drag caption of a child
+     *
+     * @param component
+     *            the child component
+     * @return the caption info or null if the child has no custom caption
+     */
+    public DragCaptionInfo getDragCaption(ComponentConnector component) {
+        if (component == null || state == null || state.dragCaptions == null) {
+            return null;
+        }
+        return state.dragCaptions.get(component);
+    }
+
+    /**
+     * Does the layout have any custom drag captions
+     */
+    public boolean hasDragCaptions() {
+        return state != null && state.dragCaptions != null
+                && !state.dragCaptions.isEmpty();
+    }
+
+    /**
+     * Returns the reference drag image of a child
+     *
+     * @param component
+     *            the child component
+     * @return the drag image component or null if the child has none
+     */
+    public Connector getReferenceImage(ComponentConnector component) {
+        if (component == null || state == null
+                || state.referenceImageComponents == null) {
+            return null;
+        }
+        return state.referenceImageComponents.get(component);
+    }
+}
@@ -23,12 +23,19 @@ import fi.jasoft.dragdroplayouts.client.ui.interfaces.DDLayoutState;
 public class VGrabFilter {
     protected final DDLayoutState state;
 
+    protected final VDragStateIndex index;
+
     public VGrabFilter(DDLayoutState state) {
-        this.state = state;
+        this(new VDragStateIndex(state));
+    }
+
+    public VGrabFilter(VDragStateIndex index) {
+        this.index = index;
+        this.state = index.getState();
     }
 
     public boolean canBeGrabbed(Widget root, Widget widget) {
-        if (state.nonGrabbable != null) {
+        if (index.hasNonGrabbable()) {
             return canBeGrabbedRecursive(root, widget);
         }
         return true;
@@ -39,6 +46,11 @@ public class VGrabFilter {
             return true;
         }
 
+        Boolean decision = index.getGrabDecision(widget);
+        if (decision != null) {
+            return decision;
+        }
+
         ComponentConnector connector;
         if (!isCaptionForAccordion(widget)) {
             connector = Util.findConnectorFor(widget);
@@ -46,16 +58,18 @@ public class VGrabFilter {
             connector = findConnectorForAccordionCaption(widget);
         }
 
-        if (connector != null && state.nonGrabbable.contains(connector)) {
-            return false;
-        }
-
+        boolean grabbable;
         Widget parent = widget.getParent();
-        if (parent == null || parent == root) {
-            return true;
+        if (index.isNonGrabbable(connector)) {
+            grabbable = false;
+        } else if (parent == null || parent == root) {
+            grabbable = true;
+        } else {
+            grabbable = canBeGrabbedRecursive(root, parent);
         }
 
-        return canBeGrabbedRecursive(root, parent);
+        index.setGrabDecision(widget, grabbable);
+        return grabbable;
     }
 
     protected ComponentConnector findConnectorForAccordionCaption(Widget widget) {
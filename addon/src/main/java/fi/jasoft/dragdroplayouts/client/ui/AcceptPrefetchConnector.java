@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui;
+
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.ServerConnector;
+import com.vaadin.client.extensions.AbstractExtensionConnector;
+import com.vaadin.shared.ui.Connect;
+
+import fi.jasoft.dragdroplayouts.AcceptPrefetchExtension;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.AcceptPrefetchClientRpc;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.AcceptPrefetchServerRpc;
+
+/**
+ * Client side of {@link AcceptPrefetchExtension}. Registers the extended
+ * layout into the {@link VAcceptDecisionTable} and passes the answers of the
+ * server to it.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@Connect(AcceptPrefetchExtension.class)
+public class AcceptPrefetchConnector extends AbstractExtensionConnector {
+
+    private ComponentConnector target;
+
+    @Override
+    protected void init() {
+        super.init();
+        registerRpc(AcceptPrefetchClientRpc.class,
+                new AcceptPrefetchClientRpc() {
+                    @Override
+                    public void setDecisions(int requestId,
+                            int[] decisions) {
+                        VAcceptDecisionTable.get().setDecisions(requestId,
+                                decisions);
+                    }
+                });
+    }
+
+    @Override
+    protected void extend(ServerConnector target) {
+        this.target = (ComponentConnector) target;
+        VAcceptDecisionTable.get().setPrefetching(this.target,
+                getRpcProxy(AcceptPrefetchServerRpc.class));
+    }
+
+    @Override
+    public void onUnregister() {
+        super.onUnregister();
+        if (target != null) {
+            VAcceptDecisionTable.get().setPrefetching(target, null);
+        }
+    }
+}
@@ -36,6 +36,7 @@ public interface Constants {
     public static final String DROP_DETAIL_ABSOLUTE_TOP = "absoluteTop";
     public static final String DROP_DETAIL_RELATIVE_LEFT = "relativeLeft";
     public static final String DROP_DETAIL_RELATIVE_TOP = "relativeTop";
+    public static final String DROP_DETAIL_CRITERION_ROUND_TRIP = "criterionRoundTrip";
 
     // Transferable details
     public static final String TRANSFERABLE_DETAIL_COMPONENT = "component";
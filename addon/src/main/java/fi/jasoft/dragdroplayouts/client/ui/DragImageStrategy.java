@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui;
+
+/**
+ * DragImageStrategy specifies how the drag image of a dragged component is
+ * built when no drag image provider or drag caption is used.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public enum DragImageStrategy {
+
+    /**
+     * Deep clones the dragged component. This is the default behaviour.
+     */
+    CLONE,
+
+    /**
+     * Clones the dragged component up to a fixed amount of elements, the rest
+     * of the component is left out of the drag image.
+     */
+    CLONE_CAPPED,
+
+    /**
+     * Shows an empty box of the size of the dragged component.
+     */
+    OUTLINE,
+
+    /**
+     * The same as {@link DragImageStrategy#CLONE_CAPPED} except that the
+     * drag image is cached and reused while the size of the component stays
+     * the same. Canvases are copied into the drag image as bitmaps.
+     */
+    SNAPSHOT
+
+    ;
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui;
+
+import com.google.gwt.user.client.ui.Widget;
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.ServerConnector;
+import com.vaadin.client.communication.StateChangeEvent;
+import com.vaadin.client.communication.StateChangeEvent.StateChangeHandler;
+import com.vaadin.client.extensions.AbstractExtensionConnector;
+import com.vaadin.shared.Connector;
+import com.vaadin.shared.ui.Connect;
+
+import fi.jasoft.dragdroplayouts.LazyDragImageExtension;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.LazyDragImageClientRpc;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.LazyDragImageServerRpc;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.VHasDragCaptionProvider;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.VHasDragImageReferenceSupport;
+
+/**
+ * Client side of {@link LazyDragImageExtension}. Replaces the state based
+ * drag caption and drag image providers of the extended layout with ones
+ * backed by a {@link VLazyDragImageCache}.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@Connect(LazyDragImageExtension.class)
+public class LazyDragImageConnector extends AbstractExtensionConnector {
+
+    private VLazyDragImageCache cache;
+
+    @Override
+    protected void init() {
+        super.init();
+        cache = new VLazyDragImageCache(
+                getRpcProxy(LazyDragImageServerRpc.class));
+        registerRpc(LazyDragImageClientRpc.class,
+                new LazyDragImageClientRpc() {
+                    @Override
+                    public void setDragImage(Connector component,
+                            DragCaptionInfo caption, Connector image) {
+                        cache.setDragImage(component, caption, image);
+                    }
+                });
+    }
+
+    @Override
+    protected void extend(ServerConnector target) {
+        Widget widget = ((ComponentConnector) target).getWidget();
+
+        if (widget instanceof VHasDragCaptionProvider) {
+            ((VHasDragCaptionProvider) widget).setDragCaptionProvider(
+                    new VDragCaptionProvider(this, cache));
+        }
+
+        if (widget instanceof VHasDragImageReferenceSupport) {
+            ((VHasDragImageReferenceSupport) widget)
+                    .setDragImageProvider(cache);
+        }
+
+        target.addStateChangeHandler("ddState", new StateChangeHandler() {
+            @Override
+            public void onStateChanged(StateChangeEvent stateChangeEvent) {
+                cache.clear();
+            }
+        });
+    }
+
+    /**
+     * Returns the cache of the requested drag captions and images
+     */
+    public VLazyDragImageCache getCache() {
+        return cache;
+    }
+}
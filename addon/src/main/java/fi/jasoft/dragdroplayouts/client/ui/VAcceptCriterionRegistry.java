@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.vaadin.client.ApplicationConnection;
+import com.vaadin.client.UIDL;
+
+/**
+ * Client side of the accept criterion registry. Keeps the accept criteria
+ * received from the server by their id so a criterion shared by many layouts
+ * is received and parsed only once. The drop handlers look the criteria up
+ * by the id in the state of their layout.
+ * <p>
+ * The drop handlers acquire the id they use and release it when they switch
+ * to another id or their layout is detached. Criteria no drop handler uses
+ * are removed once the response has been processed, together with the
+ * connection when it has no criteria left. A layout starting to use an id
+ * later in the same response keeps the criterion.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class VAcceptCriterionRegistry {
+
+    private static VAcceptCriterionRegistry instance;
+
+    private static final class Entry {
+        private UIDL criterion;
+        private int users;
+    }
+
+    // Ids are only unique within a UI
+    private final Map<ApplicationConnection, Map<String, Entry>> criteria = new HashMap<ApplicationConnection, Map<String, Entry>>();
+
+    private boolean prunePending = false;
+
+    private final ScheduledCommand pruneCommand = new ScheduledCommand() {
+        @Override
+        public void execute() {
+            prunePending = false;
+            prune();
+        }
+    };
+
+    /**
+     * Returns the registry shared by all layouts
+     */
+    public static VAcceptCriterionRegistry get() {
+        if (instance == null) {
+            instance = new VAcceptCriterionRegistry();
+        }
+        return instance;
+    }
+
+    private VAcceptCriterionRegistry() {
+        // Singleton
+    }
+
+    /**
+     * Stores a criterion received from the server, replacing the previous
+     * criterion with the same id
+     *
+     * @param connection
+     *            the connection the criterion was received from
+     * @param id
+     *            the id of the criterion
+     * @param criterion
+     *            the painted criterion
+     */
+    public void register(ApplicationConnection connection, String id,
+            UIDL criterion) {
+        getEntry(connection, id).criterion = criterion;
+        schedulePrune();
+    }
+
+    /**
+     * Marks a criterion as used by a drop handler
+     *
+     * @param connection
+     *            the connection of the layout
+     * @param id
+     *            the id of the criterion
+     */
+    public void acquire(ApplicationConnection connection, String id) {
+        getEntry(connection, id).users++;
+    }
+
+    /**
+     * Marks a criterion as no longer used by a drop handler
+     *
+     * @param connection
+     *            the connection of the layout
+     * @param id
+     *            the id of the criterion
+     */
+    public void release(ApplicationConnection connection, String id) {
+        Map<String, Entry> map = criteria.get(connection);
+        Entry entry = map != null ? map.get(id) : null;
+        if (entry != null && --entry.users <= 0) {
+            schedulePrune();
+        }
+    }
+
+    /**
+     * Returns a criterion
+     *
+     * @param connection
+     *            the connection of the layout
+     * @param id
+     *            the id of the criterion
+     * @return the painted criterion or null if not received
+     */
+    public UIDL getCriterion(ApplicationConnection connection, String id) {
+        Map<String, Entry> map = criteria.get(connection);
+        Entry entry = map != null ? map.get(id) : null;
+        return entry != null ? entry.criterion : null;
+    }
+
+    private Entry getEntry(ApplicationConnection connection, String id) {
+        Map<String, Entry> map = criteria.get(connection);
+        if (map == null) {
+            map = new HashMap<String, Entry>();
+            criteria.put(connection, map);
+        }
+        Entry entry = map.get(id);
+        if (entry == null) {
+            entry = new Entry();
+            map.put(id, entry);
+        }
+        return entry;
+    }
+
+    private void schedulePrune() {
+        if (!prunePending) {
+            prunePending = true;
+            Scheduler.get().scheduleFinally(pruneCommand);
+        }
+    }
+
+    private void prune() {
+        for (Iterator<Map<String, Entry>> maps = criteria.values()
+                .iterator(); maps.hasNext();) {
+            Map<String, Entry> map = maps.next();
+            for (Iterator<Entry> entries = map.values().iterator(); entries
+                    .hasNext();) {
+                if (entries.next().users <= 0) {
+                    entries.remove();
+                }
+            }
+            if (map.isEmpty()) {
+                maps.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2015 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.user.client.ui.Widget;
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.ui.dd.VDragEvent;
+import com.vaadin.client.ui.dd.VTransferable;
+import com.vaadin.shared.Connector;
+
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.AcceptPrefetchClientRpc;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.AcceptPrefetchServerRpc;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.VDDHasDropHandler;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.VHasDropCandidates;
+
+/**
+ * Holds the prefetched accept decisions of the current drag. When a drag
+ * starts the drop locations of all visible layouts using accept prefetch are
+ * sent to the server in one request, the drop handlers then look up the
+ * decisions instead of checking the criterion on the server for every
+ * location.
+ * <p>
+ * The decisions are bound to the drag they were fetched for and dropped
+ * when the next drag starts.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class VAcceptDecisionTable {
+
+    private static VAcceptDecisionTable instance;
+
+    // Registered layouts and the rpc of the extensions answering them
+    private final Map<ComponentConnector, AcceptPrefetchServerRpc> targets = new LinkedHashMap<ComponentConnector, AcceptPrefetchServerRpc>();
+
+    private final Map<ComponentConnector, Map<String, Integer>> decisions = new HashMap<ComponentConnector, Map<String, Integer>>();
+
+    private List<ComponentConnector> requestTargets = new ArrayList<ComponentConnector>();
+
+    private List<String> requestKeys = new ArrayList<String>();
+
+    private VDragEvent drag;
+
+    private int requestId = 0;
+
+    /**
+     * Returns the table shared by all layouts
+     */
+    public static VAcceptDecisionTable get() {
+        if (instance == null) {
+            instance = new VAcceptDecisionTable();
+        }
+        return instance;
+    }
+
+    private VAcceptDecisionTable() {
+        // Singleton
+    }
+
+    /**
+     * Registers or unregisters a layout using accept prefetch
+     *
+     * @param target
+     *            the connector of the layout
+     * @param rpc
+     *            the rpc of the extension answering the prefetches of the
+     *            layout or null to unregister the layout
+     */
+    public void setPrefetching(ComponentConnector target,
+            AcceptPrefetchServerRpc rpc) {
+        if (rpc != null) {
+            targets.put(target, rpc);
+        } else {
+            targets.remove(target);
+            decisions.remove(target);
+        }
+    }
+
+    /**
+     * Requests the decisions of all visible registered layouts whose drop
+     * handler needs a server side check. Called when a drag starts.
+     *
+     * @param drag
+     *            the started drag
+     */
+    public void prefetch(VDragEvent drag) {
+        this.drag = drag;
+        requestId++;
+        decisions.clear();
+        requestTargets = new ArrayList<ComponentConnector>();
+        requestKeys = new ArrayList<String>();
+        if (targets.isEmpty()) {
+            return;
+        }
+
+        List<AcceptCandidate> candidates = new ArrayList<AcceptCandidate>();
+        AcceptPrefetchServerRpc sender = null;
+        for (Map.Entry<ComponentConnector, AcceptPrefetchServerRpc> entry : targets
+                .entrySet()) {
+            ComponentConnector target = entry.getKey();
+            if (!isPrefetchable(target, drag)) {
+                continue;
+            }
+            sender = entry.getValue();
+            for (Map<String, String> details : ((VHasDropCandidates) target
+                    .getWidget()).getDropCandidates()) {
+                AcceptCandidate candidate = new AcceptCandidate();
+                candidate.target = target;
+                candidate.details = details;
+                candidates.add(candidate);
+                requestTargets.add(target);
+                requestKeys.add(createKey(details));
+            }
+        }
+        if (sender == null) {
+            return;
+        }
+
+        VTransferable transferable = drag.getTransferable();
+        Map<String, String> data = new HashMap<String, String>();
+        for (String flavor : transferable.getDataFlavors()) {
+            Object value = transferable.getData(flavor);
+            if (value != null && !(value instanceof Connector)) {
+                data.put(flavor, String.valueOf(value));
+            }
+        }
+        Object component = transferable
+                .getData(Constants.TRANSFERABLE_DETAIL_COMPONENT);
+
+        sender.prefetch(requestId, transferable.getDragSource(),
+                component instanceof Connector ? (Connector) component : null,
+                data, candidates);
+    }
+
+    /**
+     * Stores the decisions of a request. Answers to requests of earlier
+     * drags are ignored.
+     *
+     * @param requestId
+     *            the id of the request
+     * @param values
+     *            the decisions in the order of the candidates
+     */
+    public void setDecisions(int requestId, int[] values) {
+        if (requestId != this.requestId
+                || values.length != requestTargets.size()) {
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == AcceptPrefetchClientRpc.UNKNOWN) {
+                continue;
+            }
+            ComponentConnector target = requestTargets.get(i);
+            Map<String, Integer> table = decisions.get(target);
+            if (table == null) {
+                table = new HashMap<String, Integer>();
+                decisions.put(target, table);
+            }
+            table.put(requestKeys.get(i), values[i]);
+        }
+    }
+
+    /**
+     * Returns the prefetched decision of the current drop location of a drag
+     *
+     * @param target
+     *            the layout the drag is over
+     * @param drag
+     *            the drag
+     * @return true if accepted, false if rejected or null if the decision is
+     *         not known
+     */
+    public Boolean getDecision(ComponentConnector target, VDragEvent drag) {
+        if (drag != this.drag) {
+            return null;
+        }
+        Map<String, Integer> table = decisions.get(target);
+        if (table == null) {
+            return null;
+        }
+        Integer decision = table.get(createKey(drag.getDropDetails()));
+        if (decision == null) {
+            return null;
+        }
+        return decision == AcceptPrefetchClientRpc.ACCEPTED;
+    }
+
+    private static boolean isPrefetchable(ComponentConnector target,
+            VDragEvent drag) {
+        Widget widget = target.getWidget();
+        if (!(widget instanceof VHasDropCandidates)
+                || !(widget instanceof VDDHasDropHandler)
+                || !widget.isAttached() || !widget.isVisible()
+                || !target.isEnabled()) {
+            return false;
+        }
+        VDDAbstractDropHandler<?> handler = ((VDDHasDropHandler<?>) widget)
+                .getDropHandler();
+        return handler != null && handler.needsServerSideCheck(drag);
+    }
+
+    /*
+     * Only the details identifying the drop location are part of the key,
+     * the mouse position changes on every event.
+     */
+    private static String createKey(Map<String, ?> details) {
+        String[] names = new String[] { Constants.DROP_DETAIL_TO,
+                Constants.DROP_DETAIL_VERTICAL_DROP_LOCATION,
+                Constants.DROP_DETAIL_HORIZONTAL_DROP_LOCATION };
+        StringBuilder key = new StringBuilder();
+        for (String name : names) {
+            Object value = details.get(name);
+            if (value != null) {
+                key.append(name).append('=').append(value).append(';');
+            }
+        }
+        return key.toString();
+    }
+}
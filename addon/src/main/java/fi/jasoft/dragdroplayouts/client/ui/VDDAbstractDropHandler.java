@@ -13,30 +13,258 @@
  */
 package fi.jasoft.dragdroplayouts.client.ui;
 
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.event.logical.shared.AttachEvent;
+import com.google.gwt.event.logical.shared.AttachEvent.Handler;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.ui.Widget;
 import com.vaadin.client.ApplicationConnection;
 import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.UIDL;
 import com.vaadin.client.ui.dd.VAbstractDropHandler;
+import com.vaadin.client.ui.dd.VAcceptCallback;
+import com.vaadin.client.ui.dd.VAcceptCriteria;
+import com.vaadin.client.ui.dd.VAcceptCriterion;
+import com.vaadin.client.ui.dd.VDragAndDropManager;
 import com.vaadin.client.ui.dd.VDragEvent;
 
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.DragAndDropAwareState;
+import fi.jasoft.dragdroplayouts.client.ui.util.CriterionRoundTripEngine;
+import fi.jasoft.dragdroplayouts.client.ui.util.DragEventScheduler;
+
 public abstract class VDDAbstractDropHandler<W extends Widget>
         extends VAbstractDropHandler {
 
     private final ComponentConnector connector;
 
+    private final DragEventScheduler dragOverScheduler = new DragEventScheduler(
+            new DragEventScheduler.Callback() {
+                @Override
+                public void execute(VDragEvent drag) {
+                    // The drag might have left or been dropped since
+                    if (VDragAndDropManager.get()
+                            .getCurrentDropHandler() == VDDAbstractDropHandler.this) {
+                        processDragOver(drag);
+                    }
+                }
+            });
+
+    private final CriterionRoundTripEngine criterionEngine = new CriterionRoundTripEngine(
+            this, new CriterionRoundTripEngine.Validator() {
+                @Override
+                public void validate(VAcceptCallback callback,
+                        VDragEvent drag) {
+                    VDDAbstractDropHandler.super.validate(callback, drag);
+                }
+            });
+
+    private VAcceptCriterion criterion;
+
+    private UIDL criterionUIDL;
+
+    private String criterionId;
+
+    private boolean resolvePending = false;
+
+    private HandlerRegistration attachRegistration;
+
+    // A detached layout does not use its criterion, it is acquired again if
+    // the layout is attached back
+    private final Handler attachHandler = new Handler() {
+        @Override
+        public void onAttachOrDetach(AttachEvent event) {
+            if (event.isAttached()) {
+                VAcceptCriterionRegistry.get()
+                        .acquire(connector.getConnection(), criterionId);
+            } else {
+                VAcceptCriterionRegistry.get()
+                        .release(connector.getConnection(), criterionId);
+            }
+        }
+    };
+
+    private final ScheduledCommand resolveCommand = new ScheduledCommand() {
+        @Override
+        public void execute() {
+            resolvePending = false;
+            resolveAcceptCriterion();
+        }
+    };
+
     public VDDAbstractDropHandler(ComponentConnector connector) {
         this.connector = connector;
     }
 
+    @Override
+    public void updateAcceptRules(UIDL rules) {
+        super.updateAcceptRules(rules);
+        criterionUIDL = rules;
+        criterion = VAcceptCriteria.get(rules.getStringAttribute("name"));
+    }
+
+    /**
+     * Sets the id of the accept criterion in the
+     * {@link VAcceptCriterionRegistry}. The criterion is resolved now and
+     * again once the whole response has been processed, since the criterion
+     * can arrive in the paint of another layout later in the same response.
+     * 
+     * @param id
+     *            the id of the criterion or null when the layout no longer
+     *            has a drop handler
+     */
+    public void setAcceptCriterionId(String id) {
+        if (id == null ? criterionId != null : !id.equals(criterionId)) {
+            boolean attached = connector.getWidget().isAttached();
+            if (criterionId != null && attached) {
+                VAcceptCriterionRegistry.get()
+                        .release(connector.getConnection(), criterionId);
+            }
+            if (id != null && attached) {
+                VAcceptCriterionRegistry.get()
+                        .acquire(connector.getConnection(), id);
+            }
+        }
+        criterionId = id;
+        if (id == null) {
+            if (attachRegistration != null) {
+                attachRegistration.removeHandler();
+                attachRegistration = null;
+            }
+            return;
+        }
+        if (attachRegistration == null) {
+            attachRegistration = connector.getWidget()
+                    .addAttachHandler(attachHandler);
+        }
+        resolveAcceptCriterion();
+        if (!resolvePending) {
+            resolvePending = true;
+            Scheduler.get().scheduleFinally(resolveCommand);
+        }
+    }
+
+    private void resolveAcceptCriterion() {
+        if (criterionId == null) {
+            return;
+        }
+        UIDL rules = VAcceptCriterionRegistry.get().getCriterion(
+                connector.getConnection(), criterionId);
+        if (rules != null && rules != criterionUIDL) {
+            updateAcceptRules(rules);
+        }
+    }
+
+    @Override
+    public void dragEnter(VDragEvent drag) {
+        resetDrag();
+        resolveAcceptCriterion();
+        super.dragEnter(drag);
+    }
+
+    /**
+     * Checks the accept criterion. Criteria needing the server are answered
+     * from the prefetched decisions of the {@link VAcceptDecisionTable} when
+     * possible and otherwise checked through the
+     * {@link CriterionRoundTripEngine} of the drop handler.
+     */
+    @Override
+    protected void validate(VAcceptCallback callback, VDragEvent drag) {
+        if (!needsServerSideCheck(drag)) {
+            super.validate(callback, drag);
+            return;
+        }
+        Boolean prefetched = VAcceptDecisionTable.get().getDecision(connector,
+                drag);
+        if (prefetched != null) {
+            if (prefetched) {
+                callback.accepted(drag);
+            }
+            return;
+        }
+        if (connector.getState() instanceof DragAndDropAwareState) {
+            criterionEngine.setInterval(
+                    ((DragAndDropAwareState) connector.getState())
+                            .getDragAndDropState().criterionCheckInterval);
+        }
+        criterionEngine.validate(callback, drag);
+    }
+
+    /**
+     * Does the accept criterion of the drop handler need to be checked on the
+     * server for the drag
+     * 
+     * @param drag
+     *            the drag event
+     */
+    public boolean needsServerSideCheck(VDragEvent drag) {
+        resolveAcceptCriterion();
+        return criterion != null
+                && criterion.needsServerSideCheck(drag, criterionUIDL);
+    }
+
+    /**
+     * Returns the engine scheduling the server side criterion checks, e.g. to
+     * read the observed round trip times
+     */
+    public CriterionRoundTripEngine getCriterionEngine() {
+        return criterionEngine;
+    }
+
+    /**
+     * Schedules the drag over to be processed on the next animation frame.
+     * Drag over events fired more often than the screen refreshes are
+     * coalesced, override {@link #processDragOver(VDragEvent)} to handle them.
+     */
+    @Override
+    public void dragOver(VDragEvent drag) {
+        dragOverScheduler.schedule(drag);
+    }
+
+    /**
+     * Processes the latest drag over event. Called at most once per animation
+     * frame and only when the pointer has moved.
+     * 
+     * @param drag
+     *            the drag event
+     */
+    protected void processDragOver(VDragEvent drag) {
+        // NOP
+    }
+
     @Override
     public ApplicationConnection getApplicationConnection() {
         return connector.getConnection();
     }
 
     public void cancelDrag(VDragEvent drag) {
+        resetDrag();
         dragLeave(drag);
     }
 
+    @Override
+    public void dragLeave(VDragEvent drag) {
+        resetDrag();
+        super.dragLeave(drag);
+    }
+
+    @Override
+    public boolean drop(VDragEvent drag) {
+        resetDrag();
+        return super.drop(drag);
+    }
+
+    /**
+     * Stops the drag over processing and the criterion checks scheduled for
+     * the drag. Called when the drag enters, leaves or is dropped on the drop
+     * handler. Drop handlers overriding {@link #drop(VDragEvent)} without
+     * always calling the super implementation need to call this themselves.
+     */
+    protected void resetDrag() {
+        dragOverScheduler.reset();
+        criterionEngine.reset();
+    }
+
     @Override
     protected void dragAccepted(VDragEvent drag) {
         // NOP
@@ -5,18 +5,58 @@ import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.user.client.DOM;
 import com.vaadin.client.ComponentConnector;
 import com.vaadin.client.WidgetUtil;
+import com.vaadin.client.ui.VVerticalLayout;
+import com.vaadin.client.ui.dd.VDragEvent;
 import com.vaadin.client.ui.orderedlayout.Slot;
 import com.vaadin.client.ui.orderedlayout.VAbstractOrderedLayout;
 
+import fi.jasoft.dragdroplayouts.client.ui.util.SlotGeometrySnapshot;
+
 public abstract class VDDAbstractOrderedLayoutDropHandler<W extends VAbstractOrderedLayout>
         extends VDDAbstractDropHandler<W> {
 
+    private SlotGeometrySnapshot slotGeometry;
+
     public VDDAbstractOrderedLayoutDropHandler(ComponentConnector connector) {
         super(connector);
     }
 
     protected abstract Slot getSlot(Element e, NativeEvent event);
 
+    /**
+     * Returns the slot geometry snapshot of the layout. The snapshot is active
+     * while a drag is over the layout.
+     */
+    public SlotGeometrySnapshot getSlotGeometry() {
+        if (slotGeometry == null) {
+            slotGeometry = new SlotGeometrySnapshot(getLayout(),
+                    getLayout() instanceof VVerticalLayout);
+        }
+        return slotGeometry;
+    }
+
+    @Override
+    public void dragEnter(VDragEvent drag) {
+        getSlotGeometry().activate();
+        super.dragEnter(drag);
+    }
+
+    /**
+     * Finds the slot under the pointer from the slot geometry snapshot
+     * 
+     * @param spacerSize
+     *            how far from the pointer a slot is searched for when the
+     *            pointer is between slots
+     * @param event
+     *            the event
+     * @return the slot or null if there is no slot near the pointer
+     */
+    protected Slot findSlotFromGeometry(int spacerSize, NativeEvent event) {
+        return getSlotGeometry().findSlot(
+                WidgetUtil.getTouchOrMouseClientX(event),
+                WidgetUtil.getTouchOrMouseClientY(event), spacerSize);
+    }
+
     protected Slot findSlotAtPosition(int clientX, int clientY,
             NativeEvent event) {
         com.google.gwt.dom.client.Element elementUnderMouse = WidgetUtil
@@ -7,21 +7,26 @@ import com.vaadin.client.ConnectorMap;
 import com.vaadin.client.Util;
 import com.vaadin.shared.Connector;
 
+import fi.jasoft.dragdroplayouts.client.VDragStateIndex;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.DDLayoutState;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.VDragImageProvider;
 
 public class VDDLayoutStateDragImageProvider implements VDragImageProvider {
 
-    private final DDLayoutState state;
+    private final VDragStateIndex index;
 
     public VDDLayoutStateDragImageProvider(DDLayoutState state) {
-        this.state = state;
+        this(new VDragStateIndex(state));
+    }
+
+    public VDDLayoutStateDragImageProvider(VDragStateIndex index) {
+        this.index = index;
     }
 
     @Override
     public Element getDragImageElement(Widget w) {
         ComponentConnector component = Util.findConnectorFor(w);
-        Connector dragImage = state.referenceImageComponents.get(component);
+        Connector dragImage = index.getReferenceImage(component);
 
         if (dragImage != null) {
             return ConnectorMap.get(component.getConnection())
@@ -28,14 +28,33 @@ import fi.jasoft.dragdroplayouts.client.ui.interfaces.DragAndDropAwareState;
 public class VDragCaptionProvider {
     private final AbstractConnector root;
 
+    private final VLazyDragImageCache cache;
+
     public VDragCaptionProvider(AbstractConnector root) {
+        this(root, null);
+    }
+
+    /**
+     * Creates a provider reading the captions from a cache of captions
+     * requested on demand
+     *
+     * @param root
+     *            the connector the caption icons are registered to
+     * @param cache
+     *            the cache of requested captions
+     */
+    public VDragCaptionProvider(AbstractConnector root,
+            VLazyDragImageCache cache) {
         this.root = root;
+        this.cache = cache;
     }
 
     public Element getDragCaptionElement(Widget w) {
         ComponentConnector component = Util.findConnectorFor(w);
-        DDLayoutState state = ((DragAndDropAwareState) root.getState()).getDragAndDropState();
-        DragCaptionInfo dci = state.dragCaptions.get(component);
+        DragCaptionInfo dci = getDragCaptionInfo(component);
+        if (dci == null) {
+            return null;
+        }
 
         Document document = Document.get();
 
@@ -55,7 +74,7 @@ public class VDragCaptionProvider {
             }
         }
 
-        String dragIconKey = state.dragCaptions.get(component).iconKey;
+        String dragIconKey = dci.iconKey;
         if (dragIconKey != null) {
             String resourceUrl = root.getResourceUrl(dragIconKey);
             Icon icon = component.getConnection().getIcon(resourceUrl);
@@ -66,4 +85,12 @@ public class VDragCaptionProvider {
 
         return dragCaptionImage;
     }
+
+    private DragCaptionInfo getDragCaptionInfo(ComponentConnector component) {
+        if (cache != null) {
+            return cache.getDragCaption(component);
+        }
+        DDLayoutState state = ((DragAndDropAwareState) root.getState()).getDragAndDropState();
+        return state.dragCaptions.get(component);
+    }
 }
\ No newline at end of file
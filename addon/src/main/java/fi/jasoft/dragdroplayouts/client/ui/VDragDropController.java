@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.EventTarget;
+import com.google.gwt.dom.client.NativeEvent;
+import com.google.gwt.user.client.ui.Widget;
+import com.vaadin.client.WidgetUtil;
+
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.VHasLayoutDragDropMouseHandler;
+
+/**
+ * Shared listener for the events starting a drag. The controller owns one
+ * listener function per event type which is added to the root element of
+ * every layout with a drag mode, the layouts do not allocate anything of
+ * their own until they take part in a drag. The layout is resolved from the
+ * element the listener was called for and the press is delegated to its
+ * mouse handler, which is only created the first time a press reaches it.
+ * <p>
+ * The press bubbles through the layouts like it would through listeners of
+ * their own, so nested layouts see it first and stopping its propagation
+ * hides it from the enclosing layouts and their ancestors. The non passive
+ * touch start listener needed for preventing the default of the press is
+ * only added to the layouts, not to the document.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class VDragDropController {
+
+    private static VDragDropController instance;
+
+    private static final String INSTALLED = "__ddInstalled";
+
+    private JavaScriptObject listeners;
+
+    /**
+     * Returns the controller shared by all layouts
+     */
+    public static VDragDropController get() {
+        if (instance == null) {
+            instance = new VDragDropController();
+        }
+        return instance;
+    }
+
+    private VDragDropController() {
+        // Singleton
+    }
+
+    /**
+     * Starts listening to the presses on a layout. Called by the layouts
+     * when their drag mode is set, the listeners are only added once per
+     * layout.
+     *
+     * @param layout
+     *            the layout
+     */
+    public void install(VHasLayoutDragDropMouseHandler layout) {
+        Element element = ((Widget) layout).getElement();
+        if (!isInstalled(element)) {
+            if (listeners == null) {
+                listeners = createListeners(
+                        VLayoutDragDropMouseHandler.isPointerEventsSupported());
+            }
+            listen(element, listeners);
+        }
+    }
+
+    /**
+     * Is the controller listening to the presses on a layout
+     *
+     * @param layout
+     *            the layout
+     */
+    public boolean isInstalled(VHasLayoutDragDropMouseHandler layout) {
+        return isInstalled(((Widget) layout).getElement());
+    }
+
+    private void onPointerDown(NativeEvent event) {
+        delegate(event, true);
+    }
+
+    private void onPress(NativeEvent event) {
+        delegate(event, false);
+    }
+
+    private void delegate(NativeEvent event, boolean pointer) {
+        EventTarget currentTarget = event.getCurrentEventTarget();
+        if (!Element.is(currentTarget)) {
+            return;
+        }
+
+        Widget widget = WidgetUtil.findWidget(Element.as(currentTarget),
+                null);
+        if (widget instanceof VHasLayoutDragDropMouseHandler) {
+            VHasLayoutDragDropMouseHandler layout = (VHasLayoutDragDropMouseHandler) widget;
+            if (layout.getDragMode() != LayoutDragMode.NONE) {
+                VLayoutDragDropMouseHandler handler = layout.getMouseHandler();
+                if (pointer) {
+                    handler.onPointerDown(event);
+                } else {
+                    handler.onPress(event);
+                }
+            }
+        }
+    }
+
+    private static native boolean isInstalled(Element element)
+    /*-{
+        return !!element[@fi.jasoft.dragdroplayouts.client.ui.VDragDropController::INSTALLED];
+    }-*/;
+
+    private native JavaScriptObject createListeners(boolean pointerEvents)
+    /*-{
+        var self = this;
+
+        // Touch listeners might be passive by default, the default of the
+        // touch start might need preventing
+        var options = false;
+        try {
+            var probe = Object.defineProperty({}, 'passive', {
+                get: function() {
+                    options = { passive: false };
+                }
+            });
+            $wnd.addEventListener('test', null, probe);
+            $wnd.removeEventListener('test', null, probe);
+        } catch (ignored) {
+            // Passive listeners not supported
+        }
+
+        var listeners = {
+            options: options,
+            press: $entry(function(e) {
+                self.@fi.jasoft.dragdroplayouts.client.ui.VDragDropController::onPress(Lcom/google/gwt/dom/client/NativeEvent;)(e);
+            })
+        };
+        if (pointerEvents) {
+            listeners.pointer = $entry(function(e) {
+                self.@fi.jasoft.dragdroplayouts.client.ui.VDragDropController::onPointerDown(Lcom/google/gwt/dom/client/NativeEvent;)(e);
+            });
+        }
+        return listeners;
+    }-*/;
+
+    private static native void listen(Element element,
+            JavaScriptObject listeners)
+    /*-{
+        element[@fi.jasoft.dragdroplayouts.client.ui.VDragDropController::INSTALLED] = true;
+        element.addEventListener('mousedown', listeners.press, false);
+        element.addEventListener('touchstart', listeners.press, listeners.options);
+        if (listeners.pointer) {
+            element.addEventListener('pointerdown', listeners.pointer, false);
+        }
+    }-*/;
+}
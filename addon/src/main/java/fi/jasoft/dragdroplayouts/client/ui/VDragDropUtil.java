@@ -19,6 +19,7 @@ import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.gwt.user.client.ui.WidgetCollection;
 import com.vaadin.client.*;
+import com.vaadin.client.ConnectorHierarchyChangeEvent.ConnectorHierarchyChangeHandler;
 import com.vaadin.client.communication.StateChangeEvent;
 import com.vaadin.client.communication.StateChangeEvent.StateChangeHandler;
 import com.vaadin.client.ui.*;
@@ -35,11 +36,17 @@ import com.vaadin.shared.ui.dd.VerticalDropLocation;
 import com.vaadin.ui.Button;
 import com.vaadin.ui.Link;
 import fi.jasoft.dragdroplayouts.client.VDragFilter;
+import fi.jasoft.dragdroplayouts.client.VDragStateIndex;
 import fi.jasoft.dragdroplayouts.client.VGrabFilter;
 import fi.jasoft.dragdroplayouts.client.ui.accordion.VDDAccordion;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.*;
 import fi.jasoft.dragdroplayouts.client.ui.tabsheet.VDDTabSheet;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Utility class for Drag and Drop operations
  * 
@@ -85,9 +92,26 @@ public final class VDragDropUtil {
      */
     public static VerticalDropLocation getVerticalDropLocation(Element element,
             int offsetHeight, int clientY, double topBottomRatio) {
+        return getVerticalDropLocation(element.getAbsoluteTop(), offsetHeight,
+                clientY, topBottomRatio);
+    }
 
-        int absoluteTop = element.getAbsoluteTop();
-        int fromTop = clientY - absoluteTop;
+    /**
+     * Get the vertical drop location of a cell with known geometry
+     * 
+     * @param top
+     *            The top of the cell
+     * @param offsetHeight
+     *            The height of the cell
+     * @param clientY
+     *            The y-coordinate of the drag
+     * @param topBottomRatio
+     *            The ratio of the cell
+     * @return The location of the drop
+     */
+    public static VerticalDropLocation getVerticalDropLocation(int top,
+            int offsetHeight, int clientY, double topBottomRatio) {
+        int fromTop = clientY - top;
 
         float percentageFromTop = (fromTop / (float) offsetHeight);
         if (percentageFromTop < topBottomRatio) {
@@ -112,10 +136,26 @@ public final class VDragDropUtil {
      */
     public static HorizontalDropLocation getHorizontalDropLocation(
             Element element, int clientX, double leftRightRatio) {
+        return getHorizontalDropLocation(element.getAbsoluteLeft(),
+                element.getOffsetWidth(), clientX, leftRightRatio);
+    }
 
-        int absoluteLeft = element.getAbsoluteLeft();
-        int offsetWidth = element.getOffsetWidth();
-        int fromTop = clientX - absoluteLeft;
+    /**
+     * Get the horizontal drop location of a cell with known geometry
+     * 
+     * @param left
+     *            The left edge of the cell
+     * @param offsetWidth
+     *            The width of the cell
+     * @param clientX
+     *            The x-coordinate of the drag
+     * @param leftRightRatio
+     *            The ratio of how the cell has been divided
+     * @return the drop location relative to the cell
+     */
+    public static HorizontalDropLocation getHorizontalDropLocation(int left,
+            int offsetWidth, int clientX, double leftRightRatio) {
+        int fromTop = clientX - left;
 
         float percentageFromTop = (fromTop / (float) offsetWidth);
         if (percentageFromTop < leftRightRatio) {
@@ -387,6 +427,65 @@ public final class VDragDropUtil {
         return draggingEnabled;
     }
 
+    /**
+     * Is the drop location of the layout shown with the overlay drop
+     * indicator instead of style names
+     * 
+     * @param layout
+     *            The layout widget
+     * @return true if the overlay drop indicator should be used
+     */
+    public static boolean isOverlayDropIndicator(Widget layout) {
+        ComponentConnector connector = Util.findConnectorFor(layout);
+        if (connector == null
+                || !(connector.getState() instanceof DragAndDropAwareState)) {
+            return false;
+        }
+        return ((DragAndDropAwareState) connector.getState())
+                .getDragAndDropState().overlayDropIndicator;
+    }
+
+    /**
+     * Returns the strategy used for building the drag image of the layout
+     * 
+     * @param layout
+     *            The layout widget
+     * @return the drag image strategy, {@link DragImageStrategy#CLONE} if
+     *         the layout has no drag and drop state
+     */
+    public static DragImageStrategy getDragImageStrategy(Widget layout) {
+        ComponentConnector connector = Util.findConnectorFor(layout);
+        if (connector == null
+                || !(connector.getState() instanceof DragAndDropAwareState)) {
+            return DragImageStrategy.CLONE;
+        }
+        DragImageStrategy strategy = ((DragAndDropAwareState) connector
+                .getState()).getDragAndDropState().dragImageStrategy;
+        return strategy == null ? DragImageStrategy.CLONE : strategy;
+    }
+
+    /**
+     * Returns the cache of the drag captions and images requested on demand
+     * for the layout
+     * 
+     * @param layout
+     *            The layout widget
+     * @return the cache or null if the layout does not resolve drag captions
+     *         and images on demand
+     */
+    public static VLazyDragImageCache getLazyDragImageCache(Widget layout) {
+        ComponentConnector connector = Util.findConnectorFor(layout);
+        if (connector == null) {
+            return null;
+        }
+        for (ServerConnector child : connector.getChildren()) {
+            if (child instanceof LazyDragImageConnector) {
+                return ((LazyDragImageConnector) child).getCache();
+            }
+        }
+        return null;
+    }
+
     /**
      * Removes the Drag and drop fake paintable from an UIDL
      * 
@@ -442,42 +541,74 @@ public final class VDragDropUtil {
      */
     public static void listenToStateChangeEvents(
             final AbstractConnector connector, final Widget widget) {
+        final VDragStateIndex index = new VDragStateIndex();
+
+        if (connector instanceof HasComponentsConnector) {
+            ((HasComponentsConnector) connector)
+                    .addConnectorHierarchyChangeHandler(
+                            new ConnectorHierarchyChangeHandler() {
+                                @Override
+                                public void onConnectorHierarchyChange(
+                                        ConnectorHierarchyChangeEvent event) {
+                                    index.clearGrabDecisions();
+                                }
+                            });
+        }
+
         connector.addStateChangeHandler("ddState", new StateChangeHandler() {
             @Override
             public void onStateChanged(StateChangeEvent stateChangeEvent) {
                 DDLayoutState state = ((DragAndDropAwareState) connector
                         .getState()).getDragAndDropState();
 
+                // Build the lookup index once, shared by all filters
+                index.update(state);
+
                 if (widget instanceof VHasDragMode) {
                     ((VHasDragMode) widget).setDragMode(state.dragMode);
                 }
 
                 if (widget instanceof VHasIframeShims) {
-                    ((VHasIframeShims) widget)
-                            .iframeShimsEnabled(state.iframeShims);
+                    VHasIframeShims shims = (VHasIframeShims) widget;
+                    shims.iframeShimsEnabled(
+                            state.iframeShims && !state.iframeShield);
+                    shims.iframeShieldEnabled(
+                            state.iframeShims && state.iframeShield);
+                }
+
+                if (widget instanceof VHasDragStartSettings) {
+                    VHasDragStartSettings settings = (VHasDragStartSettings) widget;
+                    settings.setDragStartThreshold(state.dragStartThreshold);
+                    settings.setPointerEventsEnabled(
+                            state.pointerEventsEnabled);
                 }
 
                 if (widget instanceof VHasDragFilter) {
                     ((VHasDragFilter) widget)
-                            .setDragFilter(new VDragFilter(state));
+                            .setDragFilter(new VDragFilter(index));
                 }
 
                 if (widget instanceof VHasGrabFilter) {
                     ((VHasGrabFilter) widget)
-                            .setGrabFilter(new VGrabFilter(state));
+                            .setGrabFilter(new VGrabFilter(index));
+                }
+
+                // Lazy providers are installed by LazyDragImageConnector
+                if (state.lazyDragImages) {
+                    return;
                 }
 
                 if (widget instanceof VHasDragCaptionProvider) {
-                    if (state.dragCaptions.size() > 0) {
-                        ((VHasDragCaptionProvider) widget)
-                                .setDragCaptionProvider(new VDragCaptionProvider(connector));
-                    }
+                    ((VHasDragCaptionProvider) widget).setDragCaptionProvider(
+                            index.hasDragCaptions()
+                                    ? new VDragCaptionProvider(connector)
+                                    : null);
                 }
 
                 if (widget instanceof VHasDragImageReferenceSupport) {
                     ((VHasDragImageReferenceSupport) widget)
                             .setDragImageProvider(
-                                    new VDDLayoutStateDragImageProvider(state));
+                                    new VDDLayoutStateDragImageProvider(index));
                 }
             }
         });
@@ -488,14 +619,26 @@ public final class VDragDropUtil {
         VDDHasDropHandler widget = (VDDHasDropHandler) connector.getWidget();
         if (AbstractComponentConnector.isRealUpdate(uidl)
                 && !uidl.hasAttribute("hidden")) {
+            String id = ((DragAndDropAwareState) connector.getState())
+                    .getDragAndDropState().acceptCriterionId;
+
+            // Only painted by the first layout using the criterion
             UIDL acceptCrit = uidl.getChildByTagName("-ac");
-            if (acceptCrit == null) {
+            if (acceptCrit != null && id != null) {
+                VAcceptCriterionRegistry.get()
+                        .register(connector.getConnection(), id, acceptCrit);
+            }
+
+            if (id == null) {
+                if (widget.getDropHandler() != null) {
+                    widget.getDropHandler().setAcceptCriterionId(null);
+                }
                 widget.setDropHandler(null);
             } else {
                 if (widget.getDropHandler() == null) {
                     widget.setDropHandler(dropHandler);
                 }
-                widget.getDropHandler().updateAcceptRules(acceptCrit);
+                widget.getDropHandler().setAcceptCriterionId(id);
             }
         }
     }
@@ -535,4 +678,38 @@ public final class VDragDropUtil {
         }
         return index;
     }
+
+    /**
+     * Creates the drop candidates of an ordered layout. Every slot and the
+     * layout itself (index -1) is combined with every drop location.
+     * 
+     * @param children
+     *            the slots and captions of the layout
+     * @param locationDetail
+     *            the name of the drop detail holding the drop location
+     * @param locations
+     *            the drop locations
+     * @return the details of the candidates
+     */
+    public static List<Map<String, String>> createOrderedDropCandidates(
+            WidgetCollection children, String locationDetail,
+            Enum<?>[] locations) {
+        int slots = 0;
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i) instanceof Slot) {
+                slots++;
+            }
+        }
+        List<Map<String, String>> candidates = new ArrayList<Map<String, String>>(
+                (slots + 1) * locations.length);
+        for (int index = -1; index < slots; index++) {
+            for (Enum<?> location : locations) {
+                Map<String, String> details = new HashMap<String, String>();
+                details.put(Constants.DROP_DETAIL_TO, String.valueOf(index));
+                details.put(locationDetail, location.name());
+                candidates.add(details);
+            }
+        }
+        return candidates;
+    }
 }
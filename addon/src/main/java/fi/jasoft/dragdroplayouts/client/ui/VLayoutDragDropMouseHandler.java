@@ -13,6 +13,7 @@
  */
 package fi.jasoft.dragdroplayouts.client.ui;
 
+import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.EventTarget;
 import com.google.gwt.dom.client.NativeEvent;
@@ -23,6 +24,7 @@ import com.google.gwt.event.dom.client.MouseDownHandler;
 import com.google.gwt.event.dom.client.TouchStartEvent;
 import com.google.gwt.event.dom.client.TouchStartHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Event;
 import com.google.gwt.user.client.Event.NativePreviewEvent;
 import com.google.gwt.user.client.Event.NativePreviewHandler;
@@ -42,13 +44,15 @@ import fi.jasoft.dragdroplayouts.client.VGrabFilter;
 import fi.jasoft.dragdroplayouts.client.ui.accordion.VDDAccordion;
 import fi.jasoft.dragdroplayouts.client.ui.formlayout.VDDFormLayout;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.*;
+import fi.jasoft.dragdroplayouts.client.ui.util.DragImageFactory;
+import fi.jasoft.dragdroplayouts.client.ui.util.IframeShield;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
- * Mouse handler for starting component drag operations
+ * Mouse handler for starting component drag operations. The press events are
+ * delivered by the {@link VDragDropController} listening to the layout.
  *
  * @author John Ahlroos / www.jasoft.fi
  * @since 0.4.0
@@ -69,8 +73,6 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
 
     private HandlerRegistration mouseDownHandlerReg;
 
-    private final List<HandlerRegistration> handlers = new LinkedList<HandlerRegistration>();
-
     private final List<DragStartListener> dragStartListeners = new ArrayList<VLayoutDragDropMouseHandler.DragStartListener>();
 
     private Widget attachTarget;
@@ -79,6 +81,27 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
 
     private boolean startDragOnMove = true;
 
+    /**
+     * How many pixels the pointer needs to move before a drag is started when
+     * pointer events are used
+     */
+    public static final int DEFAULT_DRAG_START_THRESHOLD = 3;
+
+    private static final boolean POINTER_EVENTS_SUPPORTED = isPointerEventsSupported();
+
+    private boolean pointerEventsEnabled = true;
+
+    private int dragStartThreshold = DEFAULT_DRAG_START_THRESHOLD;
+
+    // Move and release listeners of the currently pressed pointer
+    private JavaScriptObject pointerTracking;
+
+    private NativeEvent pointerDownEvent;
+
+    // Should the compatibility mouse down or touch start of the current press
+    // have its default action prevented
+    private boolean preventPressDefault = false;
+
     /**
      * A listener to listen for drag start events
      */
@@ -124,24 +147,32 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
 
     @Override
     public void onTouchStart(TouchStartEvent event) {
-        NativeEvent nativeEvent = event.getNativeEvent();
-        if (isElementNode(nativeEvent) && isChildOfRoot(nativeEvent)) {
-            if (startDragOnMove) {
-                initiateDragOnMove(event.getNativeEvent());
-            } else {
-                initiateDrag(event.getNativeEvent());
-            }
-        }
+        onPress(event.getNativeEvent());
     }
 
     @Override
     public void onMouseDown(MouseDownEvent event) {
-        NativeEvent nativeEvent = event.getNativeEvent();
-        if (isElementNode(nativeEvent) && isChildOfRoot(nativeEvent)) {
+        onPress(event.getNativeEvent());
+    }
+
+    /**
+     * Called by the drag controller when a mouse button is pressed or a touch
+     * starts over the layout
+     *
+     * @param nativeEvent
+     *            the mouse down or touch start event
+     */
+    void onPress(NativeEvent nativeEvent) {
+        if (dragMode == LayoutDragMode.NONE) {
+            return;
+        }
+        if (isPointerEventsUsed()) {
+            preventPressDefault(nativeEvent);
+        } else if (isElementNode(nativeEvent) && isChildOfRoot(nativeEvent)) {
             if (startDragOnMove) {
-                initiateDragOnMove(event.getNativeEvent());
+                initiateDragOnMove(nativeEvent);
             } else {
-                initiateDrag(event.getNativeEvent());
+                initiateDrag(nativeEvent);
             }
         }
     }
@@ -150,12 +181,21 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
         EventTarget eventTarget = event.getEventTarget();
         Element targetElement = Element.as(eventTarget);
         if (root.getElement() != targetElement
-                && root.getElement().isOrHasChild(targetElement)) {
+                && root.getElement().isOrHasChild(targetElement)
+                && getListenerElement().isOrHasChild(targetElement)) {
             return true;
         }
         return false;
     }
 
+    /*
+     * Presses are only handled within the attach target if one is set
+     */
+    private Element getListenerElement() {
+        return attachTarget == null ? root.getElement()
+                : attachTarget.getElement();
+    }
+
     private boolean isElementNode(NativeEvent event) {
         EventTarget eventTarget = event.getEventTarget();
         if (Element.is(eventTarget)) {
@@ -172,6 +212,52 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
      *            passed in here (Element.as() is safe without check here)
      */
     protected void initiateDragOnMove(final NativeEvent originalEvent) {
+        Boolean stopEventPropagation = shouldStopPropagation(
+                originalEvent);
+        if (stopEventPropagation == null) {
+            return;
+        }
+
+        if (stopEventPropagation) {
+            originalEvent.stopPropagation();
+            originalEvent.preventDefault();
+
+            // Manually focus as preventDefault() will also cancel focus
+            Element.as(originalEvent.getEventTarget()).focus();
+        }
+
+        mouseDownHandlerReg = Event
+                .addNativePreviewHandler(new NativePreviewHandler() {
+
+                    @Override
+                    public void onPreviewNativeEvent(NativePreviewEvent event) {
+                        int type = event.getTypeInt();
+                        if (type == Event.ONMOUSEUP
+                                || type == Event.ONTOUCHCANCEL
+                                || type == Event.ONTOUCHEND) {
+                            mouseDownHandlerReg.removeHandler();
+                            mouseDownHandlerReg = null;
+
+                        } else if (type == Event.ONMOUSEMOVE
+                                || type == Event.ONTOUCHMOVE) {
+                            mouseDownHandlerReg.removeHandler();
+                            mouseDownHandlerReg = null;
+                            initiateDrag(originalEvent);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Should the propagation and default action of the event starting a drag
+     * be stopped
+     *
+     * @param originalEvent
+     *            the event pressing down the pointer
+     * @return true if the event should be stopped, false if not and null if
+     *         the target cannot be grabbed at all
+     */
+    private Boolean shouldStopPropagation(NativeEvent originalEvent) {
         EventTarget eventTarget = originalEvent.getEventTarget();
 
         boolean stopEventPropagation = false;
@@ -205,7 +291,7 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
             if (root instanceof VHasGrabFilter) {
                 VGrabFilter grabFilter = ((VHasGrabFilter) root).getGrabFilter();
                 if (grabFilter != null && !grabFilter.canBeGrabbed(root, target)) {
-                    return;
+                    return null;
                 }
             }
         }
@@ -218,36 +304,147 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
             stopEventPropagation = false;
         }
 
+        return stopEventPropagation;
+    }
+
+    /**
+     * Called by the drag controller when a pointer (mouse, touch or pen) is
+     * pressed down over the layout
+     *
+     * @param event
+     *            the pointerdown event
+     */
+    void onPointerDown(NativeEvent event) {
+        preventPressDefault = false;
+        if (dragMode == LayoutDragMode.NONE || !isPointerEventsUsed()
+                || pointerTracking != null || !isElementNode(event)
+                || !isChildOfRoot(event)) {
+            return;
+        }
+
+        if (!startDragOnMove) {
+            initiateDrag(event);
+            return;
+        }
+
+        Boolean stopEventPropagation = shouldStopPropagation(event);
+        if (stopEventPropagation == null) {
+            return;
+        }
+
         if (stopEventPropagation) {
-            originalEvent.stopPropagation();
-            originalEvent.preventDefault();
+            /*
+             * Preventing the default of pointerdown would also suppress the
+             * compatibility mouse events the drag and drop manager relies on,
+             * so the default is prevented on the mouse down or touch start
+             * following this event instead.
+             */
+            event.stopPropagation();
+            preventPressDefault = true;
+        }
 
-            // Manually focus as preventDefault() will also cancel focus
-            targetElement.focus();
+        pointerDownEvent = event;
+        pointerTracking = trackPointer(getListenerElement(),
+                Element.as(event.getEventTarget()), getPointerId(event));
+    }
+
+    /**
+     * Called when the pressed pointer moves before a drag has been started
+     */
+    private void onPointerMove(NativeEvent event) {
+        int dx = event.getClientX() - pointerDownEvent.getClientX();
+        int dy = event.getClientY() - pointerDownEvent.getClientY();
+        if (Math.abs(dx) > dragStartThreshold
+                || Math.abs(dy) > dragStartThreshold) {
+            NativeEvent originalEvent = pointerDownEvent;
+            onPointerRelease();
+            initiateDrag(originalEvent);
         }
+    }
 
-        mouseDownHandlerReg = Event
-                .addNativePreviewHandler(new NativePreviewHandler() {
+    /**
+     * Called when the pressed pointer is released or cancelled before a drag
+     * has been started
+     */
+    private void onPointerRelease() {
+        if (pointerTracking != null) {
+            untrackPointer(pointerTracking);
+            pointerTracking = null;
+        }
+        pointerDownEvent = null;
+    }
 
-                    @Override
-                    public void onPreviewNativeEvent(NativePreviewEvent event) {
-                        int type = event.getTypeInt();
-                        if (type == Event.ONMOUSEUP
-                                || type == Event.ONTOUCHCANCEL
-                                || type == Event.ONTOUCHEND) {
-                            mouseDownHandlerReg.removeHandler();
-                            mouseDownHandlerReg = null;
+    private void preventPressDefault(NativeEvent event) {
+        if (preventPressDefault) {
+            preventPressDefault = false;
+            event.stopPropagation();
+            event.preventDefault();
 
-                        } else if (type == Event.ONMOUSEMOVE
-                                || type == Event.ONTOUCHMOVE) {
-                            mouseDownHandlerReg.removeHandler();
-                            mouseDownHandlerReg = null;
-                            initiateDrag(originalEvent);
-                        }
-                    }
-                });
+            // Manually focus as preventDefault() will also cancel focus
+            if (isElementNode(event)) {
+                Element.as(event.getEventTarget()).focus();
+            }
+        }
     }
 
+    /**
+     * Does the browser support pointer events
+     */
+    static native boolean isPointerEventsSupported()
+    /*-{
+        return !!$wnd.PointerEvent;
+    }-*/;
+
+    private static native int getPointerId(NativeEvent event)
+    /*-{
+        return event.pointerId;
+    }-*/;
+
+    /*
+     * The target is captured so the move and release events of the pointer
+     * bubble up to the layout even if the pointer leaves it, without a
+     * document wide listener. Capturing the target instead of the layout
+     * keeps clicks working.
+     */
+    private native JavaScriptObject trackPointer(Element element,
+            Element target, int pointerId)
+    /*-{
+        var self = this;
+        var move = $entry(function(e) {
+            if (e.pointerId == pointerId) {
+                self.@fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler::onPointerMove(Lcom/google/gwt/dom/client/NativeEvent;)(e);
+            }
+        });
+        var release = $entry(function(e) {
+            if (e.pointerId == pointerId) {
+                self.@fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler::onPointerRelease()();
+            }
+        });
+        element.addEventListener('pointermove', move);
+        element.addEventListener('pointerup', release);
+        element.addEventListener('pointercancel', release);
+        try {
+            target.setPointerCapture(pointerId);
+        } catch (ignored) {
+            // Pointer already released
+        }
+        return { element: element, target: target, pointerId: pointerId,
+                 move: move, release: release };
+    }-*/;
+
+    private static native void untrackPointer(JavaScriptObject tracking)
+    /*-{
+        tracking.element.removeEventListener('pointermove', tracking.move);
+        tracking.element.removeEventListener('pointerup', tracking.release);
+        tracking.element.removeEventListener('pointercancel', tracking.release);
+        try {
+            // The drag and drop manager needs the real targets while dragging
+            tracking.target.releasePointerCapture(tracking.pointerId);
+        } catch (ignored) {
+            // Pointer already released
+        }
+    }-*/;
+
     private boolean isElementNotDraggable(Element targetElement) {
         // do not try to drag tabsheet close button it breaks close on touch devices
         return targetElement.getClassName().contains("v-tabsheet-caption-close");
@@ -395,6 +592,9 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
         VDragEvent currentDragEvent = VDragAndDropManager.get()
                 .startDrag(transferable, event, true);
 
+        // Ask the decisions of the prefetching layouts in one request
+        VAcceptDecisionTable.get().prefetch(currentDragEvent);
+
         /*
          * Create the drag image
          */
@@ -405,9 +605,9 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
             VDragCaptionProvider dragCaptionProvider =
                     ((VHasDragCaptionProvider) root).getDragCaptionProvider();
             if (dragCaptionProvider != null) {
-                hasDragCaption = true;
                 dragImageElement = dragCaptionProvider
                         .getDragCaptionElement(currentDraggedWidget);
+                hasDragCaption = dragImageElement != null;
             }
         }
 
@@ -465,24 +665,39 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
             dragImageElement = w.getElement();
         }
 
+        DragImageStrategy strategy = hasDragCaption ? DragImageStrategy.CLONE
+                : VDragDropUtil.getDragImageStrategy(root);
+
         Element clone;
         if (hasDragCaption) {
             currentDragEvent.setDragImage(dragImageElement);
             clone = dragImageElement;
-        } else {
+        } else if (strategy == DragImageStrategy.CLONE) {
             currentDragEvent.createDragImage(dragImageElement, true);
             clone = currentDragEvent.getDragImage();
-        }
-
-        assert(clone != null);
 
-        // Lock drag image dimensions
-        if (!hasDragCaption) {
+            // Lock drag image dimensions
             clone.getStyle().setWidth(dragImageElement.getOffsetWidth(), Style.Unit.PX);
             clone.getStyle().setHeight(dragImageElement.getOffsetHeight(), Style.Unit.PX);
+        } else {
+            /*
+             * Lightweight drag image, measure the dragged element only once
+             * and align the image to the event like createDragImage does.
+             */
+            int absoluteLeft = dragImageElement.getAbsoluteLeft();
+            int absoluteTop = dragImageElement.getAbsoluteTop();
+            clone = DragImageFactory.createDragImage(dragImageElement,
+                    strategy, dragImageElement.getOffsetWidth(),
+                    dragImageElement.getOffsetHeight(), c).cast();
+            currentDragEvent.setDragImage(clone,
+                    absoluteLeft - WidgetUtil.getTouchOrMouseClientX(event),
+                    absoluteTop - WidgetUtil.getTouchOrMouseClientY(event));
         }
 
+        assert(clone != null);
+
         if (c != null && c.delegateCaptionHandling()
+                && strategy != DragImageStrategy.OUTLINE
                 && !(root instanceof VTabsheet)
                 && !(root instanceof VAccordion)) {
             /*
@@ -502,6 +717,27 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
 
         currentDraggedWidget.addStyleName(ACTIVE_DRAG_SOURCE_STYLENAME);
 
+        final VLazyDragImageCache lazyCache = VDragDropUtil
+                .getLazyDragImageCache(root);
+        if (lazyCache != null && c != null && !lazyCache.isResolved(c)) {
+            /*
+             * The caption and image are fetched from the server, replace the
+             * drag image when they arrive if the drag is still going on
+             */
+            final VDragEvent dragEvent = currentDragEvent;
+            final Widget dragged = w;
+            lazyCache.request(c, new Command() {
+                @Override
+                public void execute() {
+                    if (currentDraggedWidget == dragged) {
+                        updateDragImage(dragEvent, dragged);
+                    }
+                }
+            });
+        }
+
+        IframeShield.get().activate();
+
         // Listen to mouse up for cleanup
         mouseUpHandlerReg = Event
                 .addNativePreviewHandler(new Event.NativePreviewHandler() {
@@ -533,12 +769,43 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
 
                             // Ensure capturing is turned off at mouse up
                             Event.releaseCapture(RootPanel.getBodyElement());
+
+                            IframeShield.get().deactivate();
                         }
                     }
                 });
 
     }
 
+    /*
+     * Replaces the drag image with the drag caption or drag image of the
+     * dragged widget if it has one
+     */
+    private void updateDragImage(VDragEvent dragEvent, Widget w) {
+        if (root instanceof VHasDragCaptionProvider) {
+            VDragCaptionProvider dragCaptionProvider =
+                    ((VHasDragCaptionProvider) root).getDragCaptionProvider();
+            if (dragCaptionProvider != null) {
+                com.google.gwt.dom.client.Element caption = dragCaptionProvider
+                        .getDragCaptionElement(w);
+                if (caption != null) {
+                    caption.addClassName(ACTIVE_DRAG_CUSTOM_IMAGE_STYLENAME);
+                    dragEvent.setDragImage(caption);
+                    return;
+                }
+            }
+        }
+
+        if (dragImageProvider != null) {
+            com.google.gwt.dom.client.Element image = dragImageProvider
+                    .getDragImageElement(w);
+            if (image != null) {
+                image.addClassName(ACTIVE_DRAG_SOURCE_STYLENAME);
+                dragEvent.createDragImage(image, true);
+            }
+        }
+    }
+
     /*
      * Whether the event was performed on a scrollbar.
      */
@@ -589,9 +856,7 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
 
         this.dragMode = dragMode;
         if (dragMode == LayoutDragMode.NONE) {
-            detach();
-        } else {
-            attach();
+            onPointerRelease();
         }
     }
 
@@ -613,35 +878,6 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
         dragStartListeners.remove(listener);
     }
 
-    /**
-     * Start listening to events
-     */
-    private void attach() {
-        if (handlers.isEmpty()) {
-            if (attachTarget == null) {
-                handlers.add(
-                        root.addDomHandler(this, MouseDownEvent.getType()));
-                handlers.add(
-                        root.addDomHandler(this, TouchStartEvent.getType()));
-            } else {
-                handlers.add(attachTarget.addDomHandler(this,
-                        MouseDownEvent.getType()));
-                handlers.add(attachTarget.addDomHandler(this,
-                        TouchStartEvent.getType()));
-            }
-        }
-    }
-
-    /**
-     * Stop listening to events
-     */
-    private void detach() {
-        for (HandlerRegistration reg : handlers) {
-            reg.removeHandler();
-        }
-        handlers.clear();
-    }
-
     public Widget getAttachTarget() {
         return attachTarget;
     }
@@ -666,4 +902,51 @@ public class VLayoutDragDropMouseHandler implements MouseDownHandler,
     public void setStartDragOnMove(boolean startDragOnMove) {
         this.startDragOnMove = startDragOnMove;
     }
+
+    /**
+     * Are pointer events used for starting drags when the browser supports
+     * them
+     */
+    public boolean isPointerEventsEnabled() {
+        return pointerEventsEnabled;
+    }
+
+    /**
+     * Use pointer events for starting drags when the browser supports them.
+     * When disabled, or if the browser does not support pointer events, mouse
+     * down and touch start events are used instead. Enabled by default.
+     *
+     * @param pointerEventsEnabled
+     *            should pointer events be used
+     */
+    public void setPointerEventsEnabled(boolean pointerEventsEnabled) {
+        this.pointerEventsEnabled = pointerEventsEnabled;
+        if (!pointerEventsEnabled) {
+            onPointerRelease();
+        }
+    }
+
+    private boolean isPointerEventsUsed() {
+        return pointerEventsEnabled && POINTER_EVENTS_SUPPORTED;
+    }
+
+    /**
+     * Returns how many pixels the pointer needs to move before a drag starts
+     */
+    public int getDragStartThreshold() {
+        return dragStartThreshold;
+    }
+
+    /**
+     * Sets how many pixels the pointer needs to move before a drag starts.
+     * Only used with pointer events, see
+     * {@link #setPointerEventsEnabled(boolean)}. Defaults to
+     * {@value #DEFAULT_DRAG_START_THRESHOLD}.
+     *
+     * @param dragStartThreshold
+     *            the threshold in pixels
+     */
+    public void setDragStartThreshold(int dragStartThreshold) {
+        this.dragStartThreshold = dragStartThreshold;
+    }
 }
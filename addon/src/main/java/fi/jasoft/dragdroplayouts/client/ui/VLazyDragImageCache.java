@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.ui.Widget;
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.ConnectorMap;
+import com.vaadin.client.Util;
+import com.vaadin.shared.Connector;
+
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.LazyDragImageServerRpc;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.VDragImageProvider;
+
+/**
+ * Short lived cache of the drag captions and drag images requested from the
+ * server when they are resolved on demand. Answers are kept for
+ * {@link #CACHE_TIMEOUT} milliseconds and dropped whenever the drag and drop
+ * state of the layout changes.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class VLazyDragImageCache implements VDragImageProvider {
+
+    /**
+     * How long an answer of the server is used, in milliseconds
+     */
+    public static final int CACHE_TIMEOUT = 5000;
+
+    private final LazyDragImageServerRpc rpc;
+
+    private final Map<Connector, Entry> entries = new HashMap<Connector, Entry>();
+
+    private final Map<Connector, List<Command>> pending = new HashMap<Connector, List<Command>>();
+
+    private static class Entry {
+        private final DragCaptionInfo caption;
+        private final Connector image;
+        private final double time = Duration.currentTimeMillis();
+
+        private Entry(DragCaptionInfo caption, Connector image) {
+            this.caption = caption;
+            this.image = image;
+        }
+    }
+
+    public VLazyDragImageCache(LazyDragImageServerRpc rpc) {
+        this.rpc = rpc;
+    }
+
+    /**
+     * Requests the drag caption and drag image of a child unless they are
+     * already cached or requested
+     *
+     * @param component
+     *            the dragged child
+     * @param callback
+     *            executed when the answer is available, immediately if it
+     *            already is
+     */
+    public void request(ComponentConnector component, Command callback) {
+        if (getEntry(component) != null) {
+            callback.execute();
+            return;
+        }
+
+        List<Command> callbacks = pending.get(component);
+        if (callbacks == null) {
+            callbacks = new ArrayList<Command>();
+            pending.put(component, callbacks);
+            rpc.requestDragImage(component);
+        }
+        callbacks.add(callback);
+    }
+
+    /**
+     * Stores the answer of the server and notifies the waiting callbacks
+     *
+     * @param component
+     *            the dragged child
+     * @param caption
+     *            the drag caption or null if the child has none
+     * @param image
+     *            the reference drag image or null if the child has none
+     */
+    public void setDragImage(Connector component, DragCaptionInfo caption,
+            Connector image) {
+        entries.put(component, new Entry(caption, image));
+        List<Command> callbacks = pending.remove(component);
+        if (callbacks != null) {
+            for (Command callback : callbacks) {
+                callback.execute();
+            }
+        }
+    }
+
+    /**
+     * Has the server answered for the child
+     */
+    public boolean isResolved(ComponentConnector component) {
+        return getEntry(component) != null;
+    }
+
+    /**
+     * Returns the cached drag caption of a child
+     *
+     * @return the caption info or null if the child has none or it is not
+     *         known yet
+     */
+    public DragCaptionInfo getDragCaption(ComponentConnector component) {
+        Entry entry = getEntry(component);
+        return entry == null ? null : entry.caption;
+    }
+
+    @Override
+    public Element getDragImageElement(Widget w) {
+        ComponentConnector component = Util.findConnectorFor(w);
+        Entry entry = getEntry(component);
+        if (entry != null && entry.image != null) {
+            return ConnectorMap.get(component.getConnection())
+                    .getElement(entry.image.getConnectorId());
+        }
+        return null;
+    }
+
+    /**
+     * Drops all cached answers
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private Entry getEntry(ComponentConnector component) {
+        if (component == null) {
+            return null;
+        }
+        Entry entry = entries.get(component);
+        if (entry != null
+                && Duration.currentTimeMillis() - entry.time > CACHE_TIMEOUT) {
+            entries.remove(component);
+            return null;
+        }
+        return entry;
+    }
+}
@@ -16,6 +16,7 @@ package fi.jasoft.dragdroplayouts.client.ui.absolutelayout;
 import com.vaadin.client.ApplicationConnection;
 import com.vaadin.client.Paintable;
 import com.vaadin.client.UIDL;
+import com.vaadin.client.communication.StateChangeEvent;
 import com.vaadin.client.ui.absolutelayout.AbsoluteLayoutConnector;
 import com.vaadin.shared.ui.Connect;
 import fi.jasoft.dragdroplayouts.DDAbsoluteLayout;
@@ -51,21 +52,26 @@ public class DDAbsoluteLayoutConnector extends AbsoluteLayoutConnector
         VDragDropUtil.listenToStateChangeEvents(this, getWidget());
     }
 
+    @Override
+    public void onStateChanged(StateChangeEvent stateChangeEvent) {
+        super.onStateChanged(stateChangeEvent);
+        DDAbsoluteLayoutState state = getState();
+        getWidget().setSnapEdges(state.snapThreshold, state.horizontalEdges,
+                state.horizontalEdgeCounts, state.verticalEdges,
+                state.verticalEdgeCounts, state.edgeBounds);
+    }
+
     /**
      * 
      * TODO Remove this when drag &amp; drop is done properly in core
      */
     @Override
     public void updateFromUIDL(UIDL uidl, ApplicationConnection client) {
-        VDragDropUtil.updateDropHandlerFromUIDL(uidl, this, new VDDAbsoluteLayoutDropHandler(this));
-        if (html5Support != null) {
-            html5Support.disable();
-            html5Support = null;
-        }
-        VDDAbsoluteLayoutDropHandler dropHandler = getWidget().getDropHandler();
-        if (dropHandler != null) {
-            html5Support = HTML5Support.enable(this, dropHandler);
-        }
+        VDragDropUtil.updateDropHandlerFromUIDL(uidl, this,
+                getWidget().getDropHandler() == null
+                        ? new VDDAbsoluteLayoutDropHandler(this) : null);
+        html5Support = HTML5Support.update(html5Support, this,
+                getWidget().getDropHandler());
     }
 
     @Override
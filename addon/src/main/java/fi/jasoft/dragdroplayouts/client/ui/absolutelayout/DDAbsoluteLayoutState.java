@@ -13,6 +13,10 @@
  */
 package fi.jasoft.dragdroplayouts.client.ui.absolutelayout;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import com.vaadin.shared.Connector;
 import com.vaadin.shared.ui.absolutelayout.AbsoluteLayoutState;
 
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.DDLayoutState;
@@ -23,6 +27,24 @@ public class DDAbsoluteLayoutState extends AbsoluteLayoutState
 
     public DDLayoutState ddState = new DDLayoutState();
 
+    // Snap distance to the edges of other components, 0 disables snapping
+    public int snapThreshold = 0;
+
+    // Size of the snapping grid, 0 disables the grid
+    public int snapGridSize = 0;
+
+    // Component edges for the alignment guides, only sent when snapping
+    public int[] horizontalEdges = new int[0];
+
+    public int[] horizontalEdgeCounts = new int[0];
+
+    public int[] verticalEdges = new int[0];
+
+    public int[] verticalEdgeCounts = new int[0];
+
+    // Left, top, width and height of the components the edges belong to
+    public Map<Connector, int[]> edgeBounds = new HashMap<>();
+
     @Override
     public DDLayoutState getDragAndDropState() {
         return ddState;
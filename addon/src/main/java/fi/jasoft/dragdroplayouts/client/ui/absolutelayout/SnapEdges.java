@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.absolutelayout;
+
+import java.io.Serializable;
+
+/**
+ * Sorted multiset of component edge coordinates along one axis of a
+ * {@link VDDAbsoluteLayout}. The nearest edge of a coordinate is found with a
+ * binary search. Used both by the server to snap dropped components and by
+ * the client to render the alignment guides.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class SnapEdges implements Serializable {
+
+    private int[] values;
+
+    private int[] counts;
+
+    private int size;
+
+    public SnapEdges() {
+        values = new int[16];
+        counts = new int[16];
+    }
+
+    /**
+     * Creates the edges from the arrays returned by {@link #getValues()} and
+     * {@link #getCounts()}
+     */
+    public SnapEdges(int[] values, int[] counts) {
+        size = values == null ? 0 : values.length;
+        this.values = new int[Math.max(16, size)];
+        this.counts = new int[Math.max(16, size)];
+        if (size > 0) {
+            System.arraycopy(values, 0, this.values, 0, size);
+            System.arraycopy(counts, 0, this.counts, 0, size);
+        }
+    }
+
+    /**
+     * Adds an edge
+     */
+    public void add(int value) {
+        int index = indexOf(value);
+        if (index >= 0) {
+            counts[index]++;
+            return;
+        }
+
+        index = -index - 1;
+        if (size == values.length) {
+            int[] newValues = new int[size * 2];
+            int[] newCounts = new int[size * 2];
+            System.arraycopy(values, 0, newValues, 0, size);
+            System.arraycopy(counts, 0, newCounts, 0, size);
+            values = newValues;
+            counts = newCounts;
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        System.arraycopy(counts, index, counts, index + 1, size - index);
+        values[index] = value;
+        counts[index] = 1;
+        size++;
+    }
+
+    /**
+     * Removes an edge added earlier
+     */
+    public void remove(int value) {
+        int index = indexOf(value);
+        if (index < 0) {
+            return;
+        }
+        if (--counts[index] == 0) {
+            System.arraycopy(values, index + 1, values, index,
+                    size - index - 1);
+            System.arraycopy(counts, index + 1, counts, index,
+                    size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Returns the amount of distinct edges
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the edge closest to a coordinate
+     *
+     * @param value
+     *            the coordinate
+     * @param threshold
+     *            the maximum distance of the edge from the coordinate
+     * @return the edge or null if there is no edge close enough
+     */
+    public Integer findNearest(int value, int threshold) {
+        if (size == 0) {
+            return null;
+        }
+        int index = indexOf(value);
+        if (index >= 0) {
+            return value;
+        }
+
+        index = -index - 1;
+        Integer nearest = null;
+        int distance = threshold + 1;
+        if (index < size && values[index] - value < distance) {
+            nearest = values[index];
+            distance = values[index] - value;
+        }
+        if (index > 0 && value - values[index - 1] < distance) {
+            nearest = values[index - 1];
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns how much a span should be moved so that either of its ends
+     * lines up with the closest edge
+     *
+     * @param start
+     *            the start of the span
+     * @param length
+     *            the length of the span
+     * @param threshold
+     *            the maximum distance to move
+     * @return the distance to move or 0 if no edge is close enough
+     */
+    public int snap(int start, int length, int threshold) {
+        Integer startEdge = findNearest(start, threshold);
+        Integer endEdge = length > 0 ? findNearest(start + length, threshold)
+                : null;
+        if (startEdge == null && endEdge == null) {
+            return 0;
+        }
+        if (endEdge == null || (startEdge != null && Math
+                .abs(startEdge - start) <= Math.abs(endEdge - start - length))) {
+            return startEdge - start;
+        }
+        return endEdge - start - length;
+    }
+
+    /**
+     * Returns a copy of the distinct edges in ascending order
+     */
+    public int[] getValues() {
+        int[] copy = new int[size];
+        System.arraycopy(values, 0, copy, 0, size);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the amount of components sharing each edge
+     */
+    public int[] getCounts() {
+        int[] copy = new int[size];
+        System.arraycopy(counts, 0, copy, 0, size);
+        return copy;
+    }
+
+    private int indexOf(int value) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else if (values[mid] > value) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
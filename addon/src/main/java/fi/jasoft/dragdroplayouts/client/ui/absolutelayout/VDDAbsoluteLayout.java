@@ -13,12 +13,20 @@
  */
 package fi.jasoft.dragdroplayouts.client.ui.absolutelayout;
 
+import java.util.Collections;
+import java.util.Map;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Style.Display;
+import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.Widget;
 import com.vaadin.client.ComponentConnector;
 import com.vaadin.client.MouseEventDetailsBuilder;
 import com.vaadin.client.Util;
 import com.vaadin.client.ui.VAbsoluteLayout;
 import com.vaadin.client.ui.dd.VDragEvent;
+import com.vaadin.shared.Connector;
 import com.vaadin.shared.MouseEventDetails;
 import fi.jasoft.dragdroplayouts.DDAbsoluteLayout;
 import fi.jasoft.dragdroplayouts.client.VDragFilter;
@@ -27,6 +35,7 @@ import fi.jasoft.dragdroplayouts.client.ui.*;
 import fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler.DragStartListener;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.*;
 import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
+import fi.jasoft.dragdroplayouts.client.ui.util.IframeShield;
 
 /**
  * Client side implementation for {@link DDAbsoluteLayout}
@@ -34,20 +43,29 @@ import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
  * @author John Ahlroos / www.jasoft.fi
  * @since 0.4.0
  */
-public class VDDAbsoluteLayout extends VAbsoluteLayout implements VHasDragMode,
+public class VDDAbsoluteLayout extends VAbsoluteLayout implements VHasLayoutDragDropMouseHandler,
+        VHasDragStartSettings,
         VDDHasDropHandler<VDDAbsoluteLayoutDropHandler>, DragStartListener,
         VHasDragFilter, VHasIframeShims, VHasDragImageReferenceSupport, VHasGrabFilter, VHasDragCaptionProvider {
 
     public static final String CLASSNAME = "v-ddabsolutelayout";
 
+    public static final String GUIDE_STYLENAME = CLASSNAME + "-guide";
+
     private VDDAbsoluteLayoutDropHandler dropHandler;
 
-    private final VLayoutDragDropMouseHandler ddHandler = new VLayoutDragDropMouseHandler(
-            this, LayoutDragMode.NONE);
+    // Created the first time a drag is started from the layout
+    private VLayoutDragDropMouseHandler ddHandler;
+
+    private VDragImageProvider dragImageProvider;
+
+    private int dragStartThreshold = VLayoutDragDropMouseHandler.DEFAULT_DRAG_START_THRESHOLD;
+
+    private boolean pointerEventsEnabled = true;
 
     private VDragFilter dragFilter;
 
-    private final IframeCoverUtility iframeCoverUtility = new IframeCoverUtility();
+    private IframeCoverUtility iframeCoverUtility;
 
     private LayoutDragMode mode = LayoutDragMode.NONE;
 
@@ -57,6 +75,43 @@ public class VDDAbsoluteLayout extends VAbsoluteLayout implements VHasDragMode,
 
     private boolean iframeCovers = false;
 
+    private boolean iframeShield = false;
+
+    private int snapThreshold = 0;
+
+    private int[] horizontalEdges = new int[0];
+
+    private int[] horizontalEdgeCounts = new int[0];
+
+    private int[] verticalEdges = new int[0];
+
+    private int[] verticalEdgeCounts = new int[0];
+
+    private Map<Connector, int[]> edgeBounds = Collections.emptyMap();
+
+    // Edges of the current drag, without the edges of the dragged component
+    private SnapEdges dragHorizontalEdges;
+
+    private SnapEdges dragVerticalEdges;
+
+    private Element verticalGuide;
+
+    private Element horizontalGuide;
+
+    private int relativeLeft;
+
+    private int relativeTop;
+
+    private int componentWidth;
+
+    private int componentHeight;
+
+    private Element offsetDragImage;
+
+    private int dragImageOffsetLeft;
+
+    private int dragImageOffsetTop;
+
     public VDDAbsoluteLayout() {
         super();
         addStyleName(CLASSNAME);
@@ -65,18 +120,19 @@ public class VDDAbsoluteLayout extends VAbsoluteLayout implements VHasDragMode,
     @Override
     protected void onLoad() {
         super.onLoad();
-        ddHandler.addDragStartListener(this);
         setDragMode(mode);
         iframeShimsEnabled(iframeCovers);
+        iframeShieldEnabled(iframeShield);
     }
 
     @Override
     protected void onUnload() {
         super.onUnload();
-        ddHandler.removeDragStartListener(this);
-        ddHandler.updateDragMode(LayoutDragMode.NONE);
-        iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
-                LayoutDragMode.NONE);
+        IframeShield.get().setShielded(this, false);
+        if (iframeCoverUtility != null) {
+            iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
+                    LayoutDragMode.NONE);
+        }
     }
 
     /**
@@ -138,11 +194,14 @@ public class VDDAbsoluteLayout extends VAbsoluteLayout implements VHasDragMode,
     }
 
     IframeCoverUtility getIframeCoverUtility() {
+        if (iframeCoverUtility == null) {
+            iframeCoverUtility = new IframeCoverUtility();
+        }
         return iframeCoverUtility;
     }
 
     public LayoutDragMode getDragMode() {
-        return ddHandler.getDragMode();
+        return mode;
     }
 
     protected void updateDragDetails(VDragEvent drag) {
@@ -156,44 +215,44 @@ public class VDDAbsoluteLayout extends VAbsoluteLayout implements VHasDragMode,
         drag.getDropDetails().put(Constants.DROP_DETAIL_ABSOLUTE_TOP,
                 absoluteTop);
 
-        // Get relative coordinates
-        int offsetLeft = 0;
-        if (drag.getDragImage() != null) {
-            String offsetLeftStr = drag.getDragImage().getStyle()
-                    .getMarginLeft();
-            offsetLeft = Integer.parseInt(
-                    offsetLeftStr.substring(0, offsetLeftStr.length() - 2));
+        // Get relative coordinates, the offsets of the drag image only
+        // change when the drag image does
+        Element dragImage = drag.getDragImage();
+        if (dragImage != offsetDragImage) {
+            offsetDragImage = dragImage;
+            dragImageOffsetLeft = dragImage == null ? 0
+                    : parsePixels(dragImage.getStyle().getMarginLeft());
+            dragImageOffsetTop = dragImage == null ? 0
+                    : parsePixels(dragImage.getStyle().getMarginTop());
         }
 
         int relativeLeft = Util
                 .getTouchOrMouseClientX(drag.getCurrentGwtEvent())
-                - canvas.getAbsoluteLeft() + offsetLeft;
-
-        int offsetTop = 0;
-        if (drag.getDragImage() != null) {
-            String offsetTopStr = drag.getDragImage().getStyle().getMarginTop();
-            offsetTop = Integer.parseInt(
-                    offsetTopStr.substring(0, offsetTopStr.length() - 2));
-        }
-
+                - canvas.getAbsoluteLeft() + dragImageOffsetLeft;
         int relativeTop = Util.getTouchOrMouseClientY(drag.getCurrentGwtEvent())
-                - canvas.getAbsoluteTop() + offsetTop;
+                - canvas.getAbsoluteTop() + dragImageOffsetTop;
 
         drag.getDropDetails().put(Constants.DROP_DETAIL_RELATIVE_LEFT,
                 relativeLeft);
         drag.getDropDetails().put(Constants.DROP_DETAIL_RELATIVE_TOP,
                 relativeTop);
+        this.relativeLeft = relativeLeft;
+        this.relativeTop = relativeTop;
 
         // Get component size
         ComponentConnector widgetConnector = (ComponentConnector) drag
                 .getTransferable()
                 .getData(Constants.TRANSFERABLE_DETAIL_COMPONENT);
         if (widgetConnector != null) {
+            componentWidth = widgetConnector.getWidget().getOffsetWidth();
+            componentHeight = widgetConnector.getWidget().getOffsetHeight();
             drag.getDropDetails().put(Constants.DROP_DETAIL_COMPONENT_WIDTH,
-                    widgetConnector.getWidget().getOffsetWidth());
+                    componentWidth);
             drag.getDropDetails().put(Constants.DROP_DETAIL_COMPONENT_HEIGHT,
-                    widgetConnector.getWidget().getOffsetHeight());
+                    componentHeight);
         } else {
+            componentWidth = 0;
+            componentHeight = 0;
             drag.getDropDetails().put(Constants.DROP_DETAIL_COMPONENT_WIDTH,
                     -1);
             drag.getDropDetails().put(Constants.DROP_DETAIL_COMPONENT_HEIGHT,
@@ -208,6 +267,124 @@ public class VDDAbsoluteLayout extends VAbsoluteLayout implements VHasDragMode,
                 details.serialize());
     }
 
+    private static int parsePixels(String value) {
+        if (value == null || !value.endsWith("px")) {
+            return 0;
+        }
+        return (int) Double.parseDouble(
+                value.substring(0, value.length() - 2));
+    }
+
+    /**
+     * Sets the component edges the alignment guides are rendered for, the
+     * arrays are the ones of {@link SnapEdges} sent by the server. The bounds
+     * of the components the edges belong to are used for leaving out the
+     * edges of the dragged component.
+     *
+     * @param threshold
+     *            the snap distance, 0 disables the guides
+     */
+    public void setSnapEdges(int threshold, int[] horizontalEdges,
+            int[] horizontalEdgeCounts, int[] verticalEdges,
+            int[] verticalEdgeCounts, Map<Connector, int[]> edgeBounds) {
+        this.snapThreshold = threshold;
+        this.horizontalEdges = horizontalEdges;
+        this.horizontalEdgeCounts = horizontalEdgeCounts;
+        this.verticalEdges = verticalEdges;
+        this.verticalEdgeCounts = verticalEdgeCounts;
+        this.edgeBounds = edgeBounds;
+    }
+
+    /**
+     * Shows the alignment guides for the edges the dragged component would
+     * snap to. Uses the coordinates of the last
+     * {@link #updateDragDetails(VDragEvent)}.
+     */
+    protected void updateGuides(VDragEvent drag) {
+        if (snapThreshold <= 0) {
+            return;
+        }
+
+        if (dragHorizontalEdges == null) {
+            dragHorizontalEdges = new SnapEdges(horizontalEdges,
+                    horizontalEdgeCounts);
+            dragVerticalEdges = new SnapEdges(verticalEdges,
+                    verticalEdgeCounts);
+
+            /*
+             * The dragged component should not snap to itself. The edges are
+             * removed with the bounds the server indexed the component with,
+             * the rendered size might differ and components with an unknown
+             * size are not indexed at all.
+             */
+            ComponentConnector connector = (ComponentConnector) drag
+                    .getTransferable()
+                    .getData(Constants.TRANSFERABLE_DETAIL_COMPONENT);
+            int[] bounds = connector == null ? null
+                    : edgeBounds.get(connector);
+            if (bounds != null) {
+                dragHorizontalEdges.remove(bounds[0]);
+                dragHorizontalEdges.remove(bounds[0] + bounds[2]);
+                dragVerticalEdges.remove(bounds[1]);
+                dragVerticalEdges.remove(bounds[1] + bounds[3]);
+            }
+        }
+
+        Integer x = findGuide(dragHorizontalEdges, relativeLeft,
+                componentWidth);
+        Integer y = findGuide(dragVerticalEdges, relativeTop,
+                componentHeight);
+        if (x != null) {
+            verticalGuide = showGuide(verticalGuide, "vertical");
+            verticalGuide.getStyle().setLeft(x, Unit.PX);
+        } else if (verticalGuide != null) {
+            verticalGuide.getStyle().setDisplay(Display.NONE);
+        }
+        if (y != null) {
+            horizontalGuide = showGuide(horizontalGuide, "horizontal");
+            horizontalGuide.getStyle().setTop(y, Unit.PX);
+        } else if (horizontalGuide != null) {
+            horizontalGuide.getStyle().setDisplay(Display.NONE);
+        }
+    }
+
+    /**
+     * Hides the alignment guides. Called when the drag leaves the layout or
+     * is dropped.
+     */
+    protected void hideGuides() {
+        dragHorizontalEdges = null;
+        dragVerticalEdges = null;
+        if (verticalGuide != null) {
+            verticalGuide.getStyle().setDisplay(Display.NONE);
+        }
+        if (horizontalGuide != null) {
+            horizontalGuide.getStyle().setDisplay(Display.NONE);
+        }
+    }
+
+    private Integer findGuide(SnapEdges edges, int start, int length) {
+        int snapped = start + edges.snap(start, length, snapThreshold);
+        if (edges.findNearest(snapped, 0) != null) {
+            return snapped;
+        }
+        if (length > 0 && edges.findNearest(snapped + length, 0) != null) {
+            return snapped + length;
+        }
+        return null;
+    }
+
+    private Element showGuide(Element guide, String direction) {
+        if (guide == null) {
+            guide = Document.get().createDivElement();
+            guide.setClassName(GUIDE_STYLENAME);
+            guide.addClassName(GUIDE_STYLENAME + "-" + direction);
+            canvas.appendChild(guide);
+        }
+        guide.getStyle().clearDisplay();
+        return guide;
+    }
+
     @Override
     public void setDragFilter(VDragFilter filter) {
         this.dragFilter = filter;
@@ -216,7 +393,11 @@ public class VDDAbsoluteLayout extends VAbsoluteLayout implements VHasDragMode,
     @Override
     public void iframeShimsEnabled(boolean enabled) {
         iframeCovers = enabled;
-        iframeCoverUtility.setIframeCoversEnabled(enabled, getElement(), mode);
+        if (iframeCoverUtility != null
+                || (enabled && mode != LayoutDragMode.NONE)) {
+            getIframeCoverUtility().setIframeCoversEnabled(enabled,
+                    getElement(), mode);
+        }
     }
 
     @Override
@@ -224,22 +405,77 @@ public class VDDAbsoluteLayout extends VAbsoluteLayout implements VHasDragMode,
         return iframeCovers;
     }
 
+    @Override
+    public void iframeShieldEnabled(boolean enabled) {
+        iframeShield = enabled;
+        IframeShield.get().setShielded(this, enabled && isAttached());
+    }
+
+    @Override
+    public boolean isIframeShieldEnabled() {
+        return iframeShield;
+    }
+
     @Override
     public void setDragMode(LayoutDragMode mode) {
         this.mode = mode;
-        ddHandler.updateDragMode(mode);
+        if (ddHandler != null) {
+            ddHandler.updateDragMode(mode);
+        }
+        if (mode != LayoutDragMode.NONE) {
+            VDragDropController.get().install(this);
+        }
         iframeShimsEnabled(iframeCovers);
     }
 
     @Override
     public void setDragImageProvider(VDragImageProvider provider) {
-        ddHandler.setDragImageProvider(provider);
+        dragImageProvider = provider;
+        if (ddHandler != null) {
+            ddHandler.setDragImageProvider(provider);
+        }
     }
 
-    protected final VLayoutDragDropMouseHandler getMouseHandler() {
+    @Override
+    public final VLayoutDragDropMouseHandler getMouseHandler() {
+        if (ddHandler == null) {
+            VLayoutDragDropMouseHandler handler = new VLayoutDragDropMouseHandler(
+                    this, mode);
+            handler.addDragStartListener(this);
+            handler.setDragImageProvider(dragImageProvider);
+            handler.setDragStartThreshold(dragStartThreshold);
+            handler.setPointerEventsEnabled(pointerEventsEnabled);
+            ddHandler = handler;
+        }
         return ddHandler;
     }
 
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        dragStartThreshold = pixels;
+        if (ddHandler != null) {
+            ddHandler.setDragStartThreshold(pixels);
+        }
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        pointerEventsEnabled = enabled;
+        if (ddHandler != null) {
+            ddHandler.setPointerEventsEnabled(enabled);
+        }
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return pointerEventsEnabled;
+    }
+
     @Override
     public VGrabFilter getGrabFilter() {
         return grabFilter;
@@ -27,6 +27,7 @@ public class VDDAbsoluteLayoutDropHandler
 
     @Override
     public boolean drop(VDragEvent drag) {
+        getLayout().hideGuides();
         if (super.drop(drag)) {
             getLayout().updateDragDetails(drag);
             return getLayout().postDropHook(drag);
@@ -38,12 +39,14 @@ public class VDDAbsoluteLayoutDropHandler
     public void dragEnter(VDragEvent drag) {
         super.dragEnter(drag);
         getLayout().updateDragDetails(drag);
+        getLayout().updateGuides(drag);
         getLayout().postEnterHook(drag);
     }
 
     @Override
     public void dragLeave(VDragEvent drag) {
         super.dragLeave(drag);
+        getLayout().hideGuides();
 
         // Due to http://dev.vaadin.com/ticket/14880 we need to abort if gwt
         // event is null
@@ -54,11 +57,12 @@ public class VDDAbsoluteLayoutDropHandler
     };
 
     @Override
-    public void dragOver(VDragEvent drag) {
+    protected void processDragOver(VDragEvent drag) {
         if (drag.getDragImage() != null) {
             drag.getDragImage().getStyle().setProperty("display", "");
         }
         getLayout().updateDragDetails(drag);
+        getLayout().updateGuides(drag);
         getLayout().postOverHook(drag);
     }
 }
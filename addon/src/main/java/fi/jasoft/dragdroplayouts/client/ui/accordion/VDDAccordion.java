@@ -32,7 +32,10 @@ import fi.jasoft.dragdroplayouts.client.VGrabFilter;
 import fi.jasoft.dragdroplayouts.client.ui.*;
 import fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler.DragStartListener;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.*;
+import fi.jasoft.dragdroplayouts.client.ui.util.DropIndicator;
 import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
+import fi.jasoft.dragdroplayouts.client.ui.util.IframeShield;
+import fi.jasoft.dragdroplayouts.client.ui.util.WidgetIndex;
 
 import java.util.Map;
 
@@ -43,7 +46,8 @@ import java.util.Map;
  * @since 0.4.0
  */
 public class VDDAccordion extends VAccordion
-        implements VHasDragMode, VDDHasDropHandler<VDDAccordionDropHandler>,
+        implements VHasLayoutDragDropMouseHandler,
+        VHasDragStartSettings, VDDHasDropHandler<VDDAccordionDropHandler>,
         DragStartListener, VDDTabContainer, VHasDragFilter,
         VHasDragImageReferenceSupport, VHasIframeShims, VHasGrabFilter, VHasDragCaptionProvider {
 
@@ -57,8 +61,14 @@ public class VDDAccordion extends VAccordion
     private final Widget spacer;
 
     // The drag mouse handler which handles the creation of the transferable
-    private final VLayoutDragDropMouseHandler ddMouseHandler = new VLayoutDragDropMouseHandler(
-            this, LayoutDragMode.NONE);
+    // Created the first time a drag is started from the layout
+    private VLayoutDragDropMouseHandler ddMouseHandler;
+
+    private VDragImageProvider dragImageProvider;
+
+    private int dragStartThreshold = VLayoutDragDropMouseHandler.DEFAULT_DRAG_START_THRESHOLD;
+
+    private boolean pointerEventsEnabled = true;
 
     private VDragFilter dragFilter;
 
@@ -66,7 +76,7 @@ public class VDDAccordion extends VAccordion
 
     private VGrabFilter grabFilter;
 
-    private final IframeCoverUtility iframeCoverUtility = new IframeCoverUtility();
+    private IframeCoverUtility iframeCoverUtility;
 
     private float tabTopBottomDropRatio = DDAccordionState.DEFAULT_VERTICAL_RATIO;
 
@@ -74,6 +84,33 @@ public class VDDAccordion extends VAccordion
 
     private boolean iframeCovers = false;
 
+    private boolean iframeShield = false;
+
+    private final WidgetIndex tabIndex = new WidgetIndex() {
+        @Override
+        protected int getWidgetCount() {
+            return VDDAccordion.this.getWidgetCount();
+        }
+
+        @Override
+        protected Widget getWidget(int index) {
+            return VDDAccordion.this.getWidget(index);
+        }
+    };
+
+    private final WidgetIndex tabContentIndex = new WidgetIndex() {
+        @Override
+        protected int getWidgetCount() {
+            return getTabCount();
+        }
+
+        @Override
+        protected Widget getWidget(int index) {
+            ComponentConnector tabContent = getTab(index);
+            return tabContent == null ? null : tabContent.getWidget();
+        }
+    };
+
     public VDDAccordion() {
         spacer = GWT.create(HTML.class);
         spacer.setWidth("100%");
@@ -93,18 +130,19 @@ public class VDDAccordion extends VAccordion
     @Override
     protected void onLoad() {
         super.onLoad();
-        ddMouseHandler.addDragStartListener(this);
         setDragMode(mode);
         iframeShimsEnabled(iframeCovers);
+        iframeShieldEnabled(iframeShield);
     }
 
     @Override
     protected void onUnload() {
         super.onUnload();
-        ddMouseHandler.removeDragStartListener(this);
-        ddMouseHandler.updateDragMode(LayoutDragMode.NONE);
-        iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
-                LayoutDragMode.NONE);
+        IframeShield.get().setShielded(this, false);
+        if (iframeCoverUtility != null) {
+            iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
+                    LayoutDragMode.NONE);
+        }
     }
 
     /*
@@ -127,7 +165,7 @@ public class VDDAccordion extends VAccordion
      * @see fi.jasoft.dragdroplayouts.client.ui.VHasDragMode#getDragMode()
      */
     public LayoutDragMode getDragMode() {
-        return ddMouseHandler.getDragMode();
+        return mode;
     }
 
     /**
@@ -241,6 +279,18 @@ public class VDDAccordion extends VAccordion
 
         // Find the tab
         StackItem tab = WidgetUtil.findWidget(element, StackItem.class);
+
+        if (VDragDropUtil.isOverlayDropIndicator(this)) {
+            if (tab != null && getElement().isOrHasChild(tab.getElement())) {
+                VerticalDropLocation location = getDropLocation(tab, event);
+                Element target = tab.isOpen() ? tab.getElement()
+                        : tab.getWidget(0).getElement();
+                DropIndicator.get().show(target,
+                        location.toString().toLowerCase());
+            }
+            return;
+        }
+
         if (tab != null && getElement().isOrHasChild(tab.getElement())
                 && currentlyEmphasised != tab) {
             VerticalDropLocation location = getDropLocation(tab, event);
@@ -315,6 +365,7 @@ public class VDDAccordion extends VAccordion
      * Removes any previous emphasis made by drag&amp;drop
      */
     protected void deEmphasis() {
+        DropIndicator.get().hide();
         if (currentlyEmphasised != null) {
             currentlyEmphasised.removeStyleName(CLASSNAME_OVER);
             currentlyEmphasised.getWidget(0).removeStyleName(CLASSNAME_OVER);
@@ -337,13 +388,7 @@ public class VDDAccordion extends VAccordion
 
     @Override
     public int getTabContentPosition(Widget w) {
-        for (int i = 0; i < getTabCount(); i++) {
-            ComponentConnector tabContent = getTab(i);
-            if (tabContent.getWidget() == w) {
-                return i;
-            }
-        }
-        return -1;
+        return tabContentIndex.indexOf(w);
     }
 
     @Override
@@ -351,13 +396,7 @@ public class VDDAccordion extends VAccordion
         StackItem tab = WidgetUtil.findWidget(tabWidget.getElement(),
                 StackItem.class);
         if (tab != null && getElement().isOrHasChild(tab.getElement())) {
-            int i = 0;
-            for (StackItem itm : getStackItems()) {
-                if (tab == itm) {
-                    return i;
-                }
-                i++;
-            }
+            return tabIndex.indexOf(tab);
         }
         return -1;
     }
@@ -367,6 +406,9 @@ public class VDDAccordion extends VAccordion
     }
 
     IframeCoverUtility getIframeCoverUtility() {
+        if (iframeCoverUtility == null) {
+            iframeCoverUtility = new IframeCoverUtility();
+        }
         return iframeCoverUtility;
     }
 
@@ -386,7 +428,11 @@ public class VDDAccordion extends VAccordion
     @Override
     public void iframeShimsEnabled(boolean enabled) {
         iframeCovers = enabled;
-        iframeCoverUtility.setIframeCoversEnabled(enabled, getElement(), mode);
+        if (iframeCoverUtility != null
+                || (enabled && mode != LayoutDragMode.NONE)) {
+            getIframeCoverUtility().setIframeCoversEnabled(enabled,
+                    getElement(), mode);
+        }
     }
 
     @Override
@@ -394,22 +440,77 @@ public class VDDAccordion extends VAccordion
         return iframeCovers;
     }
 
+    @Override
+    public void iframeShieldEnabled(boolean enabled) {
+        iframeShield = enabled;
+        IframeShield.get().setShielded(this, enabled && isAttached());
+    }
+
+    @Override
+    public boolean isIframeShieldEnabled() {
+        return iframeShield;
+    }
+
     @Override
     public void setDragMode(LayoutDragMode mode) {
         this.mode = mode;
-        ddMouseHandler.updateDragMode(mode);
+        if (ddMouseHandler != null) {
+            ddMouseHandler.updateDragMode(mode);
+        }
+        if (mode != LayoutDragMode.NONE) {
+            VDragDropController.get().install(this);
+        }
         iframeShimsEnabled(isIframeShimsEnabled());
     }
 
     @Override
     public void setDragImageProvider(VDragImageProvider provider) {
-        ddMouseHandler.setDragImageProvider(provider);
+        dragImageProvider = provider;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragImageProvider(provider);
+        }
     }
 
-    protected final VLayoutDragDropMouseHandler getMouseHandler() {
+    @Override
+    public final VLayoutDragDropMouseHandler getMouseHandler() {
+        if (ddMouseHandler == null) {
+            VLayoutDragDropMouseHandler handler = new VLayoutDragDropMouseHandler(
+                    this, mode);
+            handler.addDragStartListener(this);
+            handler.setDragImageProvider(dragImageProvider);
+            handler.setDragStartThreshold(dragStartThreshold);
+            handler.setPointerEventsEnabled(pointerEventsEnabled);
+            ddMouseHandler = handler;
+        }
         return ddMouseHandler;
     }
 
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        dragStartThreshold = pixels;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragStartThreshold(pixels);
+        }
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        pointerEventsEnabled = enabled;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setPointerEventsEnabled(enabled);
+        }
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return pointerEventsEnabled;
+    }
+
     @Override
     public VGrabFilter getGrabFilter() {
         return grabFilter;
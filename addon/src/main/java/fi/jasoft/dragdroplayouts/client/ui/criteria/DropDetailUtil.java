@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.criteria;
+
+/**
+ * Helpers shared by the client and server side of the criteria. Drop details
+ * are numbers on the client but might arrive as strings on the server, the
+ * helpers accept both.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public final class DropDetailUtil {
+
+    private DropDetailUtil() {
+        // Static helpers only
+    }
+
+    /**
+     * Converts a drop detail to an integer
+     *
+     * @param value
+     *            the value of the detail
+     * @return the integer or null if the value is missing or not a number
+     */
+    public static Integer toInteger(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value != null) {
+            try {
+                return Integer.valueOf(value.toString());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Is a drop detail within an inclusive range
+     *
+     * @param value
+     *            the value of the detail
+     * @param min
+     *            the minimum
+     * @param max
+     *            the maximum
+     * @return false if the value is missing or outside of the range
+     */
+    public static boolean isInRange(Object value, int min, int max) {
+        Integer i = toInteger(value);
+        return i != null && i >= min && i <= max;
+    }
+}
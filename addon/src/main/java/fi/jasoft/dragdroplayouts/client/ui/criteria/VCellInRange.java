@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.criteria;
+
+import java.util.Map;
+
+import com.vaadin.client.UIDL;
+import com.vaadin.client.ui.dd.VAcceptCriterion;
+import com.vaadin.client.ui.dd.VDragEvent;
+import com.vaadin.shared.ui.dd.AcceptCriterion;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+import fi.jasoft.dragdroplayouts.events.CellInRange;
+
+/**
+ * Client side implementation of {@link CellInRange}
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@AcceptCriterion(CellInRange.class)
+public final class VCellInRange extends VAcceptCriterion {
+
+    @Override
+    protected boolean accept(VDragEvent drag, UIDL configuration) {
+        Map<String, Object> details = drag.getDropDetails();
+        return DropDetailUtil.isInRange(
+                details.get(Constants.DROP_DETAIL_COLUMN),
+                configuration.getIntAttribute("c1"),
+                configuration.getIntAttribute("c2"))
+                && DropDetailUtil.isInRange(
+                        details.get(Constants.DROP_DETAIL_ROW),
+                        configuration.getIntAttribute("r1"),
+                        configuration.getIntAttribute("r2"));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.criteria;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.vaadin.client.ApplicationConfiguration;
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.UIDL;
+import com.vaadin.client.ui.dd.VAcceptCriterion;
+import com.vaadin.client.ui.dd.VDragEvent;
+import com.vaadin.shared.ui.dd.AcceptCriterion;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+import fi.jasoft.dragdroplayouts.events.ComponentTypeIs;
+
+/**
+ * Client side implementation of {@link ComponentTypeIs}. The client does not
+ * know the server side class of a connector, so the accepted classes are
+ * resolved to the connectors the server maps them to and the dragged
+ * component is accepted if its connector is one of them or extends one of
+ * them. Components sharing a connector with an accepted class are accepted
+ * while dragging, the server checks the exact class again on drop.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@AcceptCriterion(ComponentTypeIs.class)
+public final class VComponentTypeIs extends VAcceptCriterion {
+
+    @Override
+    protected boolean accept(VDragEvent drag, UIDL configuration) {
+        Object component = drag.getTransferable()
+                .getData(Constants.TRANSFERABLE_DETAIL_COMPONENT);
+        if (!(component instanceof ComponentConnector)) {
+            return false;
+        }
+        ApplicationConfiguration conf = ((ComponentConnector) component)
+                .getConnection().getConfiguration();
+
+        // Only classes used in the UI have tags, a class without tags
+        // cannot be the class of the dragged component
+        Set<Class<?>> accepted = new HashSet<Class<?>>();
+        for (String type : configuration.getStringArrayAttribute("types")) {
+            for (Integer tag : conf.getTagsForServerSideClassName(type)) {
+                accepted.add(conf.getConnectorClassByEncodedTag(tag));
+            }
+        }
+
+        Class<?> type = component.getClass();
+        while (type != null) {
+            if (accepted.contains(type)) {
+                return true;
+            }
+            type = type.getSuperclass();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.criteria;
+
+import com.vaadin.client.ServerConnector;
+import com.vaadin.client.UIDL;
+import com.vaadin.client.ui.dd.VAcceptCriterion;
+import com.vaadin.client.ui.dd.VDragAndDropManager;
+import com.vaadin.client.ui.dd.VDragEvent;
+import com.vaadin.shared.ui.dd.AcceptCriterion;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+import fi.jasoft.dragdroplayouts.events.NotIntoOwnDescendant;
+
+/**
+ * Client side implementation of {@link NotIntoOwnDescendant}
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@AcceptCriterion(NotIntoOwnDescendant.class)
+public final class VNotIntoOwnDescendant extends VAcceptCriterion {
+
+    @Override
+    protected boolean accept(VDragEvent drag, UIDL configuration) {
+        Object component = drag.getTransferable()
+                .getData(Constants.TRANSFERABLE_DETAIL_COMPONENT);
+        ServerConnector c = VDragAndDropManager.get().getCurrentDropHandler()
+                .getConnector();
+        while (c != null) {
+            if (c == component) {
+                return false;
+            }
+            c = c.getParent();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.criteria;
+
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.ServerConnector;
+import com.vaadin.client.UIDL;
+import com.vaadin.client.ui.dd.VAcceptCriterion;
+import com.vaadin.client.ui.dd.VDragEvent;
+import com.vaadin.shared.ui.dd.AcceptCriterion;
+
+import fi.jasoft.dragdroplayouts.events.SourceLayoutIs;
+
+/**
+ * Client side implementation of {@link SourceLayoutIs}
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@AcceptCriterion(SourceLayoutIs.class)
+public final class VSourceLayoutIs extends VAcceptCriterion {
+
+    @Override
+    protected boolean accept(VDragEvent drag, UIDL configuration) {
+        ComponentConnector source = drag.getTransferable().getDragSource();
+        if (source == null) {
+            return false;
+        }
+        int count = configuration.getIntAttribute("c");
+        for (int i = 0; i < count; i++) {
+            ServerConnector layout = configuration.getPaintableAttribute(
+                    "component" + i, source.getConnection());
+            if (layout == source) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
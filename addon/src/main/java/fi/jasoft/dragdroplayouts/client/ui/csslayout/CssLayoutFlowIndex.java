@@ -0,0 +1,259 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.csslayout;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.user.client.ui.Widget;
+import com.vaadin.client.ui.VCssLayout;
+
+/**
+ * Drag time index of the children of a css layout. The children are grouped
+ * into the rows they have wrapped into so the child under a position can be
+ * found with a binary search over the row bands followed by a binary search
+ * over the children of the row.
+ * <p>
+ * Positions are relative to the top left corner of the layout. The drop
+ * placeholder is left out of the measured rows, the index describes the
+ * layout as it is without the placeholder. This keeps the index valid while
+ * the placeholder moves around during a drag and the pointer is always
+ * resolved against the same, stable geometry. The index needs to be
+ * invalidated whenever the children of the layout change.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+class CssLayoutFlowIndex {
+
+    private final VCssLayout layout;
+
+    private Widget[] children = new Widget[0];
+
+    private int[] lefts = new int[0];
+    private int[] tops = new int[0];
+    private int[] rights = new int[0];
+    private int[] bottoms = new int[0];
+
+    private final Map<Widget, Integer> positions = new HashMap<Widget, Integer>();
+
+    // Index of the first child of each row and the vertical band of each row
+    private int[] rowStarts = new int[0];
+    private int[] rowTops = new int[0];
+    private int[] rowBottoms = new int[0];
+    private int rowCount = 0;
+
+    private boolean valid = false;
+
+    private int capturedWidth = -1;
+
+    private Element placeHolder;
+
+    CssLayoutFlowIndex(VCssLayout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Marks the index as stale so it is rebuilt on next use
+     */
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Sets the drop placeholder that should be left out of the measured rows
+     *
+     * @param placeHolder
+     *            the placeholder element or null if there is none
+     */
+    void setPlaceHolder(Element placeHolder) {
+        this.placeHolder = placeHolder;
+    }
+
+    private void ensureCaptured() {
+        if (!valid || capturedWidth != layout.getElement().getOffsetWidth()
+                || children.length != layout.getWidgetCount()) {
+            capture();
+        }
+    }
+
+    private void capture() {
+        Element root = layout.getElement();
+
+        // Measure the layout without the placeholder
+        Element placeHolderNext = null;
+        boolean placeHolderAttached = placeHolder != null
+                && placeHolder.getParentElement() == root;
+        if (placeHolderAttached) {
+            placeHolderNext = placeHolder.getNextSiblingElement();
+            placeHolder.removeFromParent();
+        }
+
+        int rootLeft = root.getAbsoluteLeft();
+        int rootTop = root.getAbsoluteTop();
+
+        int count = layout.getWidgetCount();
+        children = new Widget[count];
+        lefts = new int[count];
+        tops = new int[count];
+        rights = new int[count];
+        bottoms = new int[count];
+        rowStarts = new int[count];
+        rowTops = new int[count];
+        rowBottoms = new int[count];
+        rowCount = 0;
+        positions.clear();
+
+        for (int i = 0; i < count; i++) {
+            Widget child = layout.getWidget(i);
+            Element element = child.getElement();
+            children[i] = child;
+            lefts[i] = element.getAbsoluteLeft() - rootLeft;
+            tops[i] = element.getAbsoluteTop() - rootTop;
+            rights[i] = lefts[i] + element.getOffsetWidth();
+            bottoms[i] = tops[i] + element.getOffsetHeight();
+            positions.put(child, i);
+
+            // A child starts a new row if it wrapped to the left or below
+            boolean newRow = rowCount == 0 || lefts[i] < lefts[i - 1]
+                    || tops[i] >= rowBottoms[rowCount - 1];
+            if (newRow) {
+                rowStarts[rowCount] = i;
+                rowTops[rowCount] = tops[i];
+                rowBottoms[rowCount] = bottoms[i];
+                rowCount++;
+            } else {
+                int row = rowCount - 1;
+                rowTops[row] = Math.min(rowTops[row], tops[i]);
+                rowBottoms[row] = Math.max(rowBottoms[row], bottoms[i]);
+            }
+        }
+
+        capturedWidth = root.getOffsetWidth();
+        valid = true;
+
+        if (placeHolderAttached) {
+            if (placeHolderNext != null) {
+                root.insertBefore(placeHolder, placeHolderNext);
+            } else {
+                root.appendChild(placeHolder);
+            }
+        }
+    }
+
+    /**
+     * Finds the child at a position
+     *
+     * @param x
+     *            the x-coordinate relative to the layout
+     * @param y
+     *            the y-coordinate relative to the layout
+     * @return the position of the child among the children of the layout or
+     *         -1 if there is no child at the position
+     */
+    int findChild(int x, int y) {
+        ensureCaptured();
+
+        // Last row starting at or above the position
+        int row = -1;
+        int low = 0, high = rowCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (rowTops[mid] <= y) {
+                row = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (row == -1 || y >= rowBottoms[row]) {
+            return -1;
+        }
+
+        // Last child of the row starting at or left of the position
+        int child = -1;
+        low = rowStarts[row];
+        high = row + 1 < rowCount ? rowStarts[row + 1] - 1
+                : children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (lefts[mid] <= x) {
+                child = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (child == -1 || x >= rights[child] || y < tops[child]
+                || y >= bottoms[child]) {
+            return -1;
+        }
+        return child;
+    }
+
+    /**
+     * Returns the amount of children in the index
+     */
+    int size() {
+        ensureCaptured();
+        return children.length;
+    }
+
+    /**
+     * Returns the child at a position
+     */
+    Widget getChild(int position) {
+        ensureCaptured();
+        return children[position];
+    }
+
+    /**
+     * Returns the position of a child or -1 if the widget is not a child of
+     * the layout
+     */
+    int indexOf(Widget child) {
+        ensureCaptured();
+        Integer position = positions.get(child);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Returns the left edge of a child relative to the layout
+     */
+    int getLeft(int position) {
+        return lefts[position];
+    }
+
+    /**
+     * Returns the top of a child relative to the layout
+     */
+    int getTop(int position) {
+        return tops[position];
+    }
+
+    /**
+     * Returns the width of a child
+     */
+    int getWidth(int position) {
+        return rights[position] - lefts[position];
+    }
+
+    /**
+     * Returns the height of a child
+     */
+    int getHeight(int position) {
+        return bottoms[position] - tops[position];
+    }
+}
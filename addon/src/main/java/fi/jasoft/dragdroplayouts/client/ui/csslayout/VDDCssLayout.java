@@ -32,6 +32,7 @@ import fi.jasoft.dragdroplayouts.client.ui.*;
 import fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler.DragStartListener;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.*;
 import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
+import fi.jasoft.dragdroplayouts.client.ui.util.IframeShield;
 
 /**
  * Client side implementation for {@link DDCssLayout}
@@ -40,7 +41,8 @@ import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
  * @since 0.7.0
  * 
  */
-public class VDDCssLayout extends VCssLayout implements VHasDragMode,
+public class VDDCssLayout extends VCssLayout implements VHasLayoutDragDropMouseHandler,
+        VHasDragStartSettings,
         VDDHasDropHandler<VDDCssLayoutDropHandler>, DragStartListener,
         VHasDragFilter, VHasIframeShims, VHasDragImageReferenceSupport, VHasGrabFilter, VHasDragCaptionProvider {
 
@@ -48,10 +50,16 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
 
     private VDDCssLayoutDropHandler dropHandler;
 
-    private final VLayoutDragDropMouseHandler ddHandler = new VLayoutDragDropMouseHandler(
-            this, LayoutDragMode.NONE);
+    // Created the first time a drag is started from the layout
+    private VLayoutDragDropMouseHandler ddHandler;
 
-    private final IframeCoverUtility iframeCoverUtility = new IframeCoverUtility();
+    private VDragImageProvider dragImageProvider;
+
+    private int dragStartThreshold = VLayoutDragDropMouseHandler.DEFAULT_DRAG_START_THRESHOLD;
+
+    private boolean pointerEventsEnabled = true;
+
+    private IframeCoverUtility iframeCoverUtility;
 
     private VDragFilter dragFilter;
 
@@ -67,6 +75,8 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
 
     private boolean iframeCovers = false;
 
+    private boolean iframeShield = false;
+
     /**
      * Default constructor
      */
@@ -110,24 +120,25 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
      * @return
      */
     public LayoutDragMode getDragMode() {
-        return ddHandler.getDragMode();
+        return mode;
     }
 
     @Override
     protected void onLoad() {
         super.onLoad();
-        ddHandler.addDragStartListener(this);
         setDragMode(mode);
         iframeShimsEnabled(iframeCovers);
+        iframeShieldEnabled(iframeShield);
     }
 
     @Override
     protected void onUnload() {
         super.onUnload();
-        ddHandler.removeDragStartListener(this);
-        ddHandler.updateDragMode(LayoutDragMode.NONE);
-        iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
-                LayoutDragMode.NONE);
+        IframeShield.get().setShielded(this, false);
+        if (iframeCoverUtility != null) {
+            iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
+                    LayoutDragMode.NONE);
+        }
     }
 
     /**
@@ -166,10 +177,22 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
 
     private Element placeHolderElement;
 
+    // Position among the children where the placeholder currently is, -1 if
+    // it is not attached
+    private int placeHolderPosition = -1;
+
+    private boolean placeHolderMeasured = false;
+
+    private final CssLayoutFlowIndex flowIndex = new CssLayoutFlowIndex(this);
+
     public void attachDragImageToLayout(VDragEvent drag) {
         if (placeHolderElement == null) {
             placeHolderElement = DOM.createDiv();
             placeHolderElement.setInnerHTML("&nbsp;");
+            placeHolderPosition = -1;
+            placeHolderMeasured = false;
+            flowIndex.setPlaceHolder(placeHolderElement);
+            flowIndex.invalidate();
         }
     }
 
@@ -208,6 +231,22 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
             }
             placeHolderElement = null;
         }
+        placeHolderPosition = -1;
+        placeHolderMeasured = false;
+        flowIndex.setPlaceHolder(null);
+        flowIndex.invalidate();
+    }
+
+    /**
+     * Returns the position of the child under the drag among the children of
+     * the layout, or -1 if the drag is not over any child
+     */
+    private int findChildPosition(VDragEvent event) {
+        int x = Util.getTouchOrMouseClientX(event.getCurrentGwtEvent())
+                - getAbsoluteLeft();
+        int y = Util.getTouchOrMouseClientY(event.getCurrentGwtEvent())
+                - getAbsoluteTop();
+        return flowIndex.findChild(x, y);
     }
 
     /**
@@ -225,23 +264,8 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
             return;
         }
 
-        Widget widget = (Widget) Util.findWidget(over, null);
-        if (widget == null) {
-            // Null check
-            return;
-        }
-
-        int offset = 0;
-        int index = -1;
-        for (int i = 0; i < getElement().getChildCount(); i++) {
-            Element child = getElement().getChild(i).cast();
-            if (child.isOrHasChild(placeHolderElement)) {
-                offset--;
-            } else if (child.isOrHasChild(widget.getElement())) {
-                index = i + offset;
-                break;
-            }
-        }
+        int index = findChildPosition(event);
+        Widget widget = index == -1 ? this : flowIndex.getChild(index);
         event.getDropDetails().put(Constants.DROP_DETAIL_TO, index);
 
         /*
@@ -281,6 +305,19 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
             return;
         }
 
+        ComponentConnector draggedConnector = (ComponentConnector) drag
+                .getTransferable()
+                .getData(Constants.TRANSFERABLE_DETAIL_COMPONENT);
+        Widget dragged = draggedConnector == null ? null
+                : draggedConnector.getWidget();
+
+        int position = getPlaceHolderPosition(findChildPosition(drag), dragged,
+                drag);
+        if (position == placeHolderPosition) {
+            // Placeholder is already in the right place
+            return;
+        }
+
         if (placeHolderElement.hasParentElement()) {
             /*
              * Remove the placeholder from the DOM so we can reposition
@@ -288,64 +325,66 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
             placeHolderElement.removeFromParent();
         }
 
-        Widget w = Util.findWidget(drag.getElementOver(), null);
+        if (position != -1) {
+            if (position < flowIndex.size()) {
+                getElement().insertBefore(placeHolderElement,
+                        flowIndex.getChild(position).getElement());
+            } else {
+                /*
+                 * First child or hoovering outside of current components
+                 */
+                getElement().appendChild(placeHolderElement);
+            }
 
-        ComponentConnector draggedConnector = (ComponentConnector) drag
-                .getTransferable()
-                .getData(Constants.TRANSFERABLE_DETAIL_COMPONENT);
+            if (!placeHolderMeasured) {
+                updatePlaceHolderStyleProperties(drag);
+                placeHolderMeasured = true;
+            }
+        }
+
+        /*
+         * The flow index measures the layout without the placeholder so it
+         * stays valid when the placeholder moves
+         */
+        placeHolderPosition = position;
+    }
+
+    /**
+     * Returns the position among the children where the placeholder should be
+     * inserted, the amount of children if it should be appended or -1 if the
+     * placeholder should not be shown at all.
+     */
+    private int getPlaceHolderPosition(int over, Widget dragged,
+            VDragEvent drag) {
+        if (over == -1) {
+            return flowIndex.size();
+        }
 
-        if (draggedConnector != null && w == draggedConnector.getWidget()) {
+        Widget w = flowIndex.getChild(over);
+        if (w == dragged) {
             /*
              * Dragging drag image over the placeholder should not have any
              * effect (except placeholder should be removed)
              */
-            return;
+            return -1;
         }
 
-        if (w != null && w != this) {
-
-            HorizontalDropLocation hl = getHorizontalDropLocation(w, drag);
-            VerticalDropLocation vl = getVerticalDropLocation(w, drag);
-
-            if (hl == HorizontalDropLocation.LEFT
-                    || vl == VerticalDropLocation.TOP) {
-                Element prev = w.getElement().getPreviousSibling().cast();
-                if (draggedConnector == null || prev == null
-                        || !draggedConnector.getWidget().getElement()
-                                .isOrHasChild(prev)) {
-
-                    w.getElement().getParentElement()
-                            .insertBefore(placeHolderElement, w.getElement());
-
-                }
-            } else if (hl == HorizontalDropLocation.RIGHT
-                    || vl == VerticalDropLocation.BOTTOM) {
-                Element next = w.getElement().getNextSibling().cast();
-                if (draggedConnector == null || next == null
-                        || !draggedConnector.getWidget().getElement()
-                                .isOrHasChild(next)) {
-                    w.getElement().getParentElement()
-                            .insertAfter(placeHolderElement, w.getElement());
-                }
+        HorizontalDropLocation hl = getHorizontalDropLocation(w, drag);
+        VerticalDropLocation vl = getVerticalDropLocation(w, drag);
 
-            } else {
-                Element prev = w.getElement().getPreviousSibling().cast();
-                if (draggedConnector == null || prev == null
-                        || !draggedConnector.getWidget().getElement()
-                                .isOrHasChild(prev)) {
-                    w.getElement().getParentElement()
-                            .insertBefore(placeHolderElement, w.getElement());
-                }
-            }
+        boolean after = hl != HorizontalDropLocation.LEFT
+                && vl != VerticalDropLocation.TOP
+                && (hl == HorizontalDropLocation.RIGHT
+                        || vl == VerticalDropLocation.BOTTOM);
 
-        } else {
-            /*
-             * First child or hoovering outside of current components
-             */
-            getElement().appendChild(placeHolderElement);
+        // No placeholder right next to the dragged component
+        int neighbour = after ? over + 1 : over - 1;
+        if (dragged != null && neighbour >= 0 && neighbour < flowIndex.size()
+                && flowIndex.getChild(neighbour) == dragged) {
+            return -1;
         }
 
-        updatePlaceHolderStyleProperties(drag);
+        return after ? over + 1 : over;
     }
 
     /**
@@ -361,9 +400,17 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
      */
     protected HorizontalDropLocation getHorizontalDropLocation(Widget container,
             VDragEvent event) {
+        int clientX = Util.getTouchOrMouseClientX(event.getCurrentGwtEvent());
+        int position = placeHolderElement == null ? -1
+                : flowIndex.indexOf(container);
+        if (position != -1) {
+            return VDragDropUtil.getHorizontalDropLocation(
+                    getAbsoluteLeft() + flowIndex.getLeft(position),
+                    flowIndex.getWidth(position), clientX,
+                    horizontalDropRatio);
+        }
         return VDragDropUtil.getHorizontalDropLocation(container.getElement(),
-                Util.getTouchOrMouseClientX(event.getCurrentGwtEvent()),
-                horizontalDropRatio);
+                clientX, horizontalDropRatio);
     }
 
     /**
@@ -379,9 +426,17 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
      */
     protected VerticalDropLocation getVerticalDropLocation(Widget container,
             VDragEvent event) {
+        int clientY = Util.getTouchOrMouseClientY(event.getCurrentGwtEvent());
+        int position = placeHolderElement == null ? -1
+                : flowIndex.indexOf(container);
+        if (position != -1) {
+            return VDragDropUtil.getVerticalDropLocation(
+                    getAbsoluteTop() + flowIndex.getTop(position),
+                    flowIndex.getHeight(position), clientY,
+                    verticalDropRatio);
+        }
         return VDragDropUtil.getVerticalDropLocation(container.getElement(),
-                Util.getTouchOrMouseClientY(event.getCurrentGwtEvent()),
-                verticalDropRatio);
+                clientY, verticalDropRatio);
     }
 
     /*
@@ -395,6 +450,9 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
     }
 
     IframeCoverUtility getIframeCoverUtility() {
+        if (iframeCoverUtility == null) {
+            iframeCoverUtility = new IframeCoverUtility();
+        }
         return iframeCoverUtility;
     }
 
@@ -422,7 +480,11 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
     @Override
     public void iframeShimsEnabled(boolean enabled) {
         iframeCovers = enabled;
-        iframeCoverUtility.setIframeCoversEnabled(enabled, getElement(), mode);
+        if (iframeCoverUtility != null
+                || (enabled && mode != LayoutDragMode.NONE)) {
+            getIframeCoverUtility().setIframeCoversEnabled(enabled,
+                    getElement(), mode);
+        }
     }
 
     @Override
@@ -430,22 +492,77 @@ public class VDDCssLayout extends VCssLayout implements VHasDragMode,
         return iframeCovers;
     }
 
+    @Override
+    public void iframeShieldEnabled(boolean enabled) {
+        iframeShield = enabled;
+        IframeShield.get().setShielded(this, enabled && isAttached());
+    }
+
+    @Override
+    public boolean isIframeShieldEnabled() {
+        return iframeShield;
+    }
+
     @Override
     public void setDragMode(LayoutDragMode mode) {
         this.mode = mode;
-        ddHandler.updateDragMode(mode);
+        if (ddHandler != null) {
+            ddHandler.updateDragMode(mode);
+        }
+        if (mode != LayoutDragMode.NONE) {
+            VDragDropController.get().install(this);
+        }
         iframeShimsEnabled(isIframeShimsEnabled());
     }
 
     @Override
     public void setDragImageProvider(VDragImageProvider provider) {
-        ddHandler.setDragImageProvider(provider);
+        dragImageProvider = provider;
+        if (ddHandler != null) {
+            ddHandler.setDragImageProvider(provider);
+        }
     }
 
-    protected final VLayoutDragDropMouseHandler getMouseHandler() {
+    @Override
+    public final VLayoutDragDropMouseHandler getMouseHandler() {
+        if (ddHandler == null) {
+            VLayoutDragDropMouseHandler handler = new VLayoutDragDropMouseHandler(
+                    this, mode);
+            handler.addDragStartListener(this);
+            handler.setDragImageProvider(dragImageProvider);
+            handler.setDragStartThreshold(dragStartThreshold);
+            handler.setPointerEventsEnabled(pointerEventsEnabled);
+            ddHandler = handler;
+        }
         return ddHandler;
     }
 
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        dragStartThreshold = pixels;
+        if (ddHandler != null) {
+            ddHandler.setDragStartThreshold(pixels);
+        }
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        pointerEventsEnabled = enabled;
+        if (ddHandler != null) {
+            ddHandler.setPointerEventsEnabled(enabled);
+        }
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return pointerEventsEnabled;
+    }
+
     @Override
     public VGrabFilter getGrabFilter() {
         return grabFilter;
@@ -28,6 +28,7 @@ public class VDDCssLayoutDropHandler
 
     @Override
     public boolean drop(VDragEvent drag) {
+        resetDrag();
         getLayout().updateDragDetails(drag);
         getLayout().detachDragImageFromLayout(drag);
         return getLayout().postDropHook(drag) && super.drop(drag);
@@ -49,7 +50,7 @@ public class VDDCssLayoutDropHandler
     }
 
     @Override
-    public void dragOver(VDragEvent drag) {
+    protected void processDragOver(VDragEvent drag) {
         getLayout().updateDragDetails(drag);
         getLayout().postOverHook(drag);
 
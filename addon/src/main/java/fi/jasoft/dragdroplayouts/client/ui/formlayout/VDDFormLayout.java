@@ -31,7 +31,9 @@ import fi.jasoft.dragdroplayouts.client.VGrabFilter;
 import fi.jasoft.dragdroplayouts.client.ui.*;
 import fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler.DragStartListener;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.*;
+import fi.jasoft.dragdroplayouts.client.ui.util.DropIndicator;
 import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
+import fi.jasoft.dragdroplayouts.client.ui.util.IframeShield;
 
 /**
  * Client side implementation for {@link DDFormLayout}
@@ -39,7 +41,8 @@ import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
  * @author John Ahlroos / www.jasoft.fi
  * @since 0.4.0
  */
-public class VDDFormLayout extends VFormLayout implements VHasDragMode,
+public class VDDFormLayout extends VFormLayout implements VHasLayoutDragDropMouseHandler,
+        VHasDragStartSettings,
         VDDHasDropHandler<VDDFormLayoutDropHandler>, DragStartListener,
         VHasDragFilter, VHasIframeShims, VHasDragImageReferenceSupport, VHasGrabFilter, VHasDragCaptionProvider {
 
@@ -63,7 +66,7 @@ public class VDDFormLayout extends VFormLayout implements VHasDragMode,
 
     private VGrabFilter grabFilter;
 
-    private final IframeCoverUtility iframeCoverUtility = new IframeCoverUtility();
+    private IframeCoverUtility iframeCoverUtility;
 
     protected ApplicationConnection client;
 
@@ -71,6 +74,8 @@ public class VDDFormLayout extends VFormLayout implements VHasDragMode,
 
     private boolean iframeCovers = false;
 
+    private boolean iframeShield = false;
+
     public VDDFormLayout() {
         super();
         table = (VFormLayoutTable) getWidget();
@@ -89,28 +94,36 @@ public class VDDFormLayout extends VFormLayout implements VHasDragMode,
     @Override
     protected void onLoad() {
         super.onLoad();
-        ddMouseHandler.addDragStartListener(this);
         setDragMode(mode);
         iframeShimsEnabled(iframeCovers);
+        iframeShieldEnabled(iframeShield);
     }
 
     @Override
     protected void onUnload() {
         super.onUnload();
-        ddMouseHandler.removeDragStartListener(this);
-        ddMouseHandler.updateDragMode(LayoutDragMode.NONE);
-        iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
-                LayoutDragMode.NONE);
+        IframeShield.get().setShielded(this, false);
+        if (iframeCoverUtility != null) {
+            iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
+                    LayoutDragMode.NONE);
+        }
     }
 
     // The drag mouse handler which handles the creation of the transferable
-    private final VLayoutDragDropMouseHandler ddMouseHandler = new VLayoutDragDropMouseHandler(
-            this, LayoutDragMode.NONE);
+    // Created the first time a drag is started from the layout
+    private VLayoutDragDropMouseHandler ddMouseHandler;
+
+    private VDragImageProvider dragImageProvider;
+
+    private int dragStartThreshold = VLayoutDragDropMouseHandler.DEFAULT_DRAG_START_THRESHOLD;
+
+    private boolean pointerEventsEnabled = true;
 
     /**
      * Removes any applies drag and drop style applied by emphasis()
      */
     protected void deEmphasis() {
+        DropIndicator.get().hide();
         if (currentlyEmphasised != null) {
             // Universal over style
             UIObject.setStyleName(currentlyEmphasised, OVER, false);
@@ -238,6 +251,16 @@ public class VDDFormLayout extends VFormLayout implements VHasDragMode,
         Element rowElement = getRowFromChildElement(widget.getElement(),
                 VDDFormLayout.this.getElement());
 
+        if (VDragDropUtil.isOverlayDropIndicator(this)) {
+            String location = VerticalDropLocation.MIDDLE.toString();
+            if (rowElement != this.getElement()) {
+                location = getVerticalDropLocation(rowElement, event)
+                        .toString();
+            }
+            DropIndicator.get().show(rowElement, location.toLowerCase());
+            return;
+        }
+
         currentlyEmphasised = rowElement;
 
         if (rowElement != this.getElement()) {
@@ -255,7 +278,7 @@ public class VDDFormLayout extends VFormLayout implements VHasDragMode,
      */
     @Override
     public LayoutDragMode getDragMode() {
-        return ddMouseHandler.getDragMode();
+        return mode;
     }
 
     /**
@@ -326,6 +349,9 @@ public class VDDFormLayout extends VFormLayout implements VHasDragMode,
     }
 
     IframeCoverUtility getIframeCoverUtility() {
+        if (iframeCoverUtility == null) {
+            iframeCoverUtility = new IframeCoverUtility();
+        }
         return iframeCoverUtility;
     }
 
@@ -346,7 +372,11 @@ public class VDDFormLayout extends VFormLayout implements VHasDragMode,
     @Override
     public void iframeShimsEnabled(boolean enabled) {
         iframeCovers = enabled;
-        iframeCoverUtility.setIframeCoversEnabled(enabled, getElement(), mode);
+        if (iframeCoverUtility != null
+                || (enabled && mode != LayoutDragMode.NONE)) {
+            getIframeCoverUtility().setIframeCoversEnabled(enabled,
+                    getElement(), mode);
+        }
     }
 
     @Override
@@ -354,22 +384,77 @@ public class VDDFormLayout extends VFormLayout implements VHasDragMode,
         return iframeCovers;
     }
 
+    @Override
+    public void iframeShieldEnabled(boolean enabled) {
+        iframeShield = enabled;
+        IframeShield.get().setShielded(this, enabled && isAttached());
+    }
+
+    @Override
+    public boolean isIframeShieldEnabled() {
+        return iframeShield;
+    }
+
     @Override
     public void setDragMode(LayoutDragMode mode) {
         this.mode = mode;
-        ddMouseHandler.updateDragMode(mode);
+        if (ddMouseHandler != null) {
+            ddMouseHandler.updateDragMode(mode);
+        }
+        if (mode != LayoutDragMode.NONE) {
+            VDragDropController.get().install(this);
+        }
         iframeShimsEnabled(iframeCovers);
     }
 
     @Override
     public void setDragImageProvider(VDragImageProvider provider) {
-        ddMouseHandler.setDragImageProvider(provider);
+        dragImageProvider = provider;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragImageProvider(provider);
+        }
     }
 
-    protected final VLayoutDragDropMouseHandler getMouseHandler() {
+    @Override
+    public final VLayoutDragDropMouseHandler getMouseHandler() {
+        if (ddMouseHandler == null) {
+            VLayoutDragDropMouseHandler handler = new VLayoutDragDropMouseHandler(
+                    this, mode);
+            handler.addDragStartListener(this);
+            handler.setDragImageProvider(dragImageProvider);
+            handler.setDragStartThreshold(dragStartThreshold);
+            handler.setPointerEventsEnabled(pointerEventsEnabled);
+            ddMouseHandler = handler;
+        }
         return ddMouseHandler;
     }
 
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        dragStartThreshold = pixels;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragStartThreshold(pixels);
+        }
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        pointerEventsEnabled = enabled;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setPointerEventsEnabled(enabled);
+        }
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return pointerEventsEnabled;
+    }
+
     @Override
     public VGrabFilter getGrabFilter() {
         return grabFilter;
@@ -35,6 +35,7 @@ public class VDDFormLayoutDropHandler
 
     @Override
     public boolean drop(VDragEvent drag) {
+        resetDrag();
 
         // Un-emphasis any selections
         getLayout().emphasis(null, null);
@@ -101,7 +102,7 @@ public class VDDFormLayoutDropHandler
     }
 
     @Override
-    public void dragOver(VDragEvent drag) {
+    protected void processDragOver(VDragEvent drag) {
 
         // Remove any emphasis
         getLayout().emphasis(null, null);
@@ -147,6 +148,7 @@ public class VDDFormLayoutDropHandler
 
     @Override
     public void dragLeave(VDragEvent drag) {
+        super.dragLeave(drag);
         getLayout().emphasis(null, drag);
         getLayout().postLeaveHook(drag);
     }
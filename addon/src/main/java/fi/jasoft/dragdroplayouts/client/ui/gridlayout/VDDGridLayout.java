@@ -34,7 +34,9 @@ import fi.jasoft.dragdroplayouts.client.VGrabFilter;
 import fi.jasoft.dragdroplayouts.client.ui.*;
 import fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler.DragStartListener;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.*;
+import fi.jasoft.dragdroplayouts.client.ui.util.DropIndicator;
 import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
+import fi.jasoft.dragdroplayouts.client.ui.util.IframeShield;
 
 import java.util.Map;
 
@@ -44,7 +46,8 @@ import java.util.Map;
  * @author John Ahlroos / www.jasoft.fi
  * @since 0.4.0
  */
-public class VDDGridLayout extends VGridLayout implements VHasDragMode,
+public class VDDGridLayout extends VGridLayout implements VHasLayoutDragDropMouseHandler,
+        VHasDragStartSettings,
         VDDHasDropHandler<VDDGridLayoutDropHandler>, DragStartListener,
         VHasDragFilter, VHasIframeShims, VHasDragImageReferenceSupport, VHasGrabFilter, VHasDragCaptionProvider {
 
@@ -63,20 +66,40 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
 
     private VGrabFilter grabFilter;
 
-    private final IframeCoverUtility iframeCoverUtility = new IframeCoverUtility();
+    private IframeCoverUtility iframeCoverUtility;
 
     private float cellLeftRightDropRatio;
 
     private float cellTopBottomDropRatio;
 
     // The drag mouse handler which handles the creation of the transferable
-    private final VLayoutDragDropMouseHandler ddMouseHandler = new VLayoutDragDropMouseHandler(
-            this, LayoutDragMode.NONE);
+    // Created the first time a drag is started from the layout
+    private VLayoutDragDropMouseHandler ddMouseHandler;
+
+    private VDragImageProvider dragImageProvider;
+
+    private int dragStartThreshold = VLayoutDragDropMouseHandler.DEFAULT_DRAG_START_THRESHOLD;
+
+    private boolean pointerEventsEnabled = true;
 
     private LayoutDragMode mode = LayoutDragMode.NONE;
 
     private boolean iframeCovers = false;
 
+    private boolean iframeShield = false;
+
+    // Cumulative cell offsets, cached for the duration of a drag
+    private int[] cachedColumnWidths;
+    private int[] cachedRowHeights;
+    private int[] columnOffsets;
+    private int[] rowOffsets;
+
+    // The cell and location the drop details were last updated for
+    private int detailsRow = -1;
+    private int detailsColumn = -1;
+    private HorizontalDropLocation detailsHorizontal;
+    private VerticalDropLocation detailsVertical;
+
     public VDDGridLayout() {
         super();
     }
@@ -94,18 +117,19 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
     @Override
     protected void onLoad() {
         super.onLoad();
-        ddMouseHandler.addDragStartListener(this);
         setDragMode(mode);
         iframeShimsEnabled(iframeCovers);
+        iframeShieldEnabled(iframeShield);
     }
 
     @Override
     protected void onUnload() {
         super.onUnload();
-        ddMouseHandler.removeDragStartListener(this);
-        ddMouseHandler.updateDragMode(LayoutDragMode.NONE);
-        iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
-                LayoutDragMode.NONE);
+        IframeShield.get().setShielded(this, false);
+        if (iframeCoverUtility != null) {
+            iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
+                    LayoutDragMode.NONE);
+        }
     }
 
     /**
@@ -129,6 +153,19 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
     public void updateDragDetails(VDragEvent event) {
         CellDetails cd = getCellDetails(event);
         if (cd != null) {
+            HorizontalDropLocation hl = getHorizontalDropLocation(cd, event);
+            VerticalDropLocation vl = getVerticalDropLocation(cd, event);
+
+            // Nothing to update if still over the same part of the cell
+            if (cd.row == detailsRow && cd.column == detailsColumn
+                    && hl == detailsHorizontal && vl == detailsVertical) {
+                return;
+            }
+            detailsRow = cd.row;
+            detailsColumn = cd.column;
+            detailsHorizontal = hl;
+            detailsVertical = vl;
+
             Map<String, Object> ddetails = event.getDropDetails();
 
             // Add row
@@ -139,11 +176,9 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
                     Integer.valueOf(cd.column));
 
             // Add horizontal position
-            HorizontalDropLocation hl = getHorizontalDropLocation(cd, event);
             ddetails.put(Constants.DROP_DETAIL_HORIZONTAL_DROP_LOCATION, hl);
 
             // Add vertical position
-            VerticalDropLocation vl = getVerticalDropLocation(cd, event);
             ddetails.put(Constants.DROP_DETAIL_VERTICAL_DROP_LOCATION, vl);
 
             // Check if the cell we are hovering over has content
@@ -242,13 +277,6 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
      */
     protected void emphasis(CellDetails cell, VDragEvent event) {
 
-        Style shadowStyle = dragShadow.getElement().getStyle();
-        shadowStyle.setPosition(Position.ABSOLUTE);
-        shadowStyle.setWidth(cell.width, Unit.PX);
-        shadowStyle.setHeight(cell.height, Unit.PX);
-        shadowStyle.setLeft(cell.x, Unit.PX);
-        shadowStyle.setTop(cell.y, Unit.PX);
-
         // Remove any existing empasis
         deEmphasis();
 
@@ -265,6 +293,21 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
         HorizontalDropLocation hl = getHorizontalDropLocation(cell, event);
         VerticalDropLocation vl = getVerticalDropLocation(cell, event);
 
+        if (VDragDropUtil.isOverlayDropIndicator(this)) {
+            DropIndicator.get().show(getElement(),
+                    getAbsoluteLeft() + cell.x, getAbsoluteTop() + cell.y,
+                    cell.width, cell.height, vl.toString().toLowerCase() + " "
+                            + hl.toString().toLowerCase());
+            return;
+        }
+
+        Style shadowStyle = dragShadow.getElement().getStyle();
+        shadowStyle.setPosition(Position.ABSOLUTE);
+        shadowStyle.setWidth(cell.width, Unit.PX);
+        shadowStyle.setHeight(cell.height, Unit.PX);
+        shadowStyle.setLeft(cell.x, Unit.PX);
+        shadowStyle.setTop(cell.y, Unit.PX);
+
         // Apply over style
         UIObject.setStyleName(dragShadow.getElement(), OVER, true);
 
@@ -283,6 +326,8 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
      */
     protected void deEmphasis() {
 
+        DropIndicator.get().hide();
+
         UIObject.setStyleName(dragShadow.getElement(), OVER, false);
 
         // Horizontal styles
@@ -314,7 +359,7 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
     }
 
     public LayoutDragMode getDragMode() {
-        return ddMouseHandler.getDragMode();
+        return mode;
     }
 
     /**
@@ -394,42 +439,92 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
      * @return The details of the cell under the coordinate
      */
     private CellDetails getCellDetailsByCoordinates(int x, int y) {
+        updateCellOffsets();
+
+        int column = findCell(columnOffsets, cachedColumnWidths, x);
+        int row = findCell(rowOffsets, cachedRowHeights, y);
+
+        // Sanity check
+        if (row == -1 || column == -1) {
+            return null;
+        }
 
         CellDetails cd = new CellDetails();
+        cd.column = column;
+        cd.x = columnOffsets[column];
+        cd.width = cachedColumnWidths[column];
+        cd.row = row;
+        cd.y = rowOffsets[row];
+        cd.height = cachedRowHeights[row];
+        return cd;
+    }
+
+    /**
+     * Rebuilds the cumulative cell offsets if the column widths or row heights
+     * have changed since they were last calculated
+     */
+    private void updateCellOffsets() {
         int[] columnWidths = getColumnWidths();
+        if (columnWidths != cachedColumnWidths || columnOffsets == null) {
+            cachedColumnWidths = columnWidths;
+            columnOffsets = calculateOffsets(columnWidths,
+                    getHorizontalSpacing());
+        }
+
         int[] rowHeights = getRowHeights();
+        if (rowHeights != cachedRowHeights || rowOffsets == null) {
+            cachedRowHeights = rowHeights;
+            rowOffsets = calculateOffsets(rowHeights, getVerticalSpacing());
+        }
+    }
 
-        // Get column and x coordinate
-        int temp = 0;
-        for (int col = 0; col < columnWidths.length; col++) {
-            if (x >= temp && x <= temp + columnWidths[col]) {
-                cd.column = col;
-                cd.x = temp;
-                cd.width = columnWidths[col];
-                break;
-            }
-            temp += columnWidths[col] + getHorizontalSpacing();
+    private static int[] calculateOffsets(int[] sizes, int spacing) {
+        int[] offsets = new int[sizes.length];
+        int offset = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            offsets[i] = offset;
+            offset += sizes[i] + spacing;
         }
+        return offsets;
+    }
 
-        // get row
-        temp = 0;
-        for (int row = 0; row < rowHeights.length; row++) {
-            if (y >= temp && y <= temp + rowHeights[row]) {
-                cd.row = row;
-                cd.y = temp;
-                cd.height = rowHeights[row];
-                break;
+    /**
+     * Binary searches the cell containing the position. Both the start and the
+     * end of a cell are inclusive, on a shared edge the first cell wins.
+     */
+    private static int findCell(int[] offsets, int[] sizes, int position) {
+        int low = 0;
+        int high = offsets.length - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (offsets[mid] + sizes[mid] >= position) {
+                candidate = mid;
+                high = mid - 1;
+            } else {
+                low = mid + 1;
             }
-            temp += rowHeights[row] + getVerticalSpacing();
         }
-
-        // Sanity check
-        if (cd.row == -1 || cd.column == -1 || cd.width == -1
-                || cd.height == -1) {
-            return null;
+        if (candidate != -1 && offsets[candidate] <= position) {
+            return candidate;
         }
+        return -1;
+    }
 
-        return cd;
+    /**
+     * Forgets the cell offsets and the last updated drop details. Called when
+     * a drag enters or leaves the layout and before a drop so the drop
+     * details are always fully updated at those points.
+     */
+    void resetDragCache() {
+        cachedColumnWidths = null;
+        cachedRowHeights = null;
+        columnOffsets = null;
+        rowOffsets = null;
+        detailsRow = -1;
+        detailsColumn = -1;
+        detailsHorizontal = null;
+        detailsVertical = null;
     }
 
     /*
@@ -443,6 +538,9 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
     }
 
     IframeCoverUtility getIframeCoverUtility() {
+        if (iframeCoverUtility == null) {
+            iframeCoverUtility = new IframeCoverUtility();
+        }
         return iframeCoverUtility;
     }
 
@@ -470,7 +568,11 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
     @Override
     public void iframeShimsEnabled(boolean enabled) {
         iframeCovers = enabled;
-        iframeCoverUtility.setIframeCoversEnabled(enabled, getElement(), mode);
+        if (iframeCoverUtility != null
+                || (enabled && mode != LayoutDragMode.NONE)) {
+            getIframeCoverUtility().setIframeCoversEnabled(enabled,
+                    getElement(), mode);
+        }
     }
 
     @Override
@@ -478,22 +580,77 @@ public class VDDGridLayout extends VGridLayout implements VHasDragMode,
         return iframeCovers;
     }
 
+    @Override
+    public void iframeShieldEnabled(boolean enabled) {
+        iframeShield = enabled;
+        IframeShield.get().setShielded(this, enabled && isAttached());
+    }
+
+    @Override
+    public boolean isIframeShieldEnabled() {
+        return iframeShield;
+    }
+
     @Override
     public void setDragMode(LayoutDragMode mode) {
         this.mode = mode;
-        ddMouseHandler.updateDragMode(mode);
+        if (ddMouseHandler != null) {
+            ddMouseHandler.updateDragMode(mode);
+        }
+        if (mode != LayoutDragMode.NONE) {
+            VDragDropController.get().install(this);
+        }
         iframeShimsEnabled(iframeCovers);
     }
 
     @Override
     public void setDragImageProvider(VDragImageProvider provider) {
-        ddMouseHandler.setDragImageProvider(provider);
+        dragImageProvider = provider;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragImageProvider(provider);
+        }
     }
 
-    protected final VLayoutDragDropMouseHandler getMouseHandler() {
+    @Override
+    public final VLayoutDragDropMouseHandler getMouseHandler() {
+        if (ddMouseHandler == null) {
+            VLayoutDragDropMouseHandler handler = new VLayoutDragDropMouseHandler(
+                    this, mode);
+            handler.addDragStartListener(this);
+            handler.setDragImageProvider(dragImageProvider);
+            handler.setDragStartThreshold(dragStartThreshold);
+            handler.setPointerEventsEnabled(pointerEventsEnabled);
+            ddMouseHandler = handler;
+        }
         return ddMouseHandler;
     }
 
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        dragStartThreshold = pixels;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragStartThreshold(pixels);
+        }
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        pointerEventsEnabled = enabled;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setPointerEventsEnabled(enabled);
+        }
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return pointerEventsEnabled;
+    }
+
     @Override
     public VGrabFilter getGrabFilter() {
         return grabFilter;
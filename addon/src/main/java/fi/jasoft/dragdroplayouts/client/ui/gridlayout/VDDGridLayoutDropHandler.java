@@ -30,15 +30,19 @@ public class VDDGridLayoutDropHandler
     @Override
     public void dragEnter(VDragEvent drag) {
         super.dragEnter(drag);
+        getLayout().resetDragCache();
         getLayout().updateDragDetails(drag);
         getLayout().postEnterHook(drag);
     }
 
     @Override
     public boolean drop(VDragEvent drag) {
+        resetDrag();
 
         // Update the detail of the drop
+        getLayout().resetDragCache();
         getLayout().updateDragDetails(drag);
+        getLayout().resetDragCache();
 
         // Remove emphasis
         getLayout().deEmphasis();
@@ -47,7 +51,7 @@ public class VDDGridLayoutDropHandler
     };
 
     @Override
-    public void dragOver(VDragEvent drag) {
+    protected void processDragOver(VDragEvent drag) {
 
         // Remove emphasis from previous selection
         getLayout().deEmphasis();
@@ -71,6 +75,7 @@ public class VDDGridLayoutDropHandler
     @Override
     public void dragLeave(VDragEvent drag) {
         getLayout().deEmphasis();
+        getLayout().resetDragCache();
         getLayout().postLeaveHook(drag);
         super.dragLeave(drag);
     }
@@ -13,6 +13,9 @@
  */
 package fi.jasoft.dragdroplayouts.client.ui.horizontallayout;
 
+import java.util.List;
+import java.util.Map;
+
 import com.google.gwt.user.client.ui.UIObject;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.gwt.user.client.ui.WidgetCollection;
@@ -30,7 +33,10 @@ import fi.jasoft.dragdroplayouts.client.VGrabFilter;
 import fi.jasoft.dragdroplayouts.client.ui.*;
 import fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler.DragStartListener;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.*;
+import fi.jasoft.dragdroplayouts.client.ui.util.DropIndicator;
 import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
+import fi.jasoft.dragdroplayouts.client.ui.util.IframeShield;
+import fi.jasoft.dragdroplayouts.client.ui.util.SlotGeometrySnapshot;
 
 /**
  * Client side implementation for {@link DDHorizontalLayout}
@@ -39,9 +45,10 @@ import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
  * @since 0.4.0
  */
 public class VDDHorizontalLayout extends VHorizontalLayout
-        implements VHasDragMode,
+        implements VHasLayoutDragDropMouseHandler, VHasDragStartSettings,
         VDDHasDropHandler<VDDHorizontalLayoutDropHandler>, DragStartListener,
-        VHasDragFilter, VHasDragImageReferenceSupport, VHasIframeShims, VHasGrabFilter, VHasDragCaptionProvider {
+        VHasDragFilter, VHasDragImageReferenceSupport, VHasIframeShims, VHasGrabFilter, VHasDragCaptionProvider,
+        VHasDropCandidates {
 
     public static final String OVER = "v-ddorderedlayout-over";
     public static final String OVER_SPACED = OVER + "-spaced";
@@ -56,10 +63,16 @@ public class VDDHorizontalLayout extends VHorizontalLayout
 
     private VGrabFilter grabFilter;
 
-    private final IframeCoverUtility iframeCoverUtility = new IframeCoverUtility();
+    private IframeCoverUtility iframeCoverUtility;
+
+    // Created the first time a drag is started from the layout
+    private VLayoutDragDropMouseHandler ddMouseHandler;
+
+    private VDragImageProvider dragImageProvider;
 
-    private final VLayoutDragDropMouseHandler ddMouseHandler = new VLayoutDragDropMouseHandler(
-            this, LayoutDragMode.NONE);
+    private int dragStartThreshold = VLayoutDragDropMouseHandler.DEFAULT_DRAG_START_THRESHOLD;
+
+    private boolean pointerEventsEnabled = true;
 
     // Value delegated from state
     private double cellLeftRightDropRatio = DDHorizontalLayoutState.DEFAULT_HORIZONTAL_DROP_RATIO;
@@ -68,6 +81,8 @@ public class VDDHorizontalLayout extends VHorizontalLayout
 
     private boolean iframeCovers = false;
 
+    private boolean iframeShield = false;
+
     public VDDHorizontalLayout() {
         super();
     }
@@ -85,24 +100,26 @@ public class VDDHorizontalLayout extends VHorizontalLayout
     @Override
     protected void onLoad() {
         super.onLoad();
-        ddMouseHandler.addDragStartListener(this);
         setDragMode(mode);
         iframeShimsEnabled(iframeCovers);
+        iframeShieldEnabled(iframeShield);
     }
 
     @Override
     protected void onUnload() {
         super.onUnload();
-        ddMouseHandler.removeDragStartListener(this);
-        ddMouseHandler.updateDragMode(LayoutDragMode.NONE);
-        iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
-                LayoutDragMode.NONE);
+        IframeShield.get().setShielded(this, false);
+        if (iframeCoverUtility != null) {
+            iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
+                    LayoutDragMode.NONE);
+        }
     }
 
     /**
      * Removes any applies drag and drop style applied by emphasis()
      */
     protected void deEmphasis() {
+        DropIndicator.get().hide();
         if (currentlyEmphasised != null) {
             // Universal over style
             UIObject.setStyleName(currentlyEmphasised.getElement(), OVER,
@@ -138,9 +155,29 @@ public class VDDHorizontalLayout extends VHorizontalLayout
      */
     protected HorizontalDropLocation getHorizontalDropLocation(Widget container,
             VDragEvent event) {
+        int clientX = Util.getTouchOrMouseClientX(event.getCurrentGwtEvent());
+        SlotGeometrySnapshot geometry = getActiveSlotGeometry();
+        if (geometry != null && container instanceof Slot) {
+            int index = geometry.indexOf((Slot) container);
+            if (index >= 0) {
+                return VDragDropUtil.getHorizontalDropLocation(
+                        geometry.getLeft(index), geometry.getWidth(index),
+                        clientX, cellLeftRightDropRatio);
+            }
+        }
         return VDragDropUtil.getHorizontalDropLocation(container.getElement(),
-                Util.getTouchOrMouseClientX(event.getCurrentGwtEvent()),
-                cellLeftRightDropRatio);
+                clientX, cellLeftRightDropRatio);
+    }
+
+    /**
+     * Returns the slot geometry of the drop handler if a drag is over the
+     * layout, otherwise null
+     */
+    protected SlotGeometrySnapshot getActiveSlotGeometry() {
+        if (dropHandler != null && dropHandler.getSlotGeometry().isActive()) {
+            return dropHandler.getSlotGeometry();
+        }
+        return null;
     }
 
     /**
@@ -214,9 +251,14 @@ public class VDDHorizontalLayout extends VHorizontalLayout
          */
         int index = -1;
         if (widget instanceof Slot) {
-            WidgetCollection captionsAndSlots = getChildren();
-            index = VDragDropUtil.findSlotIndex(captionsAndSlots,
-                    (Slot) widget);
+            SlotGeometrySnapshot geometry = getActiveSlotGeometry();
+            if (geometry != null) {
+                index = geometry.indexOf((Slot) widget);
+            } else {
+                WidgetCollection captionsAndSlots = getChildren();
+                index = VDragDropUtil.findSlotIndex(captionsAndSlots,
+                        (Slot) widget);
+            }
         }
 
         event.getDropDetails().put(Constants.DROP_DETAIL_TO, index);
@@ -262,6 +304,13 @@ public class VDDHorizontalLayout extends VHorizontalLayout
             location = HorizontalDropLocation.CENTER;
         }
 
+        if (VDragDropUtil.isOverlayDropIndicator(this)) {
+            currentlyEmphasised = null;
+            DropIndicator.get().show(container.getElement(),
+                    location.toString().toLowerCase());
+            return;
+        }
+
         UIObject.setStyleName(currentlyEmphasised.getElement(), OVER, true);
         UIObject.setStyleName(currentlyEmphasised.getElement(),
                 OVER + "-" + location.toString().toLowerCase(), true);
@@ -271,7 +320,7 @@ public class VDDHorizontalLayout extends VHorizontalLayout
      * Returns the current drag mode which determines how the drag is visualized
      */
     public LayoutDragMode getDragMode() {
-        return ddMouseHandler.getDragMode();
+        return mode;
     }
 
     /**
@@ -297,6 +346,9 @@ public class VDDHorizontalLayout extends VHorizontalLayout
     }
 
     IframeCoverUtility getIframeCoverUtility() {
+        if (iframeCoverUtility == null) {
+            iframeCoverUtility = new IframeCoverUtility();
+        }
         return iframeCoverUtility;
     }
 
@@ -316,7 +368,11 @@ public class VDDHorizontalLayout extends VHorizontalLayout
     @Override
     public void iframeShimsEnabled(boolean enabled) {
         iframeCovers = enabled;
-        iframeCoverUtility.setIframeCoversEnabled(enabled, getElement(), mode);
+        if (iframeCoverUtility != null
+                || (enabled && mode != LayoutDragMode.NONE)) {
+            getIframeCoverUtility().setIframeCoversEnabled(enabled,
+                    getElement(), mode);
+        }
     }
 
     @Override
@@ -324,22 +380,77 @@ public class VDDHorizontalLayout extends VHorizontalLayout
         return iframeCovers;
     }
 
+    @Override
+    public void iframeShieldEnabled(boolean enabled) {
+        iframeShield = enabled;
+        IframeShield.get().setShielded(this, enabled && isAttached());
+    }
+
+    @Override
+    public boolean isIframeShieldEnabled() {
+        return iframeShield;
+    }
+
     @Override
     public void setDragMode(LayoutDragMode mode) {
         this.mode = mode;
-        ddMouseHandler.updateDragMode(mode);
+        if (ddMouseHandler != null) {
+            ddMouseHandler.updateDragMode(mode);
+        }
+        if (mode != LayoutDragMode.NONE) {
+            VDragDropController.get().install(this);
+        }
         iframeShimsEnabled(iframeCovers);
     }
 
     @Override
     public void setDragImageProvider(VDragImageProvider provider) {
-        ddMouseHandler.setDragImageProvider(provider);
+        dragImageProvider = provider;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragImageProvider(provider);
+        }
     }
 
-    protected final VLayoutDragDropMouseHandler getMouseHandler() {
+    @Override
+    public final VLayoutDragDropMouseHandler getMouseHandler() {
+        if (ddMouseHandler == null) {
+            VLayoutDragDropMouseHandler handler = new VLayoutDragDropMouseHandler(
+                    this, mode);
+            handler.addDragStartListener(this);
+            handler.setDragImageProvider(dragImageProvider);
+            handler.setDragStartThreshold(dragStartThreshold);
+            handler.setPointerEventsEnabled(pointerEventsEnabled);
+            ddMouseHandler = handler;
+        }
         return ddMouseHandler;
     }
 
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        dragStartThreshold = pixels;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragStartThreshold(pixels);
+        }
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        pointerEventsEnabled = enabled;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setPointerEventsEnabled(enabled);
+        }
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return pointerEventsEnabled;
+    }
+
     @Override
     public VGrabFilter getGrabFilter() {
         return grabFilter;
@@ -349,4 +460,11 @@ public class VDDHorizontalLayout extends VHorizontalLayout
     public void setGrabFilter(VGrabFilter grabFilter) {
         this.grabFilter = grabFilter;
     }
+
+    @Override
+    public List<Map<String, String>> getDropCandidates() {
+        return VDragDropUtil.createOrderedDropCandidates(getChildren(),
+                Constants.DROP_DETAIL_HORIZONTAL_DROP_LOCATION,
+                HorizontalDropLocation.values());
+    }
 }
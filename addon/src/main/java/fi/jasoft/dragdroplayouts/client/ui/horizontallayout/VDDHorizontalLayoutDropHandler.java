@@ -40,6 +40,7 @@ public class VDDHorizontalLayoutDropHandler
 
     @Override
     public boolean drop(VDragEvent drag) {
+        resetDrag();
 
         // Un-emphasis any selections
         getLayout().emphasis(null, null);
@@ -47,12 +48,17 @@ public class VDDHorizontalLayoutDropHandler
         // Update the details
         Widget slot = getSlot(drag.getElementOver(), drag.getCurrentGwtEvent());
         getLayout().updateDragDetails(slot, drag);
+        getSlotGeometry().release();
 
         return getLayout().postDropHook(drag) && super.drop(drag);
     }
 
     @Override
     protected Slot getSlot(Element e, NativeEvent event) {
+        if (getSlotGeometry().isActive()) {
+            return findSlotFromGeometry(12, event);
+        }
+
         Slot slot = null;
         if (getLayout().getElement() == e) {
             // Most likely between components, use the closes one in that case
@@ -78,7 +84,7 @@ public class VDDHorizontalLayoutDropHandler
     }
 
     @Override
-    public void dragOver(VDragEvent drag) {
+    protected void processDragOver(VDragEvent drag) {
 
         // Remove any emphasis
         getLayout().emphasis(null, null);
@@ -122,7 +128,10 @@ public class VDDHorizontalLayoutDropHandler
 
     @Override
     public void dragLeave(VDragEvent drag) {
+        super.dragLeave(drag);
         getLayout().deEmphasis();
+        getSlotGeometry().release();
+
         getLayout().postLeaveHook(drag);
     }
 
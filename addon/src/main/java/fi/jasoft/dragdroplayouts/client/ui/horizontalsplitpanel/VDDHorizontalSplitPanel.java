@@ -28,7 +28,9 @@ import fi.jasoft.dragdroplayouts.client.VGrabFilter;
 import fi.jasoft.dragdroplayouts.client.ui.*;
 import fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler.DragStartListener;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.*;
+import fi.jasoft.dragdroplayouts.client.ui.util.DropIndicator;
 import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
+import fi.jasoft.dragdroplayouts.client.ui.util.IframeShield;
 
 /**
  * Client side implementation for {@link DDHorizontalSplitPanel}
@@ -37,7 +39,8 @@ import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
  * @since 0.4.0
  */
 public class VDDHorizontalSplitPanel extends VSplitPanelHorizontal implements
-        VHasDragMode, VDDHasDropHandler<VDDHorizontalSplitPanelDropHandler>,
+        VHasLayoutDragDropMouseHandler,
+        VHasDragStartSettings, VDDHasDropHandler<VDDHorizontalSplitPanelDropHandler>,
         DragStartListener, VHasDragFilter, VHasDragImageReferenceSupport,
         VHasIframeShims, VHasGrabFilter, VHasDragCaptionProvider {
 
@@ -60,16 +63,24 @@ public class VDDHorizontalSplitPanel extends VSplitPanelHorizontal implements
 
     private VGrabFilter grabFilter;
 
-    private final IframeCoverUtility iframeCoverUtility = new IframeCoverUtility();
+    private IframeCoverUtility iframeCoverUtility;
 
     // The drag mouse handler which handles the creation of the transferable
-    private final VLayoutDragDropMouseHandler ddMouseHandler = new VLayoutDragDropMouseHandler(
-            this, LayoutDragMode.NONE);
+    // Created the first time a drag is started from the layout
+    private VLayoutDragDropMouseHandler ddMouseHandler;
+
+    private VDragImageProvider dragImageProvider;
+
+    private int dragStartThreshold = VLayoutDragDropMouseHandler.DEFAULT_DRAG_START_THRESHOLD;
+
+    private boolean pointerEventsEnabled = true;
 
     private LayoutDragMode mode = LayoutDragMode.NONE;
 
     private boolean iframeCovers = false;
 
+    private boolean iframeShield = false;
+
     public VDDHorizontalSplitPanel() {
         super();
     }
@@ -87,18 +98,19 @@ public class VDDHorizontalSplitPanel extends VSplitPanelHorizontal implements
     @Override
     protected void onLoad() {
         super.onLoad();
-        ddMouseHandler.addDragStartListener(this);
         setDragMode(mode);
         iframeShimsEnabled(iframeCovers);
+        iframeShieldEnabled(iframeShield);
     }
 
     @Override
     protected void onUnload() {
         super.onUnload();
-        ddMouseHandler.removeDragStartListener(this);
-        ddMouseHandler.updateDragMode(LayoutDragMode.NONE);
-        iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
-                LayoutDragMode.NONE);
+        IframeShield.get().setShielded(this, false);
+        if (iframeCoverUtility != null) {
+            iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
+                    LayoutDragMode.NONE);
+        }
     }
 
     /*
@@ -188,6 +200,16 @@ public class VDDHorizontalSplitPanel extends VSplitPanelHorizontal implements
             return;
         }
 
+        if (VDragDropUtil.isOverlayDropIndicator(this)) {
+            if (element == firstContainer || element == secondContainer) {
+                DropIndicator.get().show(element, HorizontalDropLocation.CENTER
+                        .toString().toLowerCase());
+            } else if (splitter.isOrHasChild(element)) {
+                DropIndicator.get().show(splitter, "splitter");
+            }
+            return;
+        }
+
         if (element == firstContainer || element == secondContainer) {
             element.addClassName(OVER);
             currentEmphasis = element;
@@ -201,6 +223,7 @@ public class VDDHorizontalSplitPanel extends VSplitPanelHorizontal implements
      * Removes any previous emphasis made by drag&amp;drag
      */
     protected void deEmphasis() {
+        DropIndicator.get().hide();
         if (currentEmphasis != null) {
             currentEmphasis.removeClassName(OVER);
             currentEmphasis.removeClassName(OVER_SPLITTER);
@@ -293,6 +316,9 @@ public class VDDHorizontalSplitPanel extends VSplitPanelHorizontal implements
     }
 
     IframeCoverUtility getIframeCoverUtility() {
+        if (iframeCoverUtility == null) {
+            iframeCoverUtility = new IframeCoverUtility();
+        }
         return iframeCoverUtility;
     }
 
@@ -305,13 +331,17 @@ public class VDDHorizontalSplitPanel extends VSplitPanelHorizontal implements
      * Returns the current drag mode which determines how the drag is visualized
      */
     public LayoutDragMode getDragMode() {
-        return ddMouseHandler.getDragMode();
+        return mode;
     }
 
     @Override
     public void iframeShimsEnabled(boolean enabled) {
         iframeCovers = enabled;
-        iframeCoverUtility.setIframeCoversEnabled(enabled, getElement(), mode);
+        if (iframeCoverUtility != null
+                || (enabled && mode != LayoutDragMode.NONE)) {
+            getIframeCoverUtility().setIframeCoversEnabled(enabled,
+                    getElement(), mode);
+        }
     }
 
     @Override
@@ -319,22 +349,77 @@ public class VDDHorizontalSplitPanel extends VSplitPanelHorizontal implements
         return iframeCovers;
     }
 
+    @Override
+    public void iframeShieldEnabled(boolean enabled) {
+        iframeShield = enabled;
+        IframeShield.get().setShielded(this, enabled && isAttached());
+    }
+
+    @Override
+    public boolean isIframeShieldEnabled() {
+        return iframeShield;
+    }
+
     @Override
     public void setDragMode(LayoutDragMode mode) {
         this.mode = mode;
-        ddMouseHandler.updateDragMode(mode);
+        if (ddMouseHandler != null) {
+            ddMouseHandler.updateDragMode(mode);
+        }
+        if (mode != LayoutDragMode.NONE) {
+            VDragDropController.get().install(this);
+        }
         iframeShimsEnabled(iframeCovers);
     }
 
     @Override
     public void setDragImageProvider(VDragImageProvider provider) {
-        ddMouseHandler.setDragImageProvider(provider);
+        dragImageProvider = provider;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragImageProvider(provider);
+        }
     }
 
-    protected final VLayoutDragDropMouseHandler getMouseHandler() {
+    @Override
+    public final VLayoutDragDropMouseHandler getMouseHandler() {
+        if (ddMouseHandler == null) {
+            VLayoutDragDropMouseHandler handler = new VLayoutDragDropMouseHandler(
+                    this, mode);
+            handler.addDragStartListener(this);
+            handler.setDragImageProvider(dragImageProvider);
+            handler.setDragStartThreshold(dragStartThreshold);
+            handler.setPointerEventsEnabled(pointerEventsEnabled);
+            ddMouseHandler = handler;
+        }
         return ddMouseHandler;
     }
 
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        dragStartThreshold = pixels;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragStartThreshold(pixels);
+        }
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        pointerEventsEnabled = enabled;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setPointerEventsEnabled(enabled);
+        }
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return pointerEventsEnabled;
+    }
+
     @Override
     public VGrabFilter getGrabFilter() {
         return grabFilter;
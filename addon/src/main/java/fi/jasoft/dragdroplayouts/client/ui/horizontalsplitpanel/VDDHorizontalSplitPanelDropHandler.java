@@ -34,6 +34,7 @@ public class VDDHorizontalSplitPanelDropHandler
 
     @Override
     public boolean drop(VDragEvent drag) {
+        resetDrag();
 
         // Un-emphasis any selections
         getLayout().deEmphasis();
@@ -44,7 +45,7 @@ public class VDDHorizontalSplitPanelDropHandler
     };
 
     @Override
-    public void dragOver(VDragEvent drag) {
+    protected void processDragOver(VDragEvent drag) {
 
         getLayout().deEmphasis();
 
@@ -78,6 +79,7 @@ public class VDDHorizontalSplitPanelDropHandler
 
     @Override
     public void dragLeave(VDragEvent drag) {
+        super.dragLeave(drag);
         getLayout().deEmphasis();
         getLayout().updateDragDetails(drag);
         getLayout().postLeaveHook(drag);
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.interfaces;
+
+import com.vaadin.shared.communication.ClientRpc;
+
+/**
+ * Delivers the accept decisions requested with
+ * {@link AcceptPrefetchServerRpc#prefetch}
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface AcceptPrefetchClientRpc extends ClientRpc {
+
+    /**
+     * A decision the client has to check from the server when needed
+     */
+    int UNKNOWN = -1;
+
+    int REJECTED = 0;
+
+    int ACCEPTED = 1;
+
+    /**
+     * Sets the accept decisions of a request
+     *
+     * @param requestId
+     *            the id of the request
+     * @param decisions
+     *            the decisions in the order of the candidates, one of
+     *            {@link #ACCEPTED}, {@link #REJECTED} or {@link #UNKNOWN}
+     */
+    void setDecisions(int requestId, int[] decisions);
+}
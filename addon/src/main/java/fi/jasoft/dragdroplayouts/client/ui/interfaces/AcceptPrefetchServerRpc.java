@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.interfaces;
+
+import java.util.List;
+import java.util.Map;
+
+import com.vaadin.shared.Connector;
+import com.vaadin.shared.communication.ServerRpc;
+
+import fi.jasoft.dragdroplayouts.client.ui.AcceptCandidate;
+
+/**
+ * Asks the server for the accept decisions of many drop locations at once
+ * when a drag starts
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface AcceptPrefetchServerRpc extends ServerRpc {
+
+    /**
+     * Requests the accept decisions of the candidates. The server answers
+     * with {@link AcceptPrefetchClientRpc#setDecisions(int, int[])}.
+     *
+     * @param requestId
+     *            identifies the request in the answer
+     * @param source
+     *            the layout the drag started from
+     * @param component
+     *            the dragged component
+     * @param transferable
+     *            the other details of the transferable
+     * @param candidates
+     *            the drop locations
+     */
+    void prefetch(int requestId, Connector source, Connector component,
+            Map<String, String> transferable,
+            List<AcceptCandidate> candidates);
+}
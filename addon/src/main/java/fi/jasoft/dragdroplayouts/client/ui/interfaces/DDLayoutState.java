@@ -16,12 +16,15 @@ package fi.jasoft.dragdroplayouts.client.ui.interfaces;
 import com.vaadin.shared.Connector;
 import com.vaadin.shared.communication.SharedState;
 import fi.jasoft.dragdroplayouts.client.ui.DragCaptionInfo;
+import fi.jasoft.dragdroplayouts.client.ui.DragImageStrategy;
 import fi.jasoft.dragdroplayouts.client.ui.LayoutDragMode;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class DDLayoutState extends SharedState {
 
@@ -31,12 +34,55 @@ public class DDLayoutState extends SharedState {
     // Are the iframes shimmed
     public boolean iframeShims = true;
 
+    // Are the iframes shielded only while dragging instead of covered
+    public boolean iframeShield = false;
+
+    // How the drag image is built
+    public DragImageStrategy dragImageStrategy = DragImageStrategy.CLONE;
+
+    // Is the drop location shown with an overlay instead of style names
+    public boolean overlayDropIndicator = true;
+
     // Which connectors are draggable
     public List<Connector> draggable = new ArrayList<>();
 
+    // Are draggable and the children of nonGrabbable sent in compact form
+    // using the default and exception fields below
+    public boolean compactDraggable = false;
+
+    // Compact form: are children draggable unless listed as an exception
+    public boolean draggableByDefault = false;
+
+    // Compact form: connector ids of children differing from the default
+    public Set<String> draggableExceptions = new HashSet<>();
+
     // Which connectors cannot be used as anchor
     public List<Connector> nonGrabbable = new ArrayList<>();
 
+    // Compact form: are children non grabbable unless listed as an exception
+    public boolean nonGrabbableByDefault = false;
+
+    // Compact form: connector ids of children differing from the default
+    public Set<String> nonGrabbableExceptions = new HashSet<>();
+
+    // Pixels the pointer needs to move before a drag starts
+    public int dragStartThreshold = 3;
+
+    // Are drags started with pointer events when the browser supports them
+    public boolean pointerEventsEnabled = true;
+
+    // Minimum milliseconds between server side criterion checks
+    public int criterionCheckInterval = 0;
+
+    // Are the accept decisions prefetched when a drag starts
+    public boolean acceptPrefetch = false;
+
+    // Id of the accept criterion in the registry, null if dropping is disabled
+    public String acceptCriterionId;
+
+    // Are drag captions and images resolved on demand instead of below
+    public boolean lazyDragImages = false;
+
     // Reference drag images
     public Map<Connector, Connector> referenceImageComponents = new HashMap<>();
 
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.interfaces;
+
+import com.vaadin.shared.Connector;
+import com.vaadin.shared.communication.ClientRpc;
+
+import fi.jasoft.dragdroplayouts.client.ui.DragCaptionInfo;
+
+/**
+ * Delivers the drag caption and drag image of a child requested with
+ * {@link LazyDragImageServerRpc#requestDragImage(Connector)}
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface LazyDragImageClientRpc extends ClientRpc {
+
+    /**
+     * Sets the drag caption and drag image of a child
+     *
+     * @param component
+     *            the dragged child
+     * @param caption
+     *            the drag caption or null if the child has none
+     * @param image
+     *            the reference drag image or null if the child has none
+     */
+    void setDragImage(Connector component, DragCaptionInfo caption,
+            Connector image);
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.interfaces;
+
+import com.vaadin.shared.Connector;
+import com.vaadin.shared.communication.ServerRpc;
+
+/**
+ * Asks the server for the drag caption and drag image of a child being
+ * dragged when drag images are resolved on demand
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface LazyDragImageServerRpc extends ServerRpc {
+
+    /**
+     * Requests the drag caption and drag image of a child. The server answers
+     * with {@link LazyDragImageClientRpc#setDragImage}.
+     *
+     * @param component
+     *            the dragged child
+     */
+    void requestDragImage(Connector component);
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.interfaces;
+
+/**
+ * Interface for layouts whose drag start threshold and pointer event usage
+ * can be configured. The settings are applied to the mouse handler of the
+ * layout when it is created.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface VHasDragStartSettings {
+
+    void setDragStartThreshold(int pixels);
+
+    int getDragStartThreshold();
+
+    void setPointerEventsEnabled(boolean enabled);
+
+    boolean isPointerEventsEnabled();
+}
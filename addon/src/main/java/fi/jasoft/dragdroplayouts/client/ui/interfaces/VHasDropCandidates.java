@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.interfaces;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interface for layouts which can list their possible drop locations so the
+ * accept decisions of the locations can be prefetched at drag start
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface VHasDropCandidates {
+
+    /**
+     * Returns the drop details of every drop location of the layout. Only
+     * the details identifying the location are included, the decisions are
+     * matched to drags by comparing these details.
+     */
+    List<Map<String, String>> getDropCandidates();
+}
@@ -18,4 +18,12 @@ public interface VHasIframeShims {
     void iframeShimsEnabled(boolean enabled);
 
     boolean isIframeShimsEnabled();
+
+    /**
+     * Shield the iframes of the page while a drag is active instead of
+     * covering the iframes of the layout
+     */
+    void iframeShieldEnabled(boolean enabled);
+
+    boolean isIframeShieldEnabled();
 }
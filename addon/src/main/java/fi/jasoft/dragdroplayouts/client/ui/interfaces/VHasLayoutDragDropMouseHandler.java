@@ -0,0 +1,32 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.interfaces;
+
+import fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler;
+
+/**
+ * Interface for layouts whose drags are started through the document wide
+ * drag controller
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface VHasLayoutDragDropMouseHandler extends VHasDragMode {
+
+    /**
+     * Returns the mouse handler of the layout. The handler is created the
+     * first time it is needed.
+     */
+    VLayoutDragDropMouseHandler getMouseHandler();
+}
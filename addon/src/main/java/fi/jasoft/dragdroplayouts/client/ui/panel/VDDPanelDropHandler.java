@@ -33,6 +33,7 @@ public class VDDPanelDropHandler extends VDDAbstractDropHandler<VDDPanel> {
 
     @Override
     public boolean drop(VDragEvent drag) {
+        resetDrag();
         VConsole.log("Drop!");
 
         // Un-emphasis any selections
@@ -45,7 +46,7 @@ public class VDDPanelDropHandler extends VDDAbstractDropHandler<VDDPanel> {
     }
 
     @Override
-    public void dragOver(VDragEvent drag) {
+    protected void processDragOver(VDragEvent drag) {
 
         VConsole.log("Drag over");
 
@@ -73,6 +74,7 @@ public class VDDPanelDropHandler extends VDDAbstractDropHandler<VDDPanel> {
 
     @Override
     public void dragLeave(VDragEvent drag) {
+        super.dragLeave(drag);
         getLayout().deEmphasis();
         getLayout().postLeaveHook(drag);
     }
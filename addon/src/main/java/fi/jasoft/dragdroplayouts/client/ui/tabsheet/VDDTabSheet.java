@@ -32,7 +32,10 @@ import fi.jasoft.dragdroplayouts.client.VGrabFilter;
 import fi.jasoft.dragdroplayouts.client.ui.*;
 import fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler.DragStartListener;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.*;
+import fi.jasoft.dragdroplayouts.client.ui.util.DropIndicator;
 import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
+import fi.jasoft.dragdroplayouts.client.ui.util.IframeShield;
+import fi.jasoft.dragdroplayouts.client.ui.util.WidgetIndex;
 
 /**
  * Client side implementation for {@link DDTabSheet}
@@ -41,7 +44,8 @@ import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
  * @since 0.4.0
  */
 public class VDDTabSheet extends VTabsheet
-        implements VHasDragMode, VDDHasDropHandler<VDDTabsheetDropHandler>,
+        implements VHasLayoutDragDropMouseHandler,
+        VHasDragStartSettings, VDDHasDropHandler<VDDTabsheetDropHandler>,
         DragStartListener, VDDTabContainer, VHasDragFilter,
         VHasDragImageReferenceSupport, VHasIframeShims, VHasGrabFilter, VHasDragCaptionProvider {
 
@@ -67,10 +71,16 @@ public class VDDTabSheet extends VTabsheet
 
     private VGrabFilter grabFilter;
 
-    private final IframeCoverUtility iframeCoverUtility = new IframeCoverUtility();
+    private IframeCoverUtility iframeCoverUtility;
 
-    private final VLayoutDragDropMouseHandler ddMouseHandler = new VLayoutDragDropMouseHandler(
-            this, LayoutDragMode.NONE);
+    // Created the first time a drag is started from the layout
+    private VLayoutDragDropMouseHandler ddMouseHandler;
+
+    private VDragImageProvider dragImageProvider;
+
+    private int dragStartThreshold = VLayoutDragDropMouseHandler.DEFAULT_DRAG_START_THRESHOLD;
+
+    private boolean pointerEventsEnabled = true;
 
     private double tabLeftRightDropRatio = DDTabSheetState.DEFAULT_HORIZONTAL_DROP_RATIO;
 
@@ -78,6 +88,32 @@ public class VDDTabSheet extends VTabsheet
 
     private boolean iframeCovers = false;
 
+    private boolean iframeShield = false;
+
+    private final WidgetIndex tabIndex = new WidgetIndex() {
+        @Override
+        protected int getWidgetCount() {
+            return tabBar.getWidgetCount();
+        }
+
+        @Override
+        protected Widget getWidget(int index) {
+            return tabBar.getWidget(index);
+        }
+    };
+
+    private final WidgetIndex tabContentIndex = new WidgetIndex() {
+        @Override
+        protected int getWidgetCount() {
+            return tabPanel.getWidgetCount();
+        }
+
+        @Override
+        protected Widget getWidget(int index) {
+            return tabPanel.getWidget(index);
+        }
+    };
+
     public VDDTabSheet() {
         super();
 
@@ -108,19 +144,19 @@ public class VDDTabSheet extends VTabsheet
     @Override
     protected void onLoad() {
         super.onLoad();
-        ddMouseHandler.addDragStartListener(this);
-        ddMouseHandler.setAttachTarget(tabBar);
         setDragMode(mode);
         iframeShimsEnabled(iframeCovers);
+        iframeShieldEnabled(iframeShield);
     }
 
     @Override
     protected void onUnload() {
         super.onUnload();
-        ddMouseHandler.removeDragStartListener(this);
-        ddMouseHandler.updateDragMode(LayoutDragMode.NONE);
-        iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
-                LayoutDragMode.NONE);
+        IframeShield.get().setShielded(this, false);
+        if (iframeCoverUtility != null) {
+            iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
+                    LayoutDragMode.NONE);
+        }
     }
 
     @Override
@@ -135,7 +171,7 @@ public class VDDTabSheet extends VTabsheet
 
     @Override
     public LayoutDragMode getDragMode() {
-        return ddMouseHandler.getDragMode();
+        return mode;
     }
 
     /**
@@ -244,6 +280,11 @@ public class VDDTabSheet extends VTabsheet
 
         boolean internalDrag = event.getTransferable().getDragSource() == this;
 
+        if (VDragDropUtil.isOverlayDropIndicator(this)) {
+            emphasisWithIndicator(element, event, internalDrag);
+            return;
+        }
+
         if (tabBar.getElement().isOrHasChild(element)) {
             Widget w = Util.findWidget(element, null);
 
@@ -293,10 +334,36 @@ public class VDDTabSheet extends VTabsheet
         }
     }
 
+    private void emphasisWithIndicator(Element element, VDragEvent event,
+            boolean internalDrag) {
+        if (!tabBar.getElement().isOrHasChild(element)) {
+            return;
+        }
+
+        Widget w = Util.findWidget(element, null);
+        if (w == tabBar && !internalDrag) {
+            // Over spacer, new tab is added last
+            DropIndicator.get().show(spacer, HorizontalDropLocation.LEFT
+                    .toString().toLowerCase());
+
+        } else if (w instanceof VCaption) {
+
+            // Over a tab
+            HorizontalDropLocation location = VDragDropUtil
+                    .getHorizontalDropLocation(DOM.asOld(element),
+                            Util.getTouchOrMouseClientX(
+                                    event.getCurrentGwtEvent()),
+                            tabLeftRightDropRatio);
+            Element tab = tabBar.getWidget(getTabPosition(w)).getElement();
+            DropIndicator.get().show(tab, location.toString().toLowerCase());
+        }
+    }
+
     /**
      * Removes any previous emphasis made by drag&amp;drop
      */
     protected void deEmphasis() {
+        DropIndicator.get().hide();
         if (currentlyEmphasised != null
                 && tabBar.getElement().isOrHasChild(currentlyEmphasised)) {
             Widget w = Util.findWidget(currentlyEmphasised, null);
@@ -320,12 +387,12 @@ public class VDDTabSheet extends VTabsheet
         if (tab instanceof TabCaption) {
             tab = tab.getParent();
         }
-        return tabBar.getWidgetIndex(tab);
+        return tabIndex.indexOf(tab);
     }
 
     @Override
     public int getTabContentPosition(Widget content) {
-        return tabPanel.getWidgetIndex(content);
+        return tabContentIndex.indexOf(content);
     }
 
     @Override
@@ -334,6 +401,9 @@ public class VDDTabSheet extends VTabsheet
     }
 
     IframeCoverUtility getIframeCoverUtility() {
+        if (iframeCoverUtility == null) {
+            iframeCoverUtility = new IframeCoverUtility();
+        }
         return iframeCoverUtility;
     }
 
@@ -359,7 +429,11 @@ public class VDDTabSheet extends VTabsheet
     @Override
     public void iframeShimsEnabled(boolean enabled) {
         iframeCovers = enabled;
-        iframeCoverUtility.setIframeCoversEnabled(enabled, getElement(), mode);
+        if (iframeCoverUtility != null
+                || (enabled && mode != LayoutDragMode.NONE)) {
+            getIframeCoverUtility().setIframeCoversEnabled(enabled,
+                    getElement(), mode);
+        }
     }
 
     @Override
@@ -367,22 +441,78 @@ public class VDDTabSheet extends VTabsheet
         return iframeCovers;
     }
 
+    @Override
+    public void iframeShieldEnabled(boolean enabled) {
+        iframeShield = enabled;
+        IframeShield.get().setShielded(this, enabled && isAttached());
+    }
+
+    @Override
+    public boolean isIframeShieldEnabled() {
+        return iframeShield;
+    }
+
     @Override
     public void setDragMode(LayoutDragMode mode) {
         this.mode = mode;
-        ddMouseHandler.updateDragMode(mode);
+        if (ddMouseHandler != null) {
+            ddMouseHandler.updateDragMode(mode);
+        }
+        if (mode != LayoutDragMode.NONE) {
+            VDragDropController.get().install(this);
+        }
         iframeShimsEnabled(iframeCovers);
     }
 
     @Override
     public void setDragImageProvider(VDragImageProvider provider) {
-        ddMouseHandler.setDragImageProvider(provider);
+        dragImageProvider = provider;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragImageProvider(provider);
+        }
     }
 
-    protected final VLayoutDragDropMouseHandler getMouseHandler() {
+    @Override
+    public final VLayoutDragDropMouseHandler getMouseHandler() {
+        if (ddMouseHandler == null) {
+            VLayoutDragDropMouseHandler handler = new VLayoutDragDropMouseHandler(
+                    this, mode);
+            handler.addDragStartListener(this);
+            handler.setAttachTarget(tabBar);
+            handler.setDragImageProvider(dragImageProvider);
+            handler.setDragStartThreshold(dragStartThreshold);
+            handler.setPointerEventsEnabled(pointerEventsEnabled);
+            ddMouseHandler = handler;
+        }
         return ddMouseHandler;
     }
 
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        dragStartThreshold = pixels;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragStartThreshold(pixels);
+        }
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        pointerEventsEnabled = enabled;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setPointerEventsEnabled(enabled);
+        }
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return pointerEventsEnabled;
+    }
+
     @Override
     public VGrabFilter getGrabFilter() {
         return grabFilter;
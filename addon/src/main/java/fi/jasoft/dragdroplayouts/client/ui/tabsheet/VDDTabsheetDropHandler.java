@@ -33,6 +33,7 @@ public class VDDTabsheetDropHandler
 
     @Override
     public boolean drop(VDragEvent drag) {
+        resetDrag();
 
         getLayout().deEmphasis();
 
@@ -42,7 +43,7 @@ public class VDDTabsheetDropHandler
     };
 
     @Override
-    public void dragOver(VDragEvent drag) {
+    protected void processDragOver(VDragEvent drag) {
 
         getLayout().deEmphasis();
 
@@ -67,6 +68,7 @@ public class VDDTabsheetDropHandler
 
     @Override
     public void dragLeave(VDragEvent drag) {
+        super.dragLeave(drag);
         getLayout().deEmphasis();
         getLayout().updateDragDetails(drag);
         getLayout().postLeaveHook(drag);
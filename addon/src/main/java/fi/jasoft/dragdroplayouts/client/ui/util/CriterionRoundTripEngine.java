@@ -0,0 +1,380 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
+import com.vaadin.client.ui.dd.VAcceptCallback;
+import com.vaadin.client.ui.dd.VDragAndDropManager;
+import com.vaadin.client.ui.dd.VDragEvent;
+import com.vaadin.client.ui.dd.VDropHandler;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+
+/**
+ * Schedules the accept criterion checks of a drop handler which need a
+ * round trip to the server.
+ * <ul>
+ * <li>At most one check is in flight at a time, while it is the latest check
+ * waits and older waiting checks are dropped</li>
+ * <li>Checks are sent at most once per the configured interval</li>
+ * <li>Answers arriving after the drop details have changed are ignored</li>
+ * <li>The last answer is reused while the drop details stay the same</li>
+ * </ul>
+ * The drop details are compared without the mouse event and the window
+ * coordinates of the pointer. The average observed round trip time is sent
+ * to the server with the drop details.
+ * <p>
+ * A check is complete when it is accepted, when the drag and drop manager
+ * runs the command deferred until the answer of the server, or at the
+ * latest after a timeout. The manager only keeps one deferred command and
+ * forgets it when the pointer leaves the drop handler, so the timeout keeps
+ * the engine from waiting for an answer forever. Checks are only sent and
+ * retried while the drop handler is the current one of the manager, since
+ * the manager sends every check for its current drop handler.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class CriterionRoundTripEngine {
+
+    /**
+     * Performs the actual check against the server
+     */
+    public interface Validator {
+
+        /**
+         * Checks the criterion, the callback is only called if the drop is
+         * accepted
+         */
+        void validate(VAcceptCallback callback, VDragEvent drag);
+    }
+
+    /**
+     * The shortest time a check is waited for before it is given up, in
+     * milliseconds
+     */
+    public static final int MIN_ANSWER_TIMEOUT = 1000;
+
+    private static final Set<String> VOLATILE_DETAILS = new HashSet<String>();
+    static {
+        VOLATILE_DETAILS.add(Constants.DROP_DETAIL_MOUSE_EVENT);
+        VOLATILE_DETAILS.add(Constants.DROP_DETAIL_ABSOLUTE_LEFT);
+        VOLATILE_DETAILS.add(Constants.DROP_DETAIL_ABSOLUTE_TOP);
+        VOLATILE_DETAILS.add(Constants.DROP_DETAIL_CRITERION_ROUND_TRIP);
+    }
+
+    private final VDropHandler handler;
+
+    private final Validator validator;
+
+    private final Timer timer = new Timer() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private final Timer answerTimer = new Timer() {
+        @Override
+        public void run() {
+            answered(inFlightId, false, false, 0);
+        }
+    };
+
+    private int interval = 0;
+
+    private String currentKey;
+
+    private String decidedKey;
+
+    private boolean decision;
+
+    private boolean inFlight = false;
+
+    // Identifies the check in flight so only its first completion counts,
+    // incremented on reset so answers to earlier checks are ignored
+    private int inFlightId = 0;
+
+    private String inFlightKey;
+
+    private VAcceptCallback inFlightCallback;
+
+    private VDragEvent inFlightDrag;
+
+    private String pendingKey;
+
+    private VAcceptCallback pendingCallback;
+
+    private VDragEvent pendingDrag;
+
+    private double lastRequest = 0;
+
+    private int lastRoundTrip = -1;
+
+    private double averageRoundTrip = 0;
+
+    private int roundTrips = 0;
+
+    public CriterionRoundTripEngine(VDropHandler handler,
+            Validator validator) {
+        this.handler = handler;
+        this.validator = validator;
+    }
+
+    /**
+     * Sets the minimum time between two checks
+     *
+     * @param millis
+     *            the interval in milliseconds, 0 sends checks as soon as the
+     *            previous one has been answered
+     */
+    public void setInterval(int millis) {
+        interval = millis;
+    }
+
+    /**
+     * Returns the minimum time between two checks in milliseconds
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Checks the criterion for the current drop details of the drag
+     *
+     * @param callback
+     *            called if the drop is accepted
+     * @param drag
+     *            the drag event
+     */
+    public void validate(VAcceptCallback callback, VDragEvent drag) {
+        String key = getKey(drag.getDropDetails());
+        currentKey = key;
+        pendingKey = null;
+        pendingCallback = null;
+        pendingDrag = null;
+
+        if (key.equals(decidedKey)) {
+            if (decision) {
+                callback.accepted(drag);
+            }
+        } else if (inFlight && key.equals(inFlightKey)) {
+            // The answer on its way is for the same details
+            inFlightCallback = callback;
+            inFlightDrag = drag;
+        } else {
+            pendingKey = key;
+            pendingCallback = callback;
+            pendingDrag = drag;
+            flush();
+        }
+    }
+
+    /**
+     * Forgets the previous answers and the waiting and in flight checks.
+     * Called when a drag enters, leaves or is dropped on the drop handler.
+     */
+    public void reset() {
+        timer.cancel();
+        answerTimer.cancel();
+        inFlight = false;
+        inFlightId++;
+        currentKey = null;
+        decidedKey = null;
+        inFlightKey = null;
+        inFlightCallback = null;
+        inFlightDrag = null;
+        pendingKey = null;
+        pendingCallback = null;
+        pendingDrag = null;
+    }
+
+    /**
+     * Returns the round trip time of the last check in milliseconds or -1 if
+     * no check has been answered yet
+     */
+    public int getLastRoundTrip() {
+        return lastRoundTrip;
+    }
+
+    /**
+     * Returns the moving average of the round trip times in milliseconds or
+     * -1 if no check has been answered yet
+     */
+    public int getAverageRoundTrip() {
+        return roundTrips == 0 ? -1 : (int) Math.round(averageRoundTrip);
+    }
+
+    /**
+     * Returns the amount of answered checks
+     */
+    public int getRoundTripCount() {
+        return roundTrips;
+    }
+
+    private void flush() {
+        if (pendingCallback == null || inFlight) {
+            return;
+        }
+        if (pendingKey.equals(decidedKey)) {
+            if (decision) {
+                pendingCallback.accepted(pendingDrag);
+            }
+            pendingCallback = null;
+            pendingDrag = null;
+            return;
+        }
+
+        double wait = lastRequest + interval - Duration.currentTimeMillis();
+        if (wait > 0) {
+            if (!timer.isRunning()) {
+                timer.schedule((int) Math.ceil(wait));
+            }
+            return;
+        }
+
+        inFlight = true;
+        inFlightKey = pendingKey;
+        inFlightCallback = pendingCallback;
+        inFlightDrag = pendingDrag;
+        pendingKey = null;
+        pendingCallback = null;
+        pendingDrag = null;
+        send();
+    }
+
+    /*
+     * The check is started only when the drag and drop manager is not busy
+     * with another request. An accepted check completes through the accept
+     * callback, a rejected one through the command the manager defers until
+     * the answer of the server has arrived or through the answer timeout if
+     * the deferred command is replaced or dropped by the manager.
+     */
+    private void send() {
+        final int id = ++inFlightId;
+        final String key = inFlightKey;
+        final VDragEvent drag = inFlightDrag;
+
+        answerTimer.schedule(Math.max(MIN_ANSWER_TIMEOUT,
+                4 * Math.max(getAverageRoundTrip(), 0)));
+
+        VDragAndDropManager.get().executeWhenReady(new Command() {
+            @Override
+            public void execute() {
+                if (id != inFlightId || !key.equals(inFlightKey)) {
+                    // Given up or reset before the manager was ready
+                    return;
+                }
+                if (VDragAndDropManager.get()
+                        .getCurrentDropHandler() != handler) {
+                    // The manager would send the check for the current drop
+                    // handler and replace its deferred command
+                    reset();
+                    return;
+                }
+                final double start = Duration.currentTimeMillis();
+                lastRequest = start;
+                if (roundTrips > 0) {
+                    drag.getDropDetails().put(
+                            Constants.DROP_DETAIL_CRITERION_ROUND_TRIP,
+                            getAverageRoundTrip());
+                }
+                validator.validate(new VAcceptCallback() {
+                    @Override
+                    public void accepted(VDragEvent event) {
+                        answered(id, true, true,
+                                Duration.currentTimeMillis() - start);
+                    }
+                }, drag);
+
+                VDragAndDropManager.get().executeWhenReady(new Command() {
+                    @Override
+                    public void execute() {
+                        answered(id, true, false,
+                                Duration.currentTimeMillis() - start);
+                    }
+                });
+            }
+        });
+    }
+
+    /*
+     * Completes the check in flight. Completions of checks that have already
+     * completed, timed out or been reset are ignored. A timed out check is
+     * not cached as a decision.
+     */
+    private void answered(int id, boolean answer, boolean accepted,
+            double roundTrip) {
+        if (!inFlight || id != inFlightId) {
+            return;
+        }
+        inFlight = false;
+        answerTimer.cancel();
+
+        String key = inFlightKey;
+        VAcceptCallback callback = inFlightCallback;
+        VDragEvent drag = inFlightDrag;
+        inFlightKey = null;
+        inFlightCallback = null;
+        inFlightDrag = null;
+
+        if (answer) {
+            lastRoundTrip = (int) Math.round(roundTrip);
+            averageRoundTrip = roundTrips == 0 ? roundTrip
+                    : averageRoundTrip * 0.8 + roundTrip * 0.2;
+            roundTrips++;
+
+            decidedKey = key;
+            decision = accepted;
+
+            // Answers for details the pointer has left are only cached
+            if (accepted && callback != null && key.equals(currentKey)
+                    && VDragAndDropManager.get()
+                            .getCurrentDropHandler() == handler) {
+                callback.accepted(drag);
+            }
+        } else if (pendingCallback == null && key.equals(currentKey)
+                && VDragAndDropManager.get()
+                        .getCurrentDropHandler() == handler) {
+            // Try again if the pointer is still where the check was for
+            pendingKey = key;
+            pendingCallback = callback;
+            pendingDrag = drag;
+        }
+        flush();
+    }
+
+    private static String getKey(Map<String, Object> dropDetails) {
+        List<String> names = new ArrayList<String>(dropDetails.keySet());
+        Collections.sort(names);
+        StringBuilder key = new StringBuilder();
+        for (String name : names) {
+            if (!VOLATILE_DETAILS.contains(name)) {
+                key.append(name).append('=')
+                        .append(String.valueOf(dropDetails.get(name)))
+                        .append(';');
+            }
+        }
+        return key.toString();
+    }
+}
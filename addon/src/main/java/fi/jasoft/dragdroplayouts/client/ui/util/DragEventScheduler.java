@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.util;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.NativeEvent;
+import com.vaadin.client.WidgetUtil;
+import com.vaadin.client.ui.dd.VDragEvent;
+
+/**
+ * Coalesces drag events so they are processed at most once per animation
+ * frame. Only the latest event is kept and the processing is skipped if the
+ * pointer has not moved since the previous pass.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class DragEventScheduler {
+
+    /**
+     * Processes a coalesced drag event
+     */
+    public interface Callback {
+
+        /**
+         * Called once per animation frame with the latest drag event
+         *
+         * @param drag
+         *            the drag event
+         */
+        void execute(VDragEvent drag);
+    }
+
+    private final Callback callback;
+
+    private final AnimationCallback frameCallback = new AnimationCallback() {
+        @Override
+        public void execute(double timestamp) {
+            handle = null;
+            VDragEvent drag = pending;
+            pending = null;
+            if (drag != null) {
+                process(drag);
+            }
+        }
+    };
+
+    private AnimationHandle handle;
+
+    private VDragEvent pending;
+
+    // The position and target of the previously processed event
+    private VDragEvent lastDrag;
+    private int lastX;
+    private int lastY;
+    private Element lastOver;
+
+    /**
+     * Creates a scheduler
+     *
+     * @param callback
+     *            the callback processing the coalesced events
+     */
+    public DragEventScheduler(Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * Schedules the drag event to be processed on the next animation frame.
+     * If an event is already waiting it is replaced.
+     *
+     * @param drag
+     *            the drag event
+     */
+    public void schedule(VDragEvent drag) {
+        pending = drag;
+        if (handle == null) {
+            handle = AnimationScheduler.get()
+                    .requestAnimationFrame(frameCallback);
+        }
+    }
+
+    /**
+     * Drops any waiting event and forgets the previous pointer position so
+     * the next event is always processed. Should be called when a drag enters
+     * or leaves.
+     */
+    public void reset() {
+        if (handle != null) {
+            handle.cancel();
+            handle = null;
+        }
+        pending = null;
+        lastDrag = null;
+        lastOver = null;
+    }
+
+    private void process(VDragEvent drag) {
+        NativeEvent event = drag.getCurrentGwtEvent();
+        if (event == null) {
+            callback.execute(drag);
+            return;
+        }
+
+        int x = WidgetUtil.getTouchOrMouseClientX(event);
+        int y = WidgetUtil.getTouchOrMouseClientY(event);
+        Element over = drag.getElementOver();
+        if (drag == lastDrag && x == lastX && y == lastY && over == lastOver) {
+            // Pointer has not moved
+            return;
+        }
+
+        lastDrag = drag;
+        lastX = x;
+        lastY = y;
+        lastOver = over;
+        callback.execute(drag);
+    }
+}
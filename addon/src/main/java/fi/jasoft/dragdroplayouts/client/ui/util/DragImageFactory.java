@@ -0,0 +1,286 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
+import com.google.gwt.dom.client.NodeList;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.dom.client.TableElement;
+import com.google.gwt.dom.client.TableSectionElement;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.communication.StateChangeEvent;
+import com.vaadin.client.communication.StateChangeEvent.StateChangeHandler;
+
+import fi.jasoft.dragdroplayouts.client.ui.DragImageStrategy;
+
+/**
+ * Builds the drag images of the lightweight {@link DragImageStrategy}s. The
+ * returned drag images are sized to the source element and can be modified
+ * freely by the caller.
+ * <p>
+ * Snapshots are cached per element. A cached snapshot is dropped when the
+ * state of the dragged component changes, when the size of the element
+ * changes or at the latest after {@link #SNAPSHOT_TIMEOUT} milliseconds, so
+ * content changes in nested components are picked up as well.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class DragImageFactory {
+
+    public static final String OUTLINE_STYLENAME = "v-dd-drag-outline";
+
+    public static final String SNAPSHOT_STYLENAME = "v-dd-drag-snapshot";
+
+    /**
+     * The maximum amount of nodes copied into a capped clone
+     */
+    public static final int MAX_CLONED_NODES = 200;
+
+    /**
+     * The maximum amount of snapshots kept in the cache
+     */
+    public static final int MAX_CACHED_SNAPSHOTS = 16;
+
+    /**
+     * How long a snapshot is reused, in milliseconds
+     */
+    public static final int SNAPSHOT_TIMEOUT = 5000;
+
+    private static final Map<Element, Snapshot> snapshots = new LinkedHashMap<Element, Snapshot>(
+            MAX_CACHED_SNAPSHOTS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<Element, Snapshot> eldest) {
+            if (size() > MAX_CACHED_SNAPSHOTS) {
+                eldest.getValue().release();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private static class Snapshot {
+        private final int width;
+        private final int height;
+        private final Element image;
+        private final double time = Duration.currentTimeMillis();
+        private HandlerRegistration stateChangeReg;
+
+        private Snapshot(int width, int height, Element image) {
+            this.width = width;
+            this.height = height;
+            this.image = image;
+        }
+
+        private boolean isValid(int width, int height) {
+            return this.width == width && this.height == height
+                    && Duration.currentTimeMillis() - time <= SNAPSHOT_TIMEOUT;
+        }
+
+        private void release() {
+            if (stateChangeReg != null) {
+                stateChangeReg.removeHandler();
+                stateChangeReg = null;
+            }
+        }
+    }
+
+    private DragImageFactory() {
+        // Static helpers only
+    }
+
+    /**
+     * Creates the drag image of an element
+     *
+     * @param element
+     *            the dragged element
+     * @param strategy
+     *            the strategy to use, {@link DragImageStrategy#CLONE} is
+     *            handled by the drag event itself and not supported here
+     * @param width
+     *            the measured width of the element
+     * @param height
+     *            the measured height of the element
+     * @return the drag image
+     */
+    public static Element createDragImage(Element element,
+            DragImageStrategy strategy, int width, int height) {
+        return createDragImage(element, strategy, width, height, null);
+    }
+
+    /**
+     * Creates the drag image of an element
+     *
+     * @param element
+     *            the dragged element
+     * @param strategy
+     *            the strategy to use, {@link DragImageStrategy#CLONE} is
+     *            handled by the drag event itself and not supported here
+     * @param width
+     *            the measured width of the element
+     * @param height
+     *            the measured height of the element
+     * @param connector
+     *            the connector of the dragged component, a cached snapshot
+     *            is dropped when its state changes. Can be null.
+     * @return the drag image
+     */
+    public static Element createDragImage(Element element,
+            DragImageStrategy strategy, int width, int height,
+            ComponentConnector connector) {
+        Element image;
+        switch (strategy) {
+        case OUTLINE:
+            image = Document.get().createDivElement();
+            image.setClassName(OUTLINE_STYLENAME);
+            break;
+        case CLONE_CAPPED:
+            image = wrapTableRow(cloneCapped(element, false));
+            break;
+        case SNAPSHOT:
+            image = getSnapshot(element, width, height, connector);
+            break;
+        default:
+            throw new IllegalArgumentException(
+                    "Unsupported drag image strategy " + strategy);
+        }
+        image.getStyle().setWidth(width, Unit.PX);
+        image.getStyle().setHeight(height, Unit.PX);
+        return image;
+    }
+
+    /**
+     * Removes all cached snapshots
+     */
+    public static void clearSnapshots() {
+        for (Snapshot snapshot : snapshots.values()) {
+            snapshot.release();
+        }
+        snapshots.clear();
+    }
+
+    /**
+     * Removes the cached snapshot of an element
+     *
+     * @param element
+     *            the element whose snapshot should be taken again on the next
+     *            drag
+     */
+    public static void invalidateSnapshot(Element element) {
+        Snapshot snapshot = snapshots.remove(element);
+        if (snapshot != null) {
+            snapshot.release();
+        }
+    }
+
+    /*
+     * The cached snapshot is wrapped into a new element on every drag so the
+     * changes made to the drag image during the drag do not end up in the
+     * cache.
+     */
+    private static Element getSnapshot(final Element element, int width,
+            int height, ComponentConnector connector) {
+        Snapshot snapshot = snapshots.get(element);
+        if (snapshot == null || !snapshot.isValid(width, height)) {
+            invalidateSnapshot(element);
+            snapshot = new Snapshot(width, height,
+                    wrapTableRow(cloneCapped(element, true)));
+            if (connector != null) {
+                snapshot.stateChangeReg = connector
+                        .addStateChangeHandler(new StateChangeHandler() {
+                            @Override
+                            public void onStateChanged(
+                                    StateChangeEvent stateChangeEvent) {
+                                invalidateSnapshot(element);
+                            }
+                        });
+            }
+            snapshots.put(element, snapshot);
+        }
+
+        Element wrapper = Document.get().createDivElement();
+        wrapper.setClassName(SNAPSHOT_STYLENAME);
+        wrapper.appendChild(snapshot.image);
+        return wrapper;
+    }
+
+    /*
+     * Copies the element breadth first so the outermost structure of the
+     * element survives when the node limit is reached.
+     */
+    private static Element cloneCapped(Element source,
+            boolean copyCanvases) {
+        Element root = source.cloneNode(false).cast();
+        List<Element> sources = new ArrayList<Element>();
+        List<Element> clones = new ArrayList<Element>();
+        sources.add(source);
+        clones.add(root);
+
+        int copied = 1;
+        for (int i = 0; i < sources.size()
+                && copied < MAX_CLONED_NODES; i++) {
+            Element from = sources.get(i);
+            Element to = clones.get(i);
+            if (copyCanvases && "canvas".equalsIgnoreCase(from.getTagName())) {
+                copyCanvas(from, to);
+                continue;
+            }
+            NodeList<Node> children = from.getChildNodes();
+            for (int j = 0; j < children.getLength()
+                    && copied < MAX_CLONED_NODES; j++) {
+                Node child = children.getItem(j);
+                Node clone = child.cloneNode(false);
+                to.appendChild(clone);
+                copied++;
+                if (Element.is(child)) {
+                    sources.add(Element.as(child));
+                    clones.add(Element.as(clone));
+                }
+            }
+        }
+        return root;
+    }
+
+    private static Element wrapTableRow(Element image) {
+        if (!"tr".equalsIgnoreCase(image.getTagName())) {
+            return image;
+        }
+        TableElement table = Document.get().createTableElement();
+        TableSectionElement tbody = Document.get().createTBodyElement();
+        table.appendChild(tbody);
+        tbody.appendChild(image);
+        return table;
+    }
+
+    private static native void copyCanvas(Element from, Element to)
+    /*-{
+        to.width = from.width;
+        to.height = from.height;
+        try {
+            to.getContext('2d').drawImage(from, 0, 0);
+        } catch (ignored) {
+            // Tainted or WebGL canvases cannot always be copied
+        }
+    }-*/;
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.util;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Style;
+import com.google.gwt.dom.client.Style.Display;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.logical.shared.ResizeEvent;
+import com.google.gwt.event.logical.shared.ResizeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Window;
+
+/**
+ * A single absolutely positioned element used for showing the drop location
+ * instead of applying style names to the content of the layouts. The element
+ * is moved with CSS transforms and only updated when the target or the drop
+ * location changes.
+ * <p>
+ * Hiding is deferred to the end of the current event loop so hiding and
+ * showing the indicator again while handling the same event does not touch
+ * the DOM.
+ * <p>
+ * While the indicator is visible it listens to scrolling and window resizes
+ * the same way {@link SlotGeometrySnapshot} does, and moves along with its
+ * target when e.g. a panel scrolls during the drag.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class DropIndicator {
+
+    public static final String CLASSNAME = "v-ddindicator";
+
+    private static DropIndicator instance;
+
+    private Element element;
+
+    private Element target;
+
+    private String location;
+
+    private int left, top, width, height;
+
+    // Position of the indicated area relative to the target
+    private int offsetLeft, offsetTop;
+
+    // Is the indicated area the whole target
+    private boolean sizedByTarget = false;
+
+    private boolean visible = false;
+
+    private HandlerRegistration resizeHandlerReg;
+
+    private JavaScriptObject scrollListener;
+
+    private boolean hidePending = false;
+
+    private final ScheduledCommand hideCommand = new ScheduledCommand() {
+        @Override
+        public void execute() {
+            if (hidePending) {
+                hidePending = false;
+                doHide();
+            }
+        }
+    };
+
+    /**
+     * Returns the drop indicator shared by all layouts
+     */
+    public static DropIndicator get() {
+        if (instance == null) {
+            instance = new DropIndicator();
+        }
+        return instance;
+    }
+
+    private DropIndicator() {
+        // Singleton
+    }
+
+    /**
+     * Shows the indicator over an element
+     *
+     * @param target
+     *            the element to show the drop location on
+     * @param location
+     *            the drop location(s), e.g. "top" or "bottom left"
+     */
+    public void show(Element target, String location) {
+        hidePending = false;
+        if (visible && target == this.target
+                && location.equals(this.location)) {
+            return;
+        }
+        show(target, target.getAbsoluteLeft(), target.getAbsoluteTop(),
+                target.getOffsetWidth(), target.getOffsetHeight(), location);
+        sizedByTarget = true;
+    }
+
+    /**
+     * Shows the indicator over an area
+     *
+     * @param target
+     *            the element the area belongs to
+     * @param left
+     *            the absolute left edge of the area
+     * @param top
+     *            the absolute top of the area
+     * @param width
+     *            the width of the area
+     * @param height
+     *            the height of the area
+     * @param location
+     *            the drop location(s), e.g. "top" or "bottom left"
+     */
+    public void show(Element target, int left, int top, int width,
+            int height, String location) {
+        hidePending = false;
+        sizedByTarget = false;
+        offsetLeft = left - target.getAbsoluteLeft();
+        offsetTop = top - target.getAbsoluteTop();
+        update(target, left, top, width, height, location);
+    }
+
+    private void update(Element target, int left, int top, int width,
+            int height, String location) {
+        if (visible && target == this.target
+                && location.equals(this.location) && left == this.left
+                && top == this.top && width == this.width
+                && height == this.height) {
+            return;
+        }
+
+        Element indicator = getElement();
+        Style style = indicator.getStyle();
+        if (!location.equals(this.location)) {
+            StringBuilder className = new StringBuilder(CLASSNAME);
+            for (String l : location.split(" ")) {
+                className.append(' ').append(CLASSNAME).append('-').append(l);
+            }
+            indicator.setClassName(className.toString());
+        }
+        if (left != this.left || top != this.top) {
+            style.setProperty("transform",
+                    "translate(" + left + "px," + top + "px)");
+        }
+        if (width != this.width) {
+            style.setWidth(width, Unit.PX);
+        }
+        if (height != this.height) {
+            style.setHeight(height, Unit.PX);
+        }
+        if (!visible) {
+            style.clearDisplay();
+            listen();
+        }
+
+        this.target = target;
+        this.location = location;
+        this.left = left;
+        this.top = top;
+        this.width = width;
+        this.height = height;
+        visible = true;
+    }
+
+    /**
+     * Hides the indicator at the end of the current event loop unless it is
+     * shown again before that
+     */
+    public void hide() {
+        if (visible && !hidePending) {
+            hidePending = true;
+            Scheduler.get().scheduleFinally(hideCommand);
+        }
+    }
+
+    private void doHide() {
+        if (element != null) {
+            element.getStyle().setDisplay(Display.NONE);
+        }
+        visible = false;
+        target = null;
+        unlisten();
+    }
+
+    /**
+     * Reads the geometry of the target again, called when something scrolls
+     * or the window is resized
+     */
+    private void refresh() {
+        if (!visible || target == null) {
+            return;
+        }
+        int width = sizedByTarget ? target.getOffsetWidth() : this.width;
+        int height = sizedByTarget ? target.getOffsetHeight() : this.height;
+        update(target, target.getAbsoluteLeft() + offsetLeft,
+                target.getAbsoluteTop() + offsetTop, width, height, location);
+    }
+
+    private void listen() {
+        if (resizeHandlerReg == null) {
+            resizeHandlerReg = Window.addResizeHandler(new ResizeHandler() {
+                @Override
+                public void onResize(ResizeEvent event) {
+                    refresh();
+                }
+            });
+        }
+        if (scrollListener == null) {
+            scrollListener = addScrollListener();
+        }
+    }
+
+    private void unlisten() {
+        if (resizeHandlerReg != null) {
+            resizeHandlerReg.removeHandler();
+            resizeHandlerReg = null;
+        }
+        if (scrollListener != null) {
+            removeScrollListener(scrollListener);
+            scrollListener = null;
+        }
+    }
+
+    private native JavaScriptObject addScrollListener()
+    /*-{
+        var self = this;
+        var callback = $entry(function() {
+            self.@fi.jasoft.dragdroplayouts.client.ui.util.DropIndicator::refresh()();
+        });
+
+        // Scroll events do not bubble, listen in the capture phase
+        $doc.addEventListener('scroll', callback, true);
+        return callback;
+    }-*/;
+
+    private static native void removeScrollListener(JavaScriptObject callback)
+    /*-{
+        $doc.removeEventListener('scroll', callback, true);
+    }-*/;
+
+    private Element getElement() {
+        if (element == null) {
+            element = Document.get().createDivElement();
+            element.setClassName(CLASSNAME);
+            element.getStyle().setDisplay(Display.NONE);
+            Document.get().getBody().appendChild(element);
+        }
+        return element;
+    }
+}
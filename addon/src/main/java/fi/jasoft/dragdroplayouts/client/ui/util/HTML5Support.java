@@ -46,6 +46,8 @@ public class HTML5Support {
 
     private final List<HandlerRegistration> handlers = new ArrayList<HandlerRegistration>();
 
+    private VDDAbstractDropHandler<? extends Widget> dropHandler;
+
     public static class HTML5DragHandler
             implements DragEnterHandler, DragOverHandler, DropHandler {
 
@@ -96,6 +98,12 @@ public class HTML5Support {
                 nativeEvent.stopPropagation();
                 vaadinDragEvent.setCurrentGwtEvent(nativeEvent);
                 VDragAndDropManager.get().setCurrentDropHandler(dropHandler);
+
+                /*
+                 * Browsers keep firing dragover even when the pointer is
+                 * still, the drop handler coalesces these to one pass per
+                 * animation frame and skips passes without movement.
+                 */
                 dropHandler.dragOver(vaadinDragEvent);
             }
         }
@@ -173,6 +181,7 @@ public class HTML5Support {
         final HTML5Support support = GWT.create(HTML5Support.class);
         final HTML5DragHandler dragHandler = new HTML5DragHandler(connector,
                 handler);
+        support.dropHandler = handler;
 
         support.handlers
                 .add(w.addDomHandler(dragHandler, DragEnterEvent.getType()));
@@ -183,6 +192,30 @@ public class HTML5Support {
         return support;
     }
 
+    /**
+     * Enables HTML5 drops for a connector unless they already are enabled
+     * with the same drop handler
+     *
+     * @param support
+     *            the current support or null if not enabled
+     * @param connector
+     *            the connector
+     * @param handler
+     *            the drop handler, null disables the support
+     * @return the support to use or null if disabled
+     */
+    public static final HTML5Support update(HTML5Support support,
+            final ComponentConnector connector,
+            final VDDAbstractDropHandler<? extends Widget> handler) {
+        if (support != null) {
+            if (support.dropHandler == handler) {
+                return support;
+            }
+            support.disable();
+        }
+        return enable(connector, handler);
+    }
+
     private HTML5Support() {
         // Factory
     }
@@ -13,9 +13,7 @@
  */
 package fi.jasoft.dragdroplayouts.client.ui.util;
 
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 import com.google.gwt.core.client.Scheduler;
@@ -38,10 +36,24 @@ public class IframeCoverUtility {
 
     public static final String SHIM_STYLENAME = "v-dragdrop-iframe-cover";
 
-    private static Map<Element, Element> iframeCoverMap = new HashMap<Element, Element>();
-
     public static final String SHIM_ATTRIBUTE = "shims";
 
+    public static final String CONTAINER_STYLENAME = "v-dragdrop-iframe-container";
+
+    /**
+     * Returns the cover container of an iframe or null if the iframe is not
+     * covered. The cover is resolved from the DOM so no references to the
+     * iframes are kept after the layouts are gone.
+     */
+    private static Element getIframeCover(Element iframe) {
+        com.google.gwt.dom.client.Element parent = iframe.getParentElement();
+        if (parent != null
+                && CONTAINER_STYLENAME.equals(parent.getClassName())) {
+            return parent.cast();
+        }
+        return null;
+    }
+
     /**
      * Adds an iframe cover over an Embedded component
      * 
@@ -50,8 +62,9 @@ public class IframeCoverUtility {
      * @return The element which covers the iframe
      */
     private static Element addIframeCover(Element iframe) {
-        if (iframeCoverMap.containsKey(iframe)) {
-            return iframeCoverMap.get(iframe);
+        Element existing = getIframeCover(iframe);
+        if (existing != null) {
+            return existing;
         }
 
         // Get dimensions
@@ -71,7 +84,7 @@ public class IframeCoverUtility {
         DOM.setStyleAttribute(coverContainer, "width", iframeWidth);
         DOM.setStyleAttribute(coverContainer, "height", iframeHeight);
 
-        coverContainer.setClassName("v-dragdrop-iframe-container");
+        coverContainer.setClassName(CONTAINER_STYLENAME);
         coverContainer.getStyle().setPosition(Position.RELATIVE);
         iframe.getParentElement().appendChild(coverContainer);
 
@@ -91,8 +104,6 @@ public class IframeCoverUtility {
 
         coverContainer.appendChild(cover);
 
-        iframeCoverMap.put(iframe, coverContainer);
-
         return coverContainer;
     }
 
@@ -103,12 +114,11 @@ public class IframeCoverUtility {
      *            The iframe element which has been covered
      */
     private static void removeIframeCover(Element iframe) {
-        Element coverContainer = iframeCoverMap.get(iframe);
-        if (coverContainer != null) {
+        Element coverContainer = getIframeCover(iframe);
+        if (coverContainer != null && coverContainer.getParentElement() != null) {
             Element parent = coverContainer.getParentElement().cast();
             parent.replaceChild(iframe, coverContainer);
             iframe.getStyle().clearPosition();
-            iframeCoverMap.remove(iframe);
         }
     }
 
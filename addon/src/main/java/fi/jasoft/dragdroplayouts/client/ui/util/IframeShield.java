@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.util;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * Shields all iframes of the page from the pointer while a drag is active so
+ * the iframes do not swallow the events of the drag. Unlike
+ * {@link IframeCoverUtility} the iframes are never moved in the DOM, the
+ * shield is a single style name on the body which is only present between
+ * the drag start and the drop.
+ * <p>
+ * Layouts using the shield register themselves while they are attached, the
+ * shield is only raised if at least one of them is registered.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class IframeShield {
+
+    public static final String SHIELD_STYLENAME = "v-dd-iframe-shield";
+
+    private static IframeShield instance;
+
+    private final Set<Widget> layouts = new HashSet<Widget>();
+
+    private boolean active = false;
+
+    /**
+     * Returns the shield shared by all layouts
+     */
+    public static IframeShield get() {
+        if (instance == null) {
+            instance = new IframeShield();
+        }
+        return instance;
+    }
+
+    private IframeShield() {
+        // Singleton
+    }
+
+    /**
+     * Registers or unregisters a layout using the shield. Layouts must
+     * unregister when they are detached.
+     *
+     * @param layout
+     *            the layout
+     * @param shielded
+     *            does the layout use the shield
+     */
+    public void setShielded(Widget layout, boolean shielded) {
+        if (shielded) {
+            layouts.add(layout);
+        } else {
+            layouts.remove(layout);
+        }
+    }
+
+    /**
+     * Is the layout registered
+     */
+    public boolean isShielded(Widget layout) {
+        return layouts.contains(layout);
+    }
+
+    /**
+     * Raises the shield if any layout uses it. Called when a drag starts.
+     */
+    public void activate() {
+        if (!active && !layouts.isEmpty()) {
+            active = true;
+            Document.get().getBody().addClassName(SHIELD_STYLENAME);
+        }
+    }
+
+    /**
+     * Lowers the shield. Called when the drag ends.
+     */
+    public void deactivate() {
+        if (active) {
+            active = false;
+            Document.get().getBody().removeClassName(SHIELD_STYLENAME);
+        }
+    }
+
+    /**
+     * Is the shield raised
+     */
+    public boolean isActive() {
+        return active;
+    }
+}
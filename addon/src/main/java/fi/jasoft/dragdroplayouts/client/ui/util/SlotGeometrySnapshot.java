@@ -0,0 +1,315 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.event.logical.shared.ResizeEvent;
+import com.google.gwt.event.logical.shared.ResizeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Window;
+import com.google.gwt.user.client.ui.Widget;
+import com.vaadin.client.ui.orderedlayout.Slot;
+import com.vaadin.client.ui.orderedlayout.VAbstractOrderedLayout;
+
+/**
+ * Snapshot of the slot geometry of an ordered layout taken when a drag enters
+ * the layout. Slot rectangles are stored in viewport coordinates in primitive
+ * arrays so the slot under the pointer can be found with a binary search
+ * instead of walking the DOM on every drag over.
+ * <p>
+ * The snapshot invalidates itself when anything scrolls, the window is
+ * resized or the children of the layout change, and is re-captured lazily on
+ * the next lookup.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public class SlotGeometrySnapshot {
+
+    private final VAbstractOrderedLayout layout;
+
+    private final boolean vertical;
+
+    private Slot[] slots = new Slot[0];
+
+    // Slot rectangles in viewport coordinates
+    private int[] tops = new int[0];
+    private int[] bottoms = new int[0];
+    private int[] lefts = new int[0];
+    private int[] rights = new int[0];
+
+    private final Map<Slot, Integer> indexes = new HashMap<Slot, Integer>();
+
+    private boolean valid = false;
+
+    private boolean active = false;
+
+    private HandlerRegistration resizeHandlerReg;
+
+    private JavaScriptObject observers;
+
+    /**
+     * Creates a snapshot for a layout
+     *
+     * @param layout
+     *            the ordered layout
+     * @param vertical
+     *            are the slots stacked vertically
+     */
+    public SlotGeometrySnapshot(VAbstractOrderedLayout layout,
+            boolean vertical) {
+        this.layout = layout;
+        this.vertical = vertical;
+    }
+
+    /**
+     * Starts using the snapshot. Should be called when a drag enters the
+     * layout.
+     */
+    public void activate() {
+        if (active) {
+            return;
+        }
+        active = true;
+        valid = false;
+
+        resizeHandlerReg = Window.addResizeHandler(new ResizeHandler() {
+            @Override
+            public void onResize(ResizeEvent event) {
+                invalidate();
+            }
+        });
+        observers = observe(layout.getElement());
+    }
+
+    /**
+     * Stops using the snapshot and releases the listeners. Should be called
+     * when the drag leaves the layout or is dropped.
+     */
+    public void release() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        valid = false;
+
+        if (resizeHandlerReg != null) {
+            resizeHandlerReg.removeHandler();
+            resizeHandlerReg = null;
+        }
+        if (observers != null) {
+            unobserve(observers);
+            observers = null;
+        }
+
+        slots = new Slot[0];
+        indexes.clear();
+    }
+
+    /**
+     * Is the snapshot in use, i.e. is a drag over the layout
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Marks the geometry as stale so it is measured again on next use
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    private void ensureCaptured() {
+        if (!valid) {
+            capture();
+        }
+    }
+
+    private void capture() {
+        int scrollLeft = Window.getScrollLeft();
+        int scrollTop = Window.getScrollTop();
+
+        int count = 0;
+        for (Widget w : layout) {
+            if (w instanceof Slot) {
+                count++;
+            }
+        }
+
+        slots = new Slot[count];
+        tops = new int[count];
+        bottoms = new int[count];
+        lefts = new int[count];
+        rights = new int[count];
+        indexes.clear();
+
+        int i = 0;
+        for (Widget w : layout) {
+            if (w instanceof Slot) {
+                Element element = w.getElement();
+                slots[i] = (Slot) w;
+                lefts[i] = element.getAbsoluteLeft() - scrollLeft;
+                tops[i] = element.getAbsoluteTop() - scrollTop;
+                rights[i] = lefts[i] + element.getOffsetWidth();
+                bottoms[i] = tops[i] + element.getOffsetHeight();
+                indexes.put(slots[i], i);
+                i++;
+            }
+        }
+
+        // Outside a drag nothing invalidates the snapshot, measure again
+        valid = active;
+    }
+
+    /**
+     * Finds the slot at a position. If the position is between two slots the
+     * closest slot within the spacing is returned.
+     *
+     * @param clientX
+     *            the x-coordinate in the viewport
+     * @param clientY
+     *            the y-coordinate in the viewport
+     * @param spacing
+     *            how far from the position a slot is searched for
+     * @return the slot or null if there is no slot near the position
+     */
+    public Slot findSlot(int clientX, int clientY, int spacing) {
+        ensureCaptured();
+        if (slots.length == 0) {
+            return null;
+        }
+
+        int[] starts = vertical ? tops : lefts;
+        int[] ends = vertical ? bottoms : rights;
+        int pos = vertical ? clientY : clientX;
+        int cross = vertical ? clientX : clientY;
+
+        // Last slot starting at or before the position
+        int low = 0, high = starts.length - 1, before = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= pos) {
+                before = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        int hit = -1;
+        if (before >= 0 && pos < ends[before]) {
+            hit = before;
+        } else {
+            // Between slots, prefer the following slot on equal distance
+            int after = before + 1;
+            int afterDistance = after < starts.length ? starts[after] - pos
+                    : Integer.MAX_VALUE;
+            int beforeDistance = before >= 0 ? pos - ends[before] + 1
+                    : Integer.MAX_VALUE;
+            if (afterDistance <= beforeDistance && afterDistance <= spacing) {
+                hit = after;
+            } else if (beforeDistance <= spacing) {
+                hit = before;
+            }
+        }
+
+        if (hit < 0 || !isInCrossAxis(hit, cross)) {
+            return null;
+        }
+        return slots[hit];
+    }
+
+    private boolean isInCrossAxis(int i, int cross) {
+        if (vertical) {
+            return cross >= lefts[i] && cross < rights[i];
+        }
+        return cross >= tops[i] && cross < bottoms[i];
+    }
+
+    /**
+     * Returns the index of a slot among the slots of the layout
+     *
+     * @param slot
+     *            the slot
+     * @return the index or -1 if the slot does not belong to the layout
+     */
+    public int indexOf(Slot slot) {
+        ensureCaptured();
+        Integer index = indexes.get(slot);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the top of a slot in viewport coordinates
+     */
+    public int getTop(int index) {
+        ensureCaptured();
+        return tops[index];
+    }
+
+    /**
+     * Returns the height of a slot
+     */
+    public int getHeight(int index) {
+        ensureCaptured();
+        return bottoms[index] - tops[index];
+    }
+
+    /**
+     * Returns the left edge of a slot in viewport coordinates
+     */
+    public int getLeft(int index) {
+        ensureCaptured();
+        return lefts[index];
+    }
+
+    /**
+     * Returns the width of a slot
+     */
+    public int getWidth(int index) {
+        ensureCaptured();
+        return rights[index] - lefts[index];
+    }
+
+    private native JavaScriptObject observe(Element root)
+    /*-{
+        var self = this;
+        var callback = $entry(function() {
+            self.@fi.jasoft.dragdroplayouts.client.ui.util.SlotGeometrySnapshot::invalidate()();
+        });
+
+        // Scroll events do not bubble, listen in the capture phase
+        $doc.addEventListener('scroll', callback, true);
+
+        var observer = null;
+        if ($wnd.MutationObserver) {
+            observer = new $wnd.MutationObserver(callback);
+            observer.observe(root, { childList: true, subtree: true });
+        }
+        return { callback: callback, observer: observer };
+    }-*/;
+
+    private static native void unobserve(JavaScriptObject observers)
+    /*-{
+        $doc.removeEventListener('scroll', observers.callback, true);
+        if (observers.observer) {
+            observers.observer.disconnect();
+        }
+    }-*/;
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.client.ui.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * Index of the positions of widgets in an indexed collection, e.g. the tabs
+ * of a tab sheet. A cached position is verified with a single positional
+ * lookup before it is returned and the whole index is rebuilt only when the
+ * verification fails, so lookups stay constant time while the collection
+ * does not change.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public abstract class WidgetIndex {
+
+    private final Map<Widget, Integer> positions = new HashMap<Widget, Integer>();
+
+    /**
+     * Returns the amount of widgets in the collection
+     */
+    protected abstract int getWidgetCount();
+
+    /**
+     * Returns the widget at a position of the collection
+     */
+    protected abstract Widget getWidget(int index);
+
+    /**
+     * Returns the position of a widget
+     *
+     * @param widget
+     *            the widget
+     * @return the position or -1 if the widget is not in the collection
+     */
+    public int indexOf(Widget widget) {
+        Integer position = positions.get(widget);
+        if (position != null && isAt(widget, position)) {
+            return position;
+        }
+
+        rebuild();
+        position = positions.get(widget);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Drops all cached positions
+     */
+    public void clear() {
+        positions.clear();
+    }
+
+    private boolean isAt(Widget widget, int position) {
+        return position < getWidgetCount() && getWidget(position) == widget;
+    }
+
+    private void rebuild() {
+        positions.clear();
+        int count = getWidgetCount();
+        for (int i = 0; i < count; i++) {
+            Widget w = getWidget(i);
+            if (w != null) {
+                positions.put(w, i);
+            }
+        }
+    }
+}
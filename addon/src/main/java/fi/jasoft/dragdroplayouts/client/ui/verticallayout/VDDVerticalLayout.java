@@ -13,6 +13,9 @@
  */
 package fi.jasoft.dragdroplayouts.client.ui.verticallayout;
 
+import java.util.List;
+import java.util.Map;
+
 import com.google.gwt.user.client.ui.UIObject;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.gwt.user.client.ui.WidgetCollection;
@@ -30,7 +33,10 @@ import fi.jasoft.dragdroplayouts.client.VGrabFilter;
 import fi.jasoft.dragdroplayouts.client.ui.*;
 import fi.jasoft.dragdroplayouts.client.ui.VLayoutDragDropMouseHandler.DragStartListener;
 import fi.jasoft.dragdroplayouts.client.ui.interfaces.*;
+import fi.jasoft.dragdroplayouts.client.ui.util.DropIndicator;
 import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
+import fi.jasoft.dragdroplayouts.client.ui.util.IframeShield;
+import fi.jasoft.dragdroplayouts.client.ui.util.SlotGeometrySnapshot;
 
 /**
  * Client side implementation for {@link DDVerticalLayout}
@@ -38,10 +44,12 @@ import fi.jasoft.dragdroplayouts.client.ui.util.IframeCoverUtility;
  * @author John Ahlroos / www.jasoft.fi
  * @since 0.4.0
  */
-public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
+public class VDDVerticalLayout extends VVerticalLayout implements VHasLayoutDragDropMouseHandler,
+        VHasDragStartSettings,
         VDDHasDropHandler<VDDVerticalLayoutDropHandler>, DragStartListener,
         VHasDragFilter, VHasIframeShims, VHasDragImageReferenceSupport,
-        VHasGrabFilter, VHasDragCaptionProvider {
+        VHasGrabFilter, VHasDragCaptionProvider,
+        VHasDropCandidates {
 
     private Widget currentlyEmphasised;
 
@@ -57,10 +65,16 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
 
     private VGrabFilter grabFilter;
 
-    private final IframeCoverUtility iframeCoverUtility = new IframeCoverUtility();
+    private IframeCoverUtility iframeCoverUtility;
+
+    // Created the first time a drag is started from the layout
+    private VLayoutDragDropMouseHandler ddMouseHandler;
+
+    private VDragImageProvider dragImageProvider;
 
-    private final VLayoutDragDropMouseHandler ddMouseHandler = new VLayoutDragDropMouseHandler(
-            this, LayoutDragMode.NONE);
+    private int dragStartThreshold = VLayoutDragDropMouseHandler.DEFAULT_DRAG_START_THRESHOLD;
+
+    private boolean pointerEventsEnabled = true;
 
     // Value delegated from the state
     private float cellTopBottomDropRatio = DDVerticalLayoutState.DEFAULT_VERTICAL_DROP_RATIO;
@@ -69,6 +83,8 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
 
     private boolean iframeCovers = false;
 
+    private boolean iframeShield = false;
+
     public VDDVerticalLayout() {
         super();
     }
@@ -76,18 +92,19 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
     @Override
     protected void onLoad() {
         super.onLoad();
-        ddMouseHandler.addDragStartListener(this);
         setDragMode(mode);
         iframeShimsEnabled(iframeCovers);
+        iframeShieldEnabled(iframeShield);
     }
 
     @Override
     protected void onUnload() {
         super.onUnload();
-        ddMouseHandler.removeDragStartListener(this);
-        ddMouseHandler.updateDragMode(LayoutDragMode.NONE);
-        iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
-                LayoutDragMode.NONE);
+        IframeShield.get().setShielded(this, false);
+        if (iframeCoverUtility != null) {
+            iframeCoverUtility.setIframeCoversEnabled(false, getElement(),
+                    LayoutDragMode.NONE);
+        }
     }
 
     @Override
@@ -104,6 +121,7 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
      * Removes any applies drag and drop style applied by emphasis()
      */
     protected void deEmphasis() {
+        DropIndicator.get().hide();
         if (currentlyEmphasised != null) {
             // Universal over style
             UIObject.setStyleName(currentlyEmphasised.getElement(), OVER,
@@ -140,9 +158,29 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
      */
     protected VerticalDropLocation getVerticalDropLocation(Widget container,
             VDragEvent event) {
+        int clientY = Util.getTouchOrMouseClientY(event.getCurrentGwtEvent());
+        SlotGeometrySnapshot geometry = getActiveSlotGeometry();
+        if (geometry != null && container instanceof Slot) {
+            int index = geometry.indexOf((Slot) container);
+            if (index >= 0) {
+                return VDragDropUtil.getVerticalDropLocation(
+                        geometry.getTop(index), geometry.getHeight(index),
+                        clientY, cellTopBottomDropRatio);
+            }
+        }
         return VDragDropUtil.getVerticalDropLocation(container.getElement(),
-                Util.getTouchOrMouseClientY(event.getCurrentGwtEvent()),
-                cellTopBottomDropRatio);
+                clientY, cellTopBottomDropRatio);
+    }
+
+    /**
+     * Returns the slot geometry of the drop handler if a drag is over the
+     * layout, otherwise null
+     */
+    protected SlotGeometrySnapshot getActiveSlotGeometry() {
+        if (dropHandler != null && dropHandler.getSlotGeometry().isActive()) {
+            return dropHandler.getSlotGeometry();
+        }
+        return null;
     }
 
     /**
@@ -171,9 +209,14 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
          */
         int index = -1;
         if (widget instanceof Slot) {
-            WidgetCollection captionsAndSlots = getChildren();
-            index = VDragDropUtil.findSlotIndex(captionsAndSlots,
-                    (Slot) widget);
+            SlotGeometrySnapshot geometry = getActiveSlotGeometry();
+            if (geometry != null) {
+                index = geometry.indexOf((Slot) widget);
+            } else {
+                WidgetCollection captionsAndSlots = getChildren();
+                index = VDragDropUtil.findSlotIndex(captionsAndSlots,
+                        (Slot) widget);
+            }
         }
 
         event.getDropDetails().put(Constants.DROP_DETAIL_TO, index);
@@ -219,6 +262,13 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
             location = VerticalDropLocation.MIDDLE;
         }
 
+        if (VDragDropUtil.isOverlayDropIndicator(this)) {
+            currentlyEmphasised = null;
+            DropIndicator.get().show(container.getElement(),
+                    location.toString().toLowerCase());
+            return;
+        }
+
         UIObject.setStyleName(currentlyEmphasised.getElement(), OVER, true);
         UIObject.setStyleName(currentlyEmphasised.getElement(),
                 OVER + "-" + location.toString().toLowerCase(), true);
@@ -228,7 +278,7 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
      * Returns the current drag mode which determines how the drag is visualized
      */
     public LayoutDragMode getDragMode() {
-        return ddMouseHandler.getDragMode();
+        return mode;
     }
 
     /**
@@ -297,6 +347,9 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
     }
 
     IframeCoverUtility getIframeCoverUtility() {
+        if (iframeCoverUtility == null) {
+            iframeCoverUtility = new IframeCoverUtility();
+        }
         return iframeCoverUtility;
     }
 
@@ -316,7 +369,11 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
     @Override
     public void iframeShimsEnabled(boolean enabled) {
         iframeCovers = enabled;
-        iframeCoverUtility.setIframeCoversEnabled(enabled, getElement(), mode);
+        if (iframeCoverUtility != null
+                || (enabled && mode != LayoutDragMode.NONE)) {
+            getIframeCoverUtility().setIframeCoversEnabled(enabled,
+                    getElement(), mode);
+        }
     }
 
     @Override
@@ -324,22 +381,77 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
         return iframeCovers;
     }
 
+    @Override
+    public void iframeShieldEnabled(boolean enabled) {
+        iframeShield = enabled;
+        IframeShield.get().setShielded(this, enabled && isAttached());
+    }
+
+    @Override
+    public boolean isIframeShieldEnabled() {
+        return iframeShield;
+    }
+
     @Override
     public void setDragMode(LayoutDragMode mode) {
         this.mode = mode;
-        ddMouseHandler.updateDragMode(mode);
+        if (ddMouseHandler != null) {
+            ddMouseHandler.updateDragMode(mode);
+        }
+        if (mode != LayoutDragMode.NONE) {
+            VDragDropController.get().install(this);
+        }
         iframeShimsEnabled(iframeCovers);
     }
 
     @Override
     public void setDragImageProvider(VDragImageProvider provider) {
-        ddMouseHandler.setDragImageProvider(provider);
+        dragImageProvider = provider;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragImageProvider(provider);
+        }
     }
 
-    protected final VLayoutDragDropMouseHandler getMouseHandler() {
+    @Override
+    public final VLayoutDragDropMouseHandler getMouseHandler() {
+        if (ddMouseHandler == null) {
+            VLayoutDragDropMouseHandler handler = new VLayoutDragDropMouseHandler(
+                    this, mode);
+            handler.addDragStartListener(this);
+            handler.setDragImageProvider(dragImageProvider);
+            handler.setDragStartThreshold(dragStartThreshold);
+            handler.setPointerEventsEnabled(pointerEventsEnabled);
+            ddMouseHandler = handler;
+        }
         return ddMouseHandler;
     }
 
+    @Override
+    public void setDragStartThreshold(int pixels) {
+        dragStartThreshold = pixels;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setDragStartThreshold(pixels);
+        }
+    }
+
+    @Override
+    public int getDragStartThreshold() {
+        return dragStartThreshold;
+    }
+
+    @Override
+    public void setPointerEventsEnabled(boolean enabled) {
+        pointerEventsEnabled = enabled;
+        if (ddMouseHandler != null) {
+            ddMouseHandler.setPointerEventsEnabled(enabled);
+        }
+    }
+
+    @Override
+    public boolean isPointerEventsEnabled() {
+        return pointerEventsEnabled;
+    }
+
     @Override
     public VGrabFilter getGrabFilter() {
         return grabFilter;
@@ -349,4 +461,11 @@ public class VDDVerticalLayout extends VVerticalLayout implements VHasDragMode,
     public void setGrabFilter(VGrabFilter grabFilter) {
         this.grabFilter = grabFilter;
     }
+
+    @Override
+    public List<Map<String, String>> getDropCandidates() {
+        return VDragDropUtil.createOrderedDropCandidates(getChildren(),
+                Constants.DROP_DETAIL_VERTICAL_DROP_LOCATION,
+                VerticalDropLocation.values());
+    }
 }
@@ -35,6 +35,7 @@ public class VDDVerticalSplitPanelDropHandler
 
     @Override
     public boolean drop(VDragEvent drag) {
+        resetDrag();
 
         // Un-emphasis any selections
         getLayout().deEmphasis();
@@ -45,7 +46,7 @@ public class VDDVerticalSplitPanelDropHandler
     };
 
     @Override
-    public void dragOver(VDragEvent drag) {
+    protected void processDragOver(VDragEvent drag) {
 
         getLayout().deEmphasis();
 
@@ -80,6 +81,7 @@ public class VDDVerticalSplitPanelDropHandler
 
     @Override
     public void dragLeave(VDragEvent drag) {
+        super.dragLeave(drag);
         getLayout().deEmphasis();
         getLayout().postLeaveHook(drag);
     }
@@ -41,8 +41,7 @@ public class AbsoluteLayoutTargetDetails extends TargetDetailsImpl {
      * @return The amount of pixels from the left edge
      */
     public int getAbsoluteLeft() {
-        return Integer.valueOf(
-                getData(Constants.DROP_DETAIL_ABSOLUTE_LEFT).toString());
+        return getInt(Constants.DROP_DETAIL_ABSOLUTE_LEFT);
     }
 
     /**
@@ -51,8 +50,7 @@ public class AbsoluteLayoutTargetDetails extends TargetDetailsImpl {
      * @return The amount of pixels from the top edge
      */
     public int getAbsoluteTop() {
-        return Integer.valueOf(
-                getData(Constants.DROP_DETAIL_ABSOLUTE_TOP).toString());
+        return getInt(Constants.DROP_DETAIL_ABSOLUTE_TOP);
     }
 
     /**
@@ -62,8 +60,7 @@ public class AbsoluteLayoutTargetDetails extends TargetDetailsImpl {
      * @return The amount of pixels from the left edge
      */
     public int getRelativeLeft() {
-        return Integer.valueOf(
-                getData(Constants.DROP_DETAIL_RELATIVE_LEFT).toString());
+        return getInt(Constants.DROP_DETAIL_RELATIVE_LEFT);
     }
 
     /**
@@ -73,8 +70,7 @@ public class AbsoluteLayoutTargetDetails extends TargetDetailsImpl {
      * @return The amount of pixels from the top edge
      */
     public int getRelativeTop() {
-        return Integer.valueOf(
-                getData(Constants.DROP_DETAIL_RELATIVE_TOP).toString());
+        return getInt(Constants.DROP_DETAIL_RELATIVE_TOP);
     }
 
     /**
@@ -83,8 +79,7 @@ public class AbsoluteLayoutTargetDetails extends TargetDetailsImpl {
      * @return The width in pixels
      */
     public int getComponentHeight() {
-        return Integer.valueOf(
-                getData(Constants.DROP_DETAIL_COMPONENT_HEIGHT).toString());
+        return getInt(Constants.DROP_DETAIL_COMPONENT_HEIGHT);
     }
 
     /**
@@ -93,8 +88,19 @@ public class AbsoluteLayoutTargetDetails extends TargetDetailsImpl {
      * @return The height in pixels
      */
     public int getComponentWidth() {
-        return Integer.valueOf(
-                getData(Constants.DROP_DETAIL_COMPONENT_WIDTH).toString());
+        return getInt(Constants.DROP_DETAIL_COMPONENT_WIDTH);
+    }
+
+    /*
+     * The coordinates arrive as numbers, strings are still accepted for
+     * details constructed by hand
+     */
+    private int getInt(String key) {
+        Object value = getData(key);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return Integer.parseInt(value.toString());
     }
 
     /**
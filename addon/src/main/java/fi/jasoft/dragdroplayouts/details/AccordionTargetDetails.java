@@ -13,7 +13,6 @@
  */
 package fi.jasoft.dragdroplayouts.details;
 
-import java.util.Iterator;
 import java.util.Map;
 
 import com.vaadin.event.dd.TargetDetailsImpl;
@@ -22,6 +21,7 @@ import com.vaadin.shared.ui.dd.VerticalDropLocation;
 import com.vaadin.ui.Component;
 
 import fi.jasoft.dragdroplayouts.DDAccordion;
+import fi.jasoft.dragdroplayouts.DDUtil;
 
 public class AccordionTargetDetails extends TargetDetailsImpl {
 
@@ -40,15 +40,7 @@ public class AccordionTargetDetails extends TargetDetailsImpl {
             index = Integer.valueOf(to.toString());
 
             if (index < accordion.getComponentCount()) {
-                Iterator<Component> iter = accordion.getComponentIterator();
-                int counter = 0;
-                while (iter.hasNext()) {
-                    over = iter.next();
-                    if (counter == index) {
-                        break;
-                    }
-                    counter++;
-                }
+                over = DDUtil.getTabComponent(accordion, index);
             } else {
                 over = accordion;
             }
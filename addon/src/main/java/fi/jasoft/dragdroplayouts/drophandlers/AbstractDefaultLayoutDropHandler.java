@@ -26,6 +26,7 @@ import com.vaadin.ui.Component;
 import com.vaadin.ui.HasComponents;
 import com.vaadin.ui.Label;
 
+import fi.jasoft.dragdroplayouts.AcceptDecisionCache;
 import fi.jasoft.dragdroplayouts.DDAbsoluteLayout;
 import fi.jasoft.dragdroplayouts.client.ui.Constants;
 import fi.jasoft.dragdroplayouts.events.LayoutBoundTransferable;
@@ -94,6 +95,8 @@ public abstract class AbstractDefaultLayoutDropHandler implements DropHandler {
         	float y = position.getBottomValue() - movey;
 	        position.setBottom(y, Sizeable.UNITS_PIXELS);
         }
+
+        parent.updateSpatialIndex(comp);
     }
 
     public void drop(DragAndDropEvent event) {
@@ -118,6 +121,12 @@ public abstract class AbstractDefaultLayoutDropHandler implements DropHandler {
                 handleDropFromLayout(event);
             }
         }
+
+        // The children changed, cached decisions might not hold anymore
+        AcceptDecisionCache.invalidateTarget(layout);
+        if (source instanceof DropTarget && source != layout) {
+            AcceptDecisionCache.invalidateTarget((DropTarget) source);
+        }
     }
 
     /*
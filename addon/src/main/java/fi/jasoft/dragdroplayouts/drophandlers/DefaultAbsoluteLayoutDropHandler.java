@@ -14,9 +14,7 @@
 package fi.jasoft.dragdroplayouts.drophandlers;
 
 import com.vaadin.event.dd.DragAndDropEvent;
-import com.vaadin.server.Sizeable;
 import com.vaadin.ui.AbsoluteLayout;
-import com.vaadin.ui.AbsoluteLayout.ComponentPosition;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.ComponentContainer;
 import com.vaadin.ui.SingleComponentContainer;
@@ -35,6 +33,29 @@ import fi.jasoft.dragdroplayouts.events.LayoutBoundTransferable;
 public class DefaultAbsoluteLayoutDropHandler
         extends AbstractDefaultLayoutDropHandler {
 
+    private boolean preventOverlap = false;
+
+    /**
+     * Should drops which would make the dropped component overlap other
+     * components be ignored. Only components positioned in pixels from the
+     * top left corner of the layout are considered, see
+     * {@link DDAbsoluteLayout#getSpatialIndex()}.
+     *
+     * @param preventOverlap
+     *            true to ignore overlapping drops
+     */
+    public void setPreventOverlap(boolean preventOverlap) {
+        this.preventOverlap = preventOverlap;
+    }
+
+    /**
+     * Are drops which would make the dropped component overlap other
+     * components ignored
+     */
+    public boolean isPreventOverlap() {
+        return preventOverlap;
+    }
+
     /**
      * Called when a component changed location within the layout
      * 
@@ -51,13 +72,13 @@ public class DefaultAbsoluteLayoutDropHandler
         Component component = transferable.getComponent();
 
         // Get top-left pixel position
-        int leftPixelPosition = details.getRelativeLeft();
-        int topPixelPosition = details.getRelativeTop();
-
-        ComponentPosition position = layout.getPosition(component);
+        int[] bounds = resolveBounds(details, component);
+        if (bounds == null) {
+            return;
+        }
 
-        position.setLeft((float) leftPixelPosition, Sizeable.UNITS_PIXELS);
-        position.setTop((float) topPixelPosition, Sizeable.UNITS_PIXELS);
+        layout.setPosition(component, bounds[0], bounds[1]);
+        layout.updateSpatialIndex(component, bounds[2], bounds[3]);
     }
 
     /**
@@ -75,8 +96,10 @@ public class DefaultAbsoluteLayoutDropHandler
         Component component = transferable.getComponent();
         Component source = event.getTransferable().getSourceComponent();
         DDAbsoluteLayout layout = (DDAbsoluteLayout) details.getTarget();
-        int leftPixelPosition = details.getRelativeLeft();
-        int topPixelPosition = details.getRelativeTop();
+        int[] bounds = resolveBounds(details, component);
+        if (bounds == null) {
+            return;
+        }
 
         // Check that we are not dragging an outer layout into an
         // inner
@@ -94,8 +117,8 @@ public class DefaultAbsoluteLayoutDropHandler
         }
 
         // Add component to absolute layout
-        layout.addComponent(component, "left:" + leftPixelPosition + "px;top:"
-                + topPixelPosition + "px");
+        layout.addComponent(component, bounds[0], bounds[1]);
+        layout.updateSpatialIndex(component, bounds[2], bounds[3]);
     }
 
     @Override
@@ -104,11 +127,40 @@ public class DefaultAbsoluteLayoutDropHandler
                 .getTargetDetails();
         DDAbsoluteLayout layout = (DDAbsoluteLayout) details.getTarget();
 
-        int leftPixelPosition = details.getRelativeLeft();
-        int topPixelPosition = details.getRelativeTop();
-        layout.addComponent(resolveComponentFromHTML5Drop(event), "left:"
-                + leftPixelPosition + "px;top:" + topPixelPosition + "px");
+        int[] bounds = resolveBounds(details, null);
+        if (bounds == null) {
+            return;
+        }
+        layout.addComponent(resolveComponentFromHTML5Drop(event), bounds[0],
+                bounds[1]);
+    }
 
+    /**
+     * Resolves where the dropped component ends up after snapping
+     *
+     * @param details
+     *            the drop details
+     * @param component
+     *            the dropped component or null if not known
+     * @return the left, top, width and height of the component in pixels or
+     *         null if the drop should be ignored
+     */
+    protected int[] resolveBounds(AbsoluteLayoutTargetDetails details,
+            Component component) {
+        DDAbsoluteLayout layout = (DDAbsoluteLayout) details.getTarget();
+        int width = Math.max(0, details.getComponentWidth());
+        int height = Math.max(0, details.getComponentHeight());
+        int left = layout.snapLeft(component, details.getRelativeLeft(),
+                width);
+        int top = layout.snapTop(component, details.getRelativeTop(),
+                height);
+
+        if (preventOverlap && !layout.getSpatialIndex()
+                .findOverlapping(left, top, width, height, component)
+                .isEmpty()) {
+            return null;
+        }
+        return new int[] { left, top, width, height };
     }
 
     @Override
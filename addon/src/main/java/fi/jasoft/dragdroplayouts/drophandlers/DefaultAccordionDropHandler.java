@@ -61,18 +61,18 @@ public class DefaultAccordionDropHandler
             // Left of previous tab
             int originalIndex = acc.getTabPosition(tab);
             if (originalIndex > idx) {
-                acc.setTabPosition(tab, idx);
+                acc.moveComponent(c, idx);
             } else if (idx - 1 >= 0) {
-                acc.setTabPosition(tab, idx - 1);
+                acc.moveComponent(c, idx - 1);
             }
 
         } else if (location == VerticalDropLocation.BOTTOM) {
             // Right of previous tab
             int originalIndex = acc.getTabPosition(tab);
             if (originalIndex > idx) {
-                acc.setTabPosition(tab, idx + 1);
+                acc.moveComponent(c, idx + 1);
             } else {
-                acc.setTabPosition(tab, idx);
+                acc.moveComponent(c, idx);
             }
         }
     }
@@ -19,7 +19,6 @@ import com.vaadin.shared.ui.dd.VerticalDropLocation;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.ComponentContainer;
 import com.vaadin.ui.CssLayout;
-import com.vaadin.ui.SingleComponentContainer;
 
 import fi.jasoft.dragdroplayouts.DDCssLayout;
 import fi.jasoft.dragdroplayouts.DDCssLayout.CssLayoutTargetDetails;
@@ -46,22 +45,10 @@ public class DefaultCssLayoutDropHandler
         DDCssLayout layout = (DDCssLayout) details.getTarget();
         Component comp = transferable.getComponent();
         int idx = details.getOverIndex();
-        Component over = details.getOverComponent();
 
-        // Detach from old source
-        Component source = transferable.getSourceComponent();
-        if (source instanceof ComponentContainer) {
-            ((ComponentContainer) source).removeComponent(comp);
-        } else if (source instanceof SingleComponentContainer) {
-            ((SingleComponentContainer) source).setContent(null);
-        }
-
-        // Add component
-        if (idx >= 0 && idx < layout.getComponentCount()) {
-            layout.addComponent(comp, idx);
-        } else {
-            layout.addComponent(comp);
-        }
+        // Move in place, keeps the component attached
+        int last = layout.getComponentCount() - 1;
+        layout.moveComponent(comp, idx >= 0 && idx < last ? idx : last);
     }
 
     @Override
@@ -30,6 +30,7 @@ import fi.jasoft.dragdroplayouts.DDFormLayout.FormLayoutTargetDetails;
 import fi.jasoft.dragdroplayouts.client.ui.Constants;
 import fi.jasoft.dragdroplayouts.events.LayoutBoundTransferable;
 import fi.jasoft.dragdroplayouts.events.VerticalLocationIs;
+import fi.jasoft.dragdroplayouts.interfaces.ComponentMoveSupport;
 
 /**
  * Default drop handler for Form layouts
@@ -84,8 +85,6 @@ public class DefaultFormLayoutDropHandler
             return;
         }
 
-        // Detach
-        layout.removeComponent(comp);
         if (idx > 0 && idx > oldIdx) {
             idx--;
         }
@@ -98,12 +97,9 @@ public class DefaultFormLayoutDropHandler
             idx++;
         }
 
-        // Add component
-        if (idx >= 0) {
-            layout.addComponent(comp, idx);
-        } else {
-            layout.addComponent(comp);
-        }
+        // Move in place, keeps the component attached
+        ((ComponentMoveSupport) layout).moveComponent(comp,
+                idx >= 0 ? idx : layout.getComponentCount() - 1);
 
         // Add component alignment if given
         if (dropAlignment != null) {
@@ -13,6 +13,16 @@
  */
 package fi.jasoft.dragdroplayouts.drophandlers;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import com.vaadin.event.dd.DragAndDropEvent;
 import com.vaadin.server.Sizeable;
 import com.vaadin.shared.MouseEventDetails;
@@ -26,6 +36,8 @@ import com.vaadin.ui.SingleComponentContainer;
 import fi.jasoft.dragdroplayouts.DDAbsoluteLayout;
 import fi.jasoft.dragdroplayouts.DDGridLayout;
 import fi.jasoft.dragdroplayouts.DDGridLayout.GridLayoutTargetDetails;
+import fi.jasoft.dragdroplayouts.GridArea;
+import fi.jasoft.dragdroplayouts.GridOccupancy;
 import fi.jasoft.dragdroplayouts.events.LayoutBoundTransferable;
 
 /**
@@ -40,6 +52,10 @@ public class DefaultGridLayoutDropHandler
 
     private final Alignment dropAlignment;
 
+    private GridDropPolicy dropPolicy = GridDropPolicy.REJECT;
+
+    private boolean compacting = false;
+
     /**
      * Default constructor
      */
@@ -57,6 +73,52 @@ public class DefaultGridLayoutDropHandler
         this.dropAlignment = dropCellAlignment;
     }
 
+    /**
+     * Sets what happens when a component is dropped on cells occupied by
+     * other components. By default the drop is rejected.
+     *
+     * @param dropPolicy
+     *            the policy, not null
+     */
+    public void setDropPolicy(GridDropPolicy dropPolicy) {
+        if (dropPolicy == null) {
+            throw new IllegalArgumentException("Drop policy cannot be null");
+        }
+        this.dropPolicy = dropPolicy;
+    }
+
+    /**
+     * Returns what happens when a component is dropped on cells occupied by
+     * other components
+     */
+    public GridDropPolicy getDropPolicy() {
+        return dropPolicy;
+    }
+
+    /**
+     * Should the components be moved up to fill the gaps in the grid after
+     * every drop. The moved components are updated to the client in the
+     * same batch as the drop.
+     * <p>
+     * Only the part of the grid affected by the drop is compacted, see
+     * {@link DDGridLayout#compact(java.util.Collection)}. If the grid has
+     * gaps when compacting is turned on, call {@link DDGridLayout#compact()}
+     * once to compact the whole grid.
+     *
+     * @param compacting
+     *            true to compact the grid after drops
+     */
+    public void setCompacting(boolean compacting) {
+        this.compacting = compacting;
+    }
+
+    /**
+     * Is the grid compacted after drops
+     */
+    public boolean isCompacting() {
+        return compacting;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -73,11 +135,20 @@ public class DefaultGridLayoutDropHandler
                 .getTransferable();
         Component comp = transferable.getComponent();
 
-        int row = details.getOverRow();
-        int column = details.getOverColumn();
-        if (layout.getComponent(column, row) == null) {
-            layout.removeComponent(comp);
-            addComponent(event, comp, column, row);
+        // The component keeps its span and is moved without detaching it
+        GridArea area = layout.getGridArea(comp)
+                .moveTo(details.getOverColumn(), details.getOverRow());
+        Map<Component, GridArea> moves = resolveDrop(layout, comp, area);
+        if (moves != null) {
+            List<GridArea> changed = getChangedAreas(layout, moves);
+            ensureRows(layout, moves);
+            layout.moveComponents(moves);
+            if (dropAlignment != null) {
+                layout.setComponentAlignment(comp, dropAlignment);
+            }
+            if (compacting) {
+                layout.compact(changed);
+            }
         }
     }
 
@@ -114,6 +185,7 @@ public class DefaultGridLayoutDropHandler
                 float y = position.getTopValue() + movey;
                 position.setLeft(x, Sizeable.UNITS_PIXELS);
                 position.setTop(y, Sizeable.UNITS_PIXELS);
+                parent.updateSpatialIndex(comp);
 
                 return;
             }
@@ -160,23 +232,181 @@ public class DefaultGridLayoutDropHandler
 
         // If no components exist in the grid, then just add the
         // component
-        if (!layout.getComponentIterator().hasNext()) {
+        if (layout.getComponentCount() == 0) {
             layout.addComponent(component, column, row);
+            if (compacting) {
+                layout.compact(Collections
+                        .singleton(layout.getGridArea(component)));
+            }
             return;
         }
 
-        // If component was dropped on top of another component, abort
-        if (layout.getComponent(column, row) != null) {
+        Map<Component, GridArea> moves = resolveDrop(layout, component,
+                new GridArea(column, row, column, row));
+        if (moves == null) {
             return;
         }
 
-        // Add the component
+        // Make room for the component before adding it
+        List<GridArea> changed = getChangedAreas(layout, moves);
+        GridArea area = moves.remove(component);
+        ensureRows(layout, moves);
+        layout.moveComponents(moves);
+        layout.addComponent(component, area.getColumn1(), area.getRow1(),
+                area.getColumn2(), area.getRow2());
 
-        layout.addComponent(component, column, row);
         // Add component alignment if given
         if (dropAlignment != null) {
             layout.setComponentAlignment(component, dropAlignment);
         }
+        if (compacting) {
+            layout.compact(changed);
+        }
+    }
+
+    /**
+     * Resolves where a dropped component ends up according to the drop
+     * policy
+     *
+     * @param layout
+     *            the target layout
+     * @param component
+     *            the dropped component, either a component of the layout or
+     *            a component being added to it
+     * @param area
+     *            the area the component was dropped on
+     * @return the new areas of the dropped component and of the components it
+     *         displaces or null if the drop is rejected
+     */
+    protected Map<Component, GridArea> resolveDrop(DDGridLayout layout,
+            Component component, GridArea area) {
+        GridOccupancy occupancy = layout.getOccupancy();
+        Map<Component, GridArea> moves = new LinkedHashMap<Component, GridArea>();
+        if (occupancy.isFree(area, component)) {
+            moves.put(component, area);
+            return moves;
+        }
+
+        switch (dropPolicy) {
+        case SWAP:
+            return swap(layout, occupancy, component, area);
+        case SHIFT_DOWN:
+            if (area.getColumn1() < 0 || area.getRow1() < 0
+                    || area.getColumn2() >= occupancy.getColumns()) {
+                return null;
+            }
+            return shiftDown(layout, occupancy, component, area);
+        case NEAREST_FREE:
+            GridArea free = occupancy.findNearestFree(area.getColumn1(),
+                    area.getRow1(), area.getWidth(), area.getHeight(),
+                    component);
+            if (free == null) {
+                return null;
+            }
+            moves.put(component, free);
+            return moves;
+        default:
+            return null;
+        }
+    }
+
+    private static Map<Component, GridArea> swap(DDGridLayout layout,
+            GridOccupancy occupancy, Component component, GridArea area) {
+        GridArea from = layout.getGridArea(component);
+        Component other = occupancy.getComponent(area.getColumn1(),
+                area.getRow1());
+        if (from == null || other == null || other == component) {
+            return null;
+        }
+
+        GridArea otherFrom = layout.getGridArea(other);
+        GridArea to = from.moveTo(otherFrom.getColumn1(),
+                otherFrom.getRow1());
+        GridArea otherTo = otherFrom.moveTo(from.getColumn1(),
+                from.getRow1());
+        if (to.overlaps(otherTo) || !occupancy.isFree(to, component, other)
+                || !occupancy.isFree(otherTo, component, other)) {
+            return null;
+        }
+
+        Map<Component, GridArea> moves = new LinkedHashMap<Component, GridArea>();
+        moves.put(component, to);
+        moves.put(other, otherTo);
+        return moves;
+    }
+
+    /*
+     * Pushed components only ever move below the component pushing them, so
+     * the cascade ends. Collisions are looked up from the cells of the
+     * original grid and from the components already pushed.
+     */
+    private static Map<Component, GridArea> shiftDown(DDGridLayout layout,
+            GridOccupancy occupancy, Component component, GridArea area) {
+        Map<Component, GridArea> moves = new LinkedHashMap<Component, GridArea>();
+        moves.put(component, area);
+        Deque<Component> pushing = new ArrayDeque<Component>();
+        pushing.add(component);
+
+        while (!pushing.isEmpty()) {
+            Component pusher = pushing.poll();
+            GridArea pusherArea = moves.get(pusher);
+            Set<Component> pushed = new LinkedHashSet<Component>();
+
+            for (int r = pusherArea.getRow1(); r <= Math.min(
+                    pusherArea.getRow2(), occupancy.getRows() - 1); r++) {
+                for (int c = pusherArea.getColumn1(); c <= pusherArea
+                        .getColumn2(); c++) {
+                    Component owner = occupancy.getComponent(c, r);
+                    if (owner != null && !moves.containsKey(owner)) {
+                        pushed.add(owner);
+                    }
+                }
+            }
+            for (Map.Entry<Component, GridArea> move : moves.entrySet()) {
+                Component moved = move.getKey();
+                if (moved != pusher && moved != component
+                        && move.getValue().overlaps(pusherArea)) {
+                    pushed.add(moved);
+                }
+            }
+
+            for (Component c : pushed) {
+                GridArea current = moves.containsKey(c) ? moves.get(c)
+                        : layout.getGridArea(c);
+                moves.put(c, current.moveTo(current.getColumn1(),
+                        pusherArea.getRow2() + 1));
+                pushing.add(c);
+            }
+        }
+        return moves;
+    }
+
+    /*
+     * The areas vacated and occupied by the moves, used for limiting the
+     * compaction to the part of the grid the drop changed.
+     */
+    private static List<GridArea> getChangedAreas(DDGridLayout layout,
+            Map<Component, GridArea> moves) {
+        List<GridArea> changed = new ArrayList<GridArea>(moves.size() * 2);
+        for (Map.Entry<Component, GridArea> move : moves.entrySet()) {
+            GridArea old = layout.getGridArea(move.getKey());
+            if (old != null) {
+                changed.add(old);
+            }
+            changed.add(move.getValue());
+        }
+        return changed;
+    }
+
+    private static void ensureRows(DDGridLayout layout,
+            Map<Component, GridArea> moves) {
+        int rows = layout.getRows();
+        for (GridArea area : moves.values()) {
+            rows = Math.max(rows, area.getRow2() + 1);
+        }
+        if (rows > layout.getRows()) {
+            layout.setRows(rows);
+        }
     }
 
     @Override
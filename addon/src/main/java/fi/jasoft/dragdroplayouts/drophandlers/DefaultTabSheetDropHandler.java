@@ -60,18 +60,18 @@ public class DefaultTabSheetDropHandler
             // Left of previous tab
             int originalIndex = tabSheet.getTabPosition(tab);
             if (originalIndex > idx) {
-                tabSheet.setTabPosition(tab, idx);
+                tabSheet.moveComponent(c, idx);
             } else if (idx - 1 >= 0) {
-                tabSheet.setTabPosition(tab, idx - 1);
+                tabSheet.moveComponent(c, idx - 1);
             }
 
         } else if (location == HorizontalDropLocation.RIGHT) {
             // Right of previous tab
             int originalIndex = tabSheet.getTabPosition(tab);
             if (originalIndex > idx) {
-                tabSheet.setTabPosition(tab, idx + 1);
+                tabSheet.moveComponent(c, idx + 1);
             } else {
-                tabSheet.setTabPosition(tab, idx);
+                tabSheet.moveComponent(c, idx);
             }
         }
     }
@@ -24,6 +24,7 @@ import com.vaadin.ui.VerticalLayout;
 
 import fi.jasoft.dragdroplayouts.DDVerticalLayout.VerticalLayoutTargetDetails;
 import fi.jasoft.dragdroplayouts.events.LayoutBoundTransferable;
+import fi.jasoft.dragdroplayouts.interfaces.ComponentMoveSupport;
 
 /**
  * A default drop handler for vertical layouts
@@ -78,9 +79,6 @@ public class DefaultVerticalLayoutDropHandler
             return;
         }
 
-        // Detach
-        layout.removeComponent(comp);
-
         // Account for detachment if new index is bigger then old index
         if (idx > oldIndex) {
             idx--;
@@ -94,12 +92,9 @@ public class DefaultVerticalLayoutDropHandler
             idx++;
         }
 
-        // Add component
-        if (idx >= 0) {
-            layout.addComponent(comp, idx);
-        } else {
-            layout.addComponent(comp);
-        }
+        // Move in place, keeps the component attached
+        ((ComponentMoveSupport) layout).moveComponent(comp,
+                idx >= 0 ? idx : layout.getComponentCount() - 1);
 
         // Add component alignment if given
         if (dropAlignment != null) {
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.drophandlers;
+
+/**
+ * Determines what the {@link DefaultGridLayoutDropHandler} does when a
+ * component is dropped on cells occupied by other components
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public enum GridDropPolicy {
+
+    /**
+     * The drop is ignored
+     */
+    REJECT,
+
+    /**
+     * The dragged component and the component it was dropped on trade places.
+     * Drops from outside the grid are ignored.
+     */
+    SWAP,
+
+    /**
+     * The components in the way are pushed down below the dropped component,
+     * pushing further components down as needed. Rows are added to the grid
+     * if the components do not otherwise fit.
+     */
+    SHIFT_DOWN,
+
+    /**
+     * The component is dropped in the closest free cells
+     */
+    NEAREST_FREE
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.events;
+
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.acceptcriteria.AcceptCriterion;
+import com.vaadin.event.dd.acceptcriteria.ServerSideCriterion;
+import com.vaadin.ui.UI;
+
+import fi.jasoft.dragdroplayouts.AcceptDecisionCache;
+
+/**
+ * A server side criterion memoizing the decisions of another criterion in
+ * the {@link AcceptDecisionCache} of the UI. Use it to wrap expensive server
+ * side criteria, client side criteria are cheaper to check on the client.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class CachedCriterion extends ServerSideCriterion {
+
+    private final AcceptCriterion criterion;
+
+    /**
+     * Caches the decisions of a criterion
+     * 
+     * @param criterion
+     *            the criterion to cache
+     */
+    public CachedCriterion(AcceptCriterion criterion) {
+        this.criterion = criterion;
+    }
+
+    @Override
+    public boolean accept(DragAndDropEvent dragEvent) {
+        UI ui = dragEvent.getTargetDetails().getTarget().getUI();
+        if (ui == null) {
+            return criterion.accept(dragEvent);
+        }
+        return AcceptDecisionCache.get(ui).accept(criterion, dragEvent);
+    }
+
+    /**
+     * Returns the cached criterion
+     */
+    public AcceptCriterion getCriterion() {
+        return criterion;
+    }
+}
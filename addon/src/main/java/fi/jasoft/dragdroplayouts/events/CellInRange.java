@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.events;
+
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.TargetDetails;
+import com.vaadin.event.dd.acceptcriteria.ClientSideCriterion;
+import com.vaadin.server.PaintException;
+import com.vaadin.server.PaintTarget;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+import fi.jasoft.dragdroplayouts.client.ui.criteria.DropDetailUtil;
+
+/**
+ * A client side criterion accepting drops over an inclusive area of cells of
+ * a grid layout
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class CellInRange extends ClientSideCriterion {
+
+    private final int column1;
+
+    private final int row1;
+
+    private final int column2;
+
+    private final int row2;
+
+    /**
+     * Accepts drops over the cells between the corners
+     * 
+     * @param column1
+     *            the first accepted column
+     * @param row1
+     *            the first accepted row
+     * @param column2
+     *            the last accepted column
+     * @param row2
+     *            the last accepted row
+     */
+    public CellInRange(int column1, int row1, int column2, int row2) {
+        this.column1 = column1;
+        this.row1 = row1;
+        this.column2 = column2;
+        this.row2 = row2;
+    }
+
+    @Override
+    protected void paintContent(PaintTarget target) throws PaintException {
+        super.paintContent(target);
+        target.addAttribute("c1", column1);
+        target.addAttribute("r1", row1);
+        target.addAttribute("c2", column2);
+        target.addAttribute("r2", row2);
+    }
+
+    @Override
+    public boolean accept(DragAndDropEvent dragEvent) {
+        TargetDetails details = dragEvent.getTargetDetails();
+        return DropDetailUtil.isInRange(
+                details.getData(Constants.DROP_DETAIL_COLUMN), column1,
+                column2)
+                && DropDetailUtil.isInRange(
+                        details.getData(Constants.DROP_DETAIL_ROW), row1,
+                        row2);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.events;
+
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.acceptcriteria.ClientSideCriterion;
+import com.vaadin.server.PaintException;
+import com.vaadin.server.PaintTarget;
+import com.vaadin.ui.Component;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+
+/**
+ * A client side criterion accepting drags of components of the given
+ * classes or their subclasses. Interfaces are not supported.
+ * <p>
+ * The client can only tell components apart by their connectors, so while
+ * dragging the criterion also accepts components sharing a connector with
+ * one of the classes, e.g. any {@link com.vaadin.ui.Label} when a subclass
+ * of it is accepted. The exact class is checked on the server on drop.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class ComponentTypeIs extends ClientSideCriterion {
+
+    private final Class<? extends Component>[] types;
+
+    /**
+     * Accepts drags of components of the types
+     * 
+     * @param types
+     *            the accepted classes
+     */
+    @SafeVarargs
+    public ComponentTypeIs(Class<? extends Component>... types) {
+        for (Class<? extends Component> type : types) {
+            if (type.isInterface()) {
+                throw new IllegalArgumentException(
+                        "Interfaces cannot be checked on the client: "
+                                + type.getName());
+            }
+        }
+        this.types = types;
+    }
+
+    @Override
+    protected void paintContent(PaintTarget target) throws PaintException {
+        super.paintContent(target);
+        String[] names = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            names[i] = types[i].getName();
+        }
+        target.addAttribute("types", names);
+    }
+
+    @Override
+    public boolean accept(DragAndDropEvent dragEvent) {
+        Object component = dragEvent.getTransferable()
+                .getData(Constants.TRANSFERABLE_DETAIL_COMPONENT);
+        for (Class<? extends Component> type : types) {
+            if (type.isInstance(component)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.events;
+
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.acceptcriteria.ClientSideCriterion;
+import com.vaadin.server.PaintException;
+import com.vaadin.server.PaintTarget;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+import fi.jasoft.dragdroplayouts.client.ui.criteria.DropDetailUtil;
+
+/**
+ * A client side criterion accepting drops over an inclusive range of child
+ * indexes of an ordered layout. The index is -1 when the drag is over the
+ * layout itself instead of a child.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class IndexInRange extends ClientSideCriterion {
+
+    private final int min;
+
+    private final int max;
+
+    /**
+     * Accepts drops over the indexes from min to max
+     * 
+     * @param min
+     *            the first accepted index
+     * @param max
+     *            the last accepted index
+     */
+    public IndexInRange(int min, int max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    @Override
+    protected void paintContent(PaintTarget target) throws PaintException {
+        super.paintContent(target);
+        target.addAttribute("min", min);
+        target.addAttribute("max", max);
+    }
+
+    @Override
+    public boolean accept(DragAndDropEvent dragEvent) {
+        return DropDetailUtil.isInRange(dragEvent.getTargetDetails()
+                .getData(Constants.DROP_DETAIL_TO), min, max);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.events;
+
+import java.util.Iterator;
+
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.DropTarget;
+import com.vaadin.event.dd.acceptcriteria.ClientSideCriterion;
+import com.vaadin.server.PaintException;
+import com.vaadin.server.PaintTarget;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.HasComponents;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+
+/**
+ * A client side criterion accepting drops into layouts having less than a
+ * maximum amount of children. Reordering the children of a full layout is
+ * still accepted.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class MaxChildren extends ClientSideCriterion {
+
+    private final int max;
+
+    /**
+     * Accepts drops while the target has less than max children
+     * 
+     * @param max
+     *            the maximum amount of children
+     */
+    public MaxChildren(int max) {
+        this.max = max;
+    }
+
+    @Override
+    protected void paintContent(PaintTarget target) throws PaintException {
+        super.paintContent(target);
+        target.addAttribute("max", max);
+    }
+
+    @Override
+    public boolean accept(DragAndDropEvent dragEvent) {
+        DropTarget target = dragEvent.getTargetDetails().getTarget();
+        if (!(target instanceof HasComponents)) {
+            return false;
+        }
+        Object component = dragEvent.getTransferable()
+                .getData(Constants.TRANSFERABLE_DETAIL_COMPONENT);
+        if (component instanceof Component
+                && ((Component) component).getParent() == target) {
+            return true;
+        }
+        int children = 0;
+        Iterator<Component> iterator = ((HasComponents) target).iterator();
+        while (iterator.hasNext() && children < max) {
+            iterator.next();
+            children++;
+        }
+        return children < max;
+    }
+}
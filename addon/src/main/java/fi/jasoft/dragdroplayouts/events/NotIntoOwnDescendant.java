@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.events;
+
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.acceptcriteria.ClientSideCriterion;
+import com.vaadin.ui.Component;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+
+/**
+ * A client side criterion rejecting drops of a layout into itself or into
+ * any layout inside it
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public final class NotIntoOwnDescendant extends ClientSideCriterion {
+
+    private static final NotIntoOwnDescendant INSTANCE = new NotIntoOwnDescendant();
+
+    private NotIntoOwnDescendant() {
+        // Singleton
+    }
+
+    /**
+     * Returns the criterion
+     */
+    public static NotIntoOwnDescendant get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public boolean accept(DragAndDropEvent dragEvent) {
+        Object component = dragEvent.getTransferable()
+                .getData(Constants.TRANSFERABLE_DETAIL_COMPONENT);
+        Component c = dragEvent.getTargetDetails().getTarget();
+        while (c != null) {
+            if (c == component) {
+                return false;
+            }
+            c = c.getParent();
+        }
+        return true;
+    }
+
+    /*
+     * Singleton pattern: resolve the singleton instance on deserialization
+     */
+    private Object readResolve() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.events;
+
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.acceptcriteria.ClientSideCriterion;
+import com.vaadin.server.PaintException;
+import com.vaadin.server.PaintTarget;
+import com.vaadin.ui.Component;
+
+import fi.jasoft.dragdroplayouts.interfaces.LayoutDragSource;
+
+/**
+ * A client side criterion accepting drags started from one of the given
+ * layouts
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class SourceLayoutIs extends ClientSideCriterion {
+
+    private final LayoutDragSource[] layouts;
+
+    /**
+     * Accepts drags from the layouts
+     * 
+     * @param layouts
+     *            the accepted source layouts
+     */
+    public SourceLayoutIs(LayoutDragSource... layouts) {
+        this.layouts = layouts;
+    }
+
+    @Override
+    protected void paintContent(PaintTarget target) throws PaintException {
+        super.paintContent(target);
+        int painted = 0;
+        for (LayoutDragSource layout : layouts) {
+            if (((Component) layout).isAttached()) {
+                target.addAttribute("component" + painted++,
+                        (Component) layout);
+            }
+        }
+        target.addAttribute("c", painted);
+    }
+
+    @Override
+    public boolean accept(DragAndDropEvent dragEvent) {
+        Component source = dragEvent.getTransferable().getSourceComponent();
+        for (LayoutDragSource layout : layouts) {
+            if (layout == source) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.interfaces;
+
+/**
+ * Prefetches the accept decisions of the layout when a drag starts. If the
+ * accept criterion of the drop handler has to be checked on the server, the
+ * client asks for the decisions of all drop locations of the visible
+ * prefetching layouts in one request and then uses the answer for the rest
+ * of the drag instead of checking every location separately.
+ * <p>
+ * The drop itself is still validated on the server. Only drop handlers
+ * implementing {@link BulkAcceptHandler} are prefetched, the locations of
+ * other drop handlers are checked when the pointer gets there.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface AcceptPrefetchSupport {
+
+    /**
+     * True to prefetch the accept decisions when a drag starts (defaults to
+     * false)
+     * 
+     * @param prefetch
+     *            Are the decisions prefetched
+     */
+    void setAcceptPrefetch(boolean prefetch);
+
+    /**
+     * Are the accept decisions prefetched when a drag starts
+     * 
+     * @return Are the decisions prefetched
+     */
+    boolean isAcceptPrefetch();
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.interfaces;
+
+import java.util.List;
+
+import com.vaadin.event.Transferable;
+import com.vaadin.event.dd.DropHandler;
+import com.vaadin.event.dd.TargetDetails;
+
+/**
+ * A drop handler which evaluates the accept decisions of many drop locations
+ * at once, e.g. with a single permission lookup. Used when the decisions are
+ * prefetched, see {@link AcceptPrefetchSupport}. Only drop handlers
+ * implementing this interface take part in prefetching, the decisions of
+ * other drop handlers are checked separately for every location during the
+ * drag.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface BulkAcceptHandler extends DropHandler {
+
+    /**
+     * Evaluates whether the transferable can be dropped at the locations.
+     * The target details only contain the details identifying the location,
+     * details of the pointer like the mouse event are not available.
+     * 
+     * @param transferable
+     *            the dragged transferable
+     * @param candidates
+     *            the drop locations
+     * @return the decisions in the order of the candidates, one for every
+     *         candidate
+     */
+    boolean[] acceptAll(Transferable transferable,
+            List<TargetDetails> candidates);
+}
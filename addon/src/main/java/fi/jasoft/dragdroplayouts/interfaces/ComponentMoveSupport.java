@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.interfaces;
+
+import java.util.List;
+
+import com.vaadin.ui.Component;
+
+/**
+ * Moves children of an ordered layout without removing them from the layout.
+ * Only the order of the children changes, the moved components stay attached
+ * so their state and hierarchy are not sent to the client again.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface ComponentMoveSupport {
+
+    /**
+     * Moves a child to a new position
+     * 
+     * @param component
+     *            the child to move
+     * @param index
+     *            the index of the child after the move. Indexes past the end
+     *            move the child last.
+     * @throws IllegalArgumentException
+     *             if the component is not a child of the layout
+     */
+    void moveComponent(Component component, int index);
+
+    /**
+     * Moves several children to a new position. The children are placed next
+     * to each other in the given order.
+     * 
+     * @param components
+     *            the children to move
+     * @param index
+     *            the index of the first child after the move. Indexes past
+     *            the end move the children last.
+     * @throws IllegalArgumentException
+     *             if any of the components is not a child of the layout
+     */
+    void moveComponents(List<? extends Component> components, int index);
+}
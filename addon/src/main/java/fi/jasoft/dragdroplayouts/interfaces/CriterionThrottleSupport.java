@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.interfaces;
+
+/**
+ * Controls how often the client asks the server whether a drop is accepted
+ * when the accept criterion of the drop handler has to be checked on the
+ * server. Regardless of the interval the client keeps at most one check in
+ * flight per layout, ignores answers to checks the pointer has already moved
+ * away from and reuses the previous answer while the drop location stays
+ * the same.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface CriterionThrottleSupport {
+
+    /**
+     * Sets the minimum time between two server side criterion checks
+     * (defaults to 0, checks are only limited by the checks in flight).
+     * 
+     * @param millis
+     *            The minimum interval in milliseconds
+     */
+    void setCriterionCheckInterval(int millis);
+
+    /**
+     * Returns the minimum time between two server side criterion checks
+     * 
+     * @return The minimum interval in milliseconds
+     */
+    int getCriterionCheckInterval();
+}
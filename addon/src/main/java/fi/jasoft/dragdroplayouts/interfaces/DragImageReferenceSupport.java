@@ -1,5 +1,7 @@
 package fi.jasoft.dragdroplayouts.interfaces;
 
+import fi.jasoft.dragdroplayouts.client.ui.DragImageStrategy;
+
 public interface DragImageReferenceSupport {
 
     /**
@@ -19,4 +21,21 @@ public interface DragImageReferenceSupport {
      * @return the image provider
      */
     DragImageProvider getDragImageProvider();
+
+    /**
+     * Sets how the drag image is built when no drag image provider is set or
+     * the provider returns no component. Defaults to
+     * {@link DragImageStrategy#CLONE}.
+     * 
+     * @param strategy
+     *            The drag image strategy
+     */
+    void setDragImageStrategy(DragImageStrategy strategy);
+
+    /**
+     * Returns how the drag image is built
+     * 
+     * @return the drag image strategy
+     */
+    DragImageStrategy getDragImageStrategy();
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.interfaces;
+
+/**
+ * Controls how a drag is started from the layout. By default drags are
+ * started with pointer events when the browser supports them and the pointer
+ * needs to move a few pixels before the drag starts.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface DragStartSupport {
+
+    /**
+     * Sets how many pixels the pointer needs to move before a drag starts
+     * (defaults to 3). Only used when drags are started with pointer events.
+     * 
+     * @param pixels
+     *            The threshold in pixels
+     */
+    void setDragStartThreshold(int pixels);
+
+    /**
+     * Returns how many pixels the pointer needs to move before a drag starts
+     * 
+     * @return The threshold in pixels
+     */
+    int getDragStartThreshold();
+
+    /**
+     * Should pointer events be used for starting drags when the browser
+     * supports them (defaults to true). When disabled mouse down and touch
+     * start events are used instead.
+     * 
+     * @param enabled
+     *            Should pointer events be used
+     */
+    void setPointerEventsEnabled(boolean enabled);
+
+    /**
+     * Are pointer events used for starting drags when the browser supports
+     * them
+     * 
+     * @return true if pointer events are used
+     */
+    boolean isPointerEventsEnabled();
+}
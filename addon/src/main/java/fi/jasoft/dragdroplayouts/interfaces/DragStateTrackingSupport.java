@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.interfaces;
+
+import fi.jasoft.dragdroplayouts.DragStateTracker;
+
+/**
+ * Layout which can track changes to the drag and drop state of its children
+ * instead of rebuilding it on every response.
+ *
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface DragStateTrackingSupport {
+
+    /**
+     * Returns the tracker used for incrementally updating the drag and drop
+     * state. Use {@link DragStateTracker#setEnabled(boolean)} to turn dirty
+     * tracking on.
+     *
+     * @return the drag state tracker of the layout
+     */
+    DragStateTracker getDragStateTracker();
+}
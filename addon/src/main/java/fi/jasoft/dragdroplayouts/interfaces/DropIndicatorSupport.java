@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.interfaces;
+
+/**
+ * Selects how the drop location is shown while dragging over a layout. By
+ * default a single overlay element positioned over the drop target is used.
+ * When the overlay is turned off the previous behaviour of applying
+ * <code>-over</code> style names to the content of the layout is used instead.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface DropIndicatorSupport {
+
+    /**
+     * False to show the drop location by applying style names to the content
+     * of the layout instead of using the overlay indicator (defaults to true).
+     * 
+     * @param overlay
+     *            Is the overlay indicator used
+     */
+    void setOverlayDropIndicator(boolean overlay);
+
+    /**
+     * Is the overlay indicator used for showing the drop location
+     * 
+     * @return Is the overlay indicator used
+     */
+    boolean isOverlayDropIndicator();
+}
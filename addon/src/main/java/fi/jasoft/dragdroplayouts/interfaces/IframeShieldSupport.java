@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.interfaces;
+
+/**
+ * Selects how iframes are shimmed when shimming is turned on with
+ * {@link ShimSupport#setShim(boolean)}. By default every iframe inside the
+ * layout is wrapped in a cover element when the drag mode is set. With the
+ * shield turned on the iframes are left untouched and all iframes of the
+ * page are instead shielded from the pointer only while a drag is active.
+ * <p>
+ * With the shield the iframe based components themselves cannot be grabbed,
+ * the shield only keeps the iframes from swallowing the mouse events of a
+ * drag passing over them.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface IframeShieldSupport {
+
+    /**
+     * True to shield the iframes only while a drag is active instead of
+     * covering the iframes of the layout (defaults to false).
+     * 
+     * @param shield
+     *            Is the drag time shield used
+     */
+    void setIframeShield(boolean shield);
+
+    /**
+     * Is the drag time shield used instead of iframe covers
+     * 
+     * @return Is the drag time shield used
+     */
+    boolean isIframeShield();
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts.interfaces;
+
+/**
+ * Resolves drag captions and reference drag images on demand. By default the
+ * {@link DragCaptionProvider} and {@link DragImageProvider} of the layout are
+ * asked for every child whenever the layout is painted and the results are
+ * sent to the client with the state of the layout. In the lazy mode the
+ * providers are only asked for the one child being dragged, when the drag
+ * starts.
+ * <p>
+ * Until the answer of the server arrives the default drag image is shown, the
+ * drag image is replaced once the caption or image is known. The client
+ * keeps the answers for a few seconds so repeated drags of the same child do
+ * not query the server again. Reference drag image components still need to
+ * be attached to the UI.
+ * 
+ * @author John Ahlroos / www.jasoft.fi
+ * @since 1.4.0
+ */
+public interface LazyDragImageSupport {
+
+    /**
+     * True to resolve drag captions and drag images only for the dragged
+     * child when the drag starts (defaults to false).
+     * 
+     * @param lazy
+     *            Are drag captions and images resolved on demand
+     */
+    void setLazyDragImages(boolean lazy);
+
+    /**
+     * Are drag captions and drag images resolved on demand
+     * 
+     * @return Are drag captions and images resolved on demand
+     */
+    boolean isLazyDragImages();
+}
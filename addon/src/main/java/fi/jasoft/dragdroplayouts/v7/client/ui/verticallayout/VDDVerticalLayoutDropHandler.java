@@ -40,6 +40,7 @@ public class VDDVerticalLayoutDropHandler
 
     @Override
     public boolean drop(VDragEvent drag) {
+        resetDrag();
 
         // Un-emphasis any selections
         getLayout().emphasis(null, null);
@@ -47,12 +48,17 @@ public class VDDVerticalLayoutDropHandler
         // Update the details
         Widget slot = getSlot(drag.getElementOver(), drag.getCurrentGwtEvent());
         getLayout().updateDragDetails(slot, drag);
+        getSlotGeometry().release();
 
         return getLayout().postDropHook(drag) && super.drop(drag);
     };
 
     @Override
     protected Slot getSlot(Element e, NativeEvent event) {
+        if (getSlotGeometry().isActive()) {
+            return findSlotFromGeometry(12, event);
+        }
+
         Slot slot = null;
         if (getLayout().getElement() == e) {
             // Most likely between components, use the closest one in that case
@@ -77,7 +83,7 @@ public class VDDVerticalLayoutDropHandler
     }
 
     @Override
-    public void dragOver(VDragEvent drag) {
+    protected void processDragOver(VDragEvent drag) {
 
         // Remove any emphasis
         getLayout().emphasis(null, null);
@@ -121,8 +127,11 @@ public class VDDVerticalLayoutDropHandler
 
     @Override
     public void dragLeave(VDragEvent drag) {
+        super.dragLeave(drag);
         getLayout().emphasis(null, drag);
 
+        getSlotGeometry().release();
+
         getLayout().postLeaveHook(drag);
     };
 
@@ -27,6 +27,7 @@ import fi.jasoft.dragdroplayouts.v7.DDVerticalLayout
 import fi.jasoft.dragdroplayouts.drophandlers
         .AbstractDefaultLayoutDropHandler;
 import fi.jasoft.dragdroplayouts.events.LayoutBoundTransferable;
+import fi.jasoft.dragdroplayouts.interfaces.ComponentMoveSupport;
 
 /**
  * A default drop handler for vertical layouts
@@ -81,9 +82,6 @@ public class DefaultVerticalLayoutDropHandler
             return;
         }
 
-        // Detach
-        layout.removeComponent(comp);
-
         // Account for detachment if new index is bigger then old index
         if (idx > oldIndex) {
             idx--;
@@ -97,12 +95,9 @@ public class DefaultVerticalLayoutDropHandler
             idx++;
         }
 
-        // Add component
-        if (idx >= 0) {
-            layout.addComponent(comp, idx);
-        } else {
-            layout.addComponent(comp);
-        }
+        // Move in place, keeps the component attached
+        ((ComponentMoveSupport) layout).moveComponent(comp,
+                idx >= 0 ? idx : layout.getComponentCount() - 1);
 
         // Add component alignment if given
         if (dropAlignment != null) {
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import com.vaadin.event.TransferableImpl;
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.TargetDetailsImpl;
+import com.vaadin.shared.ui.dd.VerticalDropLocation;
+import com.vaadin.ui.Button;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.Label;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+import fi.jasoft.dragdroplayouts.events.CellInRange;
+import fi.jasoft.dragdroplayouts.events.ComponentTypeIs;
+import fi.jasoft.dragdroplayouts.events.IndexInRange;
+import fi.jasoft.dragdroplayouts.events.MaxChildren;
+import fi.jasoft.dragdroplayouts.events.NotIntoOwnDescendant;
+import fi.jasoft.dragdroplayouts.events.SourceLayoutIs;
+
+/**
+ * Tests the decisions of the client side verifiable accept criteria
+ */
+public class AcceptCriteriaTest extends TestCase {
+
+  private static final int CHILDREN = 50;
+
+  /**
+   * Each criterion of the pack on its own
+   */
+  @Test
+  public void testCriteriaDecisions() {
+    DDVerticalLayout source = createLayout();
+    DDVerticalLayout target = createLayout();
+    DDVerticalLayout nested = new DDVerticalLayout();
+    Label label = (Label) source.getComponent(0);
+    target.addComponent(nested);
+
+    assertTrue(new MaxChildren(CHILDREN + 2).accept(event(source, label,
+        target, 0)));
+    assertFalse(new MaxChildren(CHILDREN + 1).accept(event(source, label,
+        target, 0)));
+    assertTrue(new MaxChildren(1).accept(event(target, nested, target, 0)));
+
+    assertTrue(new IndexInRange(0, 9).accept(event(source, label, target, 9)));
+    assertFalse(new IndexInRange(0, 9).accept(event(source, label, target,
+        10)));
+
+    Map<String, Object> cell = new HashMap<String, Object>();
+    cell.put(Constants.DROP_DETAIL_COLUMN, 2);
+    cell.put(Constants.DROP_DETAIL_ROW, "3");
+    assertTrue(new CellInRange(0, 0, 2, 3).accept(event(source, label, target,
+        cell)));
+    assertFalse(new CellInRange(0, 0, 1, 3).accept(event(source, label,
+        target, cell)));
+
+    assertTrue(new ComponentTypeIs(Label.class).accept(event(source, label,
+        target, 0)));
+    assertFalse(new ComponentTypeIs(Button.class).accept(event(source, label,
+        target, 0)));
+
+    assertTrue(new SourceLayoutIs(source).accept(event(source, label, target,
+        0)));
+    assertFalse(new SourceLayoutIs(target).accept(event(source, label,
+        target, 0)));
+
+    assertTrue(NotIntoOwnDescendant.get().accept(event(source, label, target,
+        0)));
+    assertFalse(NotIntoOwnDescendant.get().accept(event(target, target,
+        nested, 0)));
+  }
+
+  private static DDVerticalLayout createLayout() {
+    DDVerticalLayout layout = new DDVerticalLayout();
+    for (int i = 0; i < CHILDREN; i++) {
+      layout.addComponent(new Label(String.valueOf(i)));
+    }
+    return layout;
+  }
+
+  private static DragAndDropEvent event(DDVerticalLayout source,
+      Component component, DDVerticalLayout target, int index) {
+    Map<String, Object> details = new HashMap<String, Object>();
+    details.put(Constants.DROP_DETAIL_TO, index);
+    details.put(Constants.DROP_DETAIL_VERTICAL_DROP_LOCATION,
+        VerticalDropLocation.MIDDLE.name());
+    return event(source, component, target, details);
+  }
+
+  private static DragAndDropEvent event(DDVerticalLayout source,
+      Component component, DDVerticalLayout target,
+      Map<String, Object> details) {
+    Map<String, Object> transferable = new HashMap<String, Object>();
+    transferable.put(Constants.TRANSFERABLE_DETAIL_COMPONENT, component);
+    return new DragAndDropEvent(new TransferableImpl(source, transferable),
+        new TargetDetailsImpl(details, target));
+  }
+}
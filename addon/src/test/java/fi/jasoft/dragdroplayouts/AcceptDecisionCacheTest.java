@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import com.vaadin.event.TransferableImpl;
+import com.vaadin.event.dd.DragAndDropEvent;
+import com.vaadin.event.dd.DropTarget;
+import com.vaadin.event.dd.TargetDetailsImpl;
+import com.vaadin.event.dd.acceptcriteria.ServerSideCriterion;
+import com.vaadin.shared.ui.dd.VerticalDropLocation;
+import com.vaadin.ui.Button;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.Label;
+
+import fi.jasoft.dragdroplayouts.client.ui.Constants;
+
+/**
+ * Tests the keys and the invalidation of the accept decision cache
+ */
+public class AcceptDecisionCacheTest extends TestCase {
+
+  private AcceptDecisionCache cache;
+
+  private DDVerticalLayout source;
+
+  private DDVerticalLayout target;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    cache = new AcceptDecisionCache();
+    source = new DDVerticalLayout();
+    target = new DDVerticalLayout();
+  }
+
+  /**
+   * The same criterion, component class and location use one evaluation
+   */
+  @Test
+  public void testHitForSameCriterionAndClass() {
+    CountingCriterion criterion = new CountingCriterion(true);
+
+    assertTrue(cache.accept(criterion, event(new Label("a"), 0)));
+    assertTrue(cache.accept(criterion, event(new Label("b"), 0)));
+    assertEquals(1, criterion.count);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  /**
+   * Two criteria checked for the same drag do not share decisions
+   */
+  @Test
+  public void testMissForDifferentCriterion() {
+    CountingCriterion accepting = new CountingCriterion(true);
+    CountingCriterion rejecting = new CountingCriterion(false);
+    Label label = new Label();
+
+    assertTrue(cache.accept(accepting, event(label, 0)));
+    assertFalse(cache.accept(rejecting, event(label, 0)));
+    assertEquals(1, accepting.count);
+    assertEquals(1, rejecting.count);
+    assertEquals(2, cache.size());
+  }
+
+  /**
+   * Components of another class are evaluated again, and so are other
+   * components of the same class when not keyed by class
+   */
+  @Test
+  public void testMissForDifferentComponentClass() {
+    CountingCriterion criterion = new CountingCriterion(true);
+
+    cache.accept(criterion, event(new Label(), 0));
+    cache.accept(criterion, event(new Button(), 0));
+    assertEquals(2, criterion.count);
+
+    // Another location is another key
+    cache.accept(criterion, event(new Label(), 1));
+    assertEquals(3, criterion.count);
+
+    cache.setKeyedByComponentClass(false);
+    assertEquals(0, cache.size());
+    Label label = new Label();
+    cache.accept(criterion, event(label, 0));
+    cache.accept(criterion, event(label, 0));
+    cache.accept(criterion, event(new Label(), 0));
+    assertEquals(5, criterion.count);
+  }
+
+  /**
+   * Invalidated decisions are evaluated again
+   */
+  @Test
+  public void testInvalidation() {
+    CountingCriterion first = new CountingCriterion(true);
+    CountingCriterion second = new CountingCriterion(true);
+    Label label = new Label();
+
+    cache.accept(first, event(label, 0));
+    cache.accept(second, event(label, 0));
+    cache.invalidate(first);
+    cache.accept(first, event(label, 0));
+    cache.accept(second, event(label, 0));
+    assertEquals(2, first.count);
+    assertEquals(1, second.count);
+
+    cache.invalidate(Label.class);
+    assertEquals(0, cache.size());
+
+    cache.accept(first, event(label, 0));
+    cache.invalidate((DropTarget) target);
+    assertEquals(0, cache.size());
+
+    cache.accept(first, event(label, 0));
+    cache.invalidate();
+    cache.accept(first, event(label, 0));
+    assertEquals(5, first.count);
+  }
+
+  /**
+   * Expired decisions are evaluated again
+   */
+  @Test
+  public void testTimeToLive() {
+    CountingCriterion criterion = new CountingCriterion(true);
+    cache.setTimeToLive(0);
+
+    cache.accept(criterion, event(new Label(), 0));
+    cache.accept(criterion, event(new Label(), 0));
+    assertEquals(2, criterion.count);
+  }
+
+  private DragAndDropEvent event(Component component, int index) {
+    Map<String, Object> details = new HashMap<String, Object>();
+    details.put(Constants.DROP_DETAIL_TO, index);
+    details.put(Constants.DROP_DETAIL_VERTICAL_DROP_LOCATION,
+        VerticalDropLocation.MIDDLE.name());
+    Map<String, Object> transferable = new HashMap<String, Object>();
+    transferable.put(Constants.TRANSFERABLE_DETAIL_COMPONENT, component);
+    return new DragAndDropEvent(new TransferableImpl(source, transferable),
+        new TargetDetailsImpl(details, target));
+  }
+
+  @SuppressWarnings("serial")
+  private static class CountingCriterion extends ServerSideCriterion {
+
+    private final boolean accepted;
+
+    private int count = 0;
+
+    private CountingCriterion(boolean accepted) {
+      this.accepted = accepted;
+    }
+
+    @Override
+    public boolean accept(DragAndDropEvent dragEvent) {
+      count++;
+      return accepted;
+    }
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import com.vaadin.ui.Component;
+import com.vaadin.ui.GridLayout.OutOfBoundsException;
+import com.vaadin.ui.GridLayout.OverlapsException;
+import com.vaadin.ui.Label;
+
+/**
+ * Tests the occupancy matrix and the batch moves of the grid layout
+ */
+public class DDGridLayoutTest extends TestCase {
+
+  /**
+   * Cells are owned by the component spanning them
+   */
+  @Test
+  public void testOccupiedCells() {
+    DDGridLayout layout = new DDGridLayout(4, 3);
+    Label a = new Label("a");
+    Label b = new Label("b");
+    layout.addComponent(a, 0, 0, 1, 1);
+    layout.addComponent(b, 3, 2);
+
+    GridOccupancy occupancy = layout.getOccupancy();
+    assertSame(a, occupancy.getComponent(0, 0));
+    assertSame(a, occupancy.getComponent(1, 1));
+    assertSame(b, occupancy.getComponent(3, 2));
+    assertNull(occupancy.getComponent(2, 0));
+    assertNull(occupancy.getComponent(-1, 0));
+    assertNull(occupancy.getComponent(4, 0));
+
+    layout.removeComponent(a);
+    assertNull(layout.getOccupancy().getComponent(1, 1));
+    assertSame(b, layout.getOccupancy().getComponent(3, 2));
+  }
+
+  /**
+   * An area is free only if none of its cells is spanned by another component
+   */
+  @Test
+  public void testSpanOverlaps() {
+    DDGridLayout layout = new DDGridLayout(4, 4);
+    Label a = new Label("a");
+    layout.addComponent(a, 1, 1, 2, 2);
+    GridOccupancy occupancy = layout.getOccupancy();
+
+    assertTrue(new GridArea(0, 0, 1, 1).overlaps(new GridArea(1, 1, 2, 2)));
+    assertFalse(new GridArea(0, 0, 0, 3).overlaps(new GridArea(1, 1, 2, 2)));
+
+    assertFalse(occupancy.isFree(new GridArea(2, 2, 3, 3)));
+    assertFalse(occupancy.isFree(new GridArea(0, 0, 3, 1)));
+    assertTrue(occupancy.isFree(new GridArea(3, 0, 3, 3)));
+    assertTrue(occupancy.isFree(new GridArea(2, 2, 3, 3), a));
+    assertFalse(occupancy.isFree(new GridArea(3, 3, 4, 3)));
+
+    assertEquals(new GridArea(0, 0, 1, 0),
+        occupancy.findNearestFree(1, 1, 2, 1));
+    assertNull(occupancy.findNearestFree(0, 0, 4, 4));
+  }
+
+  /**
+   * Two components swap places in one batch
+   */
+  @Test
+  public void testSwap() {
+    DDGridLayout layout = new DDGridLayout(2, 2);
+    Label a = new Label("a");
+    Label b = new Label("b");
+    layout.addComponent(a, 0, 0);
+    layout.addComponent(b, 1, 1);
+
+    Map<Component, GridArea> moves = new HashMap<Component, GridArea>();
+    moves.put(a, layout.getGridArea(b));
+    moves.put(b, layout.getGridArea(a));
+    layout.moveComponents(moves);
+
+    assertEquals(new GridArea(1, 1, 1, 1), layout.getGridArea(a));
+    assertEquals(new GridArea(0, 0, 0, 0), layout.getGridArea(b));
+    assertSame(a, layout.getOccupancy().getComponent(1, 1));
+    assertSame(b, layout.getOccupancy().getComponent(0, 0));
+    assertEquals(2, layout.getComponentCount());
+  }
+
+  /**
+   * A failing batch leaves every component where it was
+   */
+  @Test
+  public void testFailedMoveRestores() {
+    DDGridLayout layout = new DDGridLayout(3, 1);
+    Label a = new Label("a");
+    Label b = new Label("b");
+    Label c = new Label("c");
+    layout.addComponent(a, 0, 0);
+    layout.addComponent(b, 1, 0);
+    layout.addComponent(c, 2, 0);
+
+    Map<Component, GridArea> moves = new HashMap<Component, GridArea>();
+    moves.put(a, new GridArea(1, 0, 1, 0));
+    try {
+      layout.moveComponents(moves);
+      fail("Moved over a component not being moved");
+    } catch (OverlapsException e) {
+      // Expected
+    }
+
+    moves.put(a, new GridArea(3, 0, 3, 0));
+    try {
+      layout.moveComponents(moves);
+      fail("Moved outside the grid");
+    } catch (OutOfBoundsException e) {
+      // Expected
+    }
+
+    assertEquals(new GridArea(0, 0, 0, 0), layout.getGridArea(a));
+    assertSame(a, layout.getOccupancy().getComponent(0, 0));
+    assertSame(b, layout.getOccupancy().getComponent(1, 0));
+  }
+
+  /**
+   * Compacting moves every component up as far as it fits, topmost
+   * components first
+   */
+  @Test
+  public void testCompact() {
+    DDGridLayout layout = new DDGridLayout(3, 4);
+    Label a = new Label("a");
+    Label b = new Label("b");
+    Label c = new Label("c");
+    Label d = new Label("d");
+    layout.addComponent(a, 0, 1);
+    layout.addComponent(b, 1, 3);
+    layout.addComponent(c, 2, 0);
+    layout.addComponent(d, 0, 3);
+
+    assertEquals(3, layout.compact());
+    assertEquals(new GridArea(0, 0, 0, 0), layout.getGridArea(a));
+    assertEquals(new GridArea(1, 0, 1, 0), layout.getGridArea(b));
+    assertEquals(new GridArea(2, 0, 2, 0), layout.getGridArea(c));
+    assertEquals(new GridArea(0, 1, 0, 1), layout.getGridArea(d));
+
+    GridOccupancy occupancy = layout.getOccupancy();
+    assertSame(a, occupancy.getComponent(0, 0));
+    assertSame(b, occupancy.getComponent(1, 0));
+    assertSame(c, occupancy.getComponent(2, 0));
+    assertSame(d, occupancy.getComponent(0, 1));
+    assertNull(occupancy.getComponent(0, 3));
+    assertEquals(0, layout.compact());
+  }
+
+  /**
+   * Compacting after a change only visits the columns of the changed areas,
+   * the rest of the grid is expected to be compact already
+   */
+  @Test
+  public void testCompactChanged() {
+    DDGridLayout layout = new DDGridLayout(3, 4);
+    Label a = new Label("a");
+    Label b = new Label("b");
+    Label c = new Label("c");
+    Label d = new Label("d");
+    Label e = new Label("e");
+    layout.addComponent(a, 0, 0);
+    layout.addComponent(b, 1, 0);
+    layout.addComponent(c, 0, 1);
+    layout.addComponent(d, 0, 2);
+    layout.addComponent(e, 2, 2);
+
+    GridArea vacated = layout.getGridArea(a);
+    layout.removeComponent(a);
+    assertEquals(2, layout.compact(Arrays.asList(vacated)));
+
+    assertEquals(new GridArea(1, 0, 1, 0), layout.getGridArea(b));
+    assertEquals(new GridArea(0, 0, 0, 0), layout.getGridArea(c));
+    assertEquals(new GridArea(0, 1, 0, 1), layout.getGridArea(d));
+    assertSame(c, layout.getOccupancy().getComponent(0, 0));
+    assertNull(layout.getOccupancy().getComponent(0, 2));
+
+    // Column 2 did not change so its gap is left alone
+    assertEquals(new GridArea(2, 2, 2, 2), layout.getGridArea(e));
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import com.vaadin.server.ClientConnectorResources;
+import com.vaadin.server.ThemeResource;
+import com.vaadin.ui.CssLayout;
+
+/**
+ * Tests the drag caption icon registry
+ */
+public class DragIconRegistryTest extends TestCase {
+
+  private CssLayout layout;
+
+  private DragIconRegistry registry;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    layout = new CssLayout();
+    registry = new DragIconRegistry(layout);
+  }
+
+  /**
+   * Tests that identical icons share a single resource
+   */
+  @Test
+  public void testIdenticalIconsShared() {
+    String key1 = registry.register("child1", new ThemeResource("icon.png"));
+    String key2 = registry.register("child2", new ThemeResource("icon.png"));
+
+    assertEquals(key1, key2);
+    assertEquals(1, registry.size());
+    assertEquals(new ThemeResource("icon.png"),
+        ClientConnectorResources.getResource(layout, key1));
+  }
+
+  /**
+   * Tests that the key of an icon stays the same while it is in use
+   */
+  @Test
+  public void testStableKeys() {
+    String key = registry.register("child1", new ThemeResource("icon.png"));
+    for (int i = 0; i < 10; i++) {
+      assertEquals(key, registry.register("child1", new ThemeResource("icon.png")));
+    }
+    assertEquals(key, registry.getKey(new ThemeResource("icon.png")));
+  }
+
+  /**
+   * Tests that an icon is removed once the last holder releases it
+   */
+  @Test
+  public void testUnusedIconsEvicted() {
+    String key = registry.register("child1", new ThemeResource("icon.png"));
+    registry.register("child2", new ThemeResource("icon.png"));
+
+    registry.release("child1");
+    assertEquals(1, registry.size());
+    assertNotNull(ClientConnectorResources.getResource(layout, key));
+
+    registry.register("child2", null);
+    assertEquals(0, registry.size());
+    assertNull(ClientConnectorResources.getResource(layout, key));
+  }
+
+  /**
+   * Tests that the resource count stays bounded when captions keep changing
+   * and children are removed
+   */
+  @Test
+  public void testResourceCountBounded() {
+    List<String> children = new ArrayList<String>();
+    for (int i = 0; i < 10; i++) {
+      children.add("child" + i);
+    }
+
+    List<String> keys = new ArrayList<String>();
+    for (int round = 0; round < 1000; round++) {
+      for (String child : children) {
+        keys.add(registry.register(child, new ThemeResource(child + "-" + round + ".png")));
+      }
+      registry.retain(children);
+      assertTrue(registry.size() <= children.size());
+    }
+
+    int registered = 0;
+    for (String key : keys) {
+      if (ClientConnectorResources.getResource(layout, key) != null) {
+        registered++;
+      }
+    }
+    assertEquals(children.size(), registered);
+
+    registry.retain(Collections.emptyList());
+    assertEquals(0, registry.size());
+    for (String key : keys) {
+      assertNull(ClientConnectorResources.getResource(layout, key));
+    }
+  }
+}
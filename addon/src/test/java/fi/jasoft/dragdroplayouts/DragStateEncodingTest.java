@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 John Ahlroos
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import com.vaadin.shared.Connector;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.Label;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import fi.jasoft.dragdroplayouts.client.ui.interfaces.DDLayoutState;
+
+/**
+ * Tests the compact encoding of the draggable and non grabbable children
+ */
+public class DragStateEncodingTest extends TestCase {
+
+  private static final int CHILDREN = 2000;
+
+  /**
+   * All children draggable, the default
+   * {@link fi.jasoft.dragdroplayouts.interfaces.DragFilter#ALL}
+   */
+  @Test
+  public void testAllDraggable() {
+    List<Component> children = createChildren();
+    DDLayoutState legacy = createState(children, 1, 0);
+    DDLayoutState compact = encode(children, legacy);
+
+    assertTrue(payload(compact).length() < payload(legacy).length());
+    assertTrue(compact.draggableByDefault);
+    assertTrue(compact.draggableExceptions.isEmpty());
+    assertTrue(compact.draggable.isEmpty());
+  }
+
+  /**
+   * Every tenth child is not draggable
+   */
+  @Test
+  public void testMostlyDraggable() {
+    List<Component> children = createChildren();
+    DDLayoutState legacy = createState(children, 10, 0);
+    DDLayoutState compact = encode(children, legacy);
+
+    assertTrue(payload(compact).length() < payload(legacy).length());
+    assertTrue(compact.draggableByDefault);
+    assertEquals(legacy.draggable.size(),
+        CHILDREN - compact.draggableExceptions.size());
+    assertFalse(compact.draggableExceptions.contains(
+        children.get(1).getConnectorId()));
+    assertTrue(compact.draggableExceptions.contains(
+        children.get(0).getConnectorId()));
+  }
+
+  /**
+   * Only every tenth child can be grabbed, e.g. a grab filter allowing only
+   * drag handles
+   */
+  @Test
+  public void testMostlyNonGrabbable() {
+    List<Component> children = createChildren();
+    DDLayoutState legacy = createState(children, 1, 10);
+    Label nested = new Label() {
+      @Override
+      public String getConnectorId() {
+        return "nested";
+      }
+    };
+    legacy.nonGrabbable.add(nested);
+    DDLayoutState compact = encode(children, legacy);
+
+    assertTrue(payload(compact).length() < payload(legacy).length());
+    assertTrue(compact.nonGrabbableByDefault);
+    assertEquals(CHILDREN / 10, compact.nonGrabbableExceptions.size());
+    assertTrue(compact.nonGrabbableExceptions.contains(
+        children.get(0).getConnectorId()));
+
+    // Nested components are listed as is
+    assertEquals(1, compact.nonGrabbable.size());
+    assertSame(nested, compact.nonGrabbable.get(0));
+  }
+
+  private static List<Component> createChildren() {
+    List<Component> children = new ArrayList<Component>();
+    for (int i = 0; i < CHILDREN; i++) {
+      final String id = String.valueOf(100 + i);
+      children.add(new Label() {
+        @Override
+        public String getConnectorId() {
+          return id;
+        }
+      });
+    }
+    return children;
+  }
+
+  /**
+   * Builds the legacy state, every nonDraggableEvery:th child is not
+   * draggable and all but every grabbableEvery:th child is not grabbable
+   */
+  private static DDLayoutState createState(List<Component> children,
+      int nonDraggableEvery, int grabbableEvery) {
+    DDLayoutState state = new DDLayoutState();
+    for (int i = 0; i < children.size(); i++) {
+      if (nonDraggableEvery == 1 || i % nonDraggableEvery != 0) {
+        state.draggable.add(children.get(i));
+      }
+      if (grabbableEvery > 0 && i % grabbableEvery != 0) {
+        state.nonGrabbable.add(children.get(i));
+      }
+    }
+    return state;
+  }
+
+  private static DDLayoutState encode(List<Component> children,
+      DDLayoutState legacy) {
+    DDLayoutState compact = new DDLayoutState();
+    compact.draggable = new ArrayList<Connector>(legacy.draggable);
+    compact.nonGrabbable = new ArrayList<Connector>(legacy.nonGrabbable);
+    DDUtil.encodeDraggableCompact(children, compact);
+    return compact;
+  }
+
+  /**
+   * Connector lists are sent as arrays of connector ids
+   */
+  private static String payload(DDLayoutState state) {
+    JsonObject json = Json.createObject();
+    json.put("draggable", ids(state.draggable));
+    json.put("nonGrabbable", ids(state.nonGrabbable));
+    json.put("compactDraggable", state.compactDraggable);
+    json.put("draggableByDefault", state.draggableByDefault);
+    json.put("draggableExceptions", strings(state.draggableExceptions));
+    json.put("nonGrabbableByDefault", state.nonGrabbableByDefault);
+    json.put("nonGrabbableExceptions",
+        strings(state.nonGrabbableExceptions));
+    return json.toJson();
+  }
+
+  private static JsonArray ids(List<Connector> connectors) {
+    JsonArray array = Json.createArray();
+    for (Connector c : connectors) {
+      array.set(array.length(), c.getConnectorId());
+    }
+    return array;
+  }
+
+  private static JsonArray strings(Iterable<String> values) {
+    JsonArray array = Json.createArray();
+    for (String value : values) {
+      array.set(array.length(), value);
+    }
+    return array;
+  }
+}
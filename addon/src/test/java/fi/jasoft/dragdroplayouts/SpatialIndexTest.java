@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 John Ahlroos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package fi.jasoft.dragdroplayouts;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import com.vaadin.ui.Label;
+
+import fi.jasoft.dragdroplayouts.client.ui.absolutelayout.SnapEdges;
+
+/**
+ * Tests the spatial index of the absolute layout and its snap edges
+ */
+public class SpatialIndexTest extends TestCase {
+
+  /**
+   * The nearest edge within the threshold is found from either side
+   */
+  @Test
+  public void testNearestEdge() {
+    SnapEdges edges = edges(10, 50, 100);
+
+    assertEquals(Integer.valueOf(50), edges.findNearest(50, 5));
+    assertEquals(Integer.valueOf(50), edges.findNearest(47, 5));
+    assertEquals(Integer.valueOf(50), edges.findNearest(54, 5));
+    assertEquals(Integer.valueOf(100), edges.findNearest(96, 5));
+    assertNull(edges.findNearest(30, 5));
+    assertNull(edges.findNearest(56, 5));
+
+    // A shared edge stays until every component using it is removed
+    edges.add(50);
+    edges.remove(50);
+    assertEquals(Integer.valueOf(50), edges.findNearest(50, 0));
+    edges.remove(50);
+    assertNull(edges.findNearest(50, 0));
+    assertEquals(2, edges.size());
+  }
+
+  /**
+   * The following edge wins a tie between two edges and the start of a
+   * span wins a tie between its ends
+   */
+  @Test
+  public void testTies() {
+    SnapEdges edges = edges(40, 60);
+    assertEquals(Integer.valueOf(60), edges.findNearest(50, 10));
+
+    // The start is 2 from 40 and the end 2 from 60
+    edges = edges(40, 60);
+    assertEquals(-2, edges.snap(42, 16, 5));
+  }
+
+  /**
+   * Nothing is found or snapped to in an empty index
+   */
+  @Test
+  public void testEmpty() {
+    SnapEdges edges = new SnapEdges();
+    assertNull(edges.findNearest(0, 100));
+    assertEquals(0, edges.snap(10, 20, 100));
+    assertEquals(0, new SnapEdges(null, null).size());
+
+    SpatialIndex index = new SpatialIndex();
+    assertEquals(0, index.size());
+    assertTrue(index.findOverlapping(0, 0, 1000, 1000, null).isEmpty());
+    assertEquals(13, index.snapLeft(null, 13, 20, 10));
+    assertEquals(13, index.snapTop(new Label(), 13, 20, 10));
+  }
+
+  /**
+   * Queries outside the indexed area find nothing but still snap to the
+   * outermost edges within the threshold
+   */
+  @Test
+  public void testOutOfBounds() {
+    SpatialIndex index = new SpatialIndex();
+    Label a = new Label("a");
+    index.put(a, 0, 0, 100, 50);
+
+    assertTrue(index.findOverlapping(-500, -500, 100, 100, null).isEmpty());
+    assertTrue(index.findOverlapping(5000, 5000, 10, 10, null).isEmpty());
+    assertEquals(Arrays.asList(a),
+        index.findOverlapping(-10, -10, 20, 20, null));
+
+    SnapEdges edges = index.getHorizontalEdges();
+    assertNull(edges.findNearest(-50, 10));
+    assertEquals(Integer.valueOf(0), edges.findNearest(-5, 10));
+    assertEquals(Integer.valueOf(100), edges.findNearest(105, 10));
+  }
+
+  /**
+   * A moved component snaps to the others but not to its own edges
+   */
+  @Test
+  public void testSnapIgnoresOwnEdges() {
+    SpatialIndex index = new SpatialIndex();
+    Label a = new Label("a");
+    Label b = new Label("b");
+    index.put(a, 0, 0, 100, 50);
+    index.put(b, 200, 100, 50, 50);
+
+    assertEquals(203, index.snapLeft(b, 203, 50, 5));
+    assertEquals(100, index.snapLeft(b, 103, 50, 5));
+    assertEquals(50, index.snapTop(b, 48, 50, 5));
+    assertEquals(4, index.getHorizontalEdges().size());
+
+    index.remove(b);
+    assertFalse(index.contains(b));
+    assertEquals(Arrays.asList(a),
+        index.findOverlapping(0, 0, 300, 300, null));
+    assertTrue(index.findOverlapping(0, 0, 300, 300, a).isEmpty());
+  }
+
+  private static SnapEdges edges(int... values) {
+    SnapEdges edges = new SnapEdges();
+    for (int value : values) {
+      edges.add(value);
+    }
+    return edges;
+  }
+}